@@ -0,0 +1,12 @@
+#!/bin/bash
+# Runs once on the primary's first start (docker-entrypoint-initdb.d):
+# replication role, its slot and a pg_hba entry for the streaming replica.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-EOSQL
+	CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD}';
+	SELECT pg_create_physical_replication_slot('replica1');
+EOSQL
+
+# "host all all all" does not match replication connections
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
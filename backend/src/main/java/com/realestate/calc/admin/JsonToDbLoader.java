@@ -22,7 +22,7 @@ public class JsonToDbLoader implements CommandLineRunner {
     private static final Logger log = LoggerFactory.getLogger(JsonToDbLoader.class);
 
     private final JdbcTemplate jdbcTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
     private static final Map<String, String> PREF_NAMES_JA = Map.ofEntries(
             Map.entry("01", "北海道"), Map.entry("02", "青森県"), Map.entry("03", "岩手県"), Map.entry("04", "宮城県"),
             Map.entry("05", "秋田県"), Map.entry("06", "山形県"), Map.entry("07", "福島県"), Map.entry("08", "茨城県"),
@@ -43,8 +43,9 @@ public class JsonToDbLoader implements CommandLineRunner {
     @Value("${mlit.jsonToDb.path:./data/mlit/municipalities_ja.json}")
     private String jsonPath;
 
-    public JsonToDbLoader(JdbcTemplate jdbcTemplate) {
+    public JsonToDbLoader(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
         this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -18,8 +18,9 @@ public class WebConfig implements WebMvcConfigurer {
                         "https://hstarsp.net",
                         "https://www.hstarsp.net",
                         "http://localhost")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(true);
     }
 }
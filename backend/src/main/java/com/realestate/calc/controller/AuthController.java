@@ -1,6 +1,7 @@
 package com.realestate.calc.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.realestate.calc.dto.UserCredential;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +23,12 @@ public class AuthController {
     private static final String USERS_DIR_NAME = "users";
     private static final String JSON_EXT = ".json";
 
+    private final ObjectWriter credentialWriter;
+
+    public AuthController(ObjectMapper mapper) {
+        this.credentialWriter = mapper.writerFor(UserCredential.class);
+    }
+
     private static Path getUsersDir() {
         Path cwd = Paths.get(System.getProperty("user.dir"));
         Path root = cwd.getFileName() != null && cwd.getFileName().toString().equals(BACKEND_DIR_NAME)
@@ -46,8 +53,7 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.CONFLICT).body("User already exists");
             }
 
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.writeValue(userFile.toFile(), credential);
+            credentialWriter.writeValue(userFile.toFile(), credential);
             return ResponseEntity.status(HttpStatus.CREATED).body("Signed up");
         } catch (IOException e) {
             log.error("Signup failed", e);
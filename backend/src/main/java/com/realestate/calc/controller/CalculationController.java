@@ -2,9 +2,12 @@ package com.realestate.calc.controller;
 
 import com.realestate.calc.dto.CalculationRequest;
 import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.dto.ColumnarSchedule;
 import com.realestate.calc.service.CalculationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
@@ -15,14 +18,35 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CalculationController {
 
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+
     @Autowired
     private CalculationService calculationService;
 
-    @PostMapping("/calculate")
-    public ResponseEntity<CalculationResult> calculate(@Valid @RequestBody CalculationRequest request) {
+    /*
+     * JSON이 기본. layout=columnar이면 상환 스케줄을 열 단위 배열(scheduleColumns)로 바꿔
+     * 420개 행 객체와 날짜 문자열, 반복되는 필드명을 생략
+     */
+    @PostMapping(value = "/calculate", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CalculationResult> calculate(@Valid @RequestBody CalculationRequest request,
+            @RequestParam(required = false) String layout) {
+        return respond(request, "columnar".equals(layout));
+    }
+
+    // Smile/CBOR (Accept 협상으로 선택됨)은 항상 열 단위
+    @PostMapping(value = "/calculate", produces = { SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<CalculationResult> calculateBinary(@Valid @RequestBody CalculationRequest request) {
+        return respond(request, true);
+    }
+
+    private ResponseEntity<CalculationResult> respond(CalculationRequest request, boolean columnar) {
         try {
             CalculationResult result = calculationService.calculate(request);
-            return ResponseEntity.ok(result);
+            if (columnar) {
+                result.setScheduleColumns(ColumnarSchedule.of(result.getRepaymentSchedule()));
+                result.setRepaymentSchedule(null);
+            }
+            return ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(result);
         } catch (Exception e) {
             log.error("Exception during calculation", e);
             return ResponseEntity.badRequest().build();
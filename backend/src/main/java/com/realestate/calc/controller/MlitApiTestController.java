@@ -1,15 +1,20 @@
 package com.realestate.calc.controller;
 
 import com.realestate.calc.mlit.MlitApiClient;
+import com.realestate.calc.mlit.MlitJson;
 import com.realestate.calc.mlit.MlitPriceIngestService;
 import com.realestate.calc.mlit.MlitPriceBatchService;
 import com.realestate.calc.mlit.MlitPriceQueryService;
+import com.realestate.calc.mlit.MlitRangeExecutor;
+import com.realestate.calc.mlit.MlitRateLimiter;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestClientResponseException;
 import java.util.Objects;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,7 +22,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,6 +34,11 @@ public class MlitApiTestController {
     private final MlitPriceIngestService ingestService;
     private final MlitPriceBatchService batchService;
     private final MlitPriceQueryService queryService;
+    private final MlitRangeExecutor rangeExecutor;
+    private final MlitJson json;
+    private final MeterRegistry meterRegistry;
+    // mode=db never ingests, so its reads may be served by a replica
+    private final TransactionTemplate readOnlyTx;
     private static final String K_AREA = "area";
     private static final String K_CITY = "city";
     private static final String K_STATION = "station";
@@ -34,7 +46,6 @@ public class MlitApiTestController {
     private static final String K_PRICE_CLASS = "priceClassification";
     private static final String K_QUARTER = "quarter";
     private static final String K_LANGUAGE = "language";
-    private static final String K_STATUS = "status";
     private static final String H_INGEST_ID = "X-MLIT-Ingest-Query-Id";
     private static final String H_INGEST_COUNT = "X-MLIT-Ingest-Count";
     private static final String H_INGEST_STATUS = "X-MLIT-Ingest-Status";
@@ -42,19 +53,31 @@ public class MlitApiTestController {
     // Source tag constants
     private static final String SRC_DB = "DB";
     private static final String SRC_MLIT = "MLIT";
-    private static final String SRC_SERVICE = "SERVICE";
     private static final String SRC_SERVICE_DB = "SERVICE=DB";
     private static final String SRC_SERVICE_MLIT = "SERVICE=MLIT";
-    // JSON source key snippets for fallback string operations
+    private static final String SRC_NONE = "NONE";
+    // JSON source key snippet for fallback string operations
     private static final String SRC_JSON_KEY = "\"source\":";
-    private static final String SRC_JSON_FIELD = "\"source\":\"";
+
+    /** A /prices answer and the source tag written into its body, kept as a value for the metrics. */
+    private record Priced(ResponseEntity<String> response, String source) {
+        String body() {
+            return response.getBody();
+        }
+    }
 
     public MlitApiTestController(MlitApiClient client, MlitPriceIngestService ingestService,
-            MlitPriceBatchService batchService, MlitPriceQueryService queryService) {
+            MlitPriceBatchService batchService, MlitPriceQueryService queryService, MlitRangeExecutor rangeExecutor,
+            MlitJson json, MeterRegistry meterRegistry, PlatformTransactionManager txManager) {
         this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
         this.ingestService = ingestService;
         this.batchService = batchService;
         this.queryService = queryService;
+        this.rangeExecutor = rangeExecutor;
+        this.json = json;
     }
 
     @GetMapping(value = "/prices", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -69,6 +92,15 @@ public class MlitApiTestController {
             @RequestParam(required = false, name = "quarter") String quarter,
             @RequestParam(required = false, name = "language") String language,
             @RequestParam(required = false, name = "mode", defaultValue = "service") String mode) {
+        Priced priced = resolvePrices(area, city, station, year, startYear, endYear,
+                priceClassification, quarter, language, mode);
+        recordSource(mode, priced);
+        return priced.response();
+    }
+
+    private Priced resolvePrices(String area, String city, String station, String year,
+            String startYear, String endYear, String priceClassification, String quarter, String language,
+            String mode) {
         Map<String, String> qp = new HashMap<>();
         putIfPresent(qp, K_AREA, area);
         putIfPresent(qp, K_CITY, city);
@@ -81,9 +113,9 @@ public class MlitApiTestController {
 
         // Optional guard: require at least one location filter to avoid upstream 400s
         if (!qp.containsKey(K_AREA) && !qp.containsKey(K_CITY) && !qp.containsKey(K_STATION)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return new Priced(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body("{\"error\":\"Missing required filter: provide area, city, or station\"}");
+                    .body("{\"error\":\"Missing required filter: provide area, city, or station\"}"), SRC_NONE);
         }
 
         try {
@@ -93,7 +125,9 @@ public class MlitApiTestController {
             // If no priceClassification provided, combine 01 and 02 results
             if (isBlank(priceClassification)) {
                 if ("db".equalsIgnoreCase(mode)) {
-                    return combineTwoClassesDb(qp, hasCity, hasAreaOnly, startYear, endYear);
+                    String sy = startYear;
+                    String ey = endYear;
+                    return readOnlyTx.execute(st -> combineTwoClassesDb(qp, hasCity, hasAreaOnly, sy, ey));
                 }
                 if ("mlit".equalsIgnoreCase(mode)) {
                     return combineTwoClassesMlit(qp, hasAreaOnly, startYear, endYear);
@@ -112,7 +146,9 @@ public class MlitApiTestController {
             }
             qp.put(K_PRICE_CLASS, priceClassification);
             if ("db".equalsIgnoreCase(mode)) {
-                return handleDbMode(qp, hasCity, hasAreaOnly, startYear, endYear);
+                String sy = startYear;
+                String ey = endYear;
+                return readOnlyTx.execute(st -> handleDbMode(qp, hasCity, hasAreaOnly, sy, ey));
             }
             if ("mlit".equalsIgnoreCase(mode)) {
                 return handleMlitMode(qp, hasAreaOnly, startYear, endYear);
@@ -122,67 +158,45 @@ public class MlitApiTestController {
             // Propagate upstream HTTP status and body as-is for transparency
             String body = e.getResponseBodyAsString();
             int status = e.getStatusCode().value();
-            return ResponseEntity.status(status)
+            return new Priced(ResponseEntity.status(status)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body(Objects.toString(body, "{}"));
+                    .body(Objects.toString(body, "{}")), SRC_NONE);
         } catch (java.io.IOException ioe) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+            return new Priced(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body("{\"error\":\"Failed to fetch from MLIT API\",\"message\":\"" + ioe.getMessage() + "\"}");
+                    .body("{\"error\":\"Failed to fetch from MLIT API\",\"message\":\"" + ioe.getMessage() + "\"}"),
+                    SRC_NONE);
         }
     }
 
-    private ResponseEntity<String> combineTwoClassesService(Map<String, String> baseQp, boolean hasCity,
+    private Priced combineTwoClassesService(Map<String, String> baseQp, boolean hasCity,
             boolean hasAreaOnly, String startYear, String endYear) throws java.io.IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
-
-        String body01 = fetchServiceWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "01");
-        String body02 = fetchServiceWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "02");
-        addDataArray(combined, body01);
-        addDataArray(combined, body02);
-        var out = mapper.createObjectNode();
-        out.put(K_STATUS, "OK");
+        Priced class01 = fetchServiceWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "01");
+        Priced class02 = fetchServiceWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "02");
         // Decide actual service source: MLIT if any sub-call used MLIT; otherwise DB
-        String s1 = detectSubSource(body01);
-        String s2 = detectSubSource(body02);
-        boolean anyMlit = "MLIT".equalsIgnoreCase(s1) || "MLIT".equalsIgnoreCase(s2);
-        out.put(K_SOURCE, anyMlit ? SRC_SERVICE_MLIT : SRC_SERVICE_DB);
-        out.set("data", combined);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+        boolean anyMlit = class01.source().endsWith(SRC_MLIT) || class02.source().endsWith(SRC_MLIT);
+        return mergedResponse(List.of(class01.body(), class02.body()), anyMlit ? SRC_SERVICE_MLIT : SRC_SERVICE_DB);
     }
 
-    private ResponseEntity<String> combineTwoClassesDb(Map<String, String> baseQp, boolean hasCity,
+    private Priced combineTwoClassesDb(Map<String, String> baseQp, boolean hasCity,
             boolean hasAreaOnly, String startYear, String endYear) {
-        ObjectMapper mapper = new ObjectMapper();
-        com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
         String b1 = dbWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "01");
         String b2 = dbWithClass(baseQp, hasCity, hasAreaOnly, startYear, endYear, "02");
-        addDataArray(combined, b1);
-        addDataArray(combined, b2);
-        var out = mapper.createObjectNode();
-        out.put(K_STATUS, "OK");
-        out.put(K_SOURCE, SRC_DB);
-        out.set("data", combined);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+        try {
+            return mergedResponse(List.of(b1, b2), SRC_DB);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
     }
 
-    private ResponseEntity<String> combineTwoClassesMlit(Map<String, String> baseQp, boolean hasAreaOnly,
+    private Priced combineTwoClassesMlit(Map<String, String> baseQp, boolean hasAreaOnly,
             String startYear, String endYear) throws java.io.IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
         String b1 = mlitWithClass(baseQp, hasAreaOnly, startYear, endYear, "01");
         String b2 = mlitWithClass(baseQp, hasAreaOnly, startYear, endYear, "02");
-        addDataArray(combined, b1);
-        addDataArray(combined, b2);
-        var out = mapper.createObjectNode();
-        out.put(K_STATUS, "OK");
-        out.put(K_SOURCE, SRC_MLIT);
-        out.set("data", combined);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+        return mergedResponse(List.of(b1, b2), SRC_MLIT);
     }
 
-    private String fetchServiceWithClass(Map<String, String> baseQp, boolean hasCity, boolean hasAreaOnly,
+    private Priced fetchServiceWithClass(Map<String, String> baseQp, boolean hasCity, boolean hasAreaOnly,
             String startYear, String endYear, String priceClass) throws java.io.IOException {
         Map<String, String> qp = new java.util.HashMap<>(baseQp);
         qp.put(K_PRICE_CLASS, priceClass);
@@ -194,7 +208,7 @@ public class MlitApiTestController {
         int[] se = adjustRange(startYear, endYear, min);
         String s = se[0] == 0 ? startYear : String.valueOf(se[0]);
         String e = se[1] == 0 ? endYear : String.valueOf(se[1]);
-        return handleServiceMode(qp, hasCity, hasAreaOnly, s, e).getBody();
+        return handleServiceMode(qp, hasCity, hasAreaOnly, s, e);
     }
 
     private String dbWithClass(Map<String, String> baseQp, boolean hasCity, boolean hasAreaOnly, String startYear,
@@ -208,7 +222,7 @@ public class MlitApiTestController {
         int[] se = adjustRange(startYear, endYear, min);
         String s = se[0] == 0 ? startYear : String.valueOf(se[0]);
         String e = se[1] == 0 ? endYear : String.valueOf(se[1]);
-        return handleDbMode(qp, hasCity, hasAreaOnly, s, e).getBody();
+        return handleDbMode(qp, hasCity, hasAreaOnly, s, e).body();
     }
 
     private String mlitWithClass(Map<String, String> baseQp, boolean hasAreaOnly, String startYear, String endYear,
@@ -222,22 +236,34 @@ public class MlitApiTestController {
         int[] se = adjustRange(startYear, endYear, min);
         String s = se[0] == 0 ? startYear : String.valueOf(se[0]);
         String e = se[1] == 0 ? endYear : String.valueOf(se[1]);
-        return handleMlitMode(qp, hasAreaOnly, s, e).getBody();
+        return handleMlitMode(qp, hasAreaOnly, s, e).body();
     }
 
-    private void addDataArray(com.fasterxml.jackson.databind.node.ArrayNode combined, String body) {
-        if (body == null)
-            return;
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(body);
-            JsonNode data = root.path("data");
-            if (data != null && data.isArray()) {
-                data.forEach(combined::add);
-            }
-        } catch (Exception ignore) {
-            // Swallow parse errors for robustness when combining multiple responses
-        }
+    // Streams the data arrays of the sub-responses into one body (unparseable chunks are skipped)
+    private Priced mergedResponse(List<String> bodies, String source) throws java.io.IOException {
+        return ok(rangeExecutor.mergeData(bodies, source), source);
+    }
+
+    private static Priced ok(String body, String source) {
+        return new Priced(ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body), source);
+    }
+
+    // DB-served or freshly fetched answer of the service mode, tagged SERVICE=DB / SERVICE=MLIT
+    private Priced serviceResponse(String body, boolean usedMlit) {
+        return ok(setServiceSource(body, usedMlit), usedMlit ? SRC_SERVICE_MLIT : SRC_SERVICE_DB);
+    }
+
+    private static List<Integer> yearsOf(int[] se) {
+        List<Integer> years = new ArrayList<>(se[1] - se[0] + 1);
+        for (int y = se[0]; y <= se[1]; y++)
+            years.add(y);
+        return years;
+    }
+
+    private static Map<String, String> withYear(Map<String, String> qp, int year) {
+        Map<String, String> req = new HashMap<>(qp);
+        req.put(K_YEAR, String.valueOf(year));
+        return req;
     }
 
     private int minYearForClass(String priceClass) {
@@ -272,13 +298,12 @@ public class MlitApiTestController {
         }
     }
 
-    private static String addSourceField(String raw, String source) {
+    private String addSourceField(String raw, String source) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(raw);
+            JsonNode root = json.readTree(raw);
             if (root != null && root.isObject()) {
                 ((ObjectNode) root).put(K_SOURCE, source);
-                return mapper.writeValueAsString(root);
+                return json.write(root);
             }
         } catch (Exception ignore) {
             // If parsing fails, return raw body without source tag.
@@ -286,81 +311,25 @@ public class MlitApiTestController {
         return raw;
     }
 
-    /**
-     * Inspect a JSON body and return underlying source token: "DB", "MLIT", or
-     * null.
-     * Accepts top-level values like DB, MLIT, SERVICE=DB, SERVICE=MLIT.
-     */
-    private static String detectSubSource(String body) {
-        if (body == null || body.isBlank())
-            return null;
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(body);
-            String s = root.path(K_SOURCE).asText(null);
-            if (s == null)
-                return null;
-            String u = s.toUpperCase();
-            if (u.contains(SRC_MLIT))
-                return SRC_MLIT;
-            if (u.contains(SRC_DB))
-                return SRC_DB;
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
+    // A single-year MLIT fetch served by the service mode; keeps the ingest headers
+    private Priced asServiceMlit(Priced mlit) {
+        return new Priced(new ResponseEntity<>(setServiceSource(mlit.body(), true), mlit.response().getHeaders(),
+                mlit.response().getStatusCode()), SRC_SERVICE_MLIT);
     }
 
-    /**
-     * Rewrite a JSON body so that source reflects service-mode origin:
-     * SERVICE=MLIT if it currently indicates MLIT; SERVICE=DB if DB; otherwise
-     * SERVICE.
-     */
-    private static String rewriteServiceSourceBody(String raw) {
-        if (raw == null)
-            return null;
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(raw);
-            String sub = root.path(K_SOURCE).asText("");
-            String out = SRC_SERVICE;
-            String u = sub.toUpperCase();
-            if (u.contains(SRC_MLIT)) {
-                out = SRC_SERVICE_MLIT;
-            } else if (u.contains(SRC_DB)) {
-                out = SRC_SERVICE_DB;
-            }
-            ((ObjectNode) root).put(K_SOURCE, out);
-            return mapper.writeValueAsString(root);
-        } catch (Exception e) {
-            // fallback string replacement
-            if (raw.contains(SRC_JSON_FIELD + SRC_MLIT + "\""))
-                return raw.replace(SRC_JSON_FIELD + SRC_MLIT + "\"", SRC_JSON_FIELD + SRC_SERVICE_MLIT + "\"");
-            if (raw.contains(SRC_JSON_FIELD + SRC_DB + "\""))
-                return raw.replace(SRC_JSON_FIELD + SRC_DB + "\"", SRC_JSON_FIELD + SRC_SERVICE_DB + "\"");
-            return raw;
-        }
-    }
-
-    private static ResponseEntity<String> rewriteServiceSourceResponse(ResponseEntity<String> resp) {
-        if (resp == null)
-            return null;
-        String rewritten = rewriteServiceSourceBody(resp.getBody());
-        return new ResponseEntity<>(rewritten, resp.getHeaders(), resp.getStatusCode());
-    }
-
-    private ResponseEntity<String> mlitFetchAndIngest(Map<String, String> qp) throws java.io.IOException {
-        String raw = client.getPricesRaw(qp);
+    private Priced mlitFetchAndIngest(Map<String, String> qp) throws java.io.IOException {
+        // A user is waiting: paced apart from sync/refresh traffic
+        String raw = client.getPricesRaw(qp, MlitRateLimiter.Lane.INTERACTIVE);
         var result = ingestService.ingestRaw(qp, raw);
-        return ResponseEntity.ok()
+        return new Priced(ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_JSON)
                 .header(H_INGEST_ID, String.valueOf(result.getQueryId()))
                 .header(H_INGEST_COUNT, String.valueOf(result.getRecordCount()))
                 .header(H_INGEST_STATUS, String.valueOf(result.getStatus()))
-                .body(addSourceField(raw, SRC_MLIT));
+                .body(addSourceField(raw, SRC_MLIT)), SRC_MLIT);
     }
 
-    private ResponseEntity<String> handleDbMode(Map<String, String> qp, boolean hasCity, boolean hasAreaOnly,
+    private Priced handleDbMode(Map<String, String> qp, boolean hasCity, boolean hasAreaOnly,
             String startYear, String endYear) {
         String body;
         if (hasCity) {
@@ -382,10 +351,10 @@ public class MlitApiTestController {
         } else {
             body = "{\"status\":\"OK\",\"source\":\"DB\",\"data\":[]}";
         }
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        return ok(body, SRC_DB);
     }
 
-    private ResponseEntity<String> handleMlitMode(Map<String, String> qp, boolean hasAreaOnly, String startYear,
+    private Priced handleMlitMode(Map<String, String> qp, boolean hasAreaOnly, String startYear,
             String endYear) throws java.io.IOException {
         if (hasAreaOnly) {
             return handleMlitAreaMode(qp, startYear, endYear);
@@ -393,66 +362,31 @@ public class MlitApiTestController {
         return handleMlitNonAreaMode(qp, startYear, endYear);
     }
 
-    private ResponseEntity<String> handleMlitAreaMode(Map<String, String> qp, String startYear, String endYear)
+    private Priced handleMlitAreaMode(Map<String, String> qp, String startYear, String endYear)
             throws java.io.IOException {
         String singleYear = qp.get(K_YEAR);
         if (!isBlank(singleYear) || (isBlank(startYear) && isBlank(endYear))) {
             String body = batchService.fetchByPrefectureSplit(qp.get(K_AREA), singleYear, qp.get(K_PRICE_CLASS),
                     qp.get(K_LANGUAGE));
-            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
-        }
-        int[] se = parseYearRange(startYear, endYear);
-        ObjectMapper mapper = new ObjectMapper();
-        com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
-        for (int y = se[0]; y <= se[1]; y++) {
-            String body = batchService.fetchByPrefectureSplit(qp.get(K_AREA), String.valueOf(y),
-                    qp.get(K_PRICE_CLASS), qp.get(K_LANGUAGE));
-            try {
-                com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(body);
-                com.fasterxml.jackson.databind.JsonNode data = root.path("data");
-                if (data != null && data.isArray()) {
-                    data.forEach(combined::add);
-                }
-            } catch (Exception ignore) {
-                // Ignore bad chunk and continue combining others
-            }
+            return ok(body, SRC_MLIT);
         }
-        var out = mapper.createObjectNode();
-        out.put(K_STATUS, "OK");
-        out.put(K_SOURCE, SRC_MLIT);
-        out.set("data", combined);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+        List<String> bodies = rangeExecutor.map(yearsOf(parseYearRange(startYear, endYear)),
+                y -> batchService.fetchByPrefectureSplit(qp.get(K_AREA), String.valueOf(y),
+                        qp.get(K_PRICE_CLASS), qp.get(K_LANGUAGE)));
+        return mergedResponse(bodies, SRC_MLIT);
     }
 
-    private ResponseEntity<String> handleMlitNonAreaMode(Map<String, String> qp, String startYear, String endYear)
+    private Priced handleMlitNonAreaMode(Map<String, String> qp, String startYear, String endYear)
             throws java.io.IOException {
         if (isBlank(qp.get(K_YEAR)) && (!isBlank(startYear) || !isBlank(endYear))) {
-            int[] se = parseYearRange(startYear, endYear);
-            ObjectMapper mapper = new ObjectMapper();
-            com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
-            for (int y = se[0]; y <= se[1]; y++) {
-                Map<String, String> req = new java.util.HashMap<>(qp);
-                req.put(K_YEAR, String.valueOf(y));
-                String body = mlitFetchAndIngest(req).getBody();
-                try {
-                    com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(body);
-                    com.fasterxml.jackson.databind.JsonNode data = root.path("data");
-                    if (data != null && data.isArray())
-                        data.forEach(combined::add);
-                } catch (Exception ignore) {
-                    // Ignore bad chunk and continue combining others
-                }
-            }
-            var out = mapper.createObjectNode();
-            out.put(K_STATUS, "OK");
-            out.put(K_SOURCE, SRC_MLIT);
-            out.set("data", combined);
-            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+            List<String> bodies = rangeExecutor.map(yearsOf(parseYearRange(startYear, endYear)),
+                    y -> mlitFetchAndIngest(withYear(qp, y)).body());
+            return mergedResponse(bodies, SRC_MLIT);
         }
         return mlitFetchAndIngest(qp);
     }
 
-    private ResponseEntity<String> handleServiceMode(Map<String, String> qp, boolean hasCity, boolean hasAreaOnly,
+    private Priced handleServiceMode(Map<String, String> qp, boolean hasCity, boolean hasAreaOnly,
             String startYear, String endYear) throws java.io.IOException {
         if (hasCity) {
             return handleServiceCity(qp, startYear, endYear);
@@ -463,26 +397,15 @@ public class MlitApiTestController {
         // Fallback path (e.g., station): support year range merge; otherwise
         // single-call
         if (isBlank(qp.get(K_YEAR)) && (!isBlank(startYear) || !isBlank(endYear))) {
-            int[] se = parseYearRange(startYear, endYear);
-            ObjectMapper mapper = new ObjectMapper();
-            com.fasterxml.jackson.databind.node.ArrayNode combined = mapper.createArrayNode();
-            for (int y = se[0]; y <= se[1]; y++) {
-                Map<String, String> req = new java.util.HashMap<>(qp);
-                req.put(K_YEAR, String.valueOf(y));
-                String body = mlitFetchAndIngest(req).getBody();
-                addDataArray(combined, body);
-            }
-            var out = mapper.createObjectNode();
-            out.put(K_STATUS, "OK");
-            out.put(K_SOURCE, SRC_SERVICE_MLIT);
-            out.set("data", combined);
-            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toString());
+            List<String> bodies = rangeExecutor.map(yearsOf(parseYearRange(startYear, endYear)),
+                    y -> mlitFetchAndIngest(withYear(qp, y)).body());
+            return mergedResponse(bodies, SRC_SERVICE_MLIT);
         }
         // Single-year station path: treat as MLIT but expose SERVICE=MLIT
-        return rewriteServiceSourceResponse(mlitFetchAndIngest(qp));
+        return asServiceMlit(mlitFetchAndIngest(qp));
     }
 
-    private ResponseEntity<String> handleServiceCity(Map<String, String> qp, String startYear, String endYear)
+    private Priced handleServiceCity(Map<String, String> qp, String startYear, String endYear)
             throws java.io.IOException {
         String city = qp.get(K_CITY);
         String year = qp.get(K_YEAR);
@@ -495,86 +418,78 @@ public class MlitApiTestController {
         return handleServiceCityNoQuarter(qp, city, year, priceClass, startYear, endYear);
     }
 
-    private ResponseEntity<String> handleServiceCityQuarter(Map<String, String> qp, String city, String year,
+    private Priced handleServiceCityQuarter(Map<String, String> qp, String city, String year,
             String priceClass, String quarter, String startYear, String endYear) throws java.io.IOException {
         if (!isBlank(year) || (isBlank(startYear) && isBlank(endYear))) {
             if (queryService.existsForCity(city, year, priceClass, quarter)) {
-                String body = queryService.jsonForCity(city, year, priceClass, quarter);
-                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-                        .body(rewriteServiceSourceBody(body));
+                return serviceResponse(queryService.jsonForCity(city, year, priceClass, quarter), false);
             }
             // No DB data for this specific quarter/year -> fetch from MLIT and mark
             // service=MLIT
-            return rewriteServiceSourceResponse(mlitFetchAndIngest(qp));
+            return asServiceMlit(mlitFetchAndIngest(qp));
         }
         boolean usedMlit = ensureCityQuarterForRange(qp, city, priceClass, quarter, startYear, endYear);
-        String body = queryService.jsonForCityRange(city, startYear, endYear, priceClass, quarter);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(setServiceSource(body, usedMlit));
+        return serviceResponse(queryService.jsonForCityRange(city, startYear, endYear, priceClass, quarter), usedMlit);
     }
 
-    private ResponseEntity<String> handleServiceCityNoQuarter(Map<String, String> qp, String city, String year,
+    private Priced handleServiceCityNoQuarter(Map<String, String> qp, String city, String year,
             String priceClass, String startYear, String endYear) throws java.io.IOException {
         if (!isBlank(year) || (isBlank(startYear) && isBlank(endYear))) {
             boolean usedMlit = ensureCityCompletenessForYear(qp, city, year, priceClass);
-            String body = queryService.jsonForCity(city, year, priceClass, null);
-            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-                    .body(setServiceSource(body, usedMlit));
+            return serviceResponse(queryService.jsonForCity(city, year, priceClass, null), usedMlit);
         }
         // Range case: if DB already has any rows in range, return them directly
         // (SERVICE=DB)
         String existing = queryService.jsonForCityRange(city, startYear, endYear, priceClass, null);
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(existing);
+            JsonNode root = json.readTree(existing);
             JsonNode data = root.path("data");
             if (data != null && data.isArray() && data.size() > 0) {
-                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-                        .body(setServiceSource(existing, false));
+                return serviceResponse(existing, false);
             }
         } catch (Exception ignore) {
             // fall through to backfill path
         }
-        int[] se = parseYearRange(startYear, endYear);
-        boolean usedAny = false;
-        for (int y = se[0]; y <= se[1]; y++) {
-            usedAny = ensureCityCompletenessForYear(qp, city, String.valueOf(y), priceClass) || usedAny;
-        }
-        String body = queryService.jsonForCityRange(city, startYear, endYear, priceClass, null);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(setServiceSource(body, usedAny));
+        // Missing (year, quarter) slices across the whole range are fetched in one fan-out
+        List<Map<String, String>> fetches = new ArrayList<>();
+        for (int y : yearsOf(parseYearRange(startYear, endYear)))
+            fetches.addAll(missingCityQuarterRequests(qp, city, String.valueOf(y), priceClass));
+        rangeExecutor.map(fetches, this::mlitFetchAndIngest);
+        boolean usedAny = !fetches.isEmpty();
+        return serviceResponse(queryService.jsonForCityRange(city, startYear, endYear, priceClass, null), usedAny);
     }
 
     private boolean ensureCityQuarterForRange(Map<String, String> qp, String city, String priceClass, String quarter,
             String startYear, String endYear) throws java.io.IOException {
-        int[] se = parseYearRange(startYear, endYear);
-        boolean used = false;
-        for (int y = se[0]; y <= se[1]; y++) {
-            if (!queryService.existsForCity(city, String.valueOf(y), priceClass, quarter)) {
-                Map<String, String> req = new java.util.HashMap<>(qp);
-                req.put(K_YEAR, String.valueOf(y));
-                mlitFetchAndIngest(req);
-                used = true;
-            }
+        List<Map<String, String>> fetches = new ArrayList<>();
+        for (int y : yearsOf(parseYearRange(startYear, endYear))) {
+            if (!queryService.existsForCity(city, String.valueOf(y), priceClass, quarter))
+                fetches.add(withYear(qp, y));
         }
-        return used;
+        rangeExecutor.map(fetches, this::mlitFetchAndIngest);
+        return !fetches.isEmpty();
     }
 
     private boolean ensureCityCompletenessForYear(Map<String, String> qp, String city, String year, String priceClass)
             throws java.io.IOException {
-        var missing = queryService.missingQuartersForCity(city, year, priceClass);
-        boolean used = false;
-        if (!missing.isEmpty()) {
-            for (Integer q : missing) {
-                Map<String, String> qpQ = new java.util.HashMap<>(qp);
-                qpQ.put(K_YEAR, year);
-                qpQ.put(K_QUARTER, String.valueOf(q));
-                mlitFetchAndIngest(qpQ);
-                used = true;
-            }
+        List<Map<String, String>> fetches = missingCityQuarterRequests(qp, city, year, priceClass);
+        rangeExecutor.map(fetches, this::mlitFetchAndIngest);
+        return !fetches.isEmpty();
+    }
+
+    private List<Map<String, String>> missingCityQuarterRequests(Map<String, String> qp, String city, String year,
+            String priceClass) {
+        List<Map<String, String>> fetches = new ArrayList<>();
+        for (Integer q : queryService.missingQuartersForCity(city, year, priceClass)) {
+            Map<String, String> qpQ = new HashMap<>(qp);
+            qpQ.put(K_YEAR, year);
+            qpQ.put(K_QUARTER, String.valueOf(q));
+            fetches.add(qpQ);
         }
-        return used;
+        return fetches;
     }
 
-    private ResponseEntity<String> handleServiceArea(Map<String, String> qp, String startYear, String endYear)
+    private Priced handleServiceArea(Map<String, String> qp, String startYear, String endYear)
             throws java.io.IOException {
         String area = qp.get(K_AREA);
         String priceClass = qp.get(K_PRICE_CLASS);
@@ -583,31 +498,22 @@ public class MlitApiTestController {
         String reqQuarter = qp.get(K_QUARTER);
         if (!isBlank(singleYear) || (isBlank(startYear) && isBlank(endYear))) {
             if (queryService.existsForArea(area, singleYear, priceClass, reqQuarter)) {
-                String body = queryService.jsonForArea(area, singleYear, priceClass, reqQuarter);
-                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-                        .body(rewriteServiceSourceBody(body));
+                return serviceResponse(queryService.jsonForArea(area, singleYear, priceClass, reqQuarter), false);
             }
-            String body = batchService.fetchByPrefectureSplit(area, singleYear, priceClass, language);
-            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-                    .body(rewriteServiceSourceBody(body));
+            return serviceResponse(batchService.fetchByPrefectureSplit(area, singleYear, priceClass, language), true);
         }
-        int[] se = parseYearRange(startYear, endYear);
-        boolean usedAny = false;
-        for (int y = se[0]; y <= se[1]; y++) {
-            if (!isBlank(reqQuarter)) {
-                if (!queryService.existsForArea(area, String.valueOf(y), priceClass, reqQuarter)) {
-                    batchService.fetchByPrefectureSplit(area, String.valueOf(y), priceClass, language);
-                    usedAny = true;
-                }
-            } else {
-                if (!queryService.hasAllQuartersForArea(area, String.valueOf(y), priceClass)) {
-                    batchService.fetchByPrefectureSplit(area, String.valueOf(y), priceClass, language);
-                    usedAny = true;
-                }
-            }
+        List<Integer> missingYears = new ArrayList<>();
+        for (int y : yearsOf(parseYearRange(startYear, endYear))) {
+            boolean present = !isBlank(reqQuarter)
+                    ? queryService.existsForArea(area, String.valueOf(y), priceClass, reqQuarter)
+                    : queryService.hasAllQuartersForArea(area, String.valueOf(y), priceClass);
+            if (!present)
+                missingYears.add(y);
         }
-        String body = queryService.jsonForAreaRange(area, startYear, endYear, priceClass, reqQuarter);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(setServiceSource(body, usedAny));
+        rangeExecutor.map(missingYears,
+                y -> batchService.fetchByPrefectureSplit(area, String.valueOf(y), priceClass, language));
+        boolean usedAny = !missingYears.isEmpty();
+        return serviceResponse(queryService.jsonForAreaRange(area, startYear, endYear, priceClass, reqQuarter), usedAny);
     }
 
     private boolean isBlank(String s) {
@@ -643,15 +549,32 @@ public class MlitApiTestController {
         }
     }
 
-    private static String setServiceSource(String raw, boolean usedMlit) {
+    /**
+     * Counts where each /prices answer came from: mlit.prices.source{mode,source}
+     * with source DB, MLIT, SERVICE=DB, SERVICE=MLIT, or NONE for errors, and
+     * mlit.prices.cache{result} where a DB-served answer is a hit and an MLIT
+     * fetch a miss.
+     */
+    private void recordSource(String mode, Priced priced) {
+        String source = priced.response().getStatusCode().is2xxSuccessful() ? priced.source() : SRC_NONE;
+        String m = mode == null ? "service" : mode.toLowerCase();
+        if (!m.equals("db") && !m.equals("mlit"))
+            m = "service";
+        meterRegistry.counter("mlit.prices.source", "mode", m, K_SOURCE, source).increment();
+        if (source.endsWith(SRC_DB))
+            meterRegistry.counter("mlit.prices.cache", "result", "hit").increment();
+        else if (source.endsWith(SRC_MLIT))
+            meterRegistry.counter("mlit.prices.cache", "result", "miss").increment();
+    }
+
+    private String setServiceSource(String raw, boolean usedMlit) {
         if (raw == null)
             return null;
         String tag = usedMlit ? SRC_SERVICE_MLIT : SRC_SERVICE_DB;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(raw);
+            JsonNode root = json.readTree(raw);
             ((ObjectNode) root).put(K_SOURCE, tag);
-            return mapper.writeValueAsString(root);
+            return json.write(root);
         } catch (Exception e) {
             if (raw.contains(SRC_JSON_KEY)) {
                 return raw.replaceAll("\\\"source\\\":\\\"[^\\\"]*\\\"", "\\\"source\\\":\\\"" + tag + "\\\"");
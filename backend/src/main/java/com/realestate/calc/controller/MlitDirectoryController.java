@@ -1,67 +1,107 @@
 package com.realestate.calc.controller;
 
+import com.realestate.calc.mlit.MunicipalityDirectory;
+import com.realestate.calc.mlit.MunicipalityDirectoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+// Served from the in-memory MunicipalityDirectory; no DB access per request.
+// Payload ETags are content digests, so a directory reload changes them by itself.
 @RestController
 @RequestMapping("/api/mlit")
 public class MlitDirectoryController {
-    private final JdbcTemplate jdbcTemplate;
-    private static final String COL_PREF_CODE = "prefecture_code";
-    private static final Logger log = LoggerFactory.getLogger(MlitDirectoryController.class);
+    private static final String COL_PREF_CODE = "prefectureCode";
+    private static final int MAX_SEARCH_LIMIT = 100;
 
-    public MlitDirectoryController(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    private final MunicipalityDirectoryService directoryService;
+    private final Counter notModified;
+    private final Counter served;
+    private final CacheControl cacheControl;
+
+    public MlitDirectoryController(MunicipalityDirectoryService directoryService, MeterRegistry meterRegistry,
+            @Value("${mlit.http.directoryMaxAgeSeconds:3600}") long maxAgeSeconds) {
+        this.directoryService = directoryService;
+        this.cacheControl = CacheControl.maxAge(Math.max(0, maxAgeSeconds), TimeUnit.SECONDS).cachePublic();
+        // ETag revalidation hits vs full bodies sent
+        this.notModified = meterRegistry.counter("mlit.directory.responses", "result", "not_modified");
+        this.served = meterRegistry.counter("mlit.directory.responses", "result", "full");
     }
 
     @GetMapping("/prefectures")
-    public ResponseEntity<List<Map<String, Object>>> prefectures() {
-        List<Map<String, Object>> rows = jdbcTemplate.query("SELECT code, name FROM prefecture ORDER BY code",
-                (rs, i) -> Map.of("code", rs.getString("code"), "name", rs.getString("name")));
-        return ResponseEntity.ok(rows);
+    public ResponseEntity<byte[]> prefectures(WebRequest request) {
+        return serve(directoryService.current().prefecturesPayload(), request);
     }
 
     @GetMapping("/municipalities")
-    public ResponseEntity<List<Map<String, Object>>> municipalities(@RequestParam("pref") String pref) {
-        List<Map<String, Object>> rows = jdbcTemplate.query(
-                "SELECT id, name FROM municipality WHERE prefecture_code = ? ORDER BY id",
-                ps -> ps.setString(1, pref),
-                (rs, i) -> Map.of("id", rs.getString("id"), "name", rs.getString("name")));
-        return ResponseEntity.ok(rows);
+    public ResponseEntity<byte[]> municipalities(@RequestParam("pref") String pref, WebRequest request) {
+        return serve(directoryService.current().municipalitiesPayload(pref), request);
     }
 
     // 편의: 전체 그룹 형태로 반환 (코드 -> 리스트)
     @GetMapping("/municipalities-grouped")
-    public ResponseEntity<Map<String, Object>> municipalitiesGrouped() {
-        List<Map<String, String>> rows = jdbcTemplate.query(
-                "SELECT id, name, prefecture_code FROM municipality ORDER BY prefecture_code, id",
-                (rs, i) -> Map.of(
-                        "id", rs.getString("id"),
-                        "name", rs.getString("name"),
-                        COL_PREF_CODE, rs.getString(COL_PREF_CODE)));
-        int rowCount = rows.size();
-        Map<String, List<Map<String, String>>> grouped = rows.stream()
-                .collect(Collectors.groupingBy(r -> r.get(COL_PREF_CODE)));
-        int groupedCount = grouped.size();
-        Map<String, Object> body = new HashMap<>();
-        body.put("data", grouped.entrySet().stream().collect(Collectors.toMap(
-                Map.Entry::getKey,
-                e -> e.getValue().stream()
-                        .map(r -> Map.of("id", r.get("id"), "name", r.get("name")))
-                        .toList())));
-        body.put("prefectureCount", grouped.size());
-        log.info("/api/mlit/municipalities-grouped rows={}, prefectures={}", rowCount, groupedCount);
+    public ResponseEntity<byte[]> municipalitiesGrouped(WebRequest request) {
+        return serve(directoryService.current().groupedPayload(), request);
+    }
+
+    @GetMapping("/municipalities/{code}")
+    public ResponseEntity<Map<String, Object>> municipality(@PathVariable("code") String code) {
+        MunicipalityDirectory dir = directoryService.current();
+        MunicipalityDirectory.Municipality m = dir.byCode(code);
+        if (m == null)
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        Map<String, Object> body = toRow(m);
+        MunicipalityDirectory.Prefecture p = dir.prefecture(m.prefectureCode());
+        body.put("prefectureName", p != null ? p.name() : null);
         return ResponseEntity.ok(body);
     }
+
+    // Prefix search over names (kana/width-normalized) and codes
+    @GetMapping("/municipalities/search")
+    public ResponseEntity<List<Map<String, Object>>> search(@RequestParam("q") String q,
+            @RequestParam(required = false, name = "pref") String pref,
+            @RequestParam(required = false, defaultValue = "20") int limit) {
+        int capped = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<Map<String, Object>> rows = directoryService.current().search(q, pref, capped).stream()
+                .map(MlitDirectoryController::toRow)
+                .toList();
+        return ResponseEntity.ok(rows);
+    }
+
+    private static Map<String, Object> toRow(MunicipalityDirectory.Municipality m) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", m.id());
+        row.put("name", m.name());
+        row.put(COL_PREF_CODE, m.prefectureCode());
+        return row;
+    }
+
+    private ResponseEntity<byte[]> serve(MunicipalityDirectory.Payload payload, WebRequest request) {
+        if (request.checkNotModified(payload.etag())) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.etag()).cacheControl(cacheControl)
+                    .build();
+        }
+        served.increment();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.etag())
+                .cacheControl(cacheControl)
+                .body(payload.body());
+    }
 }
@@ -0,0 +1,38 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.calc.mlit.MunicipalityGeoService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+// Municipality centroid import (writes municipality.geom and reloads the geo index)
+@RestController
+@RequestMapping("/api/admin/mlit-geo")
+public class MlitGeoAdminController {
+    private final MunicipalityGeoService geoService;
+    private final ObjectMapper mapper;
+
+    public MlitGeoAdminController(MunicipalityGeoService geoService, ObjectMapper mapper) {
+        this.geoService = geoService;
+        this.mapper = mapper;
+    }
+
+    // CSV body: "code,lat,lon" per line
+    @PostMapping(value = "/centroids", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE })
+    public ResponseEntity<ObjectNode> importCentroids(@RequestBody String csv) throws IOException {
+        int updated = geoService.importCentroids(new StringReader(csv));
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", "OK");
+        body.put("updated", updated);
+        body.put("centroids", geoService.indexedCentroids());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,66 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.calc.mlit.MunicipalityGeoIndex;
+import com.realestate.calc.mlit.MunicipalityGeoService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Radius search over trades (located at their municipality centroid); import is MlitGeoAdminController
+@RestController
+@RequestMapping("/api/mlit")
+public class MlitGeoController {
+    private static final double MAX_RADIUS_KM = 50;
+    private static final int MAX_LIMIT = 1000;
+
+    private final MunicipalityGeoService geoService;
+    private final ObjectMapper mapper;
+
+    public MlitGeoController(MunicipalityGeoService geoService, ObjectMapper mapper) {
+        this.geoService = geoService;
+        this.mapper = mapper;
+    }
+
+    // 좌표(lat/lon) 또는 시구정촌 코드(municipality) 기준 반경 검색
+    @GetMapping(value = "/prices/nearby", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ObjectNode> nearby(
+            @RequestParam(required = false, name = "lat") Double lat,
+            @RequestParam(required = false, name = "lon") Double lon,
+            @RequestParam(required = false, name = "municipality") String municipality,
+            @RequestParam(required = false, defaultValue = "5", name = "radiusKm") double radiusKm,
+            @RequestParam(required = false, name = "type") String type,
+            @RequestParam(required = false, defaultValue = "100", name = "limit") int limit,
+            @RequestParam(required = false, name = "mode") String mode) {
+        if (municipality != null && !municipality.isBlank()) {
+            MunicipalityGeoIndex.Centroid c = geoService.centroid(municipality.trim());
+            if (c == null)
+                return error(HttpStatus.NOT_FOUND, "no centroid for municipality " + municipality);
+            lat = c.lat();
+            lon = c.lon();
+        }
+        if (lat == null || lon == null)
+            return error(HttpStatus.BAD_REQUEST, "lat/lon or municipality is required");
+        if (!(radiusKm > 0) || radiusKm > MAX_RADIUS_KM)
+            return error(HttpStatus.BAD_REQUEST, "radiusKm must be in (0, " + MAX_RADIUS_KM + "]");
+        boolean useDb = "DB".equalsIgnoreCase(mode);
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return ResponseEntity.ok(geoService.nearby(lat, lon, radiusKm, type, capped, useDb));
+    }
+
+    @GetMapping("/geo/status")
+    public ResponseEntity<ObjectNode> status() {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("centroids", geoService.indexedCentroids());
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<ObjectNode> error(HttpStatus status, String message) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", "ERROR");
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
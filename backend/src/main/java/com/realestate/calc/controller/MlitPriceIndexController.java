@@ -0,0 +1,46 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.calc.mlit.MlitPriceIndexService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Quarterly price index series (median, trailing 4Q median, YoY) for many municipalities per call
+@RestController
+@RequestMapping("/api/mlit/prices/index")
+public class MlitPriceIndexController {
+    private static final int MAX_MUNICIPALITIES = 500;
+
+    private final MlitPriceIndexService indexService;
+    private final ObjectMapper mapper;
+
+    public MlitPriceIndexController(MlitPriceIndexService indexService, ObjectMapper mapper) {
+        this.indexService = indexService;
+        this.mapper = mapper;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ObjectNode> series(
+            @RequestParam(name = "municipalities") String municipalities,
+            @RequestParam(required = false, name = "type") String type,
+            @RequestParam(required = false, name = "fromYear") Integer fromYear) {
+        List<String> codes = new ArrayList<>();
+        for (String c : municipalities.split(",")) {
+            String code = c.trim();
+            if (!code.isEmpty() && !codes.contains(code))
+                codes.add(code);
+        }
+        if (codes.isEmpty() || codes.size() > MAX_MUNICIPALITIES) {
+            ObjectNode body = mapper.createObjectNode();
+            body.put("status", "ERROR");
+            body.put("message", "municipalities must list 1.." + MAX_MUNICIPALITIES + " codes");
+            return ResponseEntity.badRequest().body(body);
+        }
+        return ResponseEntity.ok(indexService.series(codes, type, fromYear));
+    }
+}
@@ -1,16 +1,28 @@
 package com.realestate.calc.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.realestate.calc.mlit.MlitPriceIngestService;
+import com.realestate.calc.mlit.MlitPriceSearchService;
+import com.realestate.calc.mlit.MlitPriceSearchService.Filters;
+import com.realestate.calc.mlit.MlitPriceSearchService.WhereArgs;
+import com.realestate.calc.mlit.MlitResponseCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,24 +32,34 @@ public class MlitPriceSearchController {
     private static final Logger log = LoggerFactory.getLogger(MlitPriceSearchController.class);
     private final JdbcTemplate jdbc;
     private final MlitPriceIngestService ingestService;
-    private final ObjectMapper mapper = new ObjectMapper();
-    private static final String JOIN_QUERY_LOG = " JOIN mlit_price_query_log q ON r.query_id=q.id";
-    private final java.util.concurrent.atomic.AtomicBoolean ensuredCols = new java.util.concurrent.atomic.AtomicBoolean(
-            false);
+    private final MlitPriceSearchService search;
+    private final ObjectMapper mapper;
+    private final MlitResponseCache responseCache;
 
-    public MlitPriceSearchController(JdbcTemplate jdbc, MlitPriceIngestService ingestService) {
+    // DB-only reads of /list (no ingest in between) may be served by a replica
+    private final TransactionTemplate readOnlyTx;
+
+    public MlitPriceSearchController(JdbcTemplate jdbc, MlitPriceIngestService ingestService,
+            PlatformTransactionManager txManager, MlitPriceSearchService search, ObjectMapper mapper,
+            MlitResponseCache responseCache) {
         this.jdbc = jdbc;
         this.ingestService = ingestService;
+        this.search = search;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.mapper = mapper;
+        this.responseCache = responseCache;
     }
 
     @GetMapping(value = "/list", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> list(
+    public ResponseEntity<byte[]> list(
             @RequestParam(required = false) String area,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String station,
             @RequestParam(required = false, name = "prefecture") String prefecture,
             @RequestParam(required = false, name = "municipality") String municipality,
             @RequestParam(required = false, name = "districtName") String districtName,
+            @RequestParam(required = false, name = "districtQuery") String districtQuery,
             @RequestParam(required = false, name = "startYear") String startYear,
             @RequestParam(required = false, name = "endYear") String endYear,
             @RequestParam(required = false, name = "priceClassification") String priceClassification,
@@ -53,8 +75,8 @@ public class MlitPriceSearchController {
             @RequestParam(required = false, name = "minExclusiveArea") String minExclusiveArea,
             @RequestParam(required = false, name = "mode") String mode,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "20") int size) {
-        ensureExtraColumns();
+            @RequestParam(required = false, defaultValue = "20") int size,
+            WebRequest request) {
         int pageSize = normalizeSize(size);
         int offset = Math.max(page, 0) * pageSize;
 
@@ -65,6 +87,7 @@ public class MlitPriceSearchController {
         f.prefecture = prefecture;
         f.municipality = municipality;
         f.districtName = districtName;
+        f.districtQuery = districtQuery;
         f.startYear = startYear;
         f.endYear = endYear;
         f.priceClassification = priceClassification;
@@ -87,15 +110,35 @@ public class MlitPriceSearchController {
                     minTradePrice, maxTradePrice, minLandArea, minExclusiveArea, page, pageSize);
         }
 
+        // Completed years only change on ingest; MLIT mode always refetches, so it is never cached
+        if (isHistoric(f) && !"MLIT".equals(m)) {
+            String key = MlitResponseCache.key("list", "mode", m, "area", area, "city", city, "station", station,
+                    "prefecture", prefecture, "municipality", municipality, "districtName", districtName,
+                    "districtQuery", districtQuery, "startYear", startYear, "endYear", endYear,
+                    "priceClassification", priceClassification, "quarter", quarter, "type", type,
+                    "floorPlan", floorPlan, "buildingYear", buildingYear, "structure", structure,
+                    "minTradePrice", minTradePrice, "maxTradePrice", maxTradePrice, "minLandArea", minLandArea,
+                    "minExclusiveArea", minExclusiveArea, "page", String.valueOf(page), "size",
+                    String.valueOf(pageSize));
+            return responseCache.serve(key, request, () -> utf8(renderList(f, m, page, pageSize, offset)));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .body(utf8(renderList(f, m, page, pageSize, offset)));
+    }
+
+    private String renderList(Filters f, String m, int page, int pageSize, int offset) {
         // DB-only path
         if ("DB".equals(m)) {
             if (log.isInfoEnabled())
                 log.info("MODE=DB: querying DB only, no MLIT ingest");
-            WhereArgs where = buildWhere(f);
-            int total = countTotal(where);
-            List<Object[]> rows = fetchRows(where, pageSize, offset);
-            String response = buildListResponse(rows, total, page, pageSize, "DB");
-            return ResponseEntity.ok(response);
+            return readOnlyTx.execute(st -> {
+                WhereArgs where = search.buildWhere(f);
+                int total = search.countTotal(where);
+                List<Object[]> rows = search.fetchRows(where, pageSize, offset);
+                return buildListResponse(rows, total, page, pageSize, "DB");
+            });
         }
 
         // MLIT: always fetch from MLIT for the given scope/year(s), then read from DB
@@ -103,26 +146,27 @@ public class MlitPriceSearchController {
             if (log.isInfoEnabled())
                 log.info("MODE=MLIT: forced MLIT ingest for given scope");
             ingestForFilters(f);
-            WhereArgs where = buildWhere(f);
-            int total = countTotal(where);
-            List<Object[]> rows = fetchRows(where, pageSize, offset);
-            String response = buildListResponse(rows, total, page, pageSize, "MLIT");
-            return ResponseEntity.ok(response);
+            WhereArgs where = search.buildWhere(f);
+            int total = search.countTotal(where);
+            List<Object[]> rows = search.fetchRows(where, pageSize, offset);
+            return buildListResponse(rows, total, page, pageSize, "MLIT");
         }
 
         // SERVICE: DB-first; determine existence using scope-only filters (ignore fine
         // filters)
-        WhereArgs scopeOnly = buildScopeWhere(f);
-        int scopeTotal = countTotal(scopeOnly);
-        WhereArgs where = buildWhere(f);
-        int total = countTotal(where);
-        if (scopeTotal > 0) {
+        String fromDb = readOnlyTx.execute(st -> {
+            int scopeCount = search.countTotal(search.buildScopeWhere(f));
+            if (scopeCount == 0)
+                return null;
             if (log.isInfoEnabled())
-                log.info("MODE=SERVICE: scope present in DB (scopeTotal={}) -> skip MLIT", scopeTotal);
-            List<Object[]> rows = fetchRows(where, pageSize, offset);
-            String response = buildListResponse(rows, total, page, pageSize, "SERVICE=DB");
-            return ResponseEntity.ok(response);
-        }
+                log.info("MODE=SERVICE: scope present in DB (scopeTotal={}) -> skip MLIT", scopeCount);
+            WhereArgs dbWhere = search.buildWhere(f);
+            int dbTotal = search.countTotal(dbWhere);
+            List<Object[]> rows = search.fetchRows(dbWhere, pageSize, offset);
+            return buildListResponse(rows, dbTotal, page, pageSize, "SERVICE=DB");
+        });
+        if (fromDb != null)
+            return fromDb;
         // No data exists in DB for this scope/year/class -> backfill via MLIT
         if (log.isInfoEnabled()) {
             log.info(
@@ -130,68 +174,33 @@ public class MlitPriceSearchController {
                     f.area, f.city, f.station, f.startYear, f.endYear, f.priceClassification);
         }
         ingestForFilters(f);
-        // After ingest, re-evaluate totals
-        scopeOnly = buildScopeWhere(f);
-        scopeTotal = countTotal(scopeOnly);
-        where = buildWhere(f);
-        total = countTotal(where);
+        // After ingest, re-evaluate totals (on the primary, to read our own writes)
+        WhereArgs scopeOnly = search.buildScopeWhere(f);
+        int scopeTotal = search.countTotal(scopeOnly);
+        WhereArgs where = search.buildWhere(f);
+        int total = search.countTotal(where);
         if (log.isInfoEnabled())
             log.info("MODE=SERVICE: post-ingest counts scopeTotal={}, total={}", scopeTotal, total);
-        List<Object[]> rows = fetchRows(where, pageSize, offset);
-        String response = buildListResponse(rows, total, page, pageSize,
-                scopeTotal > 0 ? "SERVICE=DB" : "SERVICE=MLIT");
-        return ResponseEntity.ok(response);
+        List<Object[]> rows = search.fetchRows(where, pageSize, offset);
+        return buildListResponse(rows, total, page, pageSize, scopeTotal > 0 ? "SERVICE=DB" : "SERVICE=MLIT");
     }
 
-    private int countTotal(WhereArgs built) {
-        String sql = "SELECT COUNT(*) FROM mlit_price_record r" + JOIN_QUERY_LOG
-                + built.where;
-        Integer total = jdbc.query(con -> {
-            var ps = con.prepareStatement(sql);
-            for (int i = 0; i < built.args.size(); i++)
-                ps.setObject(i + 1, built.args.get(i));
-            return ps;
-        }, rs -> rs.next() ? rs.getInt(1) : 0);
-        return total == null ? 0 : total;
+    // An explicit end year before the current one; an open range reaches the current year
+    private static boolean isHistoric(Filters f) {
+        int end = parseIntSafe(f.endYear);
+        return end > 0 && end < Year.now().getValue();
     }
 
-    private List<Object[]> fetchRows(WhereArgs built, int pageSize, int offset) {
-        String selectSql = "SELECT r.id, q.year, q.quarter, " +
-                "COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) AS price_classification, "
-                +
-                "CASE WHEN COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) = '02' THEN '成約価格' "
-                +
-                "     WHEN COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) = '01' THEN '取引価格' "
-                +
-                "     ELSE NULL END AS price_classification_label, " +
-                "r.prefecture, r.municipality, r.district_name, r.period, " +
-                // additional columns for new table (structure included; drop
-                // coverage/floor_area ratios for list)
-                "r.type, r.trade_price_int, r.floor_plan, r.area_num, r.total_floor_area_num, r.building_year, r.structure, r.exclusive_unit_price_int "
-                +
-                "FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
-                " ORDER BY q.year::int DESC NULLS LAST, " +
-                "COALESCE(q.quarter::int, NULLIF((regexp_match(r.period, '第([0-9])四半期'))[1], '')::int) DESC NULLS LAST, "
-                +
-                "r.id DESC LIMIT ? OFFSET ?";
-        return jdbc.query(con -> {
-            var ps = con.prepareStatement(selectSql);
-            int idx = 1;
-            for (Object a : built.args)
-                ps.setObject(idx++, a);
-            ps.setInt(idx++, pageSize);
-            ps.setInt(idx, offset);
-            return ps;
-        }, rs -> {
-            var list = new ArrayList<Object[]>();
-            while (rs.next()) {
-                list.add(new Object[] { rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
-                        rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9),
-                        rs.getString(10), rs.getObject(11), rs.getString(12), rs.getObject(13), rs.getObject(14),
-                        rs.getString(15), rs.getString(16), rs.getObject(17) });
-            }
-            return list;
-        });
+    private static byte[] utf8(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize MLIT response", e);
+        }
     }
 
     private String buildListResponse(List<Object[]> rows, int total, int page, int pageSize, String source) {
@@ -247,37 +256,6 @@ public class MlitPriceSearchController {
         return null;
     }
 
-    private static class WhereArgs {
-        final StringBuilder where;
-        final List<Object> args;
-
-        private WhereArgs(StringBuilder where, List<Object> args) {
-            this.where = where;
-            this.args = args;
-        }
-    }
-
-    private static class Filters {
-        String area;
-        String city;
-        String station;
-        String prefecture;
-        String municipality;
-        String districtName;
-        String startYear;
-        String endYear;
-        String priceClassification;
-        String quarter;
-        String type;
-        String floorPlan;
-        String buildingYear;
-        String structure;
-        String minTradePrice;
-        String maxTradePrice;
-        String minLandArea;
-        String minExclusiveArea;
-    }
-
     private void ingestForFilters(Filters f) {
         int[] yr = normalizeYearRange(f.startYear, f.endYear);
         if (yr.length == 0)
@@ -346,145 +324,9 @@ public class MlitPriceSearchController {
         }
     }
 
-    private static WhereArgs buildWhere(Filters f) {
-        StringBuilder where = new StringBuilder(" WHERE 1=1");
-        List<Object> args = new ArrayList<>();
-        addLocationFilters(where, args, f);
-        addYearFilters(where, args, f);
-        addClassificationFilters(where, args, f);
-        addExtraFilters(where, args, f);
-        return new WhereArgs(where, args);
-    }
-
-    // Scope-only where: ignore districtName and list-level extra filters so we
-    // don't trigger MLIT
-    // backfill just because a fine-grained filter returns 0 rows.
-    private static WhereArgs buildScopeWhere(Filters f) {
-        StringBuilder where = new StringBuilder(" WHERE 1=1");
-        List<Object> args = new ArrayList<>();
-        addScopeLocationFilters(where, args, f);
-        addYearFilters(where, args, f);
-        addClassificationFilters(where, args, f);
-        return new WhereArgs(where, args);
-    }
-
-    private static void addScopeLocationFilters(StringBuilder where, List<Object> args, Filters f) {
-        if (notBlank(f.city)) {
-            where.append(" AND r.municipality_code = ?");
-            args.add(f.city);
-        }
-        if (notBlank(f.area)) {
-            where.append(" AND (q.area = ? OR r.municipality_code LIKE ?)");
-            args.add(f.area);
-            args.add(f.area + "%");
-        }
-        if (notBlank(f.station)) {
-            where.append(" AND q.station = ?");
-            args.add(f.station);
-        }
-        if (notBlank(f.prefecture)) {
-            where.append(" AND r.prefecture = ?");
-            args.add(f.prefecture);
-        }
-        if (notBlank(f.municipality)) {
-            where.append(" AND r.municipality = ?");
-            args.add(f.municipality);
-        }
-        // Intentionally ignore districtName for scope existence check.
-    }
-
-    private static void addLocationFilters(StringBuilder where, List<Object> args, Filters f) {
-        if (notBlank(f.city)) {
-            where.append(" AND r.municipality_code = ?");
-            args.add(f.city);
-        }
-        if (notBlank(f.area)) {
-            where.append(" AND (q.area = ? OR r.municipality_code LIKE ?)");
-            args.add(f.area);
-            args.add(f.area + "%");
-        }
-        if (notBlank(f.station)) {
-            where.append(" AND q.station = ?");
-            args.add(f.station);
-        }
-        if (notBlank(f.prefecture)) {
-            where.append(" AND r.prefecture = ?");
-            args.add(f.prefecture);
-        }
-        if (notBlank(f.municipality)) {
-            where.append(" AND r.municipality = ?");
-            args.add(f.municipality);
-        }
-        if (notBlank(f.districtName)) {
-            where.append(" AND r.district_name = ?");
-            args.add(f.districtName);
-        }
-    }
-
-    private static void addYearFilters(StringBuilder where, List<Object> args, Filters f) {
-        if (notBlank(f.startYear)) {
-            where.append(" AND q.year::int >= ?");
-            args.add(Integer.parseInt(f.startYear));
-        }
-        if (notBlank(f.endYear)) {
-            where.append(" AND q.year::int <= ?");
-            args.add(Integer.parseInt(f.endYear));
-        }
-    }
-
-    private static void addClassificationFilters(StringBuilder where, List<Object> args, Filters f) {
-        if (notBlank(f.priceClassification)) {
-            where.append(" AND q.price_classification = ?");
-            args.add(f.priceClassification);
-        }
-        if (notBlank(f.quarter)) {
-            where.append(" AND q.quarter = ?");
-            args.add(f.quarter);
-        }
-    }
-
-    private static void addExtraFilters(StringBuilder where, List<Object> args, Filters f) {
-        if (notBlank(f.type)) {
-            where.append(" AND r.type = ?");
-            args.add(f.type);
-        }
-        if (notBlank(f.floorPlan)) {
-            where.append(" AND r.floor_plan = ?");
-            args.add(f.floorPlan);
-        }
-        if (notBlank(f.buildingYear)) {
-            where.append(" AND r.building_year = ?");
-            args.add(f.buildingYear);
-        }
-        if (notBlank(f.structure)) {
-            where.append(" AND r.structure = ?");
-            args.add(f.structure);
-        }
-        int minPrice = parseIntSafe(f.minTradePrice);
-        if (minPrice > 0) {
-            where.append(" AND COALESCE(r.trade_price_int, 0) >= ?");
-            args.add(minPrice);
-        }
-        int maxPrice = parseIntSafe(f.maxTradePrice);
-        if (maxPrice > 0) {
-            where.append(" AND COALESCE(r.trade_price_int, 0) <= ?");
-            args.add(maxPrice);
-        }
-        int minLand = parseIntSafe(f.minLandArea);
-        if (minLand > 0) {
-            where.append(" AND COALESCE(r.area_num, 0) >= ?");
-            args.add(minLand);
-        }
-        int minEx = parseIntSafe(f.minExclusiveArea);
-        if (minEx > 0) {
-            where.append(" AND COALESCE(r.total_floor_area_num, 0) >= ?");
-            args.add(minEx);
-        }
-    }
-
+    @Transactional(readOnly = true)
     @GetMapping(value = "/detail/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> detail(@PathVariable("id") long id) {
-        ensureExtraColumns();
         String sql = "SELECT r.price_category, r.type, r.region, r.municipality_code, r.prefecture, r.municipality, r.district_name, "
                 +
                 "r.trade_price_int, r.price_per_unit_int, r.floor_plan, r.area_num, r.unit_price_int, r.land_shape, r.frontage, "
@@ -551,22 +393,6 @@ public class MlitPriceSearchController {
         return ResponseEntity.ok(root.toString());
     }
 
-    private void ensureExtraColumns() {
-        if (ensuredCols.get())
-            return;
-        try {
-            jdbc.execute("ALTER TABLE mlit_price_record ADD COLUMN IF NOT EXISTS exclusive_unit_price_int BIGINT;");
-            jdbc.execute(
-                    "UPDATE mlit_price_record SET exclusive_unit_price_int = CAST(FLOOR(trade_price_int / NULLIF(total_floor_area_num,0)) AS BIGINT) "
-                            +
-                            "WHERE exclusive_unit_price_int IS NULL AND trade_price_int IS NOT NULL AND total_floor_area_num IS NOT NULL AND total_floor_area_num > 0;");
-        } catch (Exception ignored) {
-            // best-effort migration
-        } finally {
-            ensuredCols.set(true);
-        }
-    }
-
     private static boolean notBlank(String s) {
         return s != null && !s.isBlank();
     }
@@ -592,13 +418,15 @@ public class MlitPriceSearchController {
     }
 
     @GetMapping(value = "/districts", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<String>> listDistricts(
+    public ResponseEntity<byte[]> listDistricts(
             @RequestParam(required = false) String area,
             @RequestParam(required = false) String city,
             @RequestParam(required = false, name = "prefecture") String prefecture,
             @RequestParam(required = false, name = "municipality") String municipality,
             @RequestParam(required = false, name = "startYear") String startYear,
-            @RequestParam(required = false, name = "endYear") String endYear) {
+            @RequestParam(required = false, name = "endYear") String endYear,
+            @RequestParam(required = false, name = "districtQuery") String districtQuery,
+            WebRequest request) {
         Filters f = new Filters();
         f.area = area;
         f.city = city;
@@ -606,28 +434,23 @@ public class MlitPriceSearchController {
         f.municipality = municipality;
         f.startYear = startYear;
         f.endYear = endYear;
+        f.districtQuery = districtQuery;
         // do not set districtName/quarter/classification to keep listing broad
-        WhereArgs built = buildWhere(f);
-        String sql = "SELECT DISTINCT r.district_name FROM mlit_price_record r " +
-                JOIN_QUERY_LOG + built.where + " ORDER BY r.district_name";
-        List<String> names = jdbc.query(con -> {
-            var ps = con.prepareStatement(sql);
-            int idx = 1;
-            for (Object a : built.args)
-                ps.setObject(idx++, a);
-            return ps;
-        }, (rs, i) -> rs.getString(1));
-        return ResponseEntity.ok(names);
+        String key = MlitResponseCache.key("districts", "area", area, "city", city, "prefecture", prefecture,
+                "municipality", municipality, "startYear", startYear, "endYear", endYear, "districtQuery",
+                districtQuery);
+        return responseCache.serve(key, request, () -> toJson(readOnlyTx.execute(st -> search.districts(f))));
     }
 
     @GetMapping(value = "/facets", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ObjectNode> listFacets(
+    public ResponseEntity<byte[]> listFacets(
             @RequestParam(required = false) String area,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String station,
             @RequestParam(required = false, name = "startYear") String startYear,
             @RequestParam(required = false, name = "endYear") String endYear,
-            @RequestParam(required = false, name = "priceClassification") String priceClassification) {
+            @RequestParam(required = false, name = "priceClassification") String priceClassification,
+            WebRequest request) {
         // Build base WHERE from dataset scope; ignore client-side list filters.
         Filters f = new Filters();
         f.area = area;
@@ -636,77 +459,9 @@ public class MlitPriceSearchController {
         f.startYear = startYear;
         f.endYear = endYear;
         f.priceClassification = priceClassification;
-        WhereArgs built = buildWhere(f);
-
-        ObjectNode out = mapper.createObjectNode();
-        out.set("years", toNumberArray(distinctYears(built)));
-        out.set("quarters", toNumberArray(distinctQuarters(built)));
-        out.set("prefectures", toStringArray(distinctStrings(built, "r.prefecture", "r.prefecture")));
-        out.set("municipalities", toStringArray(distinctStrings(built, "r.municipality", "r.municipality")));
-        out.set("districts", toStringArray(distinctStrings(built, "r.district_name", "r.district_name")));
-        // additional facets for new filters
-        out.set("types", toStringArray(distinctStrings(built, "r.type", "r.type")));
-        out.set("floorPlans", toStringArray(distinctStrings(built, "r.floor_plan", "r.floor_plan")));
-        out.set("buildingYears", toStringArray(distinctStrings(built, "r.building_year", "r.building_year")));
-        out.set("structures", toStringArray(distinctStrings(built, "r.structure", "r.structure")));
-        return ResponseEntity.ok(out);
-    }
-
-    private List<Integer> distinctYears(WhereArgs built) {
-        String sql = "SELECT DISTINCT q.year::int y FROM mlit_price_record r " + JOIN_QUERY_LOG + built.where +
-                " ORDER BY y DESC";
-        return queryDistinctInts(sql, built);
-    }
-
-    private List<Integer> distinctQuarters(WhereArgs built) {
-        String sql = "SELECT DISTINCT COALESCE(q.quarter::int, NULLIF((regexp_match(r.period, '第([0-9])四半期'))[1], '')::int) q "
-                +
-                "FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
-                " AND (q.quarter IS NOT NULL OR r.period ~ '第([0-9])四半期') ORDER BY q DESC";
-        return queryDistinctInts(sql, built);
-    }
-
-    private List<String> distinctStrings(WhereArgs built, String column, String orderBy) {
-        String sql = "SELECT DISTINCT " + column + " FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
-                " ORDER BY " + orderBy;
-        return queryDistinctStrings(sql, built);
+        String key = MlitResponseCache.key("facets", "area", area, "city", city, "station", station, "startYear",
+                startYear, "endYear", endYear, "priceClassification", priceClassification);
+        return responseCache.serve(key, request, () -> toJson(readOnlyTx.execute(st -> search.facets(f))));
     }
 
-    private List<Integer> queryDistinctInts(String sql, WhereArgs built) {
-        return jdbc.query(con -> {
-            var ps = con.prepareStatement(sql);
-            int idx = 1;
-            for (Object a : built.args)
-                ps.setObject(idx++, a);
-            return ps;
-        }, (rs, i) -> rs.getInt(1));
-    }
-
-    private List<String> queryDistinctStrings(String sql, WhereArgs built) {
-        return jdbc.query(con -> {
-            var ps = con.prepareStatement(sql);
-            int idx = 1;
-            for (Object a : built.args)
-                ps.setObject(idx++, a);
-            return ps;
-        }, (rs, i) -> rs.getString(1));
-    }
-
-    private ArrayNode toNumberArray(List<Integer> list) {
-        ArrayNode node = mapper.createArrayNode();
-        for (Integer v : list) {
-            if (v != null)
-                node.add(v);
-        }
-        return node;
-    }
-
-    private ArrayNode toStringArray(List<String> list) {
-        ArrayNode node = mapper.createArrayNode();
-        for (String v : list) {
-            if (v != null)
-                node.add(v);
-        }
-        return node;
-    }
 }
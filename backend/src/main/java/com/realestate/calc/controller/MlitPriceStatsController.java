@@ -0,0 +1,89 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.calc.mlit.MlitPriceStatsService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Market statistics (median/IQR per ㎡) merged from precomputed sketches
+@RestController
+@RequestMapping("/api/mlit/prices/stats")
+public class MlitPriceStatsController {
+    private static final Set<String> DIMENSIONS = Set.of(MlitPriceStatsService.DIM_DISTRICT,
+            MlitPriceStatsService.DIM_YEAR, MlitPriceStatsService.DIM_QUARTER, MlitPriceStatsService.DIM_TYPE);
+
+    private final MlitPriceStatsService statsService;
+    private final ObjectMapper mapper;
+
+    public MlitPriceStatsController(MlitPriceStatsService statsService, ObjectMapper mapper) {
+        this.statsService = statsService;
+        this.mapper = mapper;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ObjectNode> stats(
+            @RequestParam(required = false, name = "prefecture") String prefecture,
+            @RequestParam(required = false, name = "municipality") String municipality,
+            @RequestParam(required = false, name = "districtName") String districtName,
+            @RequestParam(required = false, name = "type") String type,
+            @RequestParam(required = false, name = "startYear") Integer startYear,
+            @RequestParam(required = false, name = "endYear") Integer endYear,
+            @RequestParam(required = false, name = "quarter") Integer quarter,
+            @RequestParam(required = false, defaultValue = "year", name = "groupBy") String groupBy) {
+        if (isBlank(prefecture) && isBlank(municipality))
+            return badRequest("prefecture or municipality is required");
+        List<String> dims = new ArrayList<>();
+        for (String d : groupBy.split(",")) {
+            String dim = d.trim();
+            if (dim.isEmpty())
+                continue;
+            if (!DIMENSIONS.contains(dim))
+                return badRequest("unknown groupBy dimension: " + dim);
+            if (!dims.contains(dim))
+                dims.add(dim);
+        }
+        if (quarter != null && (quarter < 1 || quarter > 4))
+            return badRequest("quarter must be 1..4");
+
+        MlitPriceStatsService.StatsQuery q = new MlitPriceStatsService.StatsQuery();
+        q.prefectureCode = isBlank(prefecture) ? null : prefecture.trim();
+        q.municipalityCode = isBlank(municipality) ? null : municipality.trim();
+        q.district = districtName;
+        q.type = type;
+        q.startYear = startYear;
+        q.endYear = endYear;
+        q.quarter = quarter;
+        q.groupBy = dims;
+        ObjectNode body = statsService.stats(q);
+        body.put("source", "STATS");
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping(value = "/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ObjectNode> rebuild() {
+        long start = System.nanoTime();
+        int cells = statsService.rebuildAll();
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", "OK");
+        body.put("cells", cells);
+        body.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<ObjectNode> badRequest(String message) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", "ERROR");
+        body.put("message", message);
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
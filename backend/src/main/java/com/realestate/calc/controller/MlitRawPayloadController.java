@@ -0,0 +1,39 @@
+package com.realestate.calc.controller;
+
+import com.realestate.calc.mlit.MlitRawPayloadStore;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Raw MLIT response store: sizes, on-demand compaction and per-query payload lookup
+@RestController
+@RequestMapping("/api/admin/mlit-raw")
+public class MlitRawPayloadController {
+    private final MlitRawPayloadStore rawStore;
+
+    public MlitRawPayloadController(MlitRawPayloadStore rawStore) {
+        this.rawStore = rawStore;
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(rawStore.status());
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<MlitRawPayloadStore.CompactionResult> compact() {
+        return ResponseEntity.ok(rawStore.compact());
+    }
+
+    @GetMapping(value = "/{queryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> raw(@PathVariable long queryId) {
+        String raw = rawStore.loadForQuery(queryId);
+        return raw == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(raw);
+    }
+}
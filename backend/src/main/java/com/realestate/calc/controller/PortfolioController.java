@@ -0,0 +1,23 @@
+package com.realestate.calc.controller;
+
+import com.realestate.calc.dto.PortfolioResult;
+import com.realestate.calc.service.PortfolioService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// 저장된 물건 전체의 현금흐름/대출잔액/수익률 합산
+@RestController
+@RequestMapping("/api/portfolio")
+@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174", "http://localhost:5175" })
+public class PortfolioController {
+    private final PortfolioService portfolioService;
+
+    public PortfolioController(PortfolioService portfolioService) {
+        this.portfolioService = portfolioService;
+    }
+
+    @GetMapping
+    public ResponseEntity<PortfolioResult> portfolio(@RequestParam String userId) {
+        return ResponseEntity.ok(portfolioService.aggregate(userId));
+    }
+}
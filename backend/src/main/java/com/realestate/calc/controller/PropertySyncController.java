@@ -0,0 +1,107 @@
+package com.realestate.calc.controller;
+
+import com.realestate.calc.dto.PropertyData;
+import com.realestate.calc.dto.PropertyDelta;
+import com.realestate.calc.dto.PropertySyncResult;
+import com.realestate.calc.exception.ValidationException;
+import com.realestate.calc.service.PropertyStorageService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Delta sync for saved properties: clients load once, then fetch only changes
+ * after their watermark (since=) and PATCH only the items they changed. Each
+ * item's version is its ETag; stale versions are reported, never overwritten.
+ */
+@RestController
+@RequestMapping("/api/properties")
+@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174", "http://localhost:5175" })
+public class PropertySyncController {
+    private final PropertyStorageService storageService;
+
+    public PropertySyncController(PropertyStorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    @GetMapping
+    public ResponseEntity<PropertyDelta> load(@RequestParam String userId,
+            @RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(storageService.loadSince(userId, since));
+    }
+
+    @PatchMapping
+    public ResponseEntity<PropertySyncResult> patch(@RequestParam String userId,
+            @RequestBody List<PropertyData> changes) {
+        PropertySyncResult result = storageService.applyChanges(userId, changes);
+        return ResponseEntity.status(result.getConflicts().isEmpty() ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(result);
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<PropertyData> get(@RequestParam String userId, @PathVariable String name,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        PropertyData current = storageService.find(userId, name);
+        if (current == null || current.isDeleted())
+            return ResponseEntity.notFound().build();
+        String etag = etag(current);
+        if (etag.equals(ifNoneMatch))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(current);
+    }
+
+    @PutMapping("/{name}")
+    public ResponseEntity<PropertyData> put(@RequestParam String userId, @PathVariable String name,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch, @RequestBody PropertyData body) {
+        body.setName(name);
+        body.setDeleted(false);
+        body.setVersion(parseEtag(ifMatch, body.getVersion()));
+        return single(storageService.applyChanges(userId, List.of(body)));
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<PropertyData> delete(@RequestParam String userId, @PathVariable String name,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        PropertyData tombstone = new PropertyData();
+        tombstone.setName(name);
+        tombstone.setDeleted(true);
+        tombstone.setVersion(parseEtag(ifMatch, null));
+        return single(storageService.applyChanges(userId, List.of(tombstone)));
+    }
+
+    private static ResponseEntity<PropertyData> single(PropertySyncResult result) {
+        if (!result.getConflicts().isEmpty()) {
+            PropertyData current = result.getConflicts().get(0);
+            ResponseEntity.BodyBuilder b = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            if (current.getVersion() != null)
+                b.eTag(etag(current));
+            return b.body(current);
+        }
+        PropertyData applied = result.getApplied().get(0);
+        return applied.getVersion() == null ? ResponseEntity.ok(applied)
+                : ResponseEntity.ok().eTag(etag(applied)).body(applied);
+    }
+
+    private static String etag(PropertyData pd) {
+        return "\"" + pd.getVersion() + "\"";
+    }
+
+    // If-Match: "<version>" (weak tags and * accepted); falls back to the body's version
+    private static Long parseEtag(String header, Long fallback) {
+        if (header == null || header.isBlank())
+            return fallback;
+        String v = header.trim();
+        if ("*".equals(v))
+            return null;
+        if (v.startsWith("W/"))
+            v = v.substring(2);
+        v = v.replace("\"", "");
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("If-Match", "잘못된 ETag 입니다");
+        }
+    }
+}
@@ -1,82 +1,43 @@
 package com.realestate.calc.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.realestate.calc.dto.PropertyData;
+import com.realestate.calc.service.LegacyPropertyFileMigrator;
+import com.realestate.calc.service.PropertyStorageService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
-import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Full-list save/load kept for existing clients. Backed by property_data
+ * (see {@link PropertySyncController} for the delta protocol); users whose
+ * legacy JSON file has not been migrated yet are imported on first access.
+ */
 @RestController
 @RequestMapping("/api/storage")
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174", "http://localhost:5175" })
-@Slf4j
 public class StorageController {
-    private static final String BACKEND_DIR_NAME = "backend";
-    private static final String DATABASE_DIR_NAME = "database";
-    private static final String JSON_EXT = ".json";
+    private final PropertyStorageService storage;
+    private final LegacyPropertyFileMigrator legacyMigrator;
 
-    private static Path getDbDir() {
-        Path cwd = Paths.get(System.getProperty("user.dir"));
-        // If running from backend module, go up to project root
-        Path root = cwd.getFileName() != null && cwd.getFileName().toString().equals(BACKEND_DIR_NAME)
-                ? cwd.getParent()
-                : cwd;
-        return root.resolve(DATABASE_DIR_NAME);
+    public StorageController(PropertyStorageService storage, LegacyPropertyFileMigrator legacyMigrator) {
+        this.storage = storage;
+        this.legacyMigrator = legacyMigrator;
     }
 
     @PostMapping("/save")
     public ResponseEntity<Void> saveData(@RequestParam String userId, @RequestBody List<PropertyData> data) {
-        try {
-            Path dbDir = getDbDir();
-            Files.createDirectories(dbDir);
-            File userFile = dbDir.resolve(userId + JSON_EXT).toFile();
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.writeValue(userFile, data);
-            return ResponseEntity.ok().build();
-        } catch (IOException e) {
-            log.error("Save failed", e);
-            return ResponseEntity.status(500).build();
-        }
+        // Import first so the save's tombstones also cover items only the file had
+        legacyMigrator.migrateUser(userId);
+        storage.save(userId, data);
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/load")
     public ResponseEntity<List<PropertyData>> loadData(@RequestParam String userId) {
-        try {
-            Path dbDir = getDbDir();
-            Files.createDirectories(dbDir);
-            File userFile = dbDir.resolve(userId + JSON_EXT).toFile();
-            ObjectMapper mapper = new ObjectMapper();
-            if (!userFile.exists()) {
-                // Legacy fallback: files previously saved under backend/database
-                Path cwd = Paths.get(System.getProperty("user.dir"));
-                Path legacyDir = (cwd.getFileName() != null && cwd.getFileName().toString().equals(BACKEND_DIR_NAME))
-                        ? cwd.resolve(DATABASE_DIR_NAME)
-                        : cwd.resolve(BACKEND_DIR_NAME).resolve(DATABASE_DIR_NAME);
-                File legacyFile = legacyDir.resolve(userId + JSON_EXT).toFile();
-                if (!legacyFile.exists()) {
-                    return ResponseEntity.ok(new ArrayList<>());
-                }
-                List<PropertyData> legacyData = mapper.readValue(legacyFile, new TypeReference<List<PropertyData>>() {
-                });
-                // Migrate to new location
-                mapper.writeValue(userFile, legacyData);
-                return ResponseEntity.ok(legacyData);
-            }
-            List<PropertyData> data = mapper.readValue(userFile, new TypeReference<List<PropertyData>>() {
-            });
-            return ResponseEntity.ok(data);
-        } catch (IOException e) {
-            log.error("Load failed", e);
-            return ResponseEntity.status(500).build();
-        }
+        List<PropertyData> data = storage.load(userId);
+        if (data.isEmpty() && legacyMigrator.migrateUser(userId) > 0)
+            data = storage.load(userId);
+        return ResponseEntity.ok(data);
     }
 }
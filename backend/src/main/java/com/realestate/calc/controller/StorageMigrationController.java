@@ -0,0 +1,23 @@
+package com.realestate.calc.controller;
+
+import com.realestate.calc.service.LegacyPropertyFileMigrator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Bulk import of the legacy database/<userId>.json files into property_data
+@RestController
+@RequestMapping("/api/admin/storage")
+public class StorageMigrationController {
+    private final LegacyPropertyFileMigrator migrator;
+
+    public StorageMigrationController(LegacyPropertyFileMigrator migrator) {
+        this.migrator = migrator;
+    }
+
+    @PostMapping("/migrate")
+    public ResponseEntity<LegacyPropertyFileMigrator.MigrationResult> migrate() {
+        return ResponseEntity.ok(migrator.migrateAll());
+    }
+}
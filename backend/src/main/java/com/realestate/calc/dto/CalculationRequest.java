@@ -1,10 +1,13 @@
 package com.realestate.calc.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
+import java.util.List;
+
 public class CalculationRequest {
 
     // 물건 이름을 optional로 변경하고 기본값 설정
@@ -54,6 +57,34 @@ public class CalculationRequest {
     private int rentAdjustmentInterval;
     private double rentAdjustmentRate;
 
+    // 시세 비교(comps)용 선택 입력: municipalityCode와 floorArea가 있으면 유사 거래 기반 추천 가격대를 함께 반환
+    private String municipalityCode;
+    private String districtName;
+    private String propertyType; // MLIT Type (예: 中古マンション等)
+    private Double floorArea; // ㎡
+    private Integer buildingYear;
+    private String structure;
+
+    // 투자지표(IRR/NPV) 선택 입력: 할인율(연 %, 기본 5), 매각 연도(기본 min(10, term)), 매각가(万円, 기본 매입가)
+    @DecimalMin(value = "-100", inclusive = false, message = "할인율은 -100%보다 커야 합니다")
+    private Double discountRate;
+    private Integer exitYear;
+    private Double exitPrice;
+
+    // 세금/감가상각 선택 입력: 건물가격(万円, 기본 매입가의 25%), 築年数, 소유 형태(individual/corporate, 기본 법인),
+    // 개인의 기타 소득(万円/년), taxRate(%)를 주면 연간 임대소득에 누진세율표 대신 단일 세율 적용
+    private Double buildingPrice;
+    private Integer buildingAge;
+    private String ownershipType;
+    private Double otherIncome;
+    private Double taxRate;
+
+    // 변동금리/재융자: 금리 변경·중도상환·재융자 이벤트, index 기반 금리의 가산 금리(%),
+    // 5년 룰·125% 룰(상환액은 5년마다만 재계산, 직전 상환액의 125% 상한, 미지급 이자는 만기 일시 상환)
+    private List<LoanEvent> loanEvents;
+    private Double spread;
+    private boolean paymentProtection;
+
     // Getters and Setters
     public String getName() {
         return name;
@@ -190,4 +221,140 @@ public class CalculationRequest {
     public void setRentAdjustmentRate(double rentAdjustmentRate) {
         this.rentAdjustmentRate = rentAdjustmentRate;
     }
+
+    public String getMunicipalityCode() {
+        return municipalityCode;
+    }
+
+    public void setMunicipalityCode(String municipalityCode) {
+        this.municipalityCode = municipalityCode;
+    }
+
+    public String getDistrictName() {
+        return districtName;
+    }
+
+    public void setDistrictName(String districtName) {
+        this.districtName = districtName;
+    }
+
+    public String getPropertyType() {
+        return propertyType;
+    }
+
+    public void setPropertyType(String propertyType) {
+        this.propertyType = propertyType;
+    }
+
+    public Double getFloorArea() {
+        return floorArea;
+    }
+
+    public void setFloorArea(Double floorArea) {
+        this.floorArea = floorArea;
+    }
+
+    public Integer getBuildingYear() {
+        return buildingYear;
+    }
+
+    public void setBuildingYear(Integer buildingYear) {
+        this.buildingYear = buildingYear;
+    }
+
+    public String getStructure() {
+        return structure;
+    }
+
+    public void setStructure(String structure) {
+        this.structure = structure;
+    }
+
+    public Double getDiscountRate() {
+        return discountRate;
+    }
+
+    public void setDiscountRate(Double discountRate) {
+        this.discountRate = discountRate;
+    }
+
+    public Integer getExitYear() {
+        return exitYear;
+    }
+
+    public void setExitYear(Integer exitYear) {
+        this.exitYear = exitYear;
+    }
+
+    public Double getExitPrice() {
+        return exitPrice;
+    }
+
+    public void setExitPrice(Double exitPrice) {
+        this.exitPrice = exitPrice;
+    }
+
+    public Double getBuildingPrice() {
+        return buildingPrice;
+    }
+
+    public void setBuildingPrice(Double buildingPrice) {
+        this.buildingPrice = buildingPrice;
+    }
+
+    public Integer getBuildingAge() {
+        return buildingAge;
+    }
+
+    public void setBuildingAge(Integer buildingAge) {
+        this.buildingAge = buildingAge;
+    }
+
+    public String getOwnershipType() {
+        return ownershipType;
+    }
+
+    public void setOwnershipType(String ownershipType) {
+        this.ownershipType = ownershipType;
+    }
+
+    public Double getOtherIncome() {
+        return otherIncome;
+    }
+
+    public void setOtherIncome(Double otherIncome) {
+        this.otherIncome = otherIncome;
+    }
+
+    public Double getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(Double taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public List<LoanEvent> getLoanEvents() {
+        return loanEvents;
+    }
+
+    public void setLoanEvents(List<LoanEvent> loanEvents) {
+        this.loanEvents = loanEvents;
+    }
+
+    public Double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(Double spread) {
+        this.spread = spread;
+    }
+
+    public boolean isPaymentProtection() {
+        return paymentProtection;
+    }
+
+    public void setPaymentProtection(boolean paymentProtection) {
+        this.paymentProtection = paymentProtection;
+    }
 }
\ No newline at end of file
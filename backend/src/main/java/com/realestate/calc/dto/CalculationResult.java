@@ -1,6 +1,7 @@
 package com.realestate.calc.dto;
 
 import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class CalculationResult {
@@ -11,7 +12,13 @@ public class CalculationResult {
     private String yieldPercent;
     private String grossYield;
     private String equityYield; // 자기자본 대비 수익률
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<RepaymentSchedule> repaymentSchedule; // schedule → repaymentSchedule 변경
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ColumnarSchedule scheduleColumns; // compact 응답에서 repaymentSchedule 대신 사용
+    private PriceBand suggestedPriceBand; // 유사 거래 기반 추천 가격대 (comps 입력이 없으면 null)
+    private Investment investment; // IRR/NPV/회수기간 (연 단위 현금흐름 기준)
+    private Tax tax; // 감가상각/세금 스케줄 (보유 연도 기준)
 
     public CalculationResult() {
         // Default constructor for Jackson deserialization and manual property setting.
@@ -84,6 +91,469 @@ public class CalculationResult {
         this.repaymentSchedule = repaymentSchedule;
     }
 
+    public ColumnarSchedule getScheduleColumns() {
+        return scheduleColumns;
+    }
+
+    public void setScheduleColumns(ColumnarSchedule scheduleColumns) {
+        this.scheduleColumns = scheduleColumns;
+    }
+
+    public PriceBand getSuggestedPriceBand() {
+        return suggestedPriceBand;
+    }
+
+    public void setSuggestedPriceBand(PriceBand suggestedPriceBand) {
+        this.suggestedPriceBand = suggestedPriceBand;
+    }
+
+    public Tax getTax() {
+        return tax;
+    }
+
+    public void setTax(Tax tax) {
+        this.tax = tax;
+    }
+
+    public Investment getInvestment() {
+        return investment;
+    }
+
+    public void setInvestment(Investment investment) {
+        this.investment = investment;
+    }
+
+    // 비율은 %, 금액은 원 단위. 정의되지 않는 값(근이 없음, 회수 불가 등)은 null
+    public static class Investment {
+        private int exitYear;
+        private long exitPrice;
+        private double discountRate;
+        private Double leveredIrr; // 자기자본 현금흐름 기준
+        private Double afterTaxIrr; // 연간 세금과 매각 시 비용/양도세 차감 후
+        private Double unleveredIrr; // 총 매입비용 대비 NOI + 매각가 기준
+        private Long npv; // 자기자본 현금흐름의 할인율 기준 순현재가치
+        private Double equityMultiple;
+        private Double paybackYears;
+
+        public int getExitYear() {
+            return exitYear;
+        }
+
+        public void setExitYear(int exitYear) {
+            this.exitYear = exitYear;
+        }
+
+        public long getExitPrice() {
+            return exitPrice;
+        }
+
+        public void setExitPrice(long exitPrice) {
+            this.exitPrice = exitPrice;
+        }
+
+        public double getDiscountRate() {
+            return discountRate;
+        }
+
+        public void setDiscountRate(double discountRate) {
+            this.discountRate = discountRate;
+        }
+
+        public Double getLeveredIrr() {
+            return leveredIrr;
+        }
+
+        public void setLeveredIrr(Double leveredIrr) {
+            this.leveredIrr = leveredIrr;
+        }
+
+        public Double getAfterTaxIrr() {
+            return afterTaxIrr;
+        }
+
+        public void setAfterTaxIrr(Double afterTaxIrr) {
+            this.afterTaxIrr = afterTaxIrr;
+        }
+
+        public Double getUnleveredIrr() {
+            return unleveredIrr;
+        }
+
+        public void setUnleveredIrr(Double unleveredIrr) {
+            this.unleveredIrr = unleveredIrr;
+        }
+
+        public Long getNpv() {
+            return npv;
+        }
+
+        public void setNpv(Long npv) {
+            this.npv = npv;
+        }
+
+        public Double getEquityMultiple() {
+            return equityMultiple;
+        }
+
+        public void setEquityMultiple(Double equityMultiple) {
+            this.equityMultiple = equityMultiple;
+        }
+
+        public Double getPaybackYears() {
+            return paybackYears;
+        }
+
+        public void setPaybackYears(Double paybackYears) {
+            this.paybackYears = paybackYears;
+        }
+    }
+
+    // 금액은 원 단위
+    public static class Tax {
+        private String ownershipType; // individual / corporate
+        private int usefulLife; // 적용 내용연수 (중고 간편법 반영)
+        private long annualDepreciation;
+        private List<TaxYear> years;
+        private TaxSale sale; // 매각 연도의 양도 과세
+
+        public String getOwnershipType() {
+            return ownershipType;
+        }
+
+        public void setOwnershipType(String ownershipType) {
+            this.ownershipType = ownershipType;
+        }
+
+        public int getUsefulLife() {
+            return usefulLife;
+        }
+
+        public void setUsefulLife(int usefulLife) {
+            this.usefulLife = usefulLife;
+        }
+
+        public long getAnnualDepreciation() {
+            return annualDepreciation;
+        }
+
+        public void setAnnualDepreciation(long annualDepreciation) {
+            this.annualDepreciation = annualDepreciation;
+        }
+
+        public List<TaxYear> getYears() {
+            return years;
+        }
+
+        public void setYears(List<TaxYear> years) {
+            this.years = years;
+        }
+
+        public TaxSale getSale() {
+            return sale;
+        }
+
+        public void setSale(TaxSale sale) {
+            this.sale = sale;
+        }
+    }
+
+    // 보유 n년차: 과세소득 = 임대수입 - 유지비 - 이자 - 감가상각 (- 1년차 제비용)
+    public static class TaxYear {
+        private int year;
+        private long rent;
+        private long interest;
+        private long depreciation;
+        private long expenses; // 장기수선 적립 제외 유지비
+        private long acquisitionCosts; // 1년차만
+        private long taxableIncome; // 음수면 손실
+        private long tax; // 개인은 손익통산으로 음수 가능
+        private long afterTaxCashFlow;
+        private long bookValue; // 건물 장부가
+
+        public int getYear() {
+            return year;
+        }
+
+        public void setYear(int year) {
+            this.year = year;
+        }
+
+        public long getRent() {
+            return rent;
+        }
+
+        public void setRent(long rent) {
+            this.rent = rent;
+        }
+
+        public long getInterest() {
+            return interest;
+        }
+
+        public void setInterest(long interest) {
+            this.interest = interest;
+        }
+
+        public long getDepreciation() {
+            return depreciation;
+        }
+
+        public void setDepreciation(long depreciation) {
+            this.depreciation = depreciation;
+        }
+
+        public long getExpenses() {
+            return expenses;
+        }
+
+        public void setExpenses(long expenses) {
+            this.expenses = expenses;
+        }
+
+        public long getAcquisitionCosts() {
+            return acquisitionCosts;
+        }
+
+        public void setAcquisitionCosts(long acquisitionCosts) {
+            this.acquisitionCosts = acquisitionCosts;
+        }
+
+        public long getTaxableIncome() {
+            return taxableIncome;
+        }
+
+        public void setTaxableIncome(long taxableIncome) {
+            this.taxableIncome = taxableIncome;
+        }
+
+        public long getTax() {
+            return tax;
+        }
+
+        public void setTax(long tax) {
+            this.tax = tax;
+        }
+
+        public long getAfterTaxCashFlow() {
+            return afterTaxCashFlow;
+        }
+
+        public void setAfterTaxCashFlow(long afterTaxCashFlow) {
+            this.afterTaxCashFlow = afterTaxCashFlow;
+        }
+
+        public long getBookValue() {
+            return bookValue;
+        }
+
+        public void setBookValue(long bookValue) {
+            this.bookValue = bookValue;
+        }
+    }
+
+    public static class TaxSale {
+        private int year;
+        private long salePrice;
+        private long sellingCost;
+        private long bookValue; // 토지 + 건물 장부가
+        private long gain;
+        private boolean longTerm; // 매각 연도 1월 1일 기준 보유 5년 초과
+        private long transferTax;
+        private long netProceedsAfterTax; // 매각가 - 비용 - 대출잔액 - 양도세
+
+        public int getYear() {
+            return year;
+        }
+
+        public void setYear(int year) {
+            this.year = year;
+        }
+
+        public long getSalePrice() {
+            return salePrice;
+        }
+
+        public void setSalePrice(long salePrice) {
+            this.salePrice = salePrice;
+        }
+
+        public long getSellingCost() {
+            return sellingCost;
+        }
+
+        public void setSellingCost(long sellingCost) {
+            this.sellingCost = sellingCost;
+        }
+
+        public long getBookValue() {
+            return bookValue;
+        }
+
+        public void setBookValue(long bookValue) {
+            this.bookValue = bookValue;
+        }
+
+        public long getGain() {
+            return gain;
+        }
+
+        public void setGain(long gain) {
+            this.gain = gain;
+        }
+
+        public boolean isLongTerm() {
+            return longTerm;
+        }
+
+        public void setLongTerm(boolean longTerm) {
+            this.longTerm = longTerm;
+        }
+
+        public long getTransferTax() {
+            return transferTax;
+        }
+
+        public void setTransferTax(long transferTax) {
+            this.transferTax = transferTax;
+        }
+
+        public long getNetProceedsAfterTax() {
+            return netProceedsAfterTax;
+        }
+
+        public void setNetProceedsAfterTax(long netProceedsAfterTax) {
+            this.netProceedsAfterTax = netProceedsAfterTax;
+        }
+    }
+
+    // 가격은 요청의 price와 같은 만원 단위, ㎡ 단가는 원 단위
+    public static class PriceBand {
+        private long low; // P25 단가 × 면적
+        private long median;
+        private long high; // P75 단가 × 면적
+        private long unitPriceMedian;
+        private int compCount;
+        private List<Comp> comps;
+
+        public long getLow() {
+            return low;
+        }
+
+        public void setLow(long low) {
+            this.low = low;
+        }
+
+        public long getMedian() {
+            return median;
+        }
+
+        public void setMedian(long median) {
+            this.median = median;
+        }
+
+        public long getHigh() {
+            return high;
+        }
+
+        public void setHigh(long high) {
+            this.high = high;
+        }
+
+        public long getUnitPriceMedian() {
+            return unitPriceMedian;
+        }
+
+        public void setUnitPriceMedian(long unitPriceMedian) {
+            this.unitPriceMedian = unitPriceMedian;
+        }
+
+        public int getCompCount() {
+            return compCount;
+        }
+
+        public void setCompCount(int compCount) {
+            this.compCount = compCount;
+        }
+
+        public List<Comp> getComps() {
+            return comps;
+        }
+
+        public void setComps(List<Comp> comps) {
+            this.comps = comps;
+        }
+    }
+
+    public static class Comp {
+        private String district;
+        private String structure;
+        private long tradePrice; // 원
+        private double area; // ㎡
+        private Integer buildingYear;
+        private int tradeYear;
+
+        public Comp() {
+        }
+
+        public Comp(String district, String structure, long tradePrice, double area, Integer buildingYear,
+                int tradeYear) {
+            this.district = district;
+            this.structure = structure;
+            this.tradePrice = tradePrice;
+            this.area = area;
+            this.buildingYear = buildingYear;
+            this.tradeYear = tradeYear;
+        }
+
+        public String getDistrict() {
+            return district;
+        }
+
+        public void setDistrict(String district) {
+            this.district = district;
+        }
+
+        public String getStructure() {
+            return structure;
+        }
+
+        public void setStructure(String structure) {
+            this.structure = structure;
+        }
+
+        public long getTradePrice() {
+            return tradePrice;
+        }
+
+        public void setTradePrice(long tradePrice) {
+            this.tradePrice = tradePrice;
+        }
+
+        public double getArea() {
+            return area;
+        }
+
+        public void setArea(double area) {
+            this.area = area;
+        }
+
+        public Integer getBuildingYear() {
+            return buildingYear;
+        }
+
+        public void setBuildingYear(Integer buildingYear) {
+            this.buildingYear = buildingYear;
+        }
+
+        public int getTradeYear() {
+            return tradeYear;
+        }
+
+        public void setTradeYear(int tradeYear) {
+            this.tradeYear = tradeYear;
+        }
+    }
+
     public static class RepaymentSchedule {
         @JsonProperty("month")
         private int no;
@@ -0,0 +1,117 @@
+package com.realestate.calc.dto;
+
+import java.util.List;
+
+/**
+ * Repayment schedule as parallel arrays: row k is month k + 1, dated
+ * startDate + k months. Same values as the row list, without a per-row
+ * object, date string and field names.
+ */
+public class ColumnarSchedule {
+    private String startDate;
+    private int months;
+    private double[] payment;
+    private double[] principal;
+    private double[] interest;
+    private double[] remaining;
+    private double[] rent;
+    private double[] reserve;
+    private double[] cashFlow;
+
+    public static ColumnarSchedule of(List<CalculationResult.RepaymentSchedule> rows) {
+        int n = rows.size();
+        ColumnarSchedule c = new ColumnarSchedule();
+        c.startDate = n > 0 ? rows.get(0).getDate() : null;
+        c.months = n;
+        c.payment = new double[n];
+        c.principal = new double[n];
+        c.interest = new double[n];
+        c.remaining = new double[n];
+        c.rent = new double[n];
+        c.reserve = new double[n];
+        c.cashFlow = new double[n];
+        for (int k = 0; k < n; k++) {
+            CalculationResult.RepaymentSchedule r = rows.get(k);
+            c.payment[k] = r.getPayment();
+            c.principal[k] = r.getPrincipal();
+            c.interest[k] = r.getInterest();
+            c.remaining[k] = r.getBalance();
+            c.rent[k] = r.getRent();
+            c.reserve[k] = r.getReserve();
+            c.cashFlow[k] = r.getCashFlow();
+        }
+        return c;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    public int getMonths() {
+        return months;
+    }
+
+    public void setMonths(int months) {
+        this.months = months;
+    }
+
+    public double[] getPayment() {
+        return payment;
+    }
+
+    public void setPayment(double[] payment) {
+        this.payment = payment;
+    }
+
+    public double[] getPrincipal() {
+        return principal;
+    }
+
+    public void setPrincipal(double[] principal) {
+        this.principal = principal;
+    }
+
+    public double[] getInterest() {
+        return interest;
+    }
+
+    public void setInterest(double[] interest) {
+        this.interest = interest;
+    }
+
+    public double[] getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(double[] remaining) {
+        this.remaining = remaining;
+    }
+
+    public double[] getRent() {
+        return rent;
+    }
+
+    public void setRent(double[] rent) {
+        this.rent = rent;
+    }
+
+    public double[] getReserve() {
+        return reserve;
+    }
+
+    public void setReserve(double[] reserve) {
+        this.reserve = reserve;
+    }
+
+    public double[] getCashFlow() {
+        return cashFlow;
+    }
+
+    public void setCashFlow(double[] cashFlow) {
+        this.cashFlow = cashFlow;
+    }
+}
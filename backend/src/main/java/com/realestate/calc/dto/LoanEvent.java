@@ -0,0 +1,82 @@
+package com.realestate.calc.dto;
+
+/**
+ * A change to the loan taking effect at the start of a schedule month (1-based).
+ * type: "rate" (rate, or index + request spread), "prepay" (amount, mode
+ * "shorten" keeps the payment / "reduce" keeps the end date), "refinance"
+ * (new rate or index, new term in years, fee).
+ */
+public class LoanEvent {
+    private String type;
+    private int month;
+    private Double rate; // 연 %
+    private Double index; // 연 %, rate 대신 지정하면 index + spread
+    private Double amount; // 万円
+    private String mode;
+    private Integer term; // 년
+    private Double fee; // 万円
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+
+    public Double getIndex() {
+        return index;
+    }
+
+    public void setIndex(Double index) {
+        this.index = index;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public Integer getTerm() {
+        return term;
+    }
+
+    public void setTerm(Integer term) {
+        this.term = term;
+    }
+
+    public Double getFee() {
+        return fee;
+    }
+
+    public void setFee(Double fee) {
+        this.fee = fee;
+    }
+}
@@ -0,0 +1,298 @@
+package com.realestate.calc.dto;
+
+import java.util.List;
+
+/**
+ * Consolidated view of a user's saved properties. Money is in 円 except
+ * totalPrice/totalPurchaseCost/totalLoan/totalOwnCapital, which keep the
+ * 万円 unit of the input forms; yields are percentages.
+ */
+public class PortfolioResult {
+    private int propertyCount;
+    private List<String> skipped; // 계산 불가(매입가/금리/기간/월세 누락) 항목 이름
+    private String startMonth; // 가장 이른 대출 시작월 (yyyy-MM)
+    private double totalPrice;
+    private double totalPurchaseCost;
+    private double totalLoan;
+    private double totalOwnCapital;
+    private long monthlyPayment;
+    private long yearlyIncome;
+    private long yearlyCost;
+    private long yearlyProfit;
+    private double grossYield;
+    private double yieldPercent;
+    private double equityYield;
+    private List<Year> years;
+    private List<Property> properties;
+
+    public int getPropertyCount() {
+        return propertyCount;
+    }
+
+    public void setPropertyCount(int propertyCount) {
+        this.propertyCount = propertyCount;
+    }
+
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(List<String> skipped) {
+        this.skipped = skipped;
+    }
+
+    public String getStartMonth() {
+        return startMonth;
+    }
+
+    public void setStartMonth(String startMonth) {
+        this.startMonth = startMonth;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(double totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public double getTotalPurchaseCost() {
+        return totalPurchaseCost;
+    }
+
+    public void setTotalPurchaseCost(double totalPurchaseCost) {
+        this.totalPurchaseCost = totalPurchaseCost;
+    }
+
+    public double getTotalLoan() {
+        return totalLoan;
+    }
+
+    public void setTotalLoan(double totalLoan) {
+        this.totalLoan = totalLoan;
+    }
+
+    public double getTotalOwnCapital() {
+        return totalOwnCapital;
+    }
+
+    public void setTotalOwnCapital(double totalOwnCapital) {
+        this.totalOwnCapital = totalOwnCapital;
+    }
+
+    public long getMonthlyPayment() {
+        return monthlyPayment;
+    }
+
+    public void setMonthlyPayment(long monthlyPayment) {
+        this.monthlyPayment = monthlyPayment;
+    }
+
+    public long getYearlyIncome() {
+        return yearlyIncome;
+    }
+
+    public void setYearlyIncome(long yearlyIncome) {
+        this.yearlyIncome = yearlyIncome;
+    }
+
+    public long getYearlyCost() {
+        return yearlyCost;
+    }
+
+    public void setYearlyCost(long yearlyCost) {
+        this.yearlyCost = yearlyCost;
+    }
+
+    public long getYearlyProfit() {
+        return yearlyProfit;
+    }
+
+    public void setYearlyProfit(long yearlyProfit) {
+        this.yearlyProfit = yearlyProfit;
+    }
+
+    public double getGrossYield() {
+        return grossYield;
+    }
+
+    public void setGrossYield(double grossYield) {
+        this.grossYield = grossYield;
+    }
+
+    public double getYieldPercent() {
+        return yieldPercent;
+    }
+
+    public void setYieldPercent(double yieldPercent) {
+        this.yieldPercent = yieldPercent;
+    }
+
+    public double getEquityYield() {
+        return equityYield;
+    }
+
+    public void setEquityYield(double equityYield) {
+        this.equityYield = equityYield;
+    }
+
+    public List<Year> getYears() {
+        return years;
+    }
+
+    public void setYears(List<Year> years) {
+        this.years = years;
+    }
+
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(List<Property> properties) {
+        this.properties = properties;
+    }
+
+    // 달력 연도별 합계 (원 단위, 반올림)
+    public static class Year {
+        private int year;
+        private long rent;
+        private long payment;
+        private long principal;
+        private long interest;
+        private long expense; // 장기수선 제외 유지비
+        private long reserve;
+        private long cashFlow;
+        private long endingBalance;
+
+        public int getYear() {
+            return year;
+        }
+
+        public void setYear(int year) {
+            this.year = year;
+        }
+
+        public long getRent() {
+            return rent;
+        }
+
+        public void setRent(long rent) {
+            this.rent = rent;
+        }
+
+        public long getPayment() {
+            return payment;
+        }
+
+        public void setPayment(long payment) {
+            this.payment = payment;
+        }
+
+        public long getPrincipal() {
+            return principal;
+        }
+
+        public void setPrincipal(long principal) {
+            this.principal = principal;
+        }
+
+        public long getInterest() {
+            return interest;
+        }
+
+        public void setInterest(long interest) {
+            this.interest = interest;
+        }
+
+        public long getExpense() {
+            return expense;
+        }
+
+        public void setExpense(long expense) {
+            this.expense = expense;
+        }
+
+        public long getReserve() {
+            return reserve;
+        }
+
+        public void setReserve(long reserve) {
+            this.reserve = reserve;
+        }
+
+        public long getCashFlow() {
+            return cashFlow;
+        }
+
+        public void setCashFlow(long cashFlow) {
+            this.cashFlow = cashFlow;
+        }
+
+        public long getEndingBalance() {
+            return endingBalance;
+        }
+
+        public void setEndingBalance(long endingBalance) {
+            this.endingBalance = endingBalance;
+        }
+    }
+
+    // 물건별 요약 (원 단위)
+    public static class Property {
+        private String name;
+        private String startMonth;
+        private int termMonths;
+        private long monthlyPayment;
+        private long yearlyIncome;
+        private long yearlyProfit;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getStartMonth() {
+            return startMonth;
+        }
+
+        public void setStartMonth(String startMonth) {
+            this.startMonth = startMonth;
+        }
+
+        public int getTermMonths() {
+            return termMonths;
+        }
+
+        public void setTermMonths(int termMonths) {
+            this.termMonths = termMonths;
+        }
+
+        public long getMonthlyPayment() {
+            return monthlyPayment;
+        }
+
+        public void setMonthlyPayment(long monthlyPayment) {
+            this.monthlyPayment = monthlyPayment;
+        }
+
+        public long getYearlyIncome() {
+            return yearlyIncome;
+        }
+
+        public void setYearlyIncome(long yearlyIncome) {
+            this.yearlyIncome = yearlyIncome;
+        }
+
+        public long getYearlyProfit() {
+            return yearlyProfit;
+        }
+
+        public void setYearlyProfit(long yearlyProfit) {
+            this.yearlyProfit = yearlyProfit;
+        }
+    }
+}
@@ -7,6 +7,10 @@ public class PropertyData {
     private String name;
     private Instant updatedAt;
     private Map<String, Object> form;
+    // Server version of the item; on PATCH/PUT it is the version the client last saw
+    private Long version;
+    // Tombstone: in delta loads a removed item, in PATCH a delete request
+    private boolean deleted;
 
     public String getName() {
         return name;
@@ -31,4 +35,20 @@ public class PropertyData {
     public void setForm(Map<String, Object> form) {
         this.form = form;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
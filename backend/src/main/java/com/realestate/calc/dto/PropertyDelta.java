@@ -0,0 +1,37 @@
+package com.realestate.calc.dto;
+
+import java.util.List;
+
+/**
+ * Items changed after a watermark (all live items when no watermark was given).
+ * Pass watermark back as since= on the next load.
+ */
+public class PropertyDelta {
+    private long watermark;
+    private boolean full;
+    private List<PropertyData> items;
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(long watermark) {
+        this.watermark = watermark;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<PropertyData> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PropertyData> items) {
+        this.items = items;
+    }
+}
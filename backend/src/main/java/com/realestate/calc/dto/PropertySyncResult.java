@@ -0,0 +1,29 @@
+package com.realestate.calc.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a PATCH: applied items carry their new version; conflicts carry
+ * the server's current state (a tombstone if it was deleted).
+ */
+public class PropertySyncResult {
+    private List<PropertyData> applied = new ArrayList<>();
+    private List<PropertyData> conflicts = new ArrayList<>();
+
+    public List<PropertyData> getApplied() {
+        return applied;
+    }
+
+    public void setApplied(List<PropertyData> applied) {
+        this.applied = applied;
+    }
+
+    public List<PropertyData> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<PropertyData> conflicts) {
+        this.conflicts = conflicts;
+    }
+}
@@ -0,0 +1,385 @@
+package com.realestate.calc.mlit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory comparable-sales index. Trades are partitioned by
+ * (municipality, type) and each partition is an implicit k-d tree over
+ * normalized numeric features held in primitive arrays:
+ *
+ * <pre>
+ *   ln(area) / ln(1.25)   one unit ~ 25% larger or smaller
+ *   buildingYear / 8      one unit ~ 8 years of age
+ *   tradeYear / 4         one unit ~ 4 years of recency
+ * </pre>
+ *
+ * A lookup takes the nearest {@code k * OVERSAMPLE} trades by feature distance
+ * and re-ranks them with district and structure mismatch penalties, so a
+ * query touches O(log n + k) entries of one partition. Swapped whole by
+ * {@link ComparableSalesService}; readers never lock.
+ */
+public final class ComparableSalesIndex {
+    static final int DIMS = 3;
+    private static final int OVERSAMPLE = 4;
+    private static final double AREA_SCALE = Math.log(1.25);
+    private static final double BUILDING_YEAR_SCALE = 8.0;
+    private static final double TRADE_YEAR_SCALE = 4.0;
+    // Squared-distance penalties applied when re-ranking candidates
+    private static final double DISTRICT_PENALTY = 1.0;
+    private static final double STRUCTURE_PENALTY = 1.0;
+
+    private static final Pattern WESTERN_YEAR = Pattern.compile("([0-9]{4})年");
+    private static final Pattern ERA_YEAR = Pattern.compile("(昭和|平成|令和)(元|[0-9]{1,2})年");
+
+    public static final ComparableSalesIndex EMPTY = new ComparableSalesIndex(Map.of());
+
+    /** One trade as loaded from mlit_price_record. */
+    public record Trade(String municipalityCode, String type, String district, String structure, long tradePrice,
+            double area, int buildingYear, int tradeYear) {
+    }
+
+    /** Lookup input; null/blank fields are simply not matched on. */
+    public record Query(String municipalityCode, String type, String district, String structure, double area,
+            Integer buildingYear, int k) {
+    }
+
+    public record Match(String district, String structure, long tradePrice, double area, int buildingYear,
+            int tradeYear, double distance) {
+        public double unitPrice() {
+            return tradePrice / area;
+        }
+    }
+
+    private final Map<String, List<Partition>> byMunicipality;
+    private final int size;
+
+    private ComparableSalesIndex(Map<String, List<Partition>> byMunicipality) {
+        this.byMunicipality = byMunicipality;
+        int n = 0;
+        for (List<Partition> ps : byMunicipality.values())
+            for (Partition p : ps)
+                n += p.n;
+        this.size = n;
+    }
+
+    public static ComparableSalesIndex build(Collection<Trade> trades) {
+        return new ComparableSalesIndex(Collections.unmodifiableMap(partition(trades)));
+    }
+
+    /**
+     * Copy of this index with every partition of {@code municipalityCodes}
+     * replaced by the ones built from {@code trades}; other municipalities are
+     * shared with this instance.
+     */
+    public ComparableSalesIndex replacing(Set<String> municipalityCodes, Collection<Trade> trades) {
+        Map<String, List<Partition>> next = new HashMap<>(byMunicipality);
+        municipalityCodes.forEach(next::remove);
+        next.putAll(partition(trades));
+        return new ComparableSalesIndex(Collections.unmodifiableMap(next));
+    }
+
+    /** Copy of this index without the municipalities outside {@code keep}. */
+    public ComparableSalesIndex retaining(Set<String> keep) {
+        Map<String, List<Partition>> next = new HashMap<>(byMunicipality);
+        next.keySet().retainAll(keep);
+        return next.size() == byMunicipality.size() ? this
+                : new ComparableSalesIndex(Collections.unmodifiableMap(next));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int municipalityCount() {
+        return byMunicipality.size();
+    }
+
+    /** Nearest trades to the query, closest first; empty when the municipality is unknown. */
+    public List<Match> nearest(Query q) {
+        List<Partition> parts = byMunicipality.get(q.municipalityCode());
+        if (parts == null || q.k() <= 0 || !(q.area() > 0))
+            return List.of();
+        boolean anyType = q.type() == null || q.type().isBlank();
+        int want = q.k() * OVERSAMPLE;
+        List<Match> candidates = new ArrayList<>(want * (anyType ? parts.size() : 1));
+        for (Partition p : parts) {
+            if (!anyType && !p.type.equals(q.type()))
+                continue;
+            p.nearest(q, want, candidates);
+        }
+        candidates.sort((a, b) -> Double.compare(a.distance(), b.distance()));
+        return candidates.size() > q.k() ? List.copyOf(candidates.subList(0, q.k())) : candidates;
+    }
+
+    private static Map<String, List<Partition>> partition(Collection<Trade> trades) {
+        Map<String, Map<String, List<Trade>>> grouped = new HashMap<>();
+        for (Trade t : trades) {
+            if (t.municipalityCode() == null || !(t.area() > 0) || t.tradePrice() <= 0)
+                continue;
+            grouped.computeIfAbsent(t.municipalityCode(), k -> new HashMap<>())
+                    .computeIfAbsent(t.type() == null ? "" : t.type(), k -> new ArrayList<>()).add(t);
+        }
+        Map<String, List<Partition>> out = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((muni, byType) -> {
+            List<Partition> ps = new ArrayList<>(byType.size());
+            byType.forEach((type, list) -> ps.add(new Partition(type, list)));
+            out.put(muni, List.copyOf(ps));
+        });
+        return out;
+    }
+
+    /** Year from MLIT BuildingYear ("1998年", "平成10年", "戦前"), or 0 when unknown. */
+    public static int parseBuildingYear(String s) {
+        if (s == null || s.isBlank())
+            return 0;
+        Matcher w = WESTERN_YEAR.matcher(s);
+        if (w.find())
+            return Integer.parseInt(w.group(1));
+        Matcher e = ERA_YEAR.matcher(s);
+        if (e.find()) {
+            int n = "元".equals(e.group(2)) ? 1 : Integer.parseInt(e.group(2));
+            return switch (e.group(1)) {
+                case "昭和" -> 1925 + n;
+                case "平成" -> 1988 + n;
+                default -> 2018 + n;
+            };
+        }
+        return s.contains("戦前") ? 1945 : 0;
+    }
+
+    /** Year from MLIT Period ("2024年第1四半期"), or 0 when unknown. */
+    public static int parseTradeYear(String s) {
+        if (s == null)
+            return 0;
+        Matcher w = WESTERN_YEAR.matcher(s);
+        return w.find() ? Integer.parseInt(w.group(1)) : 0;
+    }
+
+    /**
+     * One (municipality, type) partition. Entries are reordered so the tree is
+     * implicit: node = middle of [lo, hi), split axis = depth % DIMS.
+     */
+    private static final class Partition {
+        final String type;
+        final int n;
+        final float[] points;
+        final long[] price;
+        final float[] area;
+        final short[] buildingYear;
+        final short[] tradeYear;
+        final String[] district;
+        final String[] structure;
+        // Fill-ins for queries/trades without a year, so they sit mid-partition
+        final int medianBuildingYear;
+        final int latestTradeYear;
+
+        Partition(String type, List<Trade> trades) {
+            this.type = type;
+            this.n = trades.size();
+            this.medianBuildingYear = medianBuildingYear(trades);
+            int latest = 0;
+            for (Trade t : trades)
+                latest = Math.max(latest, t.tradeYear());
+            this.latestTradeYear = latest;
+
+            float[] raw = new float[n * DIMS];
+            for (int i = 0; i < n; i++) {
+                Trade t = trades.get(i);
+                features(t.area(), t.buildingYear(), t.tradeYear(), raw, i * DIMS);
+            }
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++)
+                order[i] = i;
+            build(order, raw, 0, n, 0);
+
+            this.points = new float[n * DIMS];
+            this.price = new long[n];
+            this.area = new float[n];
+            this.buildingYear = new short[n];
+            this.tradeYear = new short[n];
+            this.district = new String[n];
+            this.structure = new String[n];
+            for (int i = 0; i < n; i++) {
+                int src = order[i];
+                Trade t = trades.get(src);
+                System.arraycopy(raw, src * DIMS, points, i * DIMS, DIMS);
+                price[i] = t.tradePrice();
+                area[i] = (float) t.area();
+                buildingYear[i] = (short) t.buildingYear();
+                tradeYear[i] = (short) t.tradeYear();
+                district[i] = t.district() == null ? null : t.district().intern();
+                structure[i] = t.structure() == null ? null : t.structure().intern();
+            }
+        }
+
+        private void features(double a, int builtYear, int soldYear, float[] out, int at) {
+            out[at] = (float) (Math.log(a) / AREA_SCALE);
+            out[at + 1] = (float) ((builtYear > 0 ? builtYear : medianBuildingYear) / BUILDING_YEAR_SCALE);
+            out[at + 2] = (float) ((soldYear > 0 ? soldYear : latestTradeYear) / TRADE_YEAR_SCALE);
+        }
+
+        void nearest(Query q, int want, List<Match> out) {
+            float[] target = new float[DIMS];
+            // Comps are scored as if sold now: the newest trades in the partition
+            features(q.area(), q.buildingYear() == null ? 0 : q.buildingYear(), latestTradeYear, target, 0);
+            Heap heap = new Heap(Math.min(want, n));
+            search(target, 0, n, 0, heap);
+            for (int h = 0; h < heap.size; h++) {
+                int i = heap.idx[h];
+                double d = heap.dist[h];
+                if (notBlank(q.district()) && !q.district().equals(district[i]))
+                    d += DISTRICT_PENALTY;
+                if (notBlank(q.structure()) && !q.structure().equals(structure[i]))
+                    d += STRUCTURE_PENALTY;
+                out.add(new Match(district[i], structure[i], price[i], area[i], buildingYear[i], tradeYear[i],
+                        Math.sqrt(d)));
+            }
+        }
+
+        private void search(float[] target, int lo, int hi, int depth, Heap heap) {
+            if (lo >= hi)
+                return;
+            int mid = (lo + hi) >>> 1;
+            int axis = depth % DIMS;
+            heap.offer(mid, squaredDistance(target, mid));
+            double diff = target[axis] - points[mid * DIMS + axis];
+            int nearLo = diff < 0 ? lo : mid + 1;
+            int nearHi = diff < 0 ? mid : hi;
+            int farLo = diff < 0 ? mid + 1 : lo;
+            int farHi = diff < 0 ? hi : mid;
+            search(target, nearLo, nearHi, depth + 1, heap);
+            if (!heap.isFull() || diff * diff < heap.worst())
+                search(target, farLo, farHi, depth + 1, heap);
+        }
+
+        private double squaredDistance(float[] target, int i) {
+            double s = 0;
+            for (int d = 0; d < DIMS; d++) {
+                double x = target[d] - points[i * DIMS + d];
+                s += x * x;
+            }
+            return s;
+        }
+
+        // Median split by quickselect on the current axis, recursively
+        private static void build(int[] order, float[] raw, int lo, int hi, int depth) {
+            if (hi - lo <= 1)
+                return;
+            int mid = (lo + hi) >>> 1;
+            select(order, raw, lo, hi - 1, mid, depth % DIMS);
+            build(order, raw, lo, mid, depth + 1);
+            build(order, raw, mid + 1, hi, depth + 1);
+        }
+
+        private static void select(int[] order, float[] raw, int lo, int hi, int k, int axis) {
+            while (hi > lo) {
+                float pivot = raw[order[(lo + hi) >>> 1] * DIMS + axis];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (raw[order[i] * DIMS + axis] < pivot)
+                        i++;
+                    while (raw[order[j] * DIMS + axis] > pivot)
+                        j--;
+                    if (i <= j) {
+                        int t = order[i];
+                        order[i] = order[j];
+                        order[j] = t;
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j)
+                    hi = j;
+                else if (k >= i)
+                    lo = i;
+                else
+                    return;
+            }
+        }
+
+        private static int medianBuildingYear(List<Trade> trades) {
+            int[] years = trades.stream().mapToInt(Trade::buildingYear).filter(y -> y > 0).toArray();
+            if (years.length == 0)
+                return 0;
+            Arrays.sort(years);
+            return years[years.length / 2];
+        }
+    }
+
+    /** Bounded max-heap of (entry, squared distance); root is the current worst. */
+    private static final class Heap {
+        final int[] idx;
+        final double[] dist;
+        int size;
+
+        Heap(int capacity) {
+            idx = new int[capacity];
+            dist = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == idx.length;
+        }
+
+        double worst() {
+            return dist[0];
+        }
+
+        void offer(int i, double d) {
+            if (idx.length == 0)
+                return;
+            if (size < idx.length) {
+                int c = size++;
+                idx[c] = i;
+                dist[c] = d;
+                while (c > 0) {
+                    int p = (c - 1) >>> 1;
+                    if (dist[p] >= dist[c])
+                        break;
+                    swap(p, c);
+                    c = p;
+                }
+            } else if (d < dist[0]) {
+                idx[0] = i;
+                dist[0] = d;
+                int p = 0;
+                while (true) {
+                    int l = 2 * p + 1;
+                    int r = l + 1;
+                    int m = p;
+                    if (l < size && dist[l] > dist[m])
+                        m = l;
+                    if (r < size && dist[r] > dist[m])
+                        m = r;
+                    if (m == p)
+                        break;
+                    swap(p, m);
+                    p = m;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ti = idx[a];
+            idx[a] = idx[b];
+            idx[b] = ti;
+            double td = dist[a];
+            dist[a] = dist[b];
+            dist[b] = td;
+        }
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,194 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the {@link ComparableSalesIndex}: full load at startup, partial
+ * rebuild of the touched municipalities after each ingest, and K-nearest
+ * lookups for the calculator's suggested price band.
+ */
+@Service
+public class ComparableSalesService {
+    private static final Logger log = LoggerFactory.getLogger(ComparableSalesService.class);
+
+    // Floor area for buildings/condos, lot area for land-only trades
+    private static final String TRADES_SQL = """
+            SELECT municipality_code, type, district_name, structure, trade_price_int,
+                   COALESCE(total_floor_area_num, area_num)::float8 AS area, building_year, period
+            FROM mlit_price_record
+            WHERE trade_price_int > 0 AND COALESCE(total_floor_area_num, area_num) > 0
+            """;
+    // Full load: one municipality after another, so partitions are built while streaming
+    private static final String TRADES_BY_MUNICIPALITY_SQL = TRADES_SQL
+            + " AND municipality_code IS NOT NULL ORDER BY municipality_code";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final AtomicReference<ComparableSalesIndex> index = new AtomicReference<>(ComparableSalesIndex.EMPTY);
+    private final Timer lookupTimer;
+    // Municipalities an ingest refreshed while a reload runs; the reload must not overwrite them
+    private volatile Set<String> refreshedDuringReload;
+
+    @Value("${comps.k:20}")
+    private int defaultK;
+
+    @Value("${comps.fetchSize:10000}")
+    private int fetchSize;
+
+    public ComparableSalesService(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+            MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        // Streaming with a fetch size needs a transaction on PostgreSQL; read-only may use the replica
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.lookupTimer = Timer.builder("comps.lookup")
+                .description("Comparable-sales K-nearest lookups")
+                .register(meterRegistry);
+        Gauge.builder("comps.index.trades", index, r -> r.get().size())
+                .description("Trades held in the in-memory comps index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reloads every trade. Rows are streamed in municipality order and
+     * published into the live index every fetchSize trades, so only one
+     * batch is held besides the index itself. Municipalities an ingest
+     * refreshed in the meantime keep the ingest's partitions; municipalities
+     * that no longer have trades are dropped at the end.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        Set<String> refreshed = ConcurrentHashMap.newKeySet();
+        refreshedDuringReload = refreshed;
+        try {
+            Set<String> seen = new HashSet<>();
+            Set<String> batchCodes = new HashSet<>();
+            List<ComparableSalesIndex.Trade> batch = new ArrayList<>();
+            readOnlyTx.executeWithoutResult(st -> jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(TRADES_BY_MUNICIPALITY_SQL);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                ComparableSalesIndex.Trade t = toTrade(rs);
+                // Flush only between municipalities, so a partition is never published half-built
+                if (batch.size() >= fetchSize && !batchCodes.contains(t.municipalityCode())) {
+                    publish(batchCodes, batch, refreshed);
+                    batchCodes.clear();
+                    batch.clear();
+                }
+                seen.add(t.municipalityCode());
+                batchCodes.add(t.municipalityCode());
+                batch.add(t);
+            }));
+            publish(batchCodes, batch, refreshed);
+            index.updateAndGet(cur -> {
+                Set<String> keep = new HashSet<>(seen);
+                keep.addAll(refreshed);
+                return cur.retaining(keep);
+            });
+        } finally {
+            refreshedDuringReload = null;
+        }
+        ComparableSalesIndex loaded = index.get();
+        log.info("Comps index loaded: trades={}, municipalities={} in {}ms", loaded.size(),
+                loaded.municipalityCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void publish(Set<String> codes, List<ComparableSalesIndex.Trade> trades, Set<String> refreshed) {
+        if (codes.isEmpty())
+            return;
+        // Checked inside the update: an ingest marks its municipalities before loading them
+        index.updateAndGet(cur -> {
+            Set<String> replace = new HashSet<>(codes);
+            replace.removeAll(refreshed);
+            if (replace.isEmpty())
+                return cur;
+            List<ComparableSalesIndex.Trade> kept = replace.size() == codes.size() ? trades
+                    : trades.stream().filter(t -> replace.contains(t.municipalityCode())).toList();
+            return cur.replacing(replace, kept);
+        });
+    }
+
+    // The ingest's records are only readable from other connections once it committed
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIngested(MlitPriceIngestedEvent event) {
+        try {
+            Set<String> munis = new TreeSet<>(jdbc.queryForList(
+                    "SELECT DISTINCT municipality_code FROM mlit_price_record WHERE query_id = ? "
+                            + "AND municipality_code IS NOT NULL",
+                    String.class, event.queryId()));
+            if (munis.isEmpty())
+                return;
+            Set<String> reloading = refreshedDuringReload;
+            if (reloading != null)
+                reloading.addAll(munis);
+            String[] codes = munis.toArray(new String[0]);
+            List<ComparableSalesIndex.Trade> trades = loadTrades(TRADES_SQL + " AND municipality_code = ANY(?)",
+                    codes);
+            index.updateAndGet(cur -> cur.replacing(munis, trades));
+            log.info("Comps index refreshed after ingest queryId={}: municipalities={}, trades={}",
+                    event.queryId(), munis.size(), trades.size());
+        } catch (Exception ex) {
+            log.error("Comps index refresh failed for queryId={}: {}", event.queryId(), ex.getMessage());
+        }
+    }
+
+    public List<ComparableSalesIndex.Match> nearest(String municipalityCode, String type, String district,
+            String structure, double area, Integer buildingYear, Integer k) {
+        ComparableSalesIndex.Query q = new ComparableSalesIndex.Query(municipalityCode, type, district, structure,
+                area, buildingYear, k == null || k <= 0 ? defaultK : k);
+        return lookupTimer.record(() -> index.get().nearest(q));
+    }
+
+    public int indexedTrades() {
+        return index.get().size();
+    }
+
+    private List<ComparableSalesIndex.Trade> loadTrades(String sql, String[] municipalityCodes) {
+        List<ComparableSalesIndex.Trade> out = new ArrayList<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (municipalityCodes != null)
+                ps.setArray(1, con.createArrayOf("text", municipalityCodes));
+            return ps;
+        }, rs -> {
+            out.add(toTrade(rs));
+        });
+        return out;
+    }
+
+    private static ComparableSalesIndex.Trade toTrade(ResultSet rs) throws SQLException {
+        return new ComparableSalesIndex.Trade(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getLong(5),
+                rs.getDouble(6),
+                ComparableSalesIndex.parseBuildingYear(rs.getString(7)),
+                ComparableSalesIndex.parseTradeYear(rs.getString(8)));
+    }
+}
@@ -3,11 +3,14 @@ package com.realestate.calc.mlit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.realestate.calc.mlit.dto.MunicipalitiesResponse;
 import com.realestate.calc.mlit.dto.MunicipalityDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.ByteArrayInputStream;
@@ -20,7 +23,9 @@ import java.util.zip.GZIPInputStream;
 public class MlitApiClient {
     private static final Logger log = LoggerFactory.getLogger(MlitApiClient.class);
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MlitRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
 
     @Value("${REINFOLIB_MLIT_GO_JP:}")
     private String apiKey;
@@ -28,8 +33,12 @@ public class MlitApiClient {
     private static final String BASE_URL = "https://www.reinfolib.mlit.go.jp/ex-api/external/XIT002";
     private static final String PRICES_URL = "https://www.reinfolib.mlit.go.jp/ex-api/external/XIT001";
 
-    public MlitApiClient(RestTemplate restTemplate) {
+    public MlitApiClient(RestTemplate restTemplate, MlitRateLimiter rateLimiter, MeterRegistry meterRegistry,
+            ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
     }
 
     public List<MunicipalityDto> getMunicipalitiesByPrefecture(String prefectureCode, String language)
@@ -42,7 +51,7 @@ public class MlitApiClient {
         headers.set("Accept-Encoding", "gzip");
 
         HttpEntity<Void> entity = new HttpEntity<>(headers);
-        ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, entity, byte[].class);
+        ResponseEntity<byte[]> response = exchange("XIT002", url, entity, MlitRateLimiter.Lane.BULK);
 
         byte[] bodyBytes = response.getBody();
         if (bodyBytes == null || bodyBytes.length == 0) {
@@ -68,12 +77,48 @@ public class MlitApiClient {
         return wrapped.getData();
     }
 
+    /**
+     * GET paced in the given lane, timed as mlit.upstream.requests{endpoint,status}.
+     * Time spent waiting for the rate limiter is excluded; status is the HTTP
+     * code or IO_ERROR when no response arrived.
+     */
+    private ResponseEntity<byte[]> exchange(String endpoint, String url, HttpEntity<Void> entity,
+            MlitRateLimiter.Lane lane) throws IOException {
+        pace(lane);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, entity, byte[].class);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } catch (RestClientResponseException e) {
+            status = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("mlit.upstream.requests", "endpoint", endpoint, "status", status));
+        }
+    }
+
+    private void pace(MlitRateLimiter.Lane lane) throws IOException {
+        try {
+            rateLimiter.acquire(lane);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Interrupted while waiting for MLIT rate limit");
+        }
+    }
+
     private boolean isLikelyGzip(byte[] bytes) {
         // GZIP magic bytes: 0x1f 0x8b
         return bytes.length >= 2 && (bytes[0] == (byte) 0x1f) && (bytes[1] == (byte) 0x8b);
     }
 
+    /** Price fetch paced as bulk work (batch splits, search backfill). */
     public String getPricesRaw(Map<String, String> queryParams) throws IOException {
+        return getPricesRaw(queryParams, MlitRateLimiter.Lane.BULK);
+    }
+
+    public String getPricesRaw(Map<String, String> queryParams, MlitRateLimiter.Lane lane) throws IOException {
         // Build URL with provided params (area/city/station only if present)
         StringBuilder sb = new StringBuilder(PRICES_URL).append("?");
         boolean first = true;
@@ -97,7 +142,7 @@ public class MlitApiClient {
         headers.set("Accept-Encoding", "gzip");
 
         HttpEntity<Void> entity = new HttpEntity<>(headers);
-        ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, entity, byte[].class);
+        ResponseEntity<byte[]> response = exchange("XIT001", url, entity, lane);
         if (log.isInfoEnabled()) {
             String enc = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
             log.info("MLIT HTTP {} -> status={}, encoding={}", url, response.getStatusCode().value(), enc);
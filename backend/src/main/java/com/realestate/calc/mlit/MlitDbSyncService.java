@@ -3,13 +3,23 @@ package com.realestate.calc.mlit;
 import com.realestate.calc.mlit.dto.MunicipalityDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class MlitDbSyncService {
@@ -17,8 +27,27 @@ public class MlitDbSyncService {
 
     private final JdbcTemplate jdbcTemplate;
     private final MlitApiClient mlitApiClient;
+    private final TransactionTemplate tx;
+    private final MunicipalityDirectoryService directoryService;
 
-    private static final Map<String, String> PREF_NAMES_JA = Map.ofEntries(
+    // Upstream pacing is enforced by MlitRateLimiter (bulk lane) inside MlitApiClient
+    @Value("${mlit.sync.concurrency:4}")
+    private int concurrency;
+
+    // Set-based upserts: one statement per table, rows passed as parallel arrays.
+    // The WHERE on DO UPDATE skips identical rows, so unchanged data writes nothing.
+    private static final String UPSERT_PREFECTURES = "INSERT INTO prefecture(code, name, updated_at) "
+            + "SELECT u.code, u.name, now() FROM unnest(?::text[], ?::text[]) AS u(code, name) "
+            + "ON CONFLICT (code) DO UPDATE SET name = EXCLUDED.name, updated_at = EXCLUDED.updated_at "
+            + "WHERE prefecture.name IS DISTINCT FROM EXCLUDED.name";
+    private static final String UPSERT_MUNICIPALITIES = "INSERT INTO municipality(id, name, prefecture_code, updated_at) "
+            + "SELECT u.id, u.name, u.pref, now() FROM unnest(?::text[], ?::text[], ?::text[]) AS u(id, name, pref) "
+            + "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, prefecture_code = EXCLUDED.prefecture_code, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE municipality.name IS DISTINCT FROM EXCLUDED.name "
+            + "OR municipality.prefecture_code IS DISTINCT FROM EXCLUDED.prefecture_code";
+
+    static final Map<String, String> PREF_NAMES_JA = Map.ofEntries(
             Map.entry("01", "北海道"), Map.entry("02", "青森県"), Map.entry("03", "岩手県"), Map.entry("04", "宮城県"),
             Map.entry("05", "秋田県"), Map.entry("06", "山形県"), Map.entry("07", "福島県"), Map.entry("08", "茨城県"),
             Map.entry("09", "栃木県"), Map.entry("10", "群馬県"), Map.entry("11", "埼玉県"), Map.entry("12", "千葉県"),
@@ -32,9 +61,65 @@ public class MlitDbSyncService {
             Map.entry("41", "佐賀県"), Map.entry("42", "長崎県"), Map.entry("43", "熊本県"), Map.entry("44", "大分県"),
             Map.entry("45", "宮崎県"), Map.entry("46", "鹿児島県"), Map.entry("47", "沖縄県"));
 
-    public MlitDbSyncService(JdbcTemplate jdbcTemplate, MlitApiClient mlitApiClient) {
+    public MlitDbSyncService(JdbcTemplate jdbcTemplate, MlitApiClient mlitApiClient, TransactionTemplate tx,
+            MunicipalityDirectoryService directoryService) {
         this.jdbcTemplate = jdbcTemplate;
         this.mlitApiClient = mlitApiClient;
+        this.tx = tx;
+        this.directoryService = directoryService;
+    }
+
+    public static class RefreshResult {
+        private final int prefecturesFetched;
+        private final int municipalitiesFetched;
+        private final int prefecturesChanged;
+        private final int municipalitiesChanged;
+        private final List<String> failedPrefectures;
+        private final long fetchMs;
+        private final long writeMs;
+
+        RefreshResult(int prefecturesFetched, int municipalitiesFetched, int prefecturesChanged,
+                int municipalitiesChanged, List<String> failedPrefectures, long fetchMs, long writeMs) {
+            this.prefecturesFetched = prefecturesFetched;
+            this.municipalitiesFetched = municipalitiesFetched;
+            this.prefecturesChanged = prefecturesChanged;
+            this.municipalitiesChanged = municipalitiesChanged;
+            this.failedPrefectures = failedPrefectures;
+            this.fetchMs = fetchMs;
+            this.writeMs = writeMs;
+        }
+
+        public int getPrefecturesFetched() {
+            return prefecturesFetched;
+        }
+
+        public int getMunicipalitiesFetched() {
+            return municipalitiesFetched;
+        }
+
+        public int getPrefecturesChanged() {
+            return prefecturesChanged;
+        }
+
+        public int getMunicipalitiesChanged() {
+            return municipalitiesChanged;
+        }
+
+        public List<String> getFailedPrefectures() {
+            return failedPrefectures;
+        }
+
+        public long getFetchMs() {
+            return fetchMs;
+        }
+
+        public long getWriteMs() {
+            return writeMs;
+        }
+
+        public boolean hasChanges() {
+            return prefecturesChanged > 0 || municipalitiesChanged > 0;
+        }
     }
 
     public boolean isDbEmpty() {
@@ -43,54 +128,113 @@ public class MlitDbSyncService {
         return (p == null || p == 0) && (m == null || m == 0);
     }
 
-    @Transactional
-    public void refreshAllFromApi(String language) {
+    /**
+     * Two-phase refresh: fetch all prefectures concurrently (no transaction
+     * open), then apply everything in one short transaction with set-based
+     * upserts. Prefectures that failed to fetch are left untouched.
+     */
+    public RefreshResult refreshAllFromApi(String language) {
         String lang = (language == null || language.isBlank()) ? "ja" : language;
-        int prefCount = 0;
-        int muniCount = 0;
-
-        for (int i = 1; i <= 47; i++) {
-            String pref = String.format("%02d", i);
-            try {
-                String prefName = PREF_NAMES_JA.get(pref);
-                // prefecture upsert
-                jdbcTemplate.update(
-                        "INSERT INTO prefecture(code, name, updated_at) VALUES(?, ?, now()) " +
-                                "ON CONFLICT (code) DO UPDATE SET name = EXCLUDED.name, updated_at = EXCLUDED.updated_at",
-                        pref, prefName);
-                prefCount++;
-
-                List<MunicipalityDto> list = mlitApiClient.getMunicipalitiesByPrefecture(pref, lang);
-                if (list != null) {
-                    for (MunicipalityDto m : list) {
-                        jdbcTemplate.update(
-                                "INSERT INTO municipality(id, name, prefecture_code, updated_at) VALUES(?,?,?, now()) "
-                                        +
-                                        "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, prefecture_code = EXCLUDED.prefecture_code, updated_at = EXCLUDED.updated_at",
-                                m.getId(), m.getName(), pref);
-                        muniCount++;
-                    }
+
+        long t0 = System.nanoTime();
+        Map<String, List<MunicipalityDto>> fetched = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        fetchAll(lang, fetched, failed);
+        long fetchMs = (System.nanoTime() - t0) / 1_000_000;
+
+        int muniCount = fetched.values().stream().mapToInt(List::size).sum();
+        long t1 = System.nanoTime();
+        int[] changed = tx.execute(status -> applyUpserts(fetched, lang));
+        long writeMs = (System.nanoTime() - t1) / 1_000_000;
+        if (changed == null)
+            changed = new int[] { 0, 0 };
+
+        if (changed[0] > 0 || changed[1] > 0 || !directoryService.isLoaded()) {
+            directoryService.reloadFromDb();
+        }
+
+        RefreshResult result = new RefreshResult(fetched.size(), muniCount, changed[0], changed[1], failed,
+                fetchMs, writeMs);
+        log.info(
+                "DB refresh completed. prefectures={}, municipalities={}, changedPrefectures={}, changedMunicipalities={}, failed={}, fetchMs={}, writeMs={}",
+                result.getPrefecturesFetched(), result.getMunicipalitiesFetched(), result.getPrefecturesChanged(),
+                result.getMunicipalitiesChanged(), failed, fetchMs, writeMs);
+        return result;
+    }
+
+    private void fetchAll(String lang, Map<String, List<MunicipalityDto>> fetched, List<String> failed) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            Map<String, Future<List<MunicipalityDto>>> futures = new LinkedHashMap<>();
+            for (int i = 1; i <= 47; i++) {
+                String pref = String.format("%02d", i);
+                futures.put(pref, pool.submit(() -> mlitApiClient.getMunicipalitiesByPrefecture(pref, lang)));
+            }
+            for (Map.Entry<String, Future<List<MunicipalityDto>>> e : futures.entrySet()) {
+                String pref = e.getKey();
+                try {
+                    List<MunicipalityDto> list = e.getValue().get();
+                    fetched.put(pref, list != null ? list : List.of());
+                } catch (ExecutionException ex) {
+                    log.error("Failed to refresh prefecture {} from API: {}", pref, ex.getCause().getMessage());
+                    failed.add(pref);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while fetching prefecture {}", pref);
+                    failed.add(pref);
+                    break;
                 }
-                // polite pacing; MLIT rate-limit friendliness
-                sleepQuietly(80);
-            } catch (Exception ex) {
-                log.error("Failed to refresh prefecture {} from API: {}", pref, ex.getMessage());
             }
+        } finally {
+            pool.shutdownNow();
         }
+    }
 
-        jdbcTemplate.update(
-                "INSERT INTO mlit_cache_meta(key, last_refreshed, source) VALUES(?, ?, ?) " +
-                        "ON CONFLICT (key) DO UPDATE SET last_refreshed = EXCLUDED.last_refreshed, source = EXCLUDED.source",
-                "municipalities_ja", OffsetDateTime.now(), "XIT002 " + lang);
+    private int[] applyUpserts(Map<String, List<MunicipalityDto>> fetched, String lang) {
+        int prefChanged = 0;
+        int muniChanged = 0;
+        if (!fetched.isEmpty()) {
+            List<String> prefCodes = new ArrayList<>(fetched.keySet());
+            List<String> prefNames = new ArrayList<>();
+            for (String code : prefCodes)
+                prefNames.add(PREF_NAMES_JA.get(code));
+            prefChanged = updateWithArrays(UPSERT_PREFECTURES, prefCodes, prefNames);
 
-        log.info("DB refresh completed. prefectures={}, municipalities={}", prefCount, muniCount);
-    }
+            List<String> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<String> prefs = new ArrayList<>();
+            for (Map.Entry<String, List<MunicipalityDto>> e : fetched.entrySet()) {
+                for (MunicipalityDto m : e.getValue()) {
+                    ids.add(m.getId());
+                    names.add(m.getName());
+                    prefs.add(e.getKey());
+                }
+            }
+            if (!ids.isEmpty())
+                muniChanged = updateWithArrays(UPSERT_MUNICIPALITIES, ids, names, prefs);
+        }
 
-    private void sleepQuietly(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
+        // Stamps the last refresh that changed data; an unchanged refresh writes nothing
+        if (prefChanged > 0 || muniChanged > 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO mlit_cache_meta(key, last_refreshed, source) VALUES(?, ?, ?) " +
+                            "ON CONFLICT (key) DO UPDATE SET last_refreshed = EXCLUDED.last_refreshed, source = EXCLUDED.source",
+                    "municipalities_ja", OffsetDateTime.now(), "XIT002 " + lang);
         }
+        return new int[] { prefChanged, muniChanged };
+    }
+
+    @SafeVarargs
+    private int updateWithArrays(String sql, List<String>... columns) {
+        Integer count = jdbcTemplate.execute((Connection con) -> {
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (int c = 0; c < columns.length; c++) {
+                    Array arr = con.createArrayOf("text", columns[c].toArray());
+                    ps.setArray(c + 1, arr);
+                }
+                return ps.executeUpdate();
+            }
+        });
+        return count == null ? 0 : count;
     }
 }
@@ -0,0 +1,141 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared JSON plumbing for the MLIT endpoints: the application ObjectMapper
+ * with reusable tree reader/writer, and a streaming writer for price record
+ * lists whose 28 field names are pre-encoded once instead of per row.
+ */
+@Component
+public class MlitJson {
+    private static final Logger log = LoggerFactory.getLogger(MlitJson.class);
+
+    /** Record fields in the column order of MlitPriceQueryService's select list. */
+    static final String[] RECORD_FIELD_NAMES = {
+            "PriceCategory", "Type", "Region", "MunicipalityCode", "Prefecture", "Municipality", "DistrictName",
+            "TradePrice", "PricePerUnit", "FloorPlan", "Area", "UnitPrice", "LandShape", "Frontage",
+            "TotalFloorArea", "BuildingYear", "Structure", "Use", "Purpose", "Direction", "Classification",
+            "Breadth", "CityPlanning", "CoverageRatio", "FloorAreaRatio", "Period", "Renovation", "Remarks" };
+    private static final SerializedString[] RECORD_FIELDS = new SerializedString[RECORD_FIELD_NAMES.length];
+    static {
+        for (int i = 0; i < RECORD_FIELD_NAMES.length; i++)
+            RECORD_FIELDS[i] = new SerializedString(RECORD_FIELD_NAMES[i]);
+    }
+    private static final SerializedString F_STATUS = new SerializedString("status");
+    private static final SerializedString F_SOURCE = new SerializedString("source");
+    private static final SerializedString F_DATA = new SerializedString("data");
+    private static final SerializedString V_OK = new SerializedString("OK");
+
+    private final ObjectMapper mapper;
+    private final ObjectReader treeReader;
+    private final ObjectWriter treeWriter;
+
+    public MlitJson(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.treeReader = mapper.readerFor(JsonNode.class);
+        this.treeWriter = mapper.writerFor(JsonNode.class);
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public JsonFactory factory() {
+        return mapper.getFactory();
+    }
+
+    public JsonNode readTree(String json) throws JsonProcessingException {
+        return treeReader.readTree(json);
+    }
+
+    public String write(JsonNode node) throws JsonProcessingException {
+        return treeWriter.writeValueAsString(node);
+    }
+
+    /**
+     * {"status":"OK","source":source,"data":[...]} for rows laid out as in
+     * RECORD_FIELD_NAMES. Numeric columns are written as strings, matching the
+     * upstream MLIT API.
+     */
+    public String writeRecords(List<Object[]> rows, String source) {
+        StringWriter w = new StringWriter(64 + rows.size() * 512);
+        try (JsonGenerator g = mapper.getFactory().createGenerator(w)) {
+            g.writeStartObject();
+            g.writeFieldName(F_STATUS);
+            g.writeString(V_OK);
+            g.writeFieldName(F_SOURCE);
+            g.writeString(source);
+            g.writeFieldName(F_DATA);
+            g.writeStartArray();
+            for (Object[] r : rows) {
+                g.writeStartObject();
+                for (int i = 0; i < RECORD_FIELDS.length; i++) {
+                    g.writeFieldName(RECORD_FIELDS[i]);
+                    Object v = r[i];
+                    if (v == null)
+                        g.writeNull();
+                    else
+                        g.writeString(v instanceof String s ? s : String.valueOf(v));
+                }
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return w.toString();
+    }
+
+    /**
+     * Startup: runs the record writer and tree reader/writer until they are
+     * JIT-compiled, then times one pass and logs the record throughput. That
+     * single pass is a smoke number, not a comparison; MlitJsonBenchmarkTest
+     * measures these paths against the plain ObjectMapper ones they replaced.
+     */
+    public void warmUp(int rowCount, int iterations) {
+        List<Object[]> rows = sampleRows(Math.max(1, rowCount));
+        try {
+            for (int i = 0; i < iterations; i++)
+                write(readTree(writeRecords(rows, "DB")));
+            long start = System.nanoTime();
+            String out = writeRecords(rows, "DB");
+            long nanos = Math.max(1, System.nanoTime() - start);
+            log.info("JSON warm-up: {} records ({} KiB) in {}us, {} records/s", rows.size(), out.length() / 1024,
+                    nanos / 1000, rows.size() * 1_000_000_000L / nanos);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Object[]> sampleRows(int n) {
+        List<Object[]> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Object[] r = new Object[RECORD_FIELD_NAMES.length];
+            for (int c = 0; c < r.length; c++)
+                r[c] = RECORD_FIELD_NAMES[c] + i;
+            r[7] = 30_000_000L + i;
+            r[10] = java.math.BigDecimal.valueOf(65 + i % 40);
+            r[14] = null;
+            rows.add(r);
+        }
+        return rows;
+    }
+}
@@ -18,12 +18,14 @@ public class MlitPriceBatchService {
     private final JdbcTemplate jdbc;
     private final MlitApiClient client;
     private final MlitPriceIngestService ingest;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper;
 
-    public MlitPriceBatchService(JdbcTemplate jdbc, MlitApiClient client, MlitPriceIngestService ingest) {
+    public MlitPriceBatchService(JdbcTemplate jdbc, MlitApiClient client, MlitPriceIngestService ingest,
+            ObjectMapper mapper) {
         this.jdbc = jdbc;
         this.client = client;
         this.ingest = ingest;
+        this.mapper = mapper;
     }
 
     public String fetchByPrefectureSplit(String area, String year, String priceClassification, String language)
@@ -0,0 +1,252 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Quarterly price index per municipality and type, derived from the
+ * municipality rollups in mlit_price_stats_cell (merging sketches, never
+ * rescanning mlit_price_record). Each series is stored as one row of arrays
+ * with the trailing 4-quarter median and its year-over-year change
+ * precomputed, so a read is a single row fetch per series.
+ */
+@Service
+public class MlitPriceIndexService {
+    private static final Logger log = LoggerFactory.getLogger(MlitPriceIndexService.class);
+
+    public static final String ALL_TYPES = "*";
+    private static final int WINDOW = 4;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper mapper;
+
+    public MlitPriceIndexService(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+            ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.mapper = mapper;
+    }
+
+    /** Quarter-aligned series; index i is quarter (startYear, startQuarter) + i. */
+    record Series(int startYear, int startQuarter, int[] count, double[] median, double[] rolling4, double[] yoy) {
+        int length() {
+            return median.length;
+        }
+    }
+
+    private record SeriesKey(String municipalityCode, String type) {
+    }
+
+    @EventListener
+    public void onStatsUpdated(MlitPriceStatsUpdatedEvent event) {
+        try {
+            int series = rebuild(new ArrayList<>(event.municipalityCodes()));
+            log.info("Price index refreshed: municipalities={}, series={}", event.municipalityCodes().size(), series);
+        } catch (Exception ex) {
+            log.error("Price index refresh failed for {} municipalities: {}", event.municipalityCodes().size(),
+                    ex.getMessage());
+        }
+    }
+
+    /** Recomputes every series of the given municipalities and replaces them atomically. */
+    public int rebuild(List<String> municipalityCodes) {
+        if (municipalityCodes.isEmpty())
+            return 0;
+        Map<SeriesKey, TreeMap<Integer, QuantileSketch>> grouped = new HashMap<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT municipality_code, type, year_num, quarter, sketch "
+                    + "FROM mlit_price_stats_cell WHERE level = 1 AND quarter > 0 AND municipality_code = ANY(?)");
+            ps.setArray(1, con.createArrayOf("text", municipalityCodes.toArray()));
+            return ps;
+        }, rs -> {
+            String muni = rs.getString(1);
+            String type = rs.getString(2);
+            int q = rs.getInt(3) * 4 + (rs.getInt(4) - 1);
+            QuantileSketch cell = QuantileSketch.fromBytes(rs.getBytes(5));
+            grouped.computeIfAbsent(new SeriesKey(muni, type), k -> new TreeMap<>())
+                    .computeIfAbsent(q, k -> new QuantileSketch()).merge(cell);
+            grouped.computeIfAbsent(new SeriesKey(muni, ALL_TYPES), k -> new TreeMap<>())
+                    .computeIfAbsent(q, k -> new QuantileSketch()).merge(cell);
+        });
+
+        List<SeriesKey> keys = new ArrayList<>(grouped.keySet());
+        List<Series> series = new ArrayList<>(keys.size());
+        for (SeriesKey k : keys)
+            series.add(compute(grouped.get(k)));
+
+        tx.executeWithoutResult(status -> {
+            jdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "DELETE FROM mlit_price_index_series WHERE municipality_code = ANY(?)");
+                ps.setArray(1, con.createArrayOf("text", municipalityCodes.toArray()));
+                return ps;
+            });
+            jdbc.batchUpdate("INSERT INTO mlit_price_index_series(municipality_code, type, start_year, "
+                    + "start_quarter, trade_count, median, rolling4, yoy) VALUES (?,?,?,?,?,?,?,?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Connection con = ps.getConnection();
+                            Series s = series.get(i);
+                            ps.setString(1, keys.get(i).municipalityCode());
+                            ps.setString(2, keys.get(i).type());
+                            ps.setInt(3, s.startYear());
+                            ps.setInt(4, s.startQuarter());
+                            ps.setArray(5, con.createArrayOf("int4", boxed(s.count())));
+                            ps.setArray(6, con.createArrayOf("float8", boxed(s.median())));
+                            ps.setArray(7, con.createArrayOf("float8", boxed(s.rolling4())));
+                            ps.setArray(8, con.createArrayOf("float8", boxed(s.yoy())));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return keys.size();
+                        }
+                    });
+        });
+        return keys.size();
+    }
+
+    /**
+     * Builds a contiguous quarterly series from per-quarter sketches. Quarters
+     * without trades are NaN; the trailing window merges the sketches of the
+     * last 4 quarters, so rolling4 is a true median of those trades.
+     */
+    static Series compute(TreeMap<Integer, QuantileSketch> byQuarter) {
+        int first = byQuarter.firstKey();
+        int n = byQuarter.lastKey() - first + 1;
+        int[] count = new int[n];
+        double[] median = new double[n];
+        double[] rolling = new double[n];
+        double[] yoy = new double[n];
+        QuantileSketch[] cells = new QuantileSketch[n];
+        byQuarter.forEach((q, sk) -> cells[q - first] = sk);
+        for (int i = 0; i < n; i++) {
+            QuantileSketch sk = cells[i];
+            count[i] = sk == null ? 0 : (int) sk.count();
+            median[i] = sk == null ? Double.NaN : sk.quantile(0.5);
+            QuantileSketch window = new QuantileSketch();
+            for (int j = Math.max(0, i - WINDOW + 1); j <= i; j++) {
+                if (cells[j] != null)
+                    window.merge(cells[j]);
+            }
+            rolling[i] = window.quantile(0.5);
+            yoy[i] = i >= WINDOW && rolling[i - WINDOW] > 0 ? rolling[i] / rolling[i - WINDOW] - 1 : Double.NaN;
+        }
+        return new Series(first / 4, first % 4 + 1, count, median, rolling, yoy);
+    }
+
+    /** Whole series for each requested municipality (one query for all of them). */
+    public ObjectNode series(List<String> municipalityCodes, String type, Integer fromYear) {
+        String t = (type == null || type.isBlank()) ? ALL_TYPES : type;
+        Map<String, Series> found = readOnlyTx.execute(st -> {
+            Map<String, Series> out = new HashMap<>();
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT municipality_code, start_year, start_quarter, "
+                        + "trade_count, median, rolling4, yoy FROM mlit_price_index_series "
+                        + "WHERE type = ? AND municipality_code = ANY(?)");
+                ps.setString(1, t);
+                ps.setArray(2, con.createArrayOf("text", municipalityCodes.toArray()));
+                return ps;
+            }, rs -> {
+                out.put(rs.getString(1), new Series(rs.getInt(2), rs.getInt(3), ints(rs, 4), doubles(rs, 5),
+                        doubles(rs, 6), doubles(rs, 7)));
+            });
+            return out;
+        });
+
+        ObjectNode root = mapper.createObjectNode();
+        root.put("status", "OK");
+        root.put("type", t);
+        ObjectNode data = root.putObject("series");
+        for (String code : municipalityCodes) {
+            Series s = found.get(code);
+            if (s == null)
+                continue;
+            ObjectNode node = data.putObject(code);
+            int from = 0;
+            if (fromYear != null)
+                from = Math.max(0, Math.min(s.length(), (fromYear - s.startYear()) * 4 - (s.startQuarter() - 1)));
+            int q = s.startYear() * 4 + s.startQuarter() - 1 + from;
+            node.put("startYear", q / 4);
+            node.put("startQuarter", q % 4 + 1);
+            ArrayNode count = node.putArray("count");
+            ArrayNode median = node.putArray("median");
+            ArrayNode rolling = node.putArray("rolling4");
+            ArrayNode yoy = node.putArray("yoy");
+            for (int i = from; i < s.length(); i++) {
+                count.add(s.count()[i]);
+                addRounded(median, s.median()[i], 1);
+                addRounded(rolling, s.rolling4()[i], 1);
+                addRounded(yoy, s.yoy()[i], 10000);
+            }
+        }
+        root.put("found", data.size());
+        root.put("source", "INDEX");
+        return root;
+    }
+
+    // NaN (no trades / no prior window) is stored as SQL NULL and returned as JSON null
+    private static void addRounded(ArrayNode arr, double v, double scale) {
+        if (Double.isNaN(v))
+            arr.addNull();
+        else
+            arr.add(Math.round(v * scale) / scale);
+    }
+
+    private static Double[] boxed(double[] v) {
+        Double[] out = new Double[v.length];
+        for (int i = 0; i < v.length; i++)
+            out[i] = Double.isNaN(v[i]) ? null : v[i];
+        return out;
+    }
+
+    private static Integer[] boxed(int[] v) {
+        Integer[] out = new Integer[v.length];
+        for (int i = 0; i < v.length; i++)
+            out[i] = v[i];
+        return out;
+    }
+
+    private static double[] doubles(ResultSet rs, int col) throws SQLException {
+        Array a = rs.getArray(col);
+        Object[] raw = (Object[]) a.getArray();
+        double[] out = new double[raw.length];
+        for (int i = 0; i < raw.length; i++)
+            out[i] = raw[i] == null ? Double.NaN : ((Number) raw[i]).doubleValue();
+        return out;
+    }
+
+    private static int[] ints(ResultSet rs, int col) throws SQLException {
+        Array a = rs.getArray(col);
+        Object[] raw = (Object[]) a.getArray();
+        int[] out = new int[raw.length];
+        for (int i = 0; i < raw.length; i++)
+            out[i] = raw[i] == null ? 0 : ((Number) raw[i]).intValue();
+        return out;
+    }
+}
@@ -2,10 +2,15 @@ package com.realestate.calc.mlit;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -16,7 +21,12 @@ public class MlitPriceIngestService {
     private static final Logger log = LoggerFactory.getLogger(MlitPriceIngestService.class);
     private final JdbcTemplate jdbc;
     private final MlitApiClient client;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter ingestedRows;
+    private final ApplicationEventPublisher events;
+    private final MlitRawPayloadStore rawStore;
+    private final TransactionTemplate tx;
 
     // Query param keys
     public static final String KP_AREA = "area";
@@ -27,9 +37,19 @@ public class MlitPriceIngestService {
     public static final String KP_QUARTER = "quarter";
     public static final String KP_LANGUAGE = "language";
 
-    public MlitPriceIngestService(JdbcTemplate jdbc, MlitApiClient client) {
+    public MlitPriceIngestService(JdbcTemplate jdbc, MlitApiClient client, MeterRegistry meterRegistry,
+            ApplicationEventPublisher events, MlitRawPayloadStore rawStore, ObjectMapper mapper,
+            PlatformTransactionManager txManager) {
         this.jdbc = jdbc;
         this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.events = events;
+        this.rawStore = rawStore;
+        this.ingestedRows = Counter.builder("mlit.ingest.rows")
+                .description("MLIT price records persisted")
+                .register(meterRegistry);
+        this.mapper = mapper;
+        this.tx = new TransactionTemplate(txManager);
     }
 
     public static class IngestResult {
@@ -69,7 +89,6 @@ public class MlitPriceIngestService {
     }
 
     public IngestResult ingest(Map<String, String> params) {
-        ensureTables();
         try {
             if (log.isInfoEnabled()) {
                 log.info("MLIT fetch start: params={} ", params);
@@ -91,19 +110,28 @@ public class MlitPriceIngestService {
 
     public IngestResult ingestRaw(Map<String, String> params, String rawJson) {
         try {
-            ensureTables();
             JsonNode root = mapper.readTree(rawJson);
             String status = root.path("status").asText("");
             JsonNode data = root.path("data");
 
-            long qid = insertQueryLog(params, status, rawJson, data != null && data.isArray() ? data.size() : 0);
-
-            int inserted = 0;
-            if (data != null && data.isArray()) {
-                for (JsonNode item : data) {
-                    inserted += insertRecord(qid, item);
+            // Payload, log row and records commit together; listeners see the event only after that commit
+            long[] persisted = tx.execute(s -> {
+                long id = insertQueryLog(params, status, rawJson, data != null && data.isArray() ? data.size() : 0);
+                int n = 0;
+                if (data != null && data.isArray()) {
+                    for (JsonNode item : data) {
+                        n += insertRecord(id, item);
+                    }
                 }
-            }
+                if (n > 0)
+                    events.publishEvent(new MlitPriceIngestedEvent(id, n, bumpDataVersion()));
+                return new long[] { id, n };
+            });
+            long qid = persisted[0];
+            int inserted = (int) persisted[1];
+
+            ingestedRows.increment(inserted);
+            meterRegistry.counter("mlit.ingest.batches", "status", status.isEmpty() ? "NONE" : status).increment();
 
             IngestResult r = new IngestResult();
             r.setQueryId(qid);
@@ -119,66 +147,15 @@ public class MlitPriceIngestService {
         }
     }
 
-    private void ensureTables() {
-        jdbc.execute("""
-                    CREATE TABLE IF NOT EXISTS mlit_price_query_log (
-                      id BIGSERIAL PRIMARY KEY,
-                      area VARCHAR(4),
-                      city VARCHAR(8),
-                      station VARCHAR(16),
-                      year VARCHAR(8),
-                      price_classification VARCHAR(4),
-                      quarter VARCHAR(4),
-                      language VARCHAR(8),
-                      requested_at TIMESTAMPTZ NOT NULL DEFAULT now(),
-                      status TEXT,
-                      record_count INT,
-                      raw_json JSONB
-                    );
-                """);
-        jdbc.execute("""
-                    CREATE TABLE IF NOT EXISTS mlit_price_record (
-                      id BIGSERIAL PRIMARY KEY,
-                      query_id BIGINT NOT NULL REFERENCES mlit_price_query_log(id) ON DELETE CASCADE,
-                      price_category TEXT,
-                      type TEXT,
-                      region TEXT,
-                      municipality_code VARCHAR(8),
-                      prefecture TEXT,
-                      municipality TEXT,
-                      district_name TEXT,
-                      trade_price_int BIGINT,
-                      price_per_unit_int BIGINT,
-                      floor_plan TEXT,
-                      area_num NUMERIC,
-                      unit_price_int BIGINT,
-                      exclusive_unit_price_int BIGINT,
-                      land_shape TEXT,
-                      frontage TEXT,
-                      total_floor_area_num NUMERIC,
-                      building_year TEXT,
-                      structure TEXT,
-                      use TEXT,
-                      purpose TEXT,
-                      direction TEXT,
-                      classification TEXT,
-                      breadth TEXT,
-                      city_planning TEXT,
-                      coverage_ratio TEXT,
-                      floor_area_ratio TEXT,
-                      period TEXT,
-                      renovation TEXT,
-                      remarks TEXT,
-                      created_at TIMESTAMPTZ NOT NULL DEFAULT now()
-                    );
-                """);
-        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_mlit_price_record_query ON mlit_price_record(query_id);");
-        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_mlit_price_record_muni ON mlit_price_record(municipality_code);");
-        // Add column if running against an older DB
-        jdbc.execute("ALTER TABLE mlit_price_record ADD COLUMN IF NOT EXISTS exclusive_unit_price_int BIGINT;");
-        // Backfill missing exclusive_unit_price_int where possible (floor to integer)
-        jdbc.execute(
-                "UPDATE mlit_price_record SET exclusive_unit_price_int = CAST(FLOOR(trade_price_int / NULLIF(total_floor_area_num,0)) AS BIGINT) WHERE exclusive_unit_price_int IS NULL AND trade_price_int IS NOT NULL AND total_floor_area_num IS NOT NULL AND total_floor_area_num > 0;");
+    /**
+     * Last statement of the ingest transaction: the row lock orders concurrent ingests, so a version never
+     * becomes visible before the records it covers.
+     */
+    private long bumpDataVersion() {
+        Long v = jdbc.queryForObject(
+                "UPDATE mlit_price_data_version SET version = version + 1 WHERE id = 1 RETURNING version",
+                Long.class);
+        return java.util.Objects.requireNonNull(v, "mlit_price_data_version row missing");
     }
 
     private long insertQueryLog(Map<String, String> params, String status, String raw, int count) {
@@ -191,16 +168,19 @@ public class MlitPriceIngestService {
         p.put(KP_QUARTER, params.getOrDefault(KP_QUARTER, null));
         p.put(KP_LANGUAGE, params.getOrDefault(KP_LANGUAGE, null));
 
+        // Raw body goes to the compressed, deduplicated payload store; the log keeps only its hash
+        byte[] rawHash = rawStore.store(raw);
+
         // Use returning to get id
-        String sql = "INSERT INTO mlit_price_query_log(area,city,station,year,price_classification,quarter,language,status,record_count,raw_json) "
+        String sql = "INSERT INTO mlit_price_query_log(area,city,station,year,price_classification,quarter,language,status,record_count,raw_hash) "
                 +
-                "VALUES (?,?,?,?,?,?,?,?,?,CAST(? AS JSONB)) RETURNING id";
+                "VALUES (?,?,?,?,?,?,?,?,?,?) RETURNING id";
         Long id = jdbc.queryForObject(
                 sql,
                 Long.class,
                 p.get(KP_AREA), p.get(KP_CITY), p.get(KP_STATION), p.get(KP_YEAR),
                 p.get(KP_PRICE_CLASS), p.get(KP_QUARTER), p.get(KP_LANGUAGE),
-                status, count, raw);
+                status, count, rawHash);
         return java.util.Objects.requireNonNull(id, "Failed to insert mlit_price_query_log");
     }
 
@@ -0,0 +1,8 @@
+package com.realestate.calc.mlit;
+
+/**
+ * Published inside the ingest transaction after an MLIT price response has been persisted under queryId;
+ * dataVersion is the mlit_price_data_version value that transaction committed.
+ */
+public record MlitPriceIngestedEvent(long queryId, int recordCount, long dataVersion) {
+}
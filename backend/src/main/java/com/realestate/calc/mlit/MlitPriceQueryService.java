@@ -1,59 +1,71 @@
 package com.realestate.calc.mlit;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class MlitPriceQueryService {
     private final JdbcTemplate jdbc;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final SqlShapeCache shapes;
+    private final MlitJson json;
 
-    public MlitPriceQueryService(JdbcTemplate jdbc) {
+    public MlitPriceQueryService(JdbcTemplate jdbc, SqlShapeCache shapes, MlitJson json) {
         this.jdbc = jdbc;
+        this.shapes = shapes;
+        this.json = json;
     }
 
-    private static final String Q_YEAR = "q.year";
-    private static final String Q_PRICE_CLASS = "q.price_classification";
-    private static final String Q_QUARTER = "q.quarter";
     private static final String ORDER_BY_ID = " ORDER BY r.id";
-    private static final String AND_OPEN = " AND (";
+    private static final String FROM_JOIN = "FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id";
+    private static final String SET_PRICE = "price";
+
+    /** Lookup scope: exactly one of city (municipality code) or area (prefecture code). */
+    private record Scope(boolean byCity, String code, String year, Integer startYear, Integer endYear,
+            String priceClass, String quarter) {
+    }
+
+    // Canonical filter order; the SQL text depends only on which filters are present
+    /**
+     * Prefecture scope over r (mlit_price_record) and q (its query log) with the
+     * pre-V4 semantics, (q.area = ? OR r.municipality_code LIKE 'NN%'): rows
+     * without a municipality code still match by their query's area. Both arms
+     * are index scans on r, so the planner can BitmapOr them. Binds the
+     * prefecture code twice.
+     */
+    public static final String PREFECTURE_SCOPE = "(r.prefecture_code = ? OR r.query_id = ANY(ARRAY("
+            + "SELECT id FROM mlit_price_query_log WHERE area = ?)))";
+
+    private static final List<SqlShapeCache.Filter<Scope>> FILTERS = List.of(
+            new SqlShapeCache.Filter<>("r.municipality_code=?", s -> s.byCity() ? new Object[] { s.code() } : null),
+            new SqlShapeCache.Filter<>(PREFECTURE_SCOPE,
+                    s -> s.byCity() ? null : new Object[] { s.code(), s.code() }),
+            new SqlShapeCache.Filter<>("q.year = ?", s -> text(s.year())),
+            new SqlShapeCache.Filter<>("(q.year_num BETWEEN ? AND ?)",
+                    s -> s.startYear() != null && s.endYear() != null
+                            ? new Object[] { s.startYear(), s.endYear() }
+                            : null),
+            new SqlShapeCache.Filter<>("(q.year_num >= ?)",
+                    s -> s.startYear() != null && s.endYear() == null ? new Object[] { s.startYear() } : null),
+            new SqlShapeCache.Filter<>("(q.year_num <= ?)",
+                    s -> s.startYear() == null && s.endYear() != null ? new Object[] { s.endYear() } : null),
+            new SqlShapeCache.Filter<>("q.price_classification = ?", s -> text(s.priceClass())),
+            new SqlShapeCache.Filter<>("q.quarter = ?", s -> text(s.quarter())));
 
     public boolean existsForCity(String city, String year, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        sb.append(
-                "SELECT 1 FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id WHERE r.municipality_code=?");
-        args.add(city);
-        addFilter(sb, args, Q_YEAR, year);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        String existsSql = "SELECT EXISTS (" + sb + ")";
-        Boolean exists = jdbc.query(con -> {
-            var ps = con.prepareStatement(existsSql);
-            for (int i = 0; i < args.size(); i++)
-                ps.setObject(i + 1, args.get(i));
-            return ps;
-        }, rs -> rs.next() ? rs.getBoolean(1) : Boolean.FALSE);
-        return Boolean.TRUE.equals(exists);
+        return exists(new Scope(true, city, year, null, null, priceClass, quarter));
     }
 
     public boolean existsForArea(String area, String year, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        sb.append(
-                "SELECT 1 FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id WHERE (q.area=? OR r.municipality_code LIKE ?)");
-        args.add(area);
-        args.add(area + "%");
-        addFilter(sb, args, Q_YEAR, year);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        String existsSql = "SELECT EXISTS (" + sb + ")";
+        return exists(new Scope(false, area, year, null, null, priceClass, quarter));
+    }
+
+    private boolean exists(Scope scope) {
+        SqlShapeCache.Bound bound = SqlShapeCache.bind(FILTERS, scope);
+        String existsSql = shapes.sql("exists", SET_PRICE, bound.mask(),
+                () -> "SELECT EXISTS (SELECT 1 " + FROM_JOIN + SqlShapeCache.where(FILTERS, bound.mask()) + ")");
+        List<Object> args = bound.args();
         Boolean exists = jdbc.query(con -> {
             var ps = con.prepareStatement(existsSql);
             for (int i = 0; i < args.size(); i++)
@@ -64,35 +76,17 @@ public class MlitPriceQueryService {
     }
 
     public String jsonForCity(String city, String year, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        baseSelect(sb);
-        sb.append(" WHERE r.municipality_code=?");
-        args.add(city);
-        addFilter(sb, args, Q_YEAR, year);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        sb.append(ORDER_BY_ID);
-        return rowsToJson(sb.toString(), args);
+        return rowsToJson(new Scope(true, city, year, null, null, priceClass, quarter));
     }
 
     /**
-     * Year-range variant: filters rows where q.year::int is within
+     * Year-range variant: filters rows where q.year_num is within
      * [startYear,endYear].
      * If both startYear and endYear are null/blank, behaves like single-year with
      * null year.
      */
     public String jsonForCityRange(String city, String startYear, String endYear, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        baseSelect(sb);
-        sb.append(" WHERE r.municipality_code=?");
-        args.add(city);
-        addYearRangeFilter(sb, args, startYear, endYear);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        sb.append(ORDER_BY_ID);
-        return rowsToJson(sb.toString(), args);
+        return rowsToJson(new Scope(true, city, null, parseYear(startYear), parseYear(endYear), priceClass, quarter));
     }
 
     /**
@@ -137,32 +131,12 @@ public class MlitPriceQueryService {
     }
 
     public String jsonForArea(String area, String year, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        baseSelect(sb);
-        sb.append(" WHERE (q.area=? OR r.municipality_code LIKE ?)");
-        args.add(area);
-        args.add(area + "%");
-        addFilter(sb, args, Q_YEAR, year);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        sb.append(ORDER_BY_ID);
-        return rowsToJson(sb.toString(), args);
+        return rowsToJson(new Scope(false, area, year, null, null, priceClass, quarter));
     }
 
     /** Year-range variant for prefecture scope. */
     public String jsonForAreaRange(String area, String startYear, String endYear, String priceClass, String quarter) {
-        StringBuilder sb = new StringBuilder();
-        List<Object> args = new ArrayList<>();
-        baseSelect(sb);
-        sb.append(" WHERE (q.area=? OR r.municipality_code LIKE ?)");
-        args.add(area);
-        args.add(area + "%");
-        addYearRangeFilter(sb, args, startYear, endYear);
-        addFilter(sb, args, Q_PRICE_CLASS, priceClass);
-        addFilter(sb, args, Q_QUARTER, quarter);
-        sb.append(ORDER_BY_ID);
-        return rowsToJson(sb.toString(), args);
+        return rowsToJson(new Scope(false, area, null, parseYear(startYear), parseYear(endYear), priceClass, quarter));
     }
 
     /**
@@ -175,11 +149,11 @@ public class MlitPriceQueryService {
             return false;
         }
         String sql = "SELECT DISTINCT q.quarter FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id "
-                + "WHERE (q.area=? OR r.municipality_code LIKE ?) AND q.year=? AND q.price_classification=? AND q.quarter IS NOT NULL";
+                + "WHERE " + PREFECTURE_SCOPE + " AND q.year=? AND q.price_classification=? AND q.quarter IS NOT NULL";
         var quarters = jdbc.query(con -> {
             var ps = con.prepareStatement(sql);
             ps.setString(1, area);
-            ps.setString(2, area + "%");
+            ps.setString(2, area);
             ps.setString(3, year);
             ps.setString(4, priceClass);
             return ps;
@@ -203,38 +177,16 @@ public class MlitPriceQueryService {
         return true;
     }
 
-    private void baseSelect(StringBuilder sb) {
-        sb.append(
-                "SELECT r.price_category, r.type, r.region, r.municipality_code, r.prefecture, r.municipality, r.district_name, ");
-        sb.append(
-                "r.trade_price_int, r.price_per_unit_int, r.floor_plan, r.area_num, r.unit_price_int, r.land_shape, r.frontage, ");
-        sb.append(
-                "r.total_floor_area_num, r.building_year, r.structure, r.use, r.purpose, r.direction, r.classification, r.breadth, ");
-        sb.append("r.city_planning, r.coverage_ratio, r.floor_area_ratio, r.period, r.renovation, r.remarks ");
-        sb.append("FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id");
+    private static String baseSelect() {
+        return "SELECT r.price_category, r.type, r.region, r.municipality_code, r.prefecture, r.municipality, r.district_name, "
+                + "r.trade_price_int, r.price_per_unit_int, r.floor_plan, r.area_num, r.unit_price_int, r.land_shape, r.frontage, "
+                + "r.total_floor_area_num, r.building_year, r.structure, r.use, r.purpose, r.direction, r.classification, r.breadth, "
+                + "r.city_planning, r.coverage_ratio, r.floor_area_ratio, r.period, r.renovation, r.remarks "
+                + FROM_JOIN;
     }
 
-    private void addFilter(StringBuilder sb, List<Object> args, String col, String val) {
-        if (val != null && !val.isBlank()) {
-            sb.append(" AND ").append(col).append(" = ?");
-            args.add(val);
-        }
-    }
-
-    private void addYearRangeFilter(StringBuilder sb, List<Object> args, String startYear, String endYear) {
-        Integer s = parseYear(startYear);
-        Integer e = parseYear(endYear);
-        if (s != null && e != null) {
-            sb.append(AND_OPEN).append(Q_YEAR).append("::int BETWEEN ? AND ?)");
-            args.add(s);
-            args.add(e);
-        } else if (s != null) {
-            sb.append(AND_OPEN).append(Q_YEAR).append("::int >= ?)");
-            args.add(s);
-        } else if (e != null) {
-            sb.append(AND_OPEN).append(Q_YEAR).append("::int <= ?)");
-            args.add(e);
-        }
+    private static Object[] text(String v) {
+        return (v != null && !v.isBlank()) ? new Object[] { v } : null;
     }
 
     private Integer parseYear(String y) {
@@ -247,7 +199,11 @@ public class MlitPriceQueryService {
         }
     }
 
-    private String rowsToJson(String sql, List<Object> args) {
+    private String rowsToJson(Scope scope) {
+        SqlShapeCache.Bound bound = SqlShapeCache.bind(FILTERS, scope);
+        String sql = shapes.sql("rows", SET_PRICE, bound.mask(),
+                () -> baseSelect() + SqlShapeCache.where(FILTERS, bound.mask()) + ORDER_BY_ID);
+        List<Object> args = bound.args();
         var rows = jdbc.query(con -> {
             var ps = con.prepareStatement(sql);
             for (int i = 0; i < args.size(); i++)
@@ -269,52 +225,6 @@ public class MlitPriceQueryService {
             }
             return list;
         });
-        ObjectNode root = mapper.createObjectNode();
-        root.put("status", "OK");
-        root.put("source", "DB");
-        ArrayNode data = mapper.createArrayNode();
-        for (Object[] r : (rows != null ? rows : java.util.List.<Object[]>of())) {
-            ObjectNode n = mapper.createObjectNode();
-            n.put("PriceCategory", (String) r[0]);
-            n.put("Type", (String) r[1]);
-            n.put("Region", (String) r[2]);
-            n.put("MunicipalityCode", (String) r[3]);
-            n.put("Prefecture", (String) r[4]);
-            n.put("Municipality", (String) r[5]);
-            n.put("DistrictName", (String) r[6]);
-            putNumAsString(n, "TradePrice", r[7]);
-            putNumAsString(n, "PricePerUnit", r[8]);
-            n.put("FloorPlan", (String) r[9]);
-            putNumAsString(n, "Area", r[10]);
-            putNumAsString(n, "UnitPrice", r[11]);
-            n.put("LandShape", (String) r[12]);
-            n.put("Frontage", (String) r[13]);
-            putNumAsString(n, "TotalFloorArea", r[14]);
-            n.put("BuildingYear", (String) r[15]);
-            n.put("Structure", (String) r[16]);
-            n.put("Use", (String) r[17]);
-            n.put("Purpose", (String) r[18]);
-            n.put("Direction", (String) r[19]);
-            n.put("Classification", (String) r[20]);
-            n.put("Breadth", (String) r[21]);
-            n.put("CityPlanning", (String) r[22]);
-            n.put("CoverageRatio", (String) r[23]);
-            n.put("FloorAreaRatio", (String) r[24]);
-            n.put("Period", (String) r[25]);
-            n.put("Renovation", (String) r[26]);
-            n.put("Remarks", (String) r[27]);
-            data.add(n);
-        }
-        root.set("data", data);
-        return root.toString();
-    }
-
-    private static void putNumAsString(ObjectNode n, String key, Object v) {
-        if (v == null) {
-            n.putNull(key);
-            return;
-        }
-        String s = String.valueOf(v);
-        n.put(key, s);
+        return json.writeRecords(rows != null ? rows : java.util.List.of(), "DB");
     }
 }
@@ -0,0 +1,335 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL side of /api/mlit/prices: filters to WHERE clauses (shapes cached by
+ * {@link SqlShapeCache}), the list count/page queries and the facet and
+ * district lookups. Callers choose the transaction (read-only reads may go
+ * to a replica).
+ */
+@Service
+public class MlitPriceSearchService {
+    private static final String JOIN_QUERY_LOG = " JOIN mlit_price_query_log q ON r.query_id=q.id";
+
+    private final JdbcTemplate jdbc;
+    private final SqlShapeCache shapes;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public MlitPriceSearchService(JdbcTemplate jdbc, PlatformTransactionManager txManager, SqlShapeCache shapes,
+            ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.shapes = shapes;
+        this.mapper = mapper;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public static class WhereArgs {
+        final String filterSet;
+        final long mask;
+        final String where;
+        public final List<Object> args;
+
+        private WhereArgs(String filterSet, long mask, String where, List<Object> args) {
+            this.filterSet = filterSet;
+            this.mask = mask;
+            this.where = where;
+            this.args = args;
+        }
+    }
+
+    public static class Filters {
+        public String area;
+        public String city;
+        public String station;
+        public String prefecture;
+        public String municipality;
+        public String districtName;
+        public String districtQuery;
+        public String startYear;
+        public String endYear;
+        public String priceClassification;
+        public String quarter;
+        public String type;
+        public String floorPlan;
+        public String buildingYear;
+        public String structure;
+        public String minTradePrice;
+        public String maxTradePrice;
+        public String minLandArea;
+        public String minExclusiveArea;
+    }
+
+    // Canonical filter order: a request's SQL shape is the set of filters present,
+    // and args are always bound in this order (see SqlShapeCache).
+    private static final List<SqlShapeCache.Filter<Filters>> SCOPE_LOCATION_FILTERS = List.of(
+            new SqlShapeCache.Filter<>("r.municipality_code = ?", f -> text(f.city)),
+            new SqlShapeCache.Filter<>(MlitPriceQueryService.PREFECTURE_SCOPE,
+                    f -> notBlank(f.area) ? new Object[] { f.area, f.area } : null),
+            new SqlShapeCache.Filter<>("q.station = ?", f -> text(f.station)),
+            new SqlShapeCache.Filter<>("r.prefecture = ?", f -> text(f.prefecture)),
+            new SqlShapeCache.Filter<>("r.municipality = ?", f -> text(f.municipality)));
+
+    private static final List<SqlShapeCache.Filter<Filters>> YEAR_CLASS_FILTERS = List.of(
+            new SqlShapeCache.Filter<>("q.year_num >= ?", f -> year(f.startYear)),
+            new SqlShapeCache.Filter<>("q.year_num <= ?", f -> year(f.endYear)),
+            new SqlShapeCache.Filter<>("q.price_classification = ?", f -> text(f.priceClassification)),
+            new SqlShapeCache.Filter<>("q.quarter = ?", f -> text(f.quarter)));
+
+    private static final List<SqlShapeCache.Filter<Filters>> EXTRA_FILTERS = List.of(
+            new SqlShapeCache.Filter<>("r.type = ?", f -> text(f.type)),
+            new SqlShapeCache.Filter<>("r.floor_plan = ?", f -> text(f.floorPlan)),
+            new SqlShapeCache.Filter<>("r.building_year = ?", f -> text(f.buildingYear)),
+            new SqlShapeCache.Filter<>("r.structure = ?", f -> text(f.structure)),
+            new SqlShapeCache.Filter<>("COALESCE(r.trade_price_int, 0) >= ?", f -> positive(f.minTradePrice)),
+            new SqlShapeCache.Filter<>("COALESCE(r.trade_price_int, 0) <= ?", f -> positive(f.maxTradePrice)),
+            new SqlShapeCache.Filter<>("COALESCE(r.area_num, 0) >= ?", f -> positive(f.minLandArea)),
+            new SqlShapeCache.Filter<>("COALESCE(r.total_floor_area_num, 0) >= ?",
+                    f -> positive(f.minExclusiveArea)));
+
+    private static final String SET_LIST = "list";
+    private static final String SET_SCOPE = "scope";
+    private static final List<SqlShapeCache.Filter<Filters>> LIST_FILTERS = concat(SCOPE_LOCATION_FILTERS,
+            List.of(new SqlShapeCache.Filter<>("r.district_name = ?", f -> text(f.districtName)),
+                    // partial match, served by the pg_trgm index
+                    new SqlShapeCache.Filter<>("r.district_name LIKE ?", f -> contains(f.districtQuery))),
+            YEAR_CLASS_FILTERS, EXTRA_FILTERS);
+    // Scope-only where: ignore districtName and list-level extra filters so we
+    // don't trigger MLIT backfill just because a fine-grained filter returns 0 rows.
+    private static final List<SqlShapeCache.Filter<Filters>> SCOPE_FILTERS = concat(SCOPE_LOCATION_FILTERS,
+            YEAR_CLASS_FILTERS);
+
+    public WhereArgs buildWhere(Filters f) {
+        return compileWhere(SET_LIST, LIST_FILTERS, f);
+    }
+
+    public WhereArgs buildScopeWhere(Filters f) {
+        return compileWhere(SET_SCOPE, SCOPE_FILTERS, f);
+    }
+
+    private WhereArgs compileWhere(String filterSet, List<SqlShapeCache.Filter<Filters>> filters, Filters f) {
+        SqlShapeCache.Bound bound = SqlShapeCache.bind(filters, f);
+        String where = shapes.sql("where", filterSet, bound.mask(), () -> SqlShapeCache.where(filters, bound.mask()));
+        return new WhereArgs(filterSet, bound.mask(), where, bound.args());
+    }
+
+    private String shapeSql(String statement, WhereArgs built, java.util.function.Supplier<String> compiler) {
+        return shapes.sql(statement, built.filterSet, built.mask, compiler);
+    }
+
+    @SafeVarargs
+    private static <T> List<T> concat(List<T>... parts) {
+        List<T> out = new ArrayList<>();
+        for (List<T> p : parts)
+            out.addAll(p);
+        return List.copyOf(out);
+    }
+
+    private static Object[] text(String v) {
+        return notBlank(v) ? new Object[] { v } : null;
+    }
+
+    private static Object[] contains(String v) {
+        if (!notBlank(v))
+            return null;
+        String escaped = v.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return new Object[] { "%" + escaped + "%" };
+    }
+
+    private static Object[] year(String v) {
+        return notBlank(v) ? new Object[] { Integer.parseInt(v) } : null;
+    }
+
+    private static Object[] positive(String v) {
+        int n = parseIntSafe(v);
+        return n > 0 ? new Object[] { n } : null;
+    }
+
+    public String countSql(WhereArgs built) {
+        return shapeSql("count", built, () -> "SELECT COUNT(*) FROM mlit_price_record r" + JOIN_QUERY_LOG
+                + built.where);
+    }
+
+    public int countTotal(WhereArgs built) {
+        String sql = countSql(built);
+        Integer total = jdbc.query(con -> {
+            var ps = con.prepareStatement(sql);
+            for (int i = 0; i < built.args.size(); i++)
+                ps.setObject(i + 1, built.args.get(i));
+            return ps;
+        }, rs -> rs.next() ? rs.getInt(1) : 0);
+        return total == null ? 0 : total;
+    }
+
+    // Binds: the where args, then LIMIT and OFFSET
+    public String rowsSql(WhereArgs built) {
+        return shapeSql("rows", built, () -> "SELECT r.id, q.year, q.quarter, " +
+                "COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) AS price_classification, "
+                +
+                "CASE WHEN COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) = '02' THEN '成約価格' "
+                +
+                "     WHEN COALESCE(LPAD(q.price_classification, 2, '0'), CASE WHEN r.price_category LIKE '%成約%' THEN '02' WHEN r.price_category LIKE '%取引%' THEN '01' ELSE NULL END) = '01' THEN '取引価格' "
+                +
+                "     ELSE NULL END AS price_classification_label, " +
+                "r.prefecture, r.municipality, r.district_name, r.period, " +
+                // additional columns for new table (structure included; drop
+                // coverage/floor_area ratios for list)
+                "r.type, r.trade_price_int, r.floor_plan, r.area_num, r.total_floor_area_num, r.building_year, r.structure, r.exclusive_unit_price_int "
+                +
+                "FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
+                " ORDER BY q.year_num DESC NULLS LAST, " +
+                "COALESCE(q.quarter::int, r.period_quarter) DESC NULLS LAST, "
+                +
+                "r.id DESC LIMIT ? OFFSET ?");
+    }
+
+    public List<Object[]> fetchRows(WhereArgs built, int pageSize, int offset) {
+        String selectSql = rowsSql(built);
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement(selectSql);
+            int idx = 1;
+            for (Object a : built.args)
+                ps.setObject(idx++, a);
+            ps.setInt(idx++, pageSize);
+            ps.setInt(idx, offset);
+            return ps;
+        }, rs -> {
+            var list = new ArrayList<Object[]>();
+            while (rs.next()) {
+                list.add(new Object[] { rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9),
+                        rs.getString(10), rs.getObject(11), rs.getString(12), rs.getObject(13), rs.getObject(14),
+                        rs.getString(15), rs.getString(16), rs.getObject(17) });
+            }
+            return list;
+        });
+    }
+
+    public List<String> districts(Filters f) {
+        WhereArgs built = buildWhere(f);
+        String sql = shapeSql("districts", built, () -> "SELECT DISTINCT r.district_name FROM mlit_price_record r " +
+                JOIN_QUERY_LOG + built.where + " ORDER BY r.district_name");
+        List<String> names = jdbc.query(con -> {
+            var ps = con.prepareStatement(sql);
+            int idx = 1;
+            for (Object a : built.args)
+                ps.setObject(idx++, a);
+            return ps;
+        }, (rs, i) -> rs.getString(1));
+        return names;
+    }
+
+    public ObjectNode facets(Filters f) {
+        WhereArgs built = buildWhere(f);
+        ObjectNode out = mapper.createObjectNode();
+        out.set("years", toNumberArray(distinctYears(built)));
+        out.set("quarters", toNumberArray(distinctQuarters(built)));
+        out.set("prefectures", toStringArray(distinctStrings(built, "r.prefecture", "r.prefecture")));
+        out.set("municipalities", toStringArray(distinctStrings(built, "r.municipality", "r.municipality")));
+        out.set("districts", toStringArray(distinctStrings(built, "r.district_name", "r.district_name")));
+        // additional facets for new filters
+        out.set("types", toStringArray(distinctStrings(built, "r.type", "r.type")));
+        out.set("floorPlans", toStringArray(distinctStrings(built, "r.floor_plan", "r.floor_plan")));
+        out.set("buildingYears", toStringArray(distinctStrings(built, "r.building_year", "r.building_year")));
+        out.set("structures", toStringArray(distinctStrings(built, "r.structure", "r.structure")));
+        return out;
+    }
+
+    private List<Integer> distinctYears(WhereArgs built) {
+        String sql = shapeSql("facet:years", built,
+                () -> "SELECT DISTINCT q.year_num y FROM mlit_price_record r " + JOIN_QUERY_LOG + built.where +
+                        " ORDER BY y DESC");
+        return queryDistinctInts(sql, built);
+    }
+
+    private List<Integer> distinctQuarters(WhereArgs built) {
+        String sql = shapeSql("facet:quarters", built,
+                () -> "SELECT DISTINCT COALESCE(q.quarter::int, r.period_quarter) q "
+                        +
+                        "FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
+                        " AND (q.quarter IS NOT NULL OR r.period_quarter IS NOT NULL) ORDER BY q DESC");
+        return queryDistinctInts(sql, built);
+    }
+
+    private List<String> distinctStrings(WhereArgs built, String column, String orderBy) {
+        String sql = shapeSql("facet:" + column, built,
+                () -> "SELECT DISTINCT " + column + " FROM mlit_price_record r" + JOIN_QUERY_LOG + built.where +
+                        " ORDER BY " + orderBy);
+        return queryDistinctStrings(sql, built);
+    }
+
+    private List<Integer> queryDistinctInts(String sql, WhereArgs built) {
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement(sql);
+            int idx = 1;
+            for (Object a : built.args)
+                ps.setObject(idx++, a);
+            return ps;
+        }, (rs, i) -> rs.getInt(1));
+    }
+
+    private List<String> queryDistinctStrings(String sql, WhereArgs built) {
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement(sql);
+            int idx = 1;
+            for (Object a : built.args)
+                ps.setObject(idx++, a);
+            return ps;
+        }, (rs, i) -> rs.getString(1));
+    }
+
+    /**
+     * Startup warm-up: runs the facet queries for the latest year so plans and index pages are cached before
+     * the first user request.
+     */
+    public void warmUp() {
+        Integer latest = jdbc.queryForObject("SELECT MAX(year_num) FROM mlit_price_query_log", Integer.class);
+        if (latest == null)
+            return;
+        Filters f = new Filters();
+        f.startYear = String.valueOf(latest);
+        f.endYear = f.startYear;
+        readOnlyTx.executeWithoutResult(st -> facets(f));
+    }
+
+    private ArrayNode toNumberArray(List<Integer> list) {
+        ArrayNode node = mapper.createArrayNode();
+        for (Integer v : list) {
+            if (v != null)
+                node.add(v);
+        }
+        return node;
+    }
+
+    private ArrayNode toStringArray(List<String> list) {
+        ArrayNode node = mapper.createArrayNode();
+        for (String v : list) {
+            if (v != null)
+                node.add(v);
+        }
+        return node;
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+
+    private static int parseIntSafe(String s) {
+        try {
+            return (s == null || s.isBlank()) ? 0 : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
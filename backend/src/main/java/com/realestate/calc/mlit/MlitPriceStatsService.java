@@ -0,0 +1,325 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Maintains mlit_price_stats_cell: one quantile sketch of price per ㎡ per
+ * (district, year, quarter, type) plus a municipality-level rollup. Cells are
+ * recomputed only for the municipalities/years an ingest touched, and the
+ * stats API answers by merging sketches instead of scanning records.
+ *
+ * Recomputes run off the ingest thread, after the ingest committed, on one
+ * background thread. Each holds a transaction-scoped advisory lock per
+ * municipality, so recomputes on other nodes (or a rebuildAll) covering the
+ * same municipality wait instead of colliding on the cell keys.
+ */
+@Service
+public class MlitPriceStatsService {
+    private static final Logger log = LoggerFactory.getLogger(MlitPriceStatsService.class);
+
+    static final int LEVEL_DISTRICT = 0;
+    static final int LEVEL_MUNICIPALITY = 1;
+
+    public static final String DIM_DISTRICT = "district";
+    public static final String DIM_YEAR = "year";
+    public static final String DIM_QUARTER = "quarter";
+    public static final String DIM_TYPE = "type";
+
+    // Price per ㎡: MLIT UnitPrice when given (land), else trade price / area
+    // (exclusive area for condos, lot area otherwise). Year and quarter fall
+    // back to the record's period when the query log has none.
+    private static final String CELL_ROWS_SQL = """
+            SELECT municipality_code, district_name, year_num, quarter, type, v FROM (
+              SELECT r.municipality_code,
+                     COALESCE(r.district_name, '') AS district_name,
+                     COALESCE(q.year_num, NULLIF(substring(r.period FROM '([0-9]{4})年'), '')::int) AS year_num,
+                     COALESCE(q.quarter::int, r.period_quarter, 0) AS quarter,
+                     COALESCE(r.type, '') AS type,
+                     COALESCE(r.unit_price_int::float8, (r.trade_price_int / NULLIF(r.area_num, 0))::float8) AS v
+              FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id = q.id
+              WHERE r.municipality_code = ANY(?)
+            ) t
+            WHERE v > 0 AND year_num IS NOT NULL AND (cardinality(?::int[]) = 0 OR year_num = ANY(?::int[]))
+            """;
+
+    private static final String TOUCHED_SQL = """
+            SELECT DISTINCT r.municipality_code,
+                   COALESCE(q.year_num, NULLIF(substring(r.period FROM '([0-9]{4})年'), '')::int)
+            FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id = q.id
+            WHERE r.query_id = ? AND r.municipality_code IS NOT NULL
+            """;
+
+    // Key space of pg_advisory_xact_lock(int, int) for this table: (STATS_LOCK, municipality code)
+    private static final int STATS_LOCK = 0x5354;
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    // Stats reads only touch the cell table and may be served by a replica
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper mapper;
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mlit-price-stats");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MlitPriceStatsService(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+            ApplicationEventPublisher events, ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.events = events;
+        this.tx = new TransactionTemplate(txManager);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.mapper = mapper;
+    }
+
+    private record CellKey(int level, String municipalityCode, String district, int year, int quarter,
+            String type) {
+    }
+
+    // Records are only visible to the recompute once the ingest committed; ingests without a transaction run at once
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIngested(MlitPriceIngestedEvent event) {
+        refreshExecutor.execute(() -> refresh(event));
+    }
+
+    private void refresh(MlitPriceIngestedEvent event) {
+        try {
+            Set<String> munis = new TreeSet<>();
+            Set<Integer> years = new TreeSet<>();
+            jdbc.query(TOUCHED_SQL, rs -> {
+                munis.add(rs.getString(1));
+                int y = rs.getInt(2);
+                if (!rs.wasNull())
+                    years.add(y);
+            }, event.queryId());
+            if (munis.isEmpty() || years.isEmpty())
+                return;
+            int cells = recompute(new ArrayList<>(munis), new ArrayList<>(years));
+            log.info("Price stats refreshed after ingest queryId={}: municipalities={}, years={}, cells={}",
+                    event.queryId(), munis.size(), years, cells);
+            events.publishEvent(new MlitPriceStatsUpdatedEvent(munis));
+        } catch (Exception ex) {
+            log.error("Price stats refresh failed for queryId={}: {}", event.queryId(), ex.getMessage());
+        }
+    }
+
+    /** Rebuilds every cell from mlit_price_record, one municipality batch at a time. */
+    public int rebuildAll() {
+        List<String> munis = jdbc.queryForList(
+                "SELECT DISTINCT municipality_code FROM mlit_price_record WHERE municipality_code IS NOT NULL "
+                        + "ORDER BY 1",
+                String.class);
+        int cells = 0;
+        for (int i = 0; i < munis.size(); i += 20)
+            cells += recompute(munis.subList(i, Math.min(i + 20, munis.size())), List.of());
+        log.info("Price stats rebuilt: municipalities={}, cells={}", munis.size(), cells);
+        events.publishEvent(new MlitPriceStatsUpdatedEvent(new TreeSet<>(munis)));
+        return cells;
+    }
+
+    /**
+     * Recomputes all cells of the given municipalities for the given years (all
+     * years when empty) and replaces them atomically, under the municipalities'
+     * advisory locks (taken in code order, so two recomputes cannot deadlock).
+     */
+    int recompute(List<String> municipalityCodes, List<Integer> years) {
+        Integer cells = tx.execute(status -> {
+            for (String code : new TreeSet<>(municipalityCodes))
+                jdbc.queryForList("SELECT pg_advisory_xact_lock(?, hashtext(?))", STATS_LOCK, code);
+            return replaceCells(municipalityCodes, years);
+        });
+        return cells == null ? 0 : cells;
+    }
+
+    private int replaceCells(List<String> municipalityCodes, List<Integer> years) {
+        Map<CellKey, QuantileSketch> sketches = new HashMap<>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(CELL_ROWS_SQL);
+            Array codes = con.createArrayOf("text", municipalityCodes.toArray());
+            Array ys = con.createArrayOf("int4", years.toArray());
+            ps.setArray(1, codes);
+            ps.setArray(2, ys);
+            ps.setArray(3, ys);
+            return ps;
+        }, rs -> {
+            String muni = rs.getString(1);
+            String district = rs.getString(2);
+            int year = rs.getInt(3);
+            int quarter = rs.getInt(4);
+            String type = rs.getString(5);
+            double v = rs.getDouble(6);
+            sketches.computeIfAbsent(new CellKey(LEVEL_DISTRICT, muni, district, year, quarter, type),
+                    k -> new QuantileSketch()).add(v);
+            sketches.computeIfAbsent(new CellKey(LEVEL_MUNICIPALITY, muni, "", year, quarter, type),
+                    k -> new QuantileSketch()).add(v);
+        });
+
+        List<Object[]> batch = new ArrayList<>(sketches.size());
+        for (Map.Entry<CellKey, QuantileSketch> e : sketches.entrySet()) {
+            CellKey k = e.getKey();
+            batch.add(new Object[] { k.level(), k.municipalityCode(), prefectureOf(k.municipalityCode()),
+                    k.district(), k.year(), k.quarter(), k.type(), (int) e.getValue().count(),
+                    e.getValue().toBytes() });
+        }
+        // Delete drops cells that no longer have trades; the upsert keeps a stray concurrent writer from failing us
+        jdbc.update(con -> {
+            var ps = con.prepareStatement("DELETE FROM mlit_price_stats_cell WHERE municipality_code = ANY(?) "
+                    + "AND (cardinality(?::int[]) = 0 OR year_num = ANY(?::int[]))");
+            Array ys = con.createArrayOf("int4", years.toArray());
+            ps.setArray(1, con.createArrayOf("text", municipalityCodes.toArray()));
+            ps.setArray(2, ys);
+            ps.setArray(3, ys);
+            return ps;
+        });
+        jdbc.batchUpdate("INSERT INTO mlit_price_stats_cell(level, municipality_code, prefecture_code, "
+                + "district_name, year_num, quarter, type, trade_count, sketch) VALUES (?,?,?,?,?,?,?,?,?) "
+                + "ON CONFLICT (level, municipality_code, district_name, year_num, quarter, type) DO UPDATE "
+                + "SET trade_count = EXCLUDED.trade_count, sketch = EXCLUDED.sketch, updated_at = now()", batch);
+        return batch.size();
+    }
+
+    /** Query shape for {@link #stats}: scope plus optional filters and grouping dimensions. */
+    public static class StatsQuery {
+        public String prefectureCode;
+        public String municipalityCode;
+        public String district;
+        public String type;
+        public Integer startYear;
+        public Integer endYear;
+        public Integer quarter;
+        public List<String> groupBy = List.of(DIM_YEAR);
+    }
+
+    public ObjectNode stats(StatsQuery sq) {
+        return readOnlyTx.execute(st -> aggregate(sq));
+    }
+
+    private ObjectNode aggregate(StatsQuery sq) {
+        long start = System.nanoTime();
+        boolean byDistrict = sq.groupBy.contains(DIM_DISTRICT) || notBlank(sq.district);
+        StringBuilder sql = new StringBuilder(
+                "SELECT district_name, year_num, quarter, type, sketch FROM mlit_price_stats_cell WHERE level = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(byDistrict ? LEVEL_DISTRICT : LEVEL_MUNICIPALITY);
+        if (notBlank(sq.municipalityCode)) {
+            sql.append(" AND municipality_code = ?");
+            args.add(sq.municipalityCode);
+        } else {
+            sql.append(" AND prefecture_code = ?");
+            args.add(sq.prefectureCode);
+        }
+        if (notBlank(sq.district)) {
+            sql.append(" AND district_name = ?");
+            args.add(sq.district);
+        }
+        if (notBlank(sq.type)) {
+            sql.append(" AND type = ?");
+            args.add(sq.type);
+        }
+        if (sq.startYear != null) {
+            sql.append(" AND year_num >= ?");
+            args.add(sq.startYear);
+        }
+        if (sq.endYear != null) {
+            sql.append(" AND year_num <= ?");
+            args.add(sq.endYear);
+        }
+        if (sq.quarter != null) {
+            sql.append(" AND quarter = ?");
+            args.add(sq.quarter);
+        }
+
+        // Group key is the requested dimensions in fixed order; TreeMap keeps output sorted
+        Map<List<Object>, QuantileSketch> groups = new TreeMap<>(MlitPriceStatsService::compareKeys);
+        int[] cells = { 0 };
+        jdbc.query(sql.toString(), rs -> {
+            cells[0]++;
+            List<Object> key = new ArrayList<>(4);
+            if (sq.groupBy.contains(DIM_DISTRICT))
+                key.add(rs.getString(1));
+            if (sq.groupBy.contains(DIM_YEAR))
+                key.add(rs.getInt(2));
+            if (sq.groupBy.contains(DIM_QUARTER))
+                key.add(rs.getInt(3));
+            if (sq.groupBy.contains(DIM_TYPE))
+                key.add(rs.getString(4));
+            groups.computeIfAbsent(key, k -> new QuantileSketch()).merge(QuantileSketch.fromBytes(rs.getBytes(5)));
+        }, args.toArray());
+
+        ObjectNode root = mapper.createObjectNode();
+        root.put("status", "OK");
+        ArrayNode dims = root.putArray("groupBy");
+        List<String> ordered = new ArrayList<>();
+        for (String d : List.of(DIM_DISTRICT, DIM_YEAR, DIM_QUARTER, DIM_TYPE)) {
+            if (sq.groupBy.contains(d)) {
+                dims.add(d);
+                ordered.add(d);
+            }
+        }
+        ArrayNode rows = root.putArray("rows");
+        for (Map.Entry<List<Object>, QuantileSketch> e : groups.entrySet()) {
+            ObjectNode n = rows.addObject();
+            for (int i = 0; i < ordered.size(); i++) {
+                Object v = e.getKey().get(i);
+                if (v instanceof Integer iv)
+                    n.put(ordered.get(i), iv);
+                else
+                    n.put(ordered.get(i), (String) v);
+            }
+            QuantileSketch sk = e.getValue();
+            double p25 = sk.quantile(0.25);
+            double p75 = sk.quantile(0.75);
+            n.put("count", sk.count());
+            n.put("medianPerSqm", Math.round(sk.quantile(0.5)));
+            n.put("p25PerSqm", Math.round(p25));
+            n.put("p75PerSqm", Math.round(p75));
+            n.put("iqrPerSqm", Math.round(p75 - p25));
+            n.put("meanPerSqm", Math.round(sk.mean()));
+        }
+        root.put("cellsScanned", cells[0]);
+        root.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        return root;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compareKeys(List<Object> a, List<Object> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = ((Comparable) a.get(i)).compareTo(b.get(i));
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    private static String prefectureOf(String municipalityCode) {
+        return municipalityCode.length() >= 2 ? municipalityCode.substring(0, 2) : municipalityCode;
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
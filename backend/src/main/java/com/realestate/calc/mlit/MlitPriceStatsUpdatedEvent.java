@@ -0,0 +1,7 @@
+package com.realestate.calc.mlit;
+
+import java.util.Set;
+
+/** Published after mlit_price_stats_cell was recomputed for these municipalities. */
+public record MlitPriceStatsUpdatedEvent(Set<String> municipalityCodes) {
+}
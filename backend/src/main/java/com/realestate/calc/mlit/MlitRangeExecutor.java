@@ -0,0 +1,141 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out/fan-in for multi-year (and multi-quarter) MLIT requests. Each slice
+ * runs on a bounded pool; upstream pacing stays with {@link MlitRateLimiter}
+ * inside {@link MlitApiClient}, so parallel slices only overlap network
+ * latency. Slice bodies are merged by streaming their "data" arrays into one
+ * response rather than building a combined tree.
+ */
+@Component
+public class MlitRangeExecutor implements DisposableBean {
+
+    @FunctionalInterface
+    public interface Slice<K, V> {
+        V fetch(K key) throws IOException;
+    }
+
+    private final ExecutorService pool;
+    private final JsonFactory jsonFactory;
+
+    public MlitRangeExecutor(@Value("${mlit.range.parallelism:4}") int parallelism, MeterRegistry meterRegistry,
+            MlitJson json) {
+        this.jsonFactory = json.factory();
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService raw = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "mlit-range-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pool = ExecutorServiceMetrics.monitor(meterRegistry, raw, "mlit.range");
+    }
+
+    /**
+     * Runs fetch for every key concurrently and returns the results in key
+     * order. The first failure (in key order) cancels the remaining slices and
+     * is rethrown as-is. Slices must not call back into this executor.
+     */
+    public <K, V> List<V> map(List<K> keys, Slice<K, V> slice) throws IOException {
+        List<V> out = new ArrayList<>(keys.size());
+        if (keys.size() <= 1) {
+            for (K k : keys)
+                out.add(slice.fetch(k));
+            return out;
+        }
+        List<Future<V>> futures = new ArrayList<>(keys.size());
+        for (K k : keys)
+            futures.add(pool.submit(() -> slice.fetch(k)));
+        try {
+            for (Future<V> f : futures)
+                out.add(f.get());
+            return out;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for MLIT range slices", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io)
+                throw io;
+            if (cause instanceof RuntimeException re)
+                throw re;
+            if (cause instanceof Error err)
+                throw err;
+            throw new IOException(cause);
+        } finally {
+            for (Future<V> f : futures)
+                f.cancel(true);
+        }
+    }
+
+    /**
+     * {"status":"OK","source":source,"data":[...]} with the data elements of
+     * every body in order. Bodies (or trailing elements) that fail to parse
+     * are skipped, matching the previous tree-based merge.
+     */
+    public String mergeData(List<String> bodies, String source) throws IOException {
+        StringWriter w = new StringWriter();
+        try (JsonGenerator g = jsonFactory.createGenerator(w)) {
+            g.writeStartObject();
+            g.writeStringField("status", "OK");
+            g.writeStringField("source", source);
+            g.writeArrayFieldStart("data");
+            for (String body : bodies)
+                copyDataElements(body, g);
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        return w.toString();
+    }
+
+    private void copyDataElements(String body, JsonGenerator g) throws IOException {
+        if (body == null || body.isEmpty())
+            return;
+        try (JsonParser p = jsonFactory.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT)
+                return;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!"data".equals(field) || value != JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    // Buffer one element so a malformed tail never leaves half an element in the output
+                    TokenBuffer element = new TokenBuffer(p);
+                    element.copyCurrentStructure(p);
+                    element.serialize(g);
+                }
+                return;
+            }
+        } catch (com.fasterxml.jackson.core.JsonProcessingException ignore) {
+            // Ignore bad chunk and continue combining others
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pacing for upstream MLIT calls, in two independent lanes.
+ * BULK (municipality sync/refresh, prefecture splits, search backfill) and
+ * INTERACTIVE (a user's /prices fetch) each have their own interval, so a
+ * running sync never queues a user request behind hundreds of slots. Within
+ * a lane every caller reserves the next free slot and sleeps until it, so
+ * concurrent fetchers share one request rate instead of each sleeping on its
+ * own.
+ */
+@Component
+public class MlitRateLimiter {
+
+    public enum Lane {
+        BULK, INTERACTIVE
+    }
+
+    private final Map<Lane, Slots> lanes = new EnumMap<>(Lane.class);
+
+    public MlitRateLimiter(@Value("${mlit.api.minIntervalMs:80}") long minIntervalMs,
+            @Value("${mlit.api.interactiveMinIntervalMs:20}") long interactiveMinIntervalMs,
+            MeterRegistry meterRegistry) {
+        lanes.put(Lane.BULK, new Slots(minIntervalMs));
+        lanes.put(Lane.INTERACTIVE, new Slots(interactiveMinIntervalMs));
+        // Queue depth per lane: callers sleeping for a slot, and how far ahead slots are booked
+        lanes.forEach((lane, slots) -> {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("mlit.ratelimiter.waiting", slots.waiting, AtomicInteger::get)
+                    .description("Callers waiting for an upstream MLIT slot")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("mlit.ratelimiter.backlog", slots, Slots::backlogSeconds)
+                    .description("Seconds until the next free upstream MLIT slot")
+                    .baseUnit("seconds")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        });
+    }
+
+    public void acquire(Lane lane) throws InterruptedException {
+        lanes.get(lane).acquire();
+    }
+
+    private static final class Slots {
+        private final long intervalNanos;
+        private long nextSlotNanos = System.nanoTime();
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        Slots(long minIntervalMs) {
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minIntervalMs));
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextSlotNanos);
+                nextSlotNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                waiting.incrementAndGet();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+        }
+
+        synchronized double backlogSeconds() {
+            return Math.max(0, nextSlotNanos - System.nanoTime()) / 1e9;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for raw MLIT responses. Bodies are deflate-compressed
+ * and keyed by SHA-256, so a re-fetched identical response costs one index
+ * lookup instead of another JSONB copy. Query log rows point at a payload via
+ * raw_hash; payloads older than the retention window are dropped, and a
+ * background job moves legacy raw_json rows into the store.
+ */
+@Service
+public class MlitRawPayloadStore {
+    private static final Logger log = LoggerFactory.getLogger(MlitRawPayloadStore.class);
+
+    public static final String CODEC_DEFLATE = "deflate";
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private volatile ScheduledExecutorService scheduler;
+
+    @Value("${mlit.raw.enabled:true}")
+    private boolean enabled;
+    @Value("${mlit.raw.compressionLevel:6}")
+    private int compressionLevel;
+    @Value("${mlit.raw.retentionDays:180}")
+    private int retentionDays;
+    @Value("${mlit.raw.compactBatchSize:200}")
+    private int compactBatchSize;
+    @Value("${mlit.raw.compactIntervalMinutes:360}")
+    private long compactIntervalMinutes;
+
+    public MlitRawPayloadStore(JdbcTemplate jdbc, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record CompactionResult(int migrated, int dropped, int expired, int payloadsDeleted, long tookMs) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the body (if not already present) and returns its hash, or null
+     * when raw retention is disabled. A dedup hit only refreshes last_seen_at,
+     * and at most once an hour, to keep ingest WAL small.
+     */
+    public byte[] store(String rawJson) {
+        if (!enabled || rawJson == null)
+            return null;
+        byte[] body = rawJson.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = sha256(body);
+        int touched = jdbc.update("UPDATE mlit_raw_payload SET last_seen_at = now() "
+                + "WHERE hash = ? AND last_seen_at < now() - interval '1 hour'", hash);
+        Boolean exists = touched > 0 ? Boolean.TRUE
+                : jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM mlit_raw_payload WHERE hash = ?)",
+                        Boolean.class, hash);
+        if (Boolean.TRUE.equals(exists)) {
+            meterRegistry.counter("mlit.raw.payloads", "result", "dedup").increment();
+            return hash;
+        }
+        byte[] packed = deflate(body, compressionLevel);
+        jdbc.update("INSERT INTO mlit_raw_payload(hash, codec, raw_size, stored_size, payload) VALUES (?,?,?,?,?) "
+                + "ON CONFLICT (hash) DO NOTHING", hash, CODEC_DEFLATE, body.length, packed.length, packed);
+        meterRegistry.counter("mlit.raw.payloads", "result", "stored").increment();
+        meterRegistry.counter("mlit.raw.bytes", "kind", "raw").increment(body.length);
+        meterRegistry.counter("mlit.raw.bytes", "kind", "stored").increment(packed.length);
+        return hash;
+    }
+
+    /** Raw JSON of a query log row, from the store or the legacy raw_json column; null if not retained. */
+    public String loadForQuery(long queryId) {
+        List<String> legacy = jdbc.query("SELECT raw_json::text FROM mlit_price_query_log WHERE id = ? "
+                + "AND raw_json IS NOT NULL", (rs, i) -> rs.getString(1), queryId);
+        if (!legacy.isEmpty())
+            return legacy.get(0);
+        List<String> stored = jdbc.query("""
+                SELECT p.codec, p.raw_size, p.payload FROM mlit_price_query_log q
+                JOIN mlit_raw_payload p ON p.hash = q.raw_hash WHERE q.id = ?
+                """, (rs, i) -> decode(rs.getString(1), rs.getInt(2), rs.getBytes(3)), queryId);
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+
+    /**
+     * One compaction pass: moves legacy raw_json bodies into the store (or
+     * drops them when already past retention), expires references older than
+     * the retention window, deletes unreferenced payloads, then vacuums the
+     * query log so the freed JSONB/TOAST space is reusable.
+     */
+    public CompactionResult compact() {
+        if (!compacting.compareAndSet(false, true))
+            return new CompactionResult(0, 0, 0, 0, 0);
+        long start = System.nanoTime();
+        try {
+            int migrated = 0;
+            int dropped = 0;
+            long lastId = 0;
+            while (true) {
+                List<Object[]> rows = jdbc.query("""
+                        SELECT id, raw_json::text, %s AS expired FROM mlit_price_query_log
+                        WHERE raw_json IS NOT NULL AND id > ? ORDER BY id LIMIT ?
+                        """.formatted(expiredPredicate("requested_at")),
+                        (rs, i) -> new Object[] { rs.getLong(1), rs.getString(2), rs.getBoolean(3) },
+                        lastId, Math.max(1, compactBatchSize));
+                if (rows.isEmpty())
+                    break;
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    long id = (Long) row[0];
+                    boolean expired = (Boolean) row[2];
+                    byte[] hash = expired ? null : store((String) row[1]);
+                    if (hash == null)
+                        dropped++;
+                    else
+                        migrated++;
+                    updates.add(new Object[] { hash, id });
+                    lastId = id;
+                }
+                jdbc.batchUpdate("UPDATE mlit_price_query_log SET raw_hash = ?, raw_json = NULL WHERE id = ?",
+                        updates);
+            }
+
+            int expired = retentionDays > 0 ? jdbc.update("UPDATE mlit_price_query_log SET raw_hash = NULL "
+                    + "WHERE raw_hash IS NOT NULL AND " + expiredPredicate("requested_at")) : 0;
+            // Grace period on last_seen_at covers an ingest that stored a payload but has not inserted its log row
+            int payloadsDeleted = jdbc.update("""
+                    DELETE FROM mlit_raw_payload p WHERE p.last_seen_at < now() - interval '1 day'
+                    AND NOT EXISTS (SELECT 1 FROM mlit_price_query_log q WHERE q.raw_hash = p.hash)
+                    """);
+
+            if (migrated + dropped + expired > 0)
+                vacuum("mlit_price_query_log");
+            if (payloadsDeleted > 0)
+                vacuum("mlit_raw_payload");
+
+            CompactionResult r = new CompactionResult(migrated, dropped, expired, payloadsDeleted,
+                    (System.nanoTime() - start) / 1_000_000);
+            log.info("Raw payload compaction: {}", r);
+            return r;
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> payloads = jdbc.queryForMap("""
+                SELECT count(*) AS payloads, COALESCE(sum(raw_size), 0) AS raw_bytes,
+                       COALESCE(sum(stored_size), 0) AS stored_bytes FROM mlit_raw_payload
+                """);
+        Map<String, Object> logs = jdbc.queryForMap("""
+                SELECT count(*) FILTER (WHERE raw_hash IS NOT NULL) AS referenced,
+                       count(*) FILTER (WHERE raw_json IS NOT NULL) AS legacy_jsonb,
+                       pg_total_relation_size('mlit_price_query_log') AS query_log_bytes,
+                       pg_total_relation_size('mlit_raw_payload') AS payload_table_bytes
+                FROM mlit_price_query_log
+                """);
+        return Map.of(
+                "enabled", enabled,
+                "codec", CODEC_DEFLATE,
+                "retentionDays", retentionDays,
+                "payloads", payloads,
+                "queryLog", logs);
+    }
+
+    /** Starts the periodic compaction job; a non-positive interval leaves it to the admin endpoint. */
+    public void startBackgroundCompaction() {
+        if (compactIntervalMinutes <= 0 || scheduler != null)
+            return;
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mlit-raw-compaction");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = s;
+        s.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (Exception e) {
+                log.warn("Raw payload compaction failed: {}", e.getMessage());
+            }
+        }, 1, compactIntervalMinutes, TimeUnit.MINUTES);
+        log.info("Raw payload compaction scheduled every {} min (retentionDays={})", compactIntervalMinutes,
+                retentionDays);
+    }
+
+    private String expiredPredicate(String column) {
+        return retentionDays > 0 ? "(" + column + " < now() - make_interval(days => " + retentionDays + "))"
+                : "false";
+    }
+
+    private void vacuum(String table) {
+        try {
+            jdbc.execute("VACUUM (ANALYZE) " + table);
+        } catch (Exception e) {
+            // Inside a transaction or lacking ownership: autovacuum will get to it
+            log.debug("VACUUM {} skipped: {}", table, e.getMessage());
+        }
+    }
+
+    static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static byte[] deflate(byte[] body, int level) {
+        Deflater deflater = new Deflater(Math.max(Deflater.BEST_SPEED, Math.min(level, Deflater.BEST_COMPRESSION)));
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decode(String codec, int rawSize, byte[] payload) {
+        if (!CODEC_DEFLATE.equals(codec))
+            throw new IllegalStateException("Unsupported raw payload codec: " + codec);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            byte[] out = new byte[rawSize];
+            int off = 0;
+            while (off < rawSize && !inflater.finished()) {
+                int n = inflater.inflate(out, off, rawSize - off);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                off += n;
+            }
+            if (off != rawSize)
+                throw new IllegalStateException("Truncated raw payload: " + off + "/" + rawSize + " bytes");
+            return new String(out, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt raw payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * HTTP response cache for MLIT price reads that only change on ingest
+ * (facets, districts, historic-year /list pages).
+ *
+ * The prices data version is the mlit_price_data_version row, bumped in the
+ * same transaction that inserts the records: a local ingest raises it after
+ * commit, other nodes pick it up by polling the row every versionCheckMs.
+ * The strong ETag is (version, request key), so every node answers
+ * If-None-Match for the same request the same way, and a 304 needs neither
+ * the DB nor a render. Rendered bodies sit in a byte-bounded LRU keyed by
+ * request and tagged with the version they were read under.
+ */
+@Component
+public class MlitResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(MlitResponseCache.class);
+    private static final String VERSION_SQL = "SELECT version FROM mlit_price_data_version WHERE id = 1";
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long versionCheckNanos;
+    private final CacheControl cacheControl;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes; // guarded by entries
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile boolean checked;
+    private volatile long checkedAtNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+
+    public MlitResponseCache(JdbcTemplate jdbc, MeterRegistry meterRegistry,
+            @Value("${mlit.http.cacheMaxMiB:64}") long maxMiB,
+            @Value("${mlit.http.cacheMaxEntryKiB:1024}") long maxEntryKiB,
+            @Value("${mlit.http.versionCheckMs:5000}") long versionCheckMs,
+            @Value("${mlit.http.pricesMaxAgeSeconds:300}") long maxAgeSeconds) {
+        this.jdbc = jdbc;
+        this.maxBytes = Math.max(0, maxMiB) * 1024 * 1024;
+        this.maxEntryBytes = Math.max(0, maxEntryKiB) * 1024;
+        this.versionCheckNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, versionCheckMs));
+        this.cacheControl = CacheControl.maxAge(Math.max(0, maxAgeSeconds), TimeUnit.SECONDS)
+                .cachePublic()
+                .mustRevalidate();
+        this.hits = meterRegistry.counter("mlit.http.cache.responses", "result", "hit");
+        this.misses = meterRegistry.counter("mlit.http.cache.responses", "result", "miss");
+        this.notModified = meterRegistry.counter("mlit.http.cache.responses", "result", "not_modified");
+        Gauge.builder("mlit.http.cache.bytes", this, MlitResponseCache::size)
+                .description("Bytes of rendered MLIT responses held in memory")
+                .register(meterRegistry);
+        Gauge.builder("mlit.http.cache.version", version, AtomicLong::get)
+                .description("Prices data version (mlit_price_data_version)")
+                .register(meterRegistry);
+    }
+
+    /** Canonical request key: endpoint plus the non-blank params in the given order. */
+    public static String key(String endpoint, String... namesAndValues) {
+        StringBuilder sb = new StringBuilder(endpoint);
+        char sep = '?';
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            String v = namesAndValues[i + 1];
+            if (v == null || v.isBlank())
+                continue;
+            sb.append(sep).append(namesAndValues[i]).append('=').append(v.trim());
+            sep = '&';
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 304 when If-None-Match carries the current ETag, otherwise the cached
+     * body or a fresh render. A miss reads the version row before and after
+     * the render; a render that raced an ingest on any node (either read
+     * differs from the ETag version) is sent without an ETag and not cached.
+     */
+    public ResponseEntity<byte[]> serve(String key, WebRequest request, Supplier<byte[]> render) {
+        long v = version();
+        String etag = etag(key, v);
+        if (request.checkNotModified(etag)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        byte[] body = get(key, v);
+        if (body != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            long before = readVersion();
+            body = render.get();
+            long after = readVersion();
+            if (before != v || after != v || version.get() != v) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .cacheControl(CacheControl.noCache())
+                        .body(body);
+            }
+            put(key, v, body);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+
+    /** Current prices version, re-read from the DB at most every versionCheckMs (0 = only once). */
+    public long version() {
+        long now = System.nanoTime();
+        boolean due = !checked || (versionCheckNanos > 0 && now - checkedAtNanos > versionCheckNanos);
+        if (due && checking.compareAndSet(false, true)) {
+            try {
+                if (readVersion() >= 0)
+                    checked = true;
+            } finally {
+                checkedAtNanos = now;
+                checking.set(false);
+            }
+        }
+        return version.get();
+    }
+
+    /** Committed version straight from the DB (raising the local one), or -1 when it cannot be read. */
+    private long readVersion() {
+        try {
+            Long v = jdbc.queryForObject(VERSION_SQL, Long.class);
+            if (v == null)
+                return -1;
+            raise(v);
+            return v;
+        } catch (DataAccessException e) {
+            log.debug("Prices version check failed: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // Ingest publishes inside its transaction (if any); the new version only counts once the rows are visible
+    @EventListener
+    public void onIngested(MlitPriceIngestedEvent event) {
+        long dataVersion = event.dataVersion();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    raise(dataVersion);
+                }
+            });
+        } else {
+            raise(dataVersion);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private void raise(long v) {
+        long prev = version.getAndAccumulate(v, Math::max);
+        if (v > prev)
+            log.debug("Prices data version {} -> {}", prev, v);
+    }
+
+    private byte[] get(String key, long v) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null)
+                return null;
+            if (e.version() != v) {
+                entries.remove(key);
+                bytes -= e.body().length;
+                return null;
+            }
+            return e.body();
+        }
+    }
+
+    private void put(String key, long v, byte[] body) {
+        if (body == null || body.length > maxEntryBytes || body.length > maxBytes)
+            return;
+        synchronized (entries) {
+            Entry prev = entries.put(key, new Entry(v, body));
+            if (prev != null)
+                bytes -= prev.body().length;
+            bytes += body.length;
+            Iterator<Entry> it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().body().length;
+                it.remove();
+            }
+        }
+    }
+
+    private long size() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    private static String etag(String key, long v) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "\"p" + v + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,10 +3,8 @@ package com.realestate.calc.mlit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
 
 @Component
 public class MlitSyncScheduler {
@@ -25,8 +23,7 @@ public class MlitSyncScheduler {
         this.dbSyncService = dbSyncService;
     }
 
-    // 서버 기동 시: DB가 완전히 비어있는 경우에만 초기 적재 수행
-    @EventListener(ApplicationReadyEvent.class)
+    // 서버 기동 시: DB가 완전히 비어있는 경우에만 초기 적재 수행 (StartupOrchestrator에서 호출)
     public void onReady() {
         try {
             if (dbSyncService.isDbEmpty()) {
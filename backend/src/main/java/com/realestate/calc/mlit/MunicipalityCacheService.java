@@ -18,12 +18,24 @@ public class MunicipalityCacheService {
     private static final Logger log = LoggerFactory.getLogger(MunicipalityCacheService.class);
 
     private final MlitApiClient mlitApiClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
 
-    // Cache file path (relative to backend module root by default)
+    // Binary snapshot (primary cache format, see MunicipalitySnapshotCodec)
+    @Value("${mlit.cache.snapshotFile:./data/mlit/municipalities_ja.bin}")
+    private String snapshotFilePath;
+
+    // JSON cache file path (relative to backend module root by default); read for
+    // migration to the snapshot, written only when mlit.cache.writeJson=true
     @Value("${mlit.cache.file:./data/mlit/municipalities_ja.json}")
     private String cacheFilePath;
 
+    @Value("${mlit.cache.writeJson:false}")
+    private boolean writeJson;
+
+    // Checkpoint after this many fetched prefectures (snapshot writes are cheap)
+    @Value("${mlit.cache.checkpointEvery:1}")
+    private int checkpointEvery;
+
     // Legacy path used in earlier version (wrong relative path): ./backend/data/...
     // when run from backend CWD
     @Value("${mlit.cache.legacyFile:./backend/data/mlit/municipalities_ja.json}")
@@ -33,12 +45,13 @@ public class MunicipalityCacheService {
     @Value("${mlit.cache.forceRefresh:false}")
     private boolean forceRefresh;
 
-    public MunicipalityCacheService(MlitApiClient mlitApiClient) {
+    public MunicipalityCacheService(MlitApiClient mlitApiClient, ObjectMapper objectMapper) {
         this.mlitApiClient = mlitApiClient;
+        this.objectMapper = objectMapper;
     }
 
     public Map<String, List<MunicipalityDto>> loadOrFetchAll() {
-        Path path = Path.of(cacheFilePath).toAbsolutePath().normalize();
+        Path path = snapshotPath();
         Map<String, List<MunicipalityDto>> data = null;
 
         if (forceRefresh) {
@@ -48,12 +61,27 @@ public class MunicipalityCacheService {
             return data;
         }
 
-        // 1) Try load existing cache (primary path)
+        // 1) Try the binary snapshot
         if (Files.exists(path)) {
             try {
-                log.info("Loading MLIT municipalities from cache: {}", path);
-                data = objectMapper.readValue(Files.readAllBytes(path), new TypeReference<>() {
+                long start = System.nanoTime();
+                data = MunicipalitySnapshotCodec.read(path);
+                log.info("Loaded MLIT municipalities snapshot {} ({} prefectures) in {}us", path, data.size(),
+                        (System.nanoTime() - start) / 1_000);
+            } catch (IOException e) {
+                log.warn("Failed to read snapshot, falling back to JSON cache: {}", e.getMessage());
+            }
+        }
+
+        // 1a) Migrate from the JSON cache when no usable snapshot exists
+        boolean fromJson = false;
+        Path jsonPath = Path.of(cacheFilePath).toAbsolutePath().normalize();
+        if ((data == null || data.isEmpty()) && Files.exists(jsonPath)) {
+            try {
+                log.info("Loading MLIT municipalities from JSON cache: {}", jsonPath);
+                data = objectMapper.readValue(Files.readAllBytes(jsonPath), new TypeReference<>() {
                 });
+                fromJson = true;
             } catch (IOException e) {
                 log.warn("Failed to read cache file, will attempt to refetch: {}", e.getMessage());
             }
@@ -67,6 +95,7 @@ public class MunicipalityCacheService {
                     log.info("Loading MLIT municipalities from legacy cache: {}", legacy);
                     data = objectMapper.readValue(Files.readAllBytes(legacy), new TypeReference<>() {
                     });
+                    fromJson = true;
                 } catch (IOException e) {
                     log.warn("Failed to read legacy cache file: {}", e.getMessage());
                 }
@@ -82,6 +111,11 @@ public class MunicipalityCacheService {
                 return data;
             }
 
+            if (fromJson) {
+                log.info("Migrating JSON municipalities cache to binary snapshot {}", path);
+                writeAtomically(path, data);
+            }
+
             // 3) Backfill only missing/empty prefectures to prefer reuse
             List<String> toBackfill = findEmptyOrMissingPrefectures(data);
             if (!toBackfill.isEmpty()) {
@@ -93,8 +127,8 @@ public class MunicipalityCacheService {
                         data.put(pref, list);
                         log.info("Fetched municipalities for prefecture {}: {} entries", pref, list.size());
                         Thread.sleep(80);
-                        // Periodic checkpoint save (every 5 prefectures)
-                        if ((++counter % 5) == 0) {
+                        // Periodic checkpoint save
+                        if (isCheckpoint(++counter)) {
                             writeAtomically(path, data);
                         }
                     } catch (InterruptedException ie) {
@@ -147,8 +181,8 @@ public class MunicipalityCacheService {
                 data.put(pref, list);
                 log.info("Fetched municipalities for prefecture {}: {} entries", pref, list.size());
                 Thread.sleep(80);
-                // Periodic checkpoint save (every 5 prefectures)
-                if ((++counter % 5) == 0) {
+                // Periodic checkpoint save
+                if (isCheckpoint(++counter)) {
                     writeAtomically(path, data);
                 }
             } catch (InterruptedException ie) {
@@ -166,32 +200,66 @@ public class MunicipalityCacheService {
     }
 
     public Map<String, List<MunicipalityDto>> refreshAll() {
-        Path path = Path.of(cacheFilePath).toAbsolutePath().normalize();
-        return fetchAllWithPeriodicSave(path);
+        return fetchAllWithPeriodicSave(snapshotPath());
     }
 
     public String getCacheAbsolutePath() {
-        return Path.of(cacheFilePath).toAbsolutePath().normalize().toString();
+        return snapshotPath().toString();
+    }
+
+    private Path snapshotPath() {
+        return Path.of(snapshotFilePath).toAbsolutePath().normalize();
+    }
+
+    private boolean isCheckpoint(int counter) {
+        return counter % Math.max(1, checkpointEvery) == 0;
     }
 
     private void writeAtomically(Path path, Map<String, List<MunicipalityDto>> data) {
         try {
-            Files.createDirectories(path.getParent());
-            Path tmp = path.resolveSibling(path.getFileName().toString() + ".tmp");
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), data);
+            long start = System.nanoTime();
+            byte[] bytes = null;
             try {
-                Files.move(tmp, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
-                        java.nio.file.StandardCopyOption.ATOMIC_MOVE);
-            } catch (Exception nonAtomic) {
-                // Fallback if filesystem does not support atomic move
-                Files.move(tmp, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                bytes = MunicipalitySnapshotCodec.encode(data, System.currentTimeMillis());
+            } catch (IllegalArgumentException e) {
+                // Data the snapshot cannot hold unchanged: drop the stale snapshot, keep JSON only
+                log.warn("Municipalities do not fit the binary snapshot, writing the JSON cache instead: {}",
+                        e.getMessage());
+                Files.deleteIfExists(path);
+            }
+            if (bytes != null) {
+                byte[] snapshot = bytes;
+                replaceAtomically(path, tmp -> Files.write(tmp, snapshot));
+                log.info("Saved MLIT municipalities snapshot to {} ({} bytes, {}us)", path, snapshot.length,
+                        (System.nanoTime() - start) / 1_000);
+            }
+            if (writeJson || bytes == null) {
+                Path jsonPath = Path.of(cacheFilePath).toAbsolutePath().normalize();
+                replaceAtomically(jsonPath,
+                        tmp -> objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), data));
             }
-            log.info("Saved MLIT municipalities cache to {}", path);
         } catch (IOException e) {
             log.error("Failed to write cache file {}: {}", path, e.getMessage());
         }
     }
 
+    private interface TmpWriter {
+        void write(Path tmp) throws IOException;
+    }
+
+    private static void replaceAtomically(Path path, TmpWriter writer) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName().toString() + ".tmp");
+        writer.write(tmp);
+        try {
+            Files.move(tmp, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                    java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception nonAtomic) {
+            // Fallback if filesystem does not support atomic move
+            Files.move(tmp, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private void ensureAllPrefectureKeys(Map<String, List<MunicipalityDto>> data) {
         for (int i = 1; i <= 47; i++) {
             String pref = String.format("%02d", i);
@@ -0,0 +1,273 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.calc.mlit.dto.MunicipalityDto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Immutable snapshot of the prefecture/municipality directory. Built once per
+ * load or refresh and swapped atomically by {@link MunicipalityDirectoryService};
+ * readers never lock and never touch the DB.
+ */
+public final class MunicipalityDirectory {
+
+    public record Prefecture(String code, String name) {
+    }
+
+    public record Municipality(String id, String name, String prefectureCode) {
+    }
+
+    /** Pre-serialized JSON body with its strong ETag (quoted). */
+    public record Payload(byte[] body, String etag) {
+    }
+
+    private static final Payload EMPTY_LIST = payloadOf("[]".getBytes(StandardCharsets.UTF_8));
+
+    private final List<Prefecture> prefectures;
+    private final Map<String, Prefecture> prefectureByCode;
+    private final Map<String, Municipality> byCode;
+    private final Map<String, List<Municipality>> byPrefecture;
+    private final Municipality[] entries;
+    private final TrieNode searchRoot;
+    private final Payload prefecturesPayload;
+    private final Map<String, Payload> municipalitiesPayloads;
+    private final Payload groupedPayload;
+
+    private MunicipalityDirectory(List<Prefecture> prefectures, List<Municipality> municipalities,
+            ObjectMapper mapper) {
+        List<Prefecture> prefs = new ArrayList<>(prefectures);
+        prefs.sort(Comparator.comparing(Prefecture::code));
+        this.prefectures = List.copyOf(prefs);
+        Map<String, Prefecture> pByCode = new HashMap<>();
+        for (Prefecture p : prefs)
+            pByCode.put(p.code(), p);
+        this.prefectureByCode = Collections.unmodifiableMap(pByCode);
+
+        List<Municipality> sorted = new ArrayList<>(municipalities);
+        sorted.sort(Comparator.comparing(Municipality::prefectureCode).thenComparing(Municipality::id));
+        this.entries = sorted.toArray(new Municipality[0]);
+
+        Map<String, Municipality> codes = new HashMap<>(entries.length * 2);
+        Map<String, List<Municipality>> grouped = new TreeMap<>();
+        for (Municipality m : entries) {
+            codes.put(m.id(), m);
+            grouped.computeIfAbsent(m.prefectureCode(), k -> new ArrayList<>()).add(m);
+        }
+        this.byCode = Collections.unmodifiableMap(codes);
+        Map<String, List<Municipality>> frozen = new LinkedHashMap<>();
+        grouped.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+        this.byPrefecture = Collections.unmodifiableMap(frozen);
+
+        this.searchRoot = buildTrie(entries);
+
+        try {
+            List<Map<String, String>> prefRows = new ArrayList<>();
+            for (Prefecture p : this.prefectures)
+                prefRows.add(row("code", p.code(), "name", p.name()));
+            this.prefecturesPayload = payloadOf(mapper.writeValueAsBytes(prefRows));
+
+            Map<String, Payload> perPref = new HashMap<>();
+            Map<String, List<Map<String, String>>> groupedRows = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Municipality>> e : byPrefecture.entrySet()) {
+                List<Map<String, String>> rows = new ArrayList<>();
+                for (Municipality m : e.getValue())
+                    rows.add(row("id", m.id(), "name", m.name()));
+                groupedRows.put(e.getKey(), rows);
+                perPref.put(e.getKey(), payloadOf(mapper.writeValueAsBytes(rows)));
+            }
+            this.municipalitiesPayloads = Collections.unmodifiableMap(perPref);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("data", groupedRows);
+            body.put("prefectureCount", groupedRows.size());
+            this.groupedPayload = payloadOf(mapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to pre-serialize municipality directory", e);
+        }
+    }
+
+    public static MunicipalityDirectory of(List<Prefecture> prefectures, List<Municipality> municipalities,
+            ObjectMapper mapper) {
+        return new MunicipalityDirectory(prefectures, municipalities, mapper);
+    }
+
+    /** Builds a snapshot from the cache-file shape (prefecture code -> list). */
+    public static MunicipalityDirectory fromGrouped(Map<String, List<MunicipalityDto>> data,
+            Map<String, String> prefectureNames, ObjectMapper mapper) {
+        List<Prefecture> prefs = new ArrayList<>();
+        List<Municipality> munis = new ArrayList<>();
+        for (Map.Entry<String, List<MunicipalityDto>> e : data.entrySet()) {
+            prefs.add(new Prefecture(e.getKey(), prefectureNames.get(e.getKey())));
+            if (e.getValue() == null)
+                continue;
+            for (MunicipalityDto m : e.getValue())
+                munis.add(new Municipality(m.getId(), m.getName(), e.getKey()));
+        }
+        return new MunicipalityDirectory(prefs, munis, mapper);
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public List<Prefecture> prefectures() {
+        return prefectures;
+    }
+
+    public Prefecture prefecture(String code) {
+        return prefectureByCode.get(code);
+    }
+
+    public Municipality byCode(String code) {
+        return code == null ? null : byCode.get(code);
+    }
+
+    public List<Municipality> byPrefecture(String prefectureCode) {
+        return byPrefecture.getOrDefault(prefectureCode, List.of());
+    }
+
+    public Payload prefecturesPayload() {
+        return prefecturesPayload;
+    }
+
+    public Payload municipalitiesPayload(String prefectureCode) {
+        return municipalitiesPayloads.getOrDefault(prefectureCode, EMPTY_LIST);
+    }
+
+    public Payload groupedPayload() {
+        return groupedPayload;
+    }
+
+    /**
+     * Prefix search over normalized names (NFKC, katakana folded to hiragana,
+     * Latin lower-cased without macrons/punctuation) and 5-digit codes. Ward
+     * names of designated cities and town names inside a 郡 are indexed on their
+     * own too, so "中央区" or "瑞穂町" match without the city/county prefix.
+     */
+    public List<Municipality> search(String query, String prefectureCode, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0)
+            return List.of();
+        TrieNode node = searchRoot;
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.children.get(key.charAt(i));
+        if (node == null)
+            return List.of();
+        List<Municipality> out = new ArrayList<>(Math.min(limit, node.ids.length));
+        for (int id : node.ids) {
+            Municipality m = entries[id];
+            if (prefectureCode != null && !prefectureCode.isBlank() && !prefectureCode.equals(m.prefectureCode()))
+                continue;
+            out.add(m);
+            if (out.size() >= limit)
+                break;
+        }
+        return out;
+    }
+
+    static String normalize(String s) {
+        if (s == null)
+            return "";
+        String n = Normalizer.normalize(s, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(n.length());
+        for (int i = 0; i < n.length(); i++) {
+            char c = n.charAt(i);
+            if (c >= 'ァ' && c <= 'ヶ') {
+                sb.append((char) (c - 0x60)); // katakana -> hiragana
+            } else if (c == 'ā' || c == 'â') {
+                sb.append('a');
+            } else if (c == 'ē' || c == 'ê') {
+                sb.append('e');
+            } else if (c == 'ī' || c == 'î') {
+                sb.append('i');
+            } else if (c == 'ō' || c == 'ô') {
+                sb.append('o');
+            } else if (c == 'ū' || c == 'û') {
+                sb.append('u');
+            } else if (Character.isWhitespace(c) || c == '-' || c == '\'' || c == '・' || c == '.') {
+                // drop separators so "Chuo-ku", "chuo ku" and "chuoku" collide
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> searchKeys(Municipality m) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(m.name());
+        if (!name.isEmpty())
+            keys.add(name);
+        int city = name.indexOf('市');
+        if (name.endsWith("区") && city > 0 && city < name.length() - 2)
+            keys.add(name.substring(city + 1)); // 札幌市中央区 -> 中央区
+        int county = name.indexOf('郡');
+        if ((name.endsWith("町") || name.endsWith("村")) && county > 0 && county < name.length() - 2)
+            keys.add(name.substring(county + 1)); // 西多摩郡瑞穂町 -> 瑞穂町
+        if (m.id() != null)
+            keys.add(m.id().trim());
+        return new ArrayList<>(keys);
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        int[] ids = new int[0];
+        private BitSet pending;
+    }
+
+    private static TrieNode buildTrie(Municipality[] entries) {
+        TrieNode root = new TrieNode();
+        for (int id = 0; id < entries.length; id++) {
+            for (String key : searchKeys(entries[id])) {
+                TrieNode node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+                    if (node.pending == null)
+                        node.pending = new BitSet();
+                    node.pending.set(id);
+                }
+            }
+        }
+        freeze(root);
+        return root;
+    }
+
+    // Materialize each node's matches once, in directory order (pref, code)
+    private static void freeze(TrieNode node) {
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            TrieNode n = stack.pop();
+            if (n.pending != null) {
+                n.ids = n.pending.stream().toArray();
+                n.pending = null;
+            }
+            n.children.values().forEach(stack::push);
+        }
+    }
+
+    private static Map<String, String> row(String k1, String v1, String k2, String v2) {
+        Map<String, String> m = new LinkedHashMap<>();
+        m.put(k1, v1);
+        m.put(k2, v2);
+        return m;
+    }
+
+    private static Payload payloadOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Payload(body, "\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.calc.mlit.dto.MunicipalityDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the current {@link MunicipalityDirectory}. The DB is the source of
+ * truth; the cache file only seeds the directory while the DB is still empty.
+ * An empty DB read never replaces a loaded directory, and is remembered for
+ * 30 seconds so requests before the first sync do not each query the DB.
+ */
+@Service
+public class MunicipalityDirectoryService {
+    private static final Logger log = LoggerFactory.getLogger(MunicipalityDirectoryService.class);
+    private static final long MISS_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+    private final MunicipalityDirectory empty;
+    private final AtomicReference<MunicipalityDirectory> current = new AtomicReference<>();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile long missAtNanos;
+
+    public MunicipalityDirectoryService(JdbcTemplate jdbc, ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+        this.empty = MunicipalityDirectory.of(List.of(), List.of(), mapper);
+    }
+
+    /**
+     * Returns the current snapshot, loading it from the DB on first use. While
+     * it is empty the DB is asked again at most every 30 seconds, by one caller
+     * at a time; the others get the empty directory meanwhile.
+     */
+    public MunicipalityDirectory current() {
+        MunicipalityDirectory d = current.get();
+        if (d != null && (!d.isEmpty() || System.nanoTime() - missAtNanos < MISS_RETRY_NANOS))
+            return d;
+        if (!loading.compareAndSet(false, true))
+            return d != null ? d : empty;
+        try {
+            return reloadFromDb();
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    public boolean isLoaded() {
+        MunicipalityDirectory d = current.get();
+        return d != null && !d.isEmpty();
+    }
+
+    public MunicipalityDirectory reloadFromDb() {
+        long start = System.nanoTime();
+        List<MunicipalityDirectory.Prefecture> prefs = jdbc.query("SELECT code, name FROM prefecture ORDER BY code",
+                (rs, i) -> new MunicipalityDirectory.Prefecture(rs.getString(1), rs.getString(2)));
+        List<MunicipalityDirectory.Municipality> munis = jdbc.query(
+                "SELECT id, name, prefecture_code FROM municipality ORDER BY prefecture_code, id",
+                (rs, i) -> new MunicipalityDirectory.Municipality(rs.getString(1), rs.getString(2),
+                        rs.getString(3)));
+        MunicipalityDirectory d = MunicipalityDirectory.of(prefs, munis, mapper);
+        if (d.isEmpty()) {
+            missAtNanos = System.nanoTime();
+            // Remembers the miss, but never replaces a directory already loaded or seeded
+            current.compareAndSet(null, d);
+            log.info("Municipality directory: DB is empty, keeping {}",
+                    current.get().isEmpty() ? "an empty directory" : "the current one");
+            return current.get();
+        }
+        current.set(d);
+        log.info("Municipality directory loaded from DB: prefectures={}, municipalities={}, tookMs={}",
+                prefs.size(), d.size(), (System.nanoTime() - start) / 1_000_000);
+        return d;
+    }
+
+    /** Seeds the directory from cache-file data, only if nothing better is loaded. */
+    public void installIfEmpty(Map<String, List<MunicipalityDto>> data) {
+        MunicipalityDirectory prev = current.get();
+        if (data == null || data.isEmpty() || (prev != null && !prev.isEmpty()))
+            return;
+        MunicipalityDirectory d = MunicipalityDirectory.fromGrouped(data, MlitDbSyncService.PREF_NAMES_JA, mapper);
+        if (!d.isEmpty() && current.compareAndSet(prev, d))
+            log.info("Municipality directory seeded from cache file: municipalities={}", d.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.realestate.calc.mlit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-process spatial index of municipality centroids: points are
+ * bucketed into a fixed lat/lon grid (CELL_DEG ~ 11 km), so a radius query
+ * scans only the cells overlapping its bounding box and then filters by
+ * great-circle distance. Rebuilt and swapped whole by
+ * {@link MunicipalityGeoService}.
+ */
+public final class MunicipalityGeoIndex {
+    static final double CELL_DEG = 0.1;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public static final MunicipalityGeoIndex EMPTY = new MunicipalityGeoIndex(List.of());
+
+    public record Centroid(String code, double lat, double lon) {
+    }
+
+    public record Hit(String code, double distanceKm) {
+    }
+
+    private final Map<Long, Centroid[]> cells;
+    private final Map<String, Centroid> byCode;
+
+    private MunicipalityGeoIndex(List<Centroid> centroids) {
+        Map<Long, List<Centroid>> grid = new HashMap<>();
+        Map<String, Centroid> codes = new HashMap<>(centroids.size() * 2);
+        for (Centroid c : centroids) {
+            grid.computeIfAbsent(cellKey(cell(c.lat()), cell(c.lon())), k -> new ArrayList<>()).add(c);
+            codes.put(c.code(), c);
+        }
+        Map<Long, Centroid[]> frozen = new HashMap<>(grid.size() * 2);
+        grid.forEach((k, v) -> frozen.put(k, v.toArray(new Centroid[0])));
+        this.cells = Collections.unmodifiableMap(frozen);
+        this.byCode = Collections.unmodifiableMap(codes);
+    }
+
+    public static MunicipalityGeoIndex of(List<Centroid> centroids) {
+        return new MunicipalityGeoIndex(centroids);
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    public Centroid centroid(String code) {
+        return code == null ? null : byCode.get(code);
+    }
+
+    /** Municipalities whose centroid lies within radiusKm of the point, nearest first. */
+    public List<Hit> within(double lat, double lon, double radiusKm) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        double dLon = Math.min(180, dLat / cosLat);
+        int latLo = cell(lat - dLat);
+        int latHi = cell(lat + dLat);
+        int lonLo = cell(lon - dLon);
+        int lonHi = cell(lon + dLon);
+        List<Hit> out = new ArrayList<>();
+        for (int y = latLo; y <= latHi; y++) {
+            for (int x = lonLo; x <= lonHi; x++) {
+                Centroid[] bucket = cells.get(cellKey(y, x));
+                if (bucket == null)
+                    continue;
+                for (Centroid c : bucket) {
+                    double d = distanceKm(lat, lon, c.lat(), c.lon());
+                    if (d <= radiusKm)
+                        out.add(new Hit(c.code(), d));
+                }
+            }
+        }
+        out.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        return out;
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double p1 = Math.toRadians(lat1);
+        double p2 = Math.toRadians(lat2);
+        double dp = p2 - p1;
+        double dl = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dp / 2) * Math.sin(dp / 2)
+                + Math.cos(p1) * Math.cos(p2) * Math.sin(dl / 2) * Math.sin(dl / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int cell(double deg) {
+        return (int) Math.floor(deg / CELL_DEG);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
@@ -0,0 +1,241 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Municipality centroids and radius search over mlit_price_record. Trades carry
+ * no coordinates, so each trade is located at its municipality's centroid:
+ * a radius query resolves the municipalities in range (in-process grid index,
+ * or PostGIS with mode=db) and then reads their trades by municipality code.
+ */
+@Service
+public class MunicipalityGeoService {
+    private static final Logger log = LoggerFactory.getLogger(MunicipalityGeoService.class);
+
+    private static final String TRADE_COLUMNS = "r.id, r.municipality_code, r.prefecture, r.municipality, "
+            + "r.district_name, r.type, r.trade_price_int, r.area_num, r.unit_price_int, r.period";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper mapper;
+    private final AtomicReference<MunicipalityGeoIndex> index = new AtomicReference<>(MunicipalityGeoIndex.EMPTY);
+
+    @Value("${mlit.geo.centroidsFile:}")
+    private String centroidsFile;
+
+    public MunicipalityGeoService(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+            ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.mapper = mapper;
+    }
+
+    /** Startup: import the configured centroid CSV (if any), then load the in-process index. */
+    public void loadOnStartup() {
+        if (centroidsFile != null && !centroidsFile.isBlank()) {
+            Path p = Path.of(centroidsFile);
+            if (Files.isRegularFile(p)) {
+                try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+                    importCentroids(r);
+                } catch (IOException e) {
+                    log.warn("Failed to read centroids file {}: {}", p.toAbsolutePath(), e.getMessage());
+                }
+            } else {
+                log.warn("Centroids file not found: {}", p.toAbsolutePath());
+            }
+        }
+        reloadIndex();
+    }
+
+    /**
+     * Imports "code,lat,lon" lines (header, blank and '#' lines skipped) into
+     * municipality.geom and reloads the index. Returns the rows updated.
+     */
+    public int importCentroids(Reader in) throws IOException {
+        List<Object[]> batch = new ArrayList<>();
+        int skipped = 0;
+        BufferedReader reader = in instanceof BufferedReader br ? br : new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String s = line.trim();
+            if (s.isEmpty() || s.startsWith("#"))
+                continue;
+            String[] parts = s.split(",");
+            if (parts.length < 3) {
+                skipped++;
+                continue;
+            }
+            try {
+                double lat = Double.parseDouble(parts[1].trim());
+                double lon = Double.parseDouble(parts[2].trim());
+                if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(new Object[] { lon, lat, parts[0].trim() });
+            } catch (NumberFormatException e) {
+                skipped++; // header or malformed
+            }
+        }
+        int updated = 0;
+        for (int[] counts : jdbc.batchUpdate("UPDATE municipality SET geom = ST_SetSRID(ST_MakePoint(?, ?), 4326), "
+                + "updated_at = now() WHERE id = ?", batch, 1000, (ps, row) -> {
+                    ps.setDouble(1, (Double) row[0]);
+                    ps.setDouble(2, (Double) row[1]);
+                    ps.setString(3, (String) row[2]);
+                })) {
+            for (int c : counts)
+                updated += Math.max(c, 0);
+        }
+        log.info("Centroids imported: lines={}, updated={}, skipped={}", batch.size(), updated, skipped);
+        reloadIndex();
+        return updated;
+    }
+
+    public void reloadIndex() {
+        List<MunicipalityGeoIndex.Centroid> centroids = jdbc.query(
+                "SELECT id, ST_Y(geom), ST_X(geom) FROM municipality WHERE geom IS NOT NULL",
+                (rs, i) -> new MunicipalityGeoIndex.Centroid(rs.getString(1).trim(), rs.getDouble(2),
+                        rs.getDouble(3)));
+        index.set(MunicipalityGeoIndex.of(centroids));
+        log.info("Municipality geo index loaded: centroids={}", centroids.size());
+    }
+
+    public int indexedCentroids() {
+        return index.get().size();
+    }
+
+    public MunicipalityGeoIndex.Centroid centroid(String municipalityCode) {
+        return index.get().centroid(municipalityCode);
+    }
+
+    /**
+     * Trades in municipalities whose centroid is within radiusKm of the point,
+     * nearest municipality first, then newest. useDb resolves the
+     * municipalities with PostGIS (GiST on geom::geography) instead of the
+     * in-process index.
+     */
+    public ObjectNode nearby(double lat, double lon, double radiusKm, String type, int limit, boolean useDb) {
+        long start = System.nanoTime();
+        List<MunicipalityGeoIndex.Hit> hits = useDb ? withinDb(lat, lon, radiusKm)
+                : index.get().within(lat, lon, radiusKm);
+        long resolvedNanos = System.nanoTime() - start;
+
+        Map<String, Double> distance = new HashMap<>();
+        String[] codes = new String[hits.size()];
+        for (int i = 0; i < hits.size(); i++) {
+            codes[i] = hits.get(i).code();
+            distance.put(codes[i], hits.get(i).distanceKm());
+        }
+        List<ObjectNode> rows = codes.length == 0 ? List.of() : readOnlyTx.execute(st -> {
+            List<ObjectNode> out = new ArrayList<>();
+            jdbc.query(con -> {
+                // Newest `limit` trades per municipality (top-N over its own rows only), then
+                // municipalities in distance order; the outer sort sees at most limit × codes rows
+                StringBuilder sql = new StringBuilder("SELECT t.* FROM unnest(?::text[]) WITH ORDINALITY AS m(code, ord)")
+                        .append(" CROSS JOIN LATERAL (SELECT ").append(TRADE_COLUMNS).append(", q.year_num")
+                        .append(" FROM mlit_price_record r JOIN mlit_price_query_log q ON r.query_id=q.id")
+                        .append(" WHERE r.municipality_code = m.code");
+                if (type != null && !type.isBlank())
+                    sql.append(" AND r.type = ?");
+                sql.append(" ORDER BY q.year_num DESC NULLS LAST, r.id DESC LIMIT ?) t")
+                        .append(" ORDER BY m.ord, t.year_num DESC NULLS LAST, t.id DESC LIMIT ?");
+                PreparedStatement ps = con.prepareStatement(sql.toString());
+                Array arr = con.createArrayOf("text", codes);
+                int i = 1;
+                ps.setArray(i++, arr);
+                if (type != null && !type.isBlank())
+                    ps.setString(i++, type);
+                ps.setInt(i++, limit);
+                ps.setInt(i, limit);
+                return ps;
+            }, rs -> {
+                out.add(toRow(rs, distance));
+            });
+            return out;
+        });
+
+        ObjectNode root = mapper.createObjectNode();
+        root.put("status", "OK");
+        ObjectNode center = root.putObject("center");
+        center.put("lat", lat);
+        center.put("lon", lon);
+        root.put("radiusKm", radiusKm);
+        ArrayNode munis = root.putArray("municipalities");
+        for (MunicipalityGeoIndex.Hit h : hits) {
+            ObjectNode n = munis.addObject();
+            n.put("code", h.code());
+            n.put("distanceKm", Math.round(h.distanceKm() * 100) / 100.0);
+        }
+        ArrayNode data = root.putArray("data");
+        rows.forEach(data::add);
+        root.put("count", rows.size());
+        root.put("resolveMicros", resolvedNanos / 1000);
+        root.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        root.put("source", useDb ? "POSTGIS" : "GEO_INDEX");
+        return root;
+    }
+
+    private List<MunicipalityGeoIndex.Hit> withinDb(double lat, double lon, double radiusKm) {
+        return readOnlyTx.execute(st -> jdbc.query("""
+                SELECT id, ST_Distance(geom::geography, pt) / 1000.0 AS km
+                FROM municipality, (SELECT ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography AS pt) p
+                WHERE geom IS NOT NULL AND ST_DWithin(geom::geography, pt, ?)
+                ORDER BY km
+                """, (rs, i) -> new MunicipalityGeoIndex.Hit(rs.getString(1).trim(), rs.getDouble(2)),
+                lon, lat, radiusKm * 1000));
+    }
+
+    private ObjectNode toRow(ResultSet rs, Map<String, Double> distance) throws SQLException {
+        ObjectNode n = mapper.createObjectNode();
+        n.put("id", rs.getLong(1));
+        String code = rs.getString(2);
+        n.put("MunicipalityCode", code);
+        n.put("Prefecture", rs.getString(3));
+        n.put("Municipality", rs.getString(4));
+        n.put("DistrictName", rs.getString(5));
+        n.put("Type", rs.getString(6));
+        putLong(n, "TradePrice", rs, 7);
+        n.put("Area", rs.getString(8));
+        putLong(n, "UnitPrice", rs, 9);
+        n.put("Period", rs.getString(10));
+        Double d = distance.get(code);
+        if (d != null)
+            n.put("distanceKm", Math.round(d * 100) / 100.0);
+        return n;
+    }
+
+    private static void putLong(ObjectNode n, String field, ResultSet rs, int col) throws SQLException {
+        long v = rs.getLong(col);
+        if (rs.wasNull())
+            n.putNull(field);
+        else
+            n.put(field, v);
+    }
+}
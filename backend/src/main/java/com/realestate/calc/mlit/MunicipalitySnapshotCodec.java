@@ -0,0 +1,212 @@
+package com.realestate.calc.mlit;
+
+import com.realestate.calc.mlit.dto.MunicipalityDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the municipalities cache (prefecture code ->
+ * municipalities). Layout, big-endian:
+ *
+ * <pre>
+ * header (32 bytes)
+ *   int   magic 'MUNS'
+ *   short version
+ *   short flags (reserved, 0)
+ *   long  createdAtEpochMillis
+ *   int   prefectureCount
+ *   int   entryCount
+ *   int   stringTableLength
+ *   int   crc32 of everything after the header
+ * prefecture index, fixed 12 bytes each
+ *   2 bytes ASCII code, 2 bytes padding, int firstEntry, int entryCount
+ * entry index, fixed 16 bytes each
+ *   8 bytes ASCII id (zero padded), int nameOffset, int nameLength
+ * string table
+ *   UTF-8 names, referenced by (offset, length)
+ * </pre>
+ *
+ * Loading maps the file read-only and decodes straight from the mapping; a
+ * bad magic, unknown version, truncated file or checksum mismatch is reported
+ * as an IOException so the caller can fall back to the JSON cache or refetch.
+ * Encoding rejects ids and prefecture codes the fixed-width ASCII fields
+ * cannot hold unchanged with an IllegalArgumentException, so the caller keeps
+ * the JSON cache instead.
+ */
+public final class MunicipalitySnapshotCodec {
+    static final int MAGIC = 0x4D554E53; // "MUNS"
+    static final short VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int PREF_ENTRY_BYTES = 12;
+    private static final int ENTRY_BYTES = 16;
+    private static final int ID_BYTES = 8;
+
+    private MunicipalitySnapshotCodec() {
+    }
+
+    /** @throws IllegalArgumentException for a null, non-ASCII or over-long id or prefecture code */
+    public static byte[] encode(Map<String, List<MunicipalityDto>> data, long createdAtEpochMillis) {
+        int prefCount = data.size();
+        int entryCount = 0;
+        for (List<MunicipalityDto> list : data.values())
+            entryCount += (list == null) ? 0 : list.size();
+
+        // String table first so offsets are known when writing the index
+        byte[][] names = new byte[entryCount][];
+        int strLen = 0;
+        int k = 0;
+        for (List<MunicipalityDto> list : data.values()) {
+            if (list == null)
+                continue;
+            for (MunicipalityDto m : list) {
+                byte[] b = m.getName() == null ? new byte[0] : m.getName().getBytes(StandardCharsets.UTF_8);
+                names[k++] = b;
+                strLen += b.length;
+            }
+        }
+
+        int size = HEADER_BYTES + prefCount * PREF_ENTRY_BYTES + entryCount * ENTRY_BYTES + strLen;
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.position(HEADER_BYTES);
+
+        int first = 0;
+        for (Map.Entry<String, List<MunicipalityDto>> e : data.entrySet()) {
+            int count = (e.getValue() == null) ? 0 : e.getValue().size();
+            putAscii(buf, e.getKey(), 2, "prefecture code");
+            buf.putShort((short) 0);
+            buf.putInt(first);
+            buf.putInt(count);
+            first += count;
+        }
+
+        int offset = 0;
+        k = 0;
+        for (List<MunicipalityDto> list : data.values()) {
+            if (list == null)
+                continue;
+            for (MunicipalityDto m : list) {
+                putAscii(buf, m.getId(), ID_BYTES, "municipality id");
+                buf.putInt(offset);
+                buf.putInt(names[k].length);
+                offset += names[k].length;
+                k++;
+            }
+        }
+        for (byte[] b : names)
+            buf.put(b);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_BYTES, size - HEADER_BYTES);
+
+        buf.position(0);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+        buf.putShort((short) 0);
+        buf.putLong(createdAtEpochMillis);
+        buf.putInt(prefCount);
+        buf.putInt(entryCount);
+        buf.putInt(strLen);
+        buf.putInt((int) crc.getValue());
+        return buf.array();
+    }
+
+    public static Map<String, List<MunicipalityDto>> read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE)
+                throw new IOException("Snapshot has invalid size " + size);
+            MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(mapped);
+        }
+    }
+
+    public static Map<String, List<MunicipalityDto>> decode(ByteBuffer buf) throws IOException {
+        int size = buf.limit();
+        if (size < HEADER_BYTES)
+            throw new IOException("Snapshot truncated");
+        if (buf.getInt(0) != MAGIC)
+            throw new IOException("Not a municipalities snapshot (bad magic)");
+        short version = buf.getShort(4);
+        if (version != VERSION)
+            throw new IOException("Unsupported snapshot version " + version);
+        int prefCount = buf.getInt(16);
+        int entryCount = buf.getInt(20);
+        int strLen = buf.getInt(24);
+        int expectedCrc = buf.getInt(28);
+        long expectedSize = HEADER_BYTES + (long) prefCount * PREF_ENTRY_BYTES + (long) entryCount * ENTRY_BYTES
+                + strLen;
+        if (prefCount < 0 || entryCount < 0 || strLen < 0 || expectedSize != size)
+            throw new IOException("Snapshot size mismatch");
+
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buf.duplicate();
+        body.position(HEADER_BYTES).limit(size);
+        crc.update(body);
+        if ((int) crc.getValue() != expectedCrc)
+            throw new IOException("Snapshot checksum mismatch");
+
+        int prefBase = HEADER_BYTES;
+        int entryBase = prefBase + prefCount * PREF_ENTRY_BYTES;
+        int strBase = entryBase + entryCount * ENTRY_BYTES;
+        byte[] strings = new byte[strLen];
+        buf.get(strBase, strings);
+
+        Map<String, List<MunicipalityDto>> out = new LinkedHashMap<>(prefCount * 2);
+        for (int p = 0; p < prefCount; p++) {
+            int at = prefBase + p * PREF_ENTRY_BYTES;
+            String code = getAscii(buf, at, 2);
+            int firstEntry = buf.getInt(at + 4);
+            int count = buf.getInt(at + 8);
+            if (firstEntry < 0 || count < 0 || firstEntry + count > entryCount)
+                throw new IOException("Snapshot prefecture index out of range");
+            List<MunicipalityDto> list = new ArrayList<>(count);
+            for (int i = firstEntry; i < firstEntry + count; i++) {
+                int e = entryBase + i * ENTRY_BYTES;
+                String id = getAscii(buf, e, ID_BYTES);
+                int off = buf.getInt(e + ID_BYTES);
+                int len = buf.getInt(e + ID_BYTES + 4);
+                if (off < 0 || len < 0 || off + len > strLen)
+                    throw new IOException("Snapshot string reference out of range");
+                list.add(new MunicipalityDto(id, new String(strings, off, len, StandardCharsets.UTF_8)));
+            }
+            out.put(code, list);
+        }
+        return out;
+    }
+
+    // Zero padded; anything that would not decode back to the same string is rejected
+    private static void putAscii(ByteBuffer buf, String s, int width, String field) {
+        if (s == null || s.length() > width)
+            throw new IllegalArgumentException(field + " does not fit " + width + " ASCII bytes: " + s);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == 0 || c > 0x7F)
+                throw new IllegalArgumentException(field + " is not ASCII: " + s);
+        }
+        for (int i = 0; i < width; i++)
+            buf.put(i < s.length() ? (byte) s.charAt(i) : 0);
+    }
+
+    private static String getAscii(ByteBuffer buf, int at, int width) {
+        char[] c = new char[width];
+        int n = 0;
+        for (int i = 0; i < width; i++) {
+            byte b = buf.get(at + i);
+            if (b == 0)
+                break;
+            c[n++] = (char) b;
+        }
+        return new String(c, 0, n);
+    }
+}
@@ -0,0 +1,183 @@
+package com.realestate.calc.mlit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over positive values with bounded relative error
+ * (log-spaced buckets, as in DDSketch). Values are mapped to bucket
+ * ceil(log_gamma(x)); any quantile is answered within ±1% of a true sample
+ * value. Merging adds bucket counts, so cell sketches combine exactly across
+ * districts, quarters and years without rescanning rows.
+ */
+public final class QuantileSketch {
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT_VERSION = 1;
+
+    // Dense counts for bucket indexes [offset, offset + counts.length)
+    private long[] counts = new long[0];
+    private int offset;
+    private long count;
+    private double sum;
+
+    public void add(double value) {
+        if (!(value > 0) || Double.isInfinite(value))
+            return;
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        ensureRange(index, index);
+        counts[index - offset]++;
+        count++;
+        sum += value;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0)
+            return;
+        ensureRange(other.offset, other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++)
+            counts[other.offset + i - offset] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /** Value at rank q (0..1), or NaN when empty. */
+    public double quantile(double q) {
+        if (count == 0)
+            return Double.NaN;
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank)
+                return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+        }
+        return 2 * Math.pow(GAMMA, offset + counts.length - 1) / (GAMMA + 1);
+    }
+
+    private void ensureRange(int lo, int hi) {
+        if (counts.length == 0) {
+            offset = lo;
+            counts = new long[hi - lo + 1];
+            return;
+        }
+        int curHi = offset + counts.length - 1;
+        if (lo >= offset && hi <= curHi)
+            return;
+        int newLo = Math.min(lo, offset);
+        int newHi = Math.max(hi, curHi);
+        long[] grown = new long[newHi - newLo + 1];
+        System.arraycopy(counts, 0, grown, offset - newLo, counts.length);
+        counts = grown;
+        offset = newLo;
+    }
+
+    /**
+     * Serialized form: version byte, sum (double), offset (varint, zigzag),
+     * bucket count (varint), then per bucket the count (varint). Empty buckets
+     * cost one byte each; price cells rarely span more than a few hundred.
+     */
+    public byte[] toBytes() {
+        int lo = 0;
+        int hi = counts.length - 1;
+        while (lo <= hi && counts[lo] == 0)
+            lo++;
+        while (hi >= lo && counts[hi] == 0)
+            hi--;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + Math.max(0, hi - lo + 1) * 2);
+        out.write(FORMAT_VERSION);
+        byte[] s = ByteBuffer.allocate(Double.BYTES).putDouble(sum).array();
+        out.write(s, 0, s.length);
+        int n = Math.max(0, hi - lo + 1);
+        writeVarLong(out, zigZag(n == 0 ? 0 : offset + lo));
+        writeVarLong(out, n);
+        for (int i = lo; i <= hi; i++)
+            writeVarLong(out, counts[i]);
+        return out.toByteArray();
+    }
+
+    /**
+     * Inverse of {@link #toBytes}. Lengths are checked against the bytes
+     * actually present before anything is allocated; malformed or truncated
+     * input is an IllegalArgumentException.
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0)
+            throw new IllegalArgumentException("Empty sketch");
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            if (buf.get() != FORMAT_VERSION)
+                throw new IllegalArgumentException("Unsupported sketch format");
+            QuantileSketch sk = new QuantileSketch();
+            sk.sum = buf.getDouble();
+            if (!(sk.sum >= 0) || Double.isInfinite(sk.sum))
+                throw new IllegalArgumentException("Malformed sketch sum");
+            long start = unZigZag(readVarLong(buf));
+            long n = readVarLong(buf);
+            // Every bucket takes at least one byte
+            if (n < 0 || n > buf.remaining())
+                throw new IllegalArgumentException("Malformed sketch bucket count " + n);
+            if (start < Integer.MIN_VALUE || start + Math.max(0, n - 1) > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Malformed sketch offset " + start);
+            if (n > 0) {
+                sk.offset = (int) start;
+                sk.counts = new long[(int) n];
+                for (int i = 0; i < n; i++) {
+                    long c = readVarLong(buf);
+                    if (c < 0)
+                        throw new IllegalArgumentException("Malformed sketch bucket");
+                    sk.counts[i] = c;
+                    sk.count = Math.addExact(sk.count, c);
+                }
+            }
+            if (buf.hasRemaining())
+                throw new IllegalArgumentException("Trailing bytes after sketch");
+            return sk;
+        } catch (BufferUnderflowException | ArithmeticException e) {
+            throw new IllegalArgumentException("Malformed sketch", e);
+        }
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer buf) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new IllegalArgumentException("Malformed varint in sketch");
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", buckets=" + Arrays.stream(counts).filter(c -> c > 0).count() + "}";
+    }
+}
@@ -0,0 +1,117 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compiles dynamically filtered queries into canonical SQL templates.
+ *
+ * A query's shape is the bitmask of which filters are present. Filters are
+ * always rendered and bound in their declared order, so the same shape yields
+ * the byte-identical SQL text every time; the text is built once per
+ * (statement, filter set, mask) and reused. Identical text is what lets the
+ * PostgreSQL driver's per-connection statement cache hand back an already
+ * server-prepared statement (see prepareThreshold).
+ *
+ * The sql.shapes.* meters only count template lookups in this process. They
+ * say nothing about whether the server reused a plan; that is up to the
+ * driver's statement cache on each pooled connection.
+ */
+@Component
+public class SqlShapeCache {
+
+    /** One optional predicate: SQL fragment plus the binder that yields its args (null = absent). */
+    public record Filter<T>(String clause, Function<T, Object[]> binder) {
+    }
+
+    /** Present-filter mask and the args in canonical order. */
+    public record Bound(long mask, List<Object> args) {
+    }
+
+    private record ShapeKey(String statement, String filterSet, long mask) {
+    }
+
+    private final Map<ShapeKey, String> shapes = new ConcurrentHashMap<>();
+    private final int maxShapes;
+    private final Counter hits;
+    private final Counter compiles;
+
+    public SqlShapeCache(@Value("${mlit.sql.maxShapes:1024}") int maxShapes, MeterRegistry meterRegistry) {
+        this.maxShapes = maxShapes;
+        this.hits = meterRegistry.counter("sql.shapes.lookups", "result", "hit");
+        this.compiles = meterRegistry.counter("sql.shapes.lookups", "result", "compile");
+        Gauge.builder("sql.shapes.distinct", shapes, Map::size)
+                .description("Distinct SQL shapes compiled")
+                .register(meterRegistry);
+        Gauge.builder("sql.shapes.template.hit.ratio", this, SqlShapeCache::templateHitRatio)
+                .description("Share of shape lookups served by an already built SQL template (in-process)")
+                .register(meterRegistry);
+    }
+
+    public static <T> Bound bind(List<Filter<T>> filters, T input) {
+        if (filters.size() > Long.SIZE)
+            throw new IllegalArgumentException("Too many filters for a shape mask: " + filters.size());
+        long mask = 0;
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            Object[] bound = filters.get(i).binder().apply(input);
+            if (bound == null)
+                continue;
+            mask |= 1L << i;
+            Collections.addAll(args, bound);
+        }
+        return new Bound(mask, args);
+    }
+
+    /** Renders " WHERE 1=1 AND ..." for the filters present in mask, in declared order. */
+    public static <T> String where(List<Filter<T>> filters, long mask) {
+        StringBuilder sb = new StringBuilder(" WHERE 1=1");
+        for (int i = 0; i < filters.size(); i++) {
+            if ((mask & (1L << i)) != 0)
+                sb.append(" AND ").append(filters.get(i).clause());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cached SQL for this statement/filter-set/mask, compiling it on
+     * first use. Past maxShapes new shapes are compiled but not retained.
+     */
+    public String sql(String statement, String filterSet, long mask, Supplier<String> compiler) {
+        ShapeKey key = new ShapeKey(statement, filterSet, mask);
+        String sql = shapes.get(key);
+        if (sql != null) {
+            hits.increment();
+            return sql;
+        }
+        compiles.increment();
+        sql = compiler.get();
+        if (shapes.size() < maxShapes) {
+            String prev = shapes.putIfAbsent(key, sql);
+            if (prev != null)
+                return prev;
+        }
+        return sql;
+    }
+
+    public int size() {
+        return shapes.size();
+    }
+
+    private double templateHitRatio() {
+        double h = hits.count();
+        double total = h + compiles.count();
+        return total == 0 ? 0 : h / total;
+    }
+}
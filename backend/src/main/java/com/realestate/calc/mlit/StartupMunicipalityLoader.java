@@ -2,24 +2,24 @@ package com.realestate.calc.mlit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StartupMunicipalityLoader {
     private static final Logger log = LoggerFactory.getLogger(StartupMunicipalityLoader.class);
     private final MunicipalityCacheService cacheService;
+    private final MunicipalityDirectoryService directoryService;
 
-    public StartupMunicipalityLoader(MunicipalityCacheService cacheService) {
+    public StartupMunicipalityLoader(MunicipalityCacheService cacheService,
+            MunicipalityDirectoryService directoryService) {
         this.cacheService = cacheService;
+        this.directoryService = directoryService;
     }
 
-    @Async
-    @EventListener(ApplicationReadyEvent.class)
+    // Invoked by StartupOrchestrator once the app is ready
     public void initializeCache() {
         log.info("Initializing MLIT municipalities cache (XIT002) after app is ready...");
-        cacheService.loadOrFetchAll();
+        // Cache file seeds the in-memory directory only while the DB is still empty
+        directoryService.installIfEmpty(cacheService.loadOrFetchAll());
     }
 }
@@ -2,21 +2,37 @@ package com.realestate.calc.service;
 
 import com.realestate.calc.dto.CalculationRequest;
 import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.dto.LoanEvent;
+import com.realestate.calc.exception.ValidationException;
+import com.realestate.calc.mlit.ComparableSalesIndex;
+import com.realestate.calc.mlit.ComparableSalesService;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class CalculationService {
 
+        // 투자지표 기본값: 할인율 연 5%, 매각 연도 10년차(대출 기간이 더 짧으면 만기)
+        private static final double DEFAULT_DISCOUNT_RATE = 5.0;
+        private static final int DEFAULT_EXIT_YEAR = 10;
+        // 건물가격 미입력 시 매입가의 25% (프론트엔드 calculateBuildingPrice와 동일), 매각 비용 3%
+        private static final double DEFAULT_BUILDING_RATIO = 0.25;
+        private static final double SELLING_COST_RATE = 0.03;
+
+        private final ComparableSalesService compsService;
+
+        public CalculationService(ComparableSalesService compsService) {
+                this.compsService = compsService;
+        }
+
         private static class ScheduleParams {
                 int months;
-                double loan;
-                double monthlyPayment;
-                double annualRate;
+                LoanAmortizer.Schedule loan;
                 double initialRent;
                 String startDate;
                 int rentFixedPeriod;
@@ -34,11 +50,10 @@ public class CalculationService {
                 double totalPurchaseCost = request.getTotalPurchaseCost() * 10000; // 만원을 원으로 변환
                 double purchasePrice = request.getPrice() * 10000; // 매입가만 원으로 변환 (표면 이익율 계산용)
                 double loan = request.getLoan() * 10000;
-                double i = request.getRate() / 100 / 12;
-                int n = request.getTerm() * 12;
 
-                // 월 상환금 계산
-                double monthlyPayment = i == 0 ? loan / n : loan * i / (1 - Math.pow(1 + i, -n));
+                // 상환 스케줄: 금리 변경/중도상환/재융자 구간마다 상환액을 재계산 (이벤트가 없으면 원리금균등 1구간)
+                LoanAmortizer.Schedule loanSchedule = LoanAmortizer.amortize(loanPlan(request, loan));
+                double monthlyPayment = loanSchedule.firstPayment;
 
                 // 연간 수익 계산 (입주율 반영) - 프론트엔드에서 이미 원 단위로 변환되어 옴
                 double yearlyIncome = request.getRent() * 12 * (request.getOccupancyRate() / 100.0);
@@ -59,10 +74,8 @@ public class CalculationService {
                 }
 
                 ScheduleParams params = new ScheduleParams();
-                params.months = request.getTerm() * 12;
-                params.loan = loan;
-                params.monthlyPayment = monthlyPayment;
-                params.annualRate = request.getRate() / 100.0;
+                params.months = loanSchedule.months;
+                params.loan = loanSchedule;
                 params.initialRent = request.getRent();
                 params.startDate = request.getStartDate();
                 params.rentFixedPeriod = request.getRentFixedPeriod();
@@ -103,15 +116,245 @@ public class CalculationService {
                 result.setGrossYield(String.format("%.1f", grossYield));
                 result.setEquityYield(String.format("%.1f", equityYield));
                 result.setRepaymentSchedule(repaymentSchedule);
+                result.setSuggestedPriceBand(suggestPriceBand(request));
+                int exitYear = Math.min(request.getTerm(), request.getExitYear() != null && request.getExitYear() > 0
+                                ? request.getExitYear()
+                                : DEFAULT_EXIT_YEAR);
+                double exitPrice = (request.getExitPrice() != null ? request.getExitPrice() : request.getPrice()) * 10000;
+                CalculationResult.Tax tax = taxSchedule(request, repaymentSchedule, annualNonReserveExpense,
+                                totalPurchaseCost - purchasePrice, exitYear, exitPrice);
+                result.setTax(tax);
+                result.setInvestment(investmentMetrics(request, repaymentSchedule, totalPurchaseCost, loan, exitYear,
+                                exitPrice, tax));
 
                 return result;
         }
 
+        // 요청의 대출 조건과 loanEvents를 LoanAmortizer 계획으로 변환 (금리는 연 %, 금액은 万円)
+        private LoanAmortizer.Plan loanPlan(CalculationRequest request, double loan) {
+                LoanAmortizer.Plan plan = new LoanAmortizer.Plan(loan, request.getRate() / 100, request.getTerm() * 12,
+                                request.isPaymentProtection());
+                if (request.getLoanEvents() == null)
+                        return plan;
+                double spread = request.getSpread() != null ? request.getSpread() : 0;
+                for (LoanEvent ev : request.getLoanEvents()) {
+                        double rate = ev.getRate() != null ? ev.getRate()
+                                        : ev.getIndex() != null ? ev.getIndex() + spread : Double.NaN;
+                        double annual = Double.isNaN(rate) ? Double.NaN : Math.max(0, rate) / 100;
+                        String type = ev.getType() == null ? "" : ev.getType().trim().toLowerCase();
+                        switch (type) {
+                                case "rate" -> {
+                                        if (Double.isNaN(annual))
+                                                throw new ValidationException("loanEvents", "금리 변경에는 rate 또는 index가 필요합니다");
+                                        plan.rate(ev.getMonth(), annual);
+                                }
+                                case "prepay" -> plan.prepay(ev.getMonth(),
+                                                ev.getAmount() != null ? Math.max(0, ev.getAmount()) * 10000 : 0,
+                                                "shorten".equalsIgnoreCase(ev.getMode()));
+                                case "refinance" -> plan.refinance(ev.getMonth(), annual,
+                                                ev.getTerm() != null && ev.getTerm() > 0 ? ev.getTerm() * 12
+                                                                : request.getTerm() * 12 - ev.getMonth() + 1,
+                                                ev.getFee() != null ? ev.getFee() * 10000 : 0);
+                                default -> throw new ValidationException("loanEvents",
+                                                "대출 이벤트 유형은 rate, prepay, refinance 중 하나여야 합니다");
+                        }
+                }
+                return plan;
+        }
+
+        // 유사 거래(comps)의 ㎡ 단가 분위수 × 입력 면적으로 추천 가격대를 계산 (만원 단위)
+        private CalculationResult.PriceBand suggestPriceBand(CalculationRequest request) {
+                if (request.getMunicipalityCode() == null || request.getMunicipalityCode().isBlank()
+                                || request.getFloorArea() == null || request.getFloorArea() <= 0)
+                        return null;
+                double area = request.getFloorArea();
+                List<ComparableSalesIndex.Match> comps = compsService.nearest(request.getMunicipalityCode(),
+                                request.getPropertyType(), request.getDistrictName(), request.getStructure(), area,
+                                request.getBuildingYear(), null);
+                if (comps.isEmpty())
+                        return null;
+
+                double[] unit = comps.stream().mapToDouble(ComparableSalesIndex.Match::unitPrice).toArray();
+                Arrays.sort(unit);
+                CalculationResult.PriceBand band = new CalculationResult.PriceBand();
+                band.setLow(Math.round(percentile(unit, 0.25) * area / 10000));
+                band.setMedian(Math.round(percentile(unit, 0.5) * area / 10000));
+                band.setHigh(Math.round(percentile(unit, 0.75) * area / 10000));
+                band.setUnitPriceMedian(Math.round(percentile(unit, 0.5)));
+                band.setCompCount(comps.size());
+                List<CalculationResult.Comp> rows = new ArrayList<>(comps.size());
+                for (ComparableSalesIndex.Match m : comps) {
+                        rows.add(new CalculationResult.Comp(m.district(), m.structure(), m.tradePrice(), m.area(),
+                                        m.buildingYear() > 0 ? m.buildingYear() : null, m.tradeYear()));
+                }
+                band.setComps(rows);
+                return band;
+        }
+
+        /*
+         * 매각 연도까지의 연 단위 현금흐름으로 IRR/NPV/회수기간을 계산.
+         * levered: -(총 매입비용 - 대출), 연간 현금흐름, 매각 연도에 매각가 - 대출잔액
+         * unlevered: -총 매입비용, 연간 NOI(현금흐름 + 상환금), 매각 연도에 매각가
+         * after-tax: levered에서 연도별 세액, 매각 비용과 양도세를 차감
+         */
+        private CalculationResult.Investment investmentMetrics(CalculationRequest request,
+                        List<CalculationResult.RepaymentSchedule> schedule, double totalPurchaseCost, double loan,
+                        int exitYear, double exitPrice, CalculationResult.Tax tax) {
+                double discountRate = request.getDiscountRate() != null ? request.getDiscountRate()
+                                : DEFAULT_DISCOUNT_RATE;
+
+                double[] levered = new double[exitYear + 1];
+                double[] unlevered = new double[exitYear + 1];
+                levered[0] = -(totalPurchaseCost - loan);
+                unlevered[0] = -totalPurchaseCost;
+                for (int m = 0; m < exitYear * 12; m++) {
+                        CalculationResult.RepaymentSchedule row = schedule.get(m);
+                        levered[m / 12 + 1] += row.getCashFlow();
+                        unlevered[m / 12 + 1] += row.getCashFlow() + row.getPayment();
+                }
+                levered[exitYear] += exitPrice - schedule.get(exitYear * 12 - 1).getBalance();
+                unlevered[exitYear] += exitPrice;
+
+                double[] afterTax = new double[exitYear + 1];
+                afterTax[0] = levered[0];
+                for (int y = 1; y <= exitYear; y++)
+                        afterTax[y] = levered[y] - tax.getYears().get(y - 1).getTax();
+                afterTax[exitYear] -= tax.getSale().getSellingCost() + tax.getSale().getTransferTax();
+
+                double leveredIrr = CashFlowMetrics.irr(levered);
+                CalculationResult.Investment inv = new CalculationResult.Investment();
+                inv.setExitYear(exitYear);
+                inv.setExitPrice(Math.round(exitPrice));
+                inv.setDiscountRate(discountRate);
+                inv.setLeveredIrr(percentOrNull(leveredIrr));
+                inv.setAfterTaxIrr(percentOrNull(CashFlowMetrics.irr(afterTax,
+                                Double.isNaN(leveredIrr) ? 0.05 : leveredIrr)));
+                // 구조가 같은 현금흐름이므로 levered 해를 초기값으로 사용
+                inv.setUnleveredIrr(percentOrNull(CashFlowMetrics.irr(unlevered,
+                                Double.isNaN(leveredIrr) ? 0.05 : leveredIrr)));
+                inv.setNpv(Math.round(CashFlowMetrics.npv(levered, discountRate / 100)));
+                inv.setEquityMultiple(valueOrNull(CashFlowMetrics.equityMultiple(levered)));
+                inv.setPaybackYears(valueOrNull(CashFlowMetrics.payback(levered)));
+                return inv;
+        }
+
+        /*
+         * 보유 연도별 세금 스케줄. 이자는 상환 스케줄에서, 감가상각은 건물가격 ÷ 법정 내용연수(정액법, 비망가액 1엔),
+         * 제비용은 1년차 비용으로 처리. 세율은 JapanTaxTables의 사전 계산 표를 사용하므로 연 1회 조회로 끝남.
+         */
+        private CalculationResult.Tax taxSchedule(CalculationRequest request,
+                        List<CalculationResult.RepaymentSchedule> schedule, double annualNonReserveExpense,
+                        double acquisitionCosts, int exitYear, double exitPrice) {
+                boolean individual = "individual".equalsIgnoreCase(request.getOwnershipType());
+                double flatRate = request.getTaxRate() != null && request.getTaxRate() > 0 ? request.getTaxRate() / 100
+                                : 0;
+                double otherIncome = request.getOtherIncome() != null ? request.getOtherIncome() * 10000 : 0;
+                double price = request.getPrice() * 10000;
+                double building = request.getBuildingPrice() != null ? request.getBuildingPrice() * 10000
+                                : price * DEFAULT_BUILDING_RATIO;
+                building = Math.min(Math.max(0, building), price);
+                int life = JapanTaxTables.usefulLife(request.getStructure(),
+                                request.getBuildingAge() != null ? request.getBuildingAge() : 0);
+                double annualDepreciation = building / life;
+                double depreciable = Math.max(0, building - 1);
+
+                int years = schedule.size() / 12;
+                List<CalculationResult.TaxYear> rows = new ArrayList<>(years);
+                double accumulated = 0;
+                double exitTaxable = 0;
+                for (int y = 1; y <= years; y++) {
+                        double rent = 0, interest = 0, cashFlow = 0;
+                        for (int m = (y - 1) * 12; m < y * 12; m++) {
+                                CalculationResult.RepaymentSchedule row = schedule.get(m);
+                                rent += row.getRent();
+                                interest += row.getInterest();
+                                cashFlow += row.getCashFlow();
+                        }
+                        double depreciation = Math.min(annualDepreciation, depreciable - accumulated);
+                        accumulated += depreciation;
+                        double acquisition = y == 1 ? acquisitionCosts : 0;
+                        double taxable = rent - annualNonReserveExpense - interest - depreciation - acquisition;
+                        double tax;
+                        if (flatRate > 0)
+                                tax = Math.max(0, taxable) * flatRate;
+                        else if (individual)
+                                tax = JapanTaxTables.individualIncrementalTax(taxable, otherIncome);
+                        else
+                                tax = JapanTaxTables.corporateTax(taxable);
+                        if (y == exitYear)
+                                exitTaxable = taxable;
+
+                        CalculationResult.TaxYear ty = new CalculationResult.TaxYear();
+                        ty.setYear(y);
+                        ty.setRent(Math.round(rent));
+                        ty.setInterest(Math.round(interest));
+                        ty.setDepreciation(Math.round(depreciation));
+                        ty.setExpenses(Math.round(annualNonReserveExpense));
+                        ty.setAcquisitionCosts(Math.round(acquisition));
+                        ty.setTaxableIncome(Math.round(taxable));
+                        ty.setTax(Math.round(tax));
+                        ty.setAfterTaxCashFlow(Math.round(cashFlow - tax));
+                        ty.setBookValue(Math.round(building - accumulated));
+                        rows.add(ty);
+                }
+
+                // 양도: 개인은 분리과세(장기/단기), 법인은 해당 연도 소득에 합산한 증분 세액
+                double land = price - building;
+                double bookValue = land + rows.get(exitYear - 1).getBookValue();
+                double sellingCost = exitPrice * SELLING_COST_RATE;
+                double gain = exitPrice - sellingCost - bookValue;
+                LocalDate acquired = (request.getStartDate() != null && !request.getStartDate().isEmpty())
+                                ? LocalDate.parse(request.getStartDate())
+                                : LocalDate.now();
+                boolean longTerm = JapanTaxTables.isLongTermTransfer(acquired, acquired.plusYears(exitYear));
+                double transferTax = 0;
+                if (gain > 0) {
+                        transferTax = individual
+                                        ? gain * (longTerm ? JapanTaxTables.LONG_TERM_TRANSFER_RATE
+                                                        : JapanTaxTables.SHORT_TERM_TRANSFER_RATE)
+                                        : JapanTaxTables.corporateTax(exitTaxable + gain)
+                                                        - JapanTaxTables.corporateTax(exitTaxable);
+                }
+                CalculationResult.TaxSale sale = new CalculationResult.TaxSale();
+                sale.setYear(exitYear);
+                sale.setSalePrice(Math.round(exitPrice));
+                sale.setSellingCost(Math.round(sellingCost));
+                sale.setBookValue(Math.round(bookValue));
+                sale.setGain(Math.round(gain));
+                sale.setLongTerm(longTerm);
+                sale.setTransferTax(Math.round(transferTax));
+                sale.setNetProceedsAfterTax(Math.round(exitPrice - sellingCost
+                                - schedule.get(exitYear * 12 - 1).getBalance() - transferTax));
+
+                CalculationResult.Tax result = new CalculationResult.Tax();
+                result.setOwnershipType(individual ? "individual" : "corporate");
+                result.setUsefulLife(life);
+                result.setAnnualDepreciation(Math.round(annualDepreciation));
+                result.setYears(rows);
+                result.setSale(sale);
+                return result;
+        }
+
+        private Double percentOrNull(double rate) {
+                return Double.isNaN(rate) ? null : round2(rate * 100);
+        }
+
+        private Double valueOrNull(double v) {
+                return Double.isNaN(v) || Double.isInfinite(v) ? null : round2(v);
+        }
+
+        // 정렬된 배열의 선형 보간 분위수
+        private static double percentile(double[] sorted, double q) {
+                double pos = q * (sorted.length - 1);
+                int lo = (int) Math.floor(pos);
+                int hi = Math.min(lo + 1, sorted.length - 1);
+                return sorted[lo] + (sorted[hi] - sorted[lo]) * (pos - lo);
+        }
+
         private List<CalculationResult.RepaymentSchedule> generateRepaymentSchedule(ScheduleParams p) {
 
-                List<CalculationResult.RepaymentSchedule> schedule = new ArrayList<>();
-                double monthlyInterestRate = p.annualRate / 12.0;
-                double remaining = p.loan;
+                List<CalculationResult.RepaymentSchedule> schedule = new ArrayList<>(p.months);
+                LoanAmortizer.Schedule loan = p.loan;
                 double currentRent = p.initialRent;
 
                 double occupancyRateDecimal = p.occupancyRate / 100.0;
@@ -122,9 +365,7 @@ public class CalculationService {
                                 : LocalDate.now();
 
                 for (int j = 1; j <= p.months; j++) {
-                        double interest = remaining * monthlyInterestRate;
-                        double principal = p.monthlyPayment - interest;
-                        remaining = clampRemaining(remaining - principal);
+                        double payment = loan.payment[j - 1];
 
                         LocalDate date = startLocalDate.plusMonths((long) j - 1);
                         String dateStr = date.format(DateTimeFormatter.ISO_LOCAL_DATE);
@@ -135,17 +376,17 @@ public class CalculationService {
                         CalculationResult.RepaymentSchedule scheduleItem = new CalculationResult.RepaymentSchedule(
                                         j,
                                         dateStr,
-                                        round2(p.monthlyPayment),
-                                        round2(principal),
-                                        round2(interest),
-                                        round2(remaining),
+                                        round2(payment),
+                                        round2(loan.principal[j - 1]),
+                                        round2(loan.interest[j - 1]),
+                                        round2(loan.balance[j - 1]),
                                         round2(effectiveRent));
 
                         // 장기수선적립: 별도 전달된 월 적립금 사용
                         double monthlyReserve = round2(p.monthlyReserveExpense);
                         scheduleItem.setReserve(round2(monthlyReserve));
 
-                        double cashFlow = effectiveRent - round2(p.monthlyPayment)
+                        double cashFlow = effectiveRent - round2(payment)
                                         - round2(p.monthlyNonReserveExpense) - monthlyReserve;
                         cashFlow = round2(cashFlow);
                         scheduleItem.setCashFlow(cashFlow);
@@ -164,13 +405,6 @@ public class CalculationService {
                 return Math.round(v * 100.0) / 100.0;
         }
 
-        private double clampRemaining(double value) {
-                if (value < 0 && Math.abs(value) < 1) {
-                        return 0;
-                }
-                return value;
-        }
-
         private boolean isRentAdjustmentMonth(int monthIndex, ScheduleParams p) {
                 int fixedMonths = p.rentFixedPeriod * 12;
                 if (monthIndex <= fixedMonths)
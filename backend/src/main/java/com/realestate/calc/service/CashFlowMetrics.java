@@ -0,0 +1,138 @@
+package com.realestate.calc.service;
+
+/**
+ * IRR / NPV / payback over periodic cash flows held in primitive arrays
+ * (flows[0] is the initial outlay at t=0). IRR uses a safeguarded Newton
+ * iteration: the analytic derivative drives the step, a sign-change bracket
+ * is kept around the root, and any step that leaves the bracket falls back
+ * to bisection, so it converges wherever a bracket exists. Pass the previous
+ * scenario's IRR as guess when solving many similar flows.
+ */
+public final class CashFlowMetrics {
+
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double MIN_RATE = -0.9999;
+    private static final double[] UPPER_RATES = { 1.0, 10.0, 100.0 };
+
+    private CashFlowMetrics() {
+    }
+
+    /** Net present value at rate per period; rate must be above -1 (-100%). */
+    public static double npv(double[] flows, double rate) {
+        if (!(rate > -1))
+            throw new IllegalArgumentException("Discount rate must be greater than -100%: " + rate);
+        double x = 1 / (1 + rate);
+        double p = 0;
+        for (int t = flows.length - 1; t >= 0; t--)
+            p = p * x + flows[t];
+        return p;
+    }
+
+    /** IRR starting from 10%; NaN when the flows have no sign change. */
+    public static double irr(double[] flows) {
+        return irr(flows, 0.1);
+    }
+
+    /**
+     * IRR per period, NaN when no rate in (-99.99%, 10000%] brings NPV to
+     * zero. With several roots (more than one sign change) the one inside
+     * the first bracket found is returned.
+     */
+    public static double irr(double[] flows, double guess) {
+        if (!hasSignChange(flows))
+            return Double.NaN;
+        double lo = MIN_RATE;
+        double fLo = npv(flows, lo);
+        double hi = Double.NaN;
+        double fHi = Double.NaN;
+        for (double u : UPPER_RATES) {
+            double f = npv(flows, u);
+            if (f == 0)
+                return u;
+            if (Math.signum(f) != Math.signum(fLo)) {
+                hi = u;
+                fHi = f;
+                break;
+            }
+        }
+        if (Double.isNaN(hi) || Double.isNaN(fLo))
+            return Double.NaN;
+
+        double r = guess > lo && guess < hi ? guess : 0.5 * (lo + hi);
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            // NPV and dNPV/dr in one Horner pass over x = 1/(1+r)
+            double x = 1 / (1 + r);
+            double p = 0, dp = 0;
+            for (int t = flows.length - 1; t >= 0; t--) {
+                dp = dp * x + p;
+                p = p * x + flows[t];
+            }
+            double df = -dp * x * x;
+            if (p == 0)
+                return r;
+            if (Math.signum(p) == Math.signum(fLo)) {
+                lo = r;
+                fLo = p;
+            } else {
+                hi = r;
+                fHi = p;
+            }
+            double next = r - p / df;
+            if (df == 0 || !(next > lo && next < hi))
+                next = 0.5 * (lo + hi);
+            if (Math.abs(next - r) < TOLERANCE * (1 + Math.abs(r)))
+                return next;
+            r = next;
+        }
+        return r;
+    }
+
+    // Without both an outflow and an inflow no rate is a root (all-zero flows: every rate is)
+    private static boolean hasSignChange(double[] flows) {
+        boolean negative = false, positive = false;
+        for (double f : flows) {
+            negative |= f < 0;
+            positive |= f > 0;
+        }
+        return negative && positive;
+    }
+
+    /**
+     * IRR for each row of flows into out, warm-starting every solve from the
+     * previous row's result (sensitivity grids change one input at a time).
+     */
+    public static void irrAll(double[][] flows, double[] out) {
+        double guess = 0.1;
+        for (int i = 0; i < flows.length; i++) {
+            double r = irr(flows[i], guess);
+            out[i] = r;
+            if (!Double.isNaN(r))
+                guess = r;
+        }
+    }
+
+    /** Periods until cumulative flow turns non-negative, interpolated within the period; NaN if never. */
+    public static double payback(double[] flows) {
+        double cumulative = flows.length > 0 ? flows[0] : 0;
+        if (cumulative >= 0)
+            return 0;
+        for (int t = 1; t < flows.length; t++) {
+            double next = cumulative + flows[t];
+            if (next >= 0)
+                return t - 1 + (-cumulative / flows[t]);
+            cumulative = next;
+        }
+        return Double.NaN;
+    }
+
+    /** Total distributions over the amount invested at t=0; NaN without an outlay. */
+    public static double equityMultiple(double[] flows) {
+        if (flows.length == 0 || flows[0] >= 0)
+            return Double.NaN;
+        double returned = 0;
+        for (int t = 1; t < flows.length; t++)
+            returned += flows[t];
+        return returned / -flows[0];
+    }
+}
@@ -0,0 +1,101 @@
+package com.realestate.calc.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Rate tables for the rental tax schedule, precomputed once so a lookup is a
+ * short scan over a handful of brackets. Individual rates include the 2.1%
+ * reconstruction surtax and the flat 10% resident tax; corporate rates use
+ * the same effective formula as the frontend tax tab (corporate tax +
+ * 7% resident levy on it + 5% enterprise tax on income).
+ */
+public final class JapanTaxTables {
+
+    // 법정 내용연수 (주거용). 프론트엔드 구조 선택지와 MLIT 구조 표기 모두 지원
+    private static final Map<String, Integer> USEFUL_LIFE = Map.ofEntries(
+            Map.entry("RC", 47), Map.entry("SRC", 47), Map.entry("철골조", 34), Map.entry("경량철골조", 19),
+            Map.entry("목조", 22),
+            Map.entry("ＲＣ", 47), Map.entry("ＳＲＣ", 47), Map.entry("鉄骨造", 34), Map.entry("軽量鉄骨造", 19),
+            Map.entry("木造", 22));
+    private static final int DEFAULT_USEFUL_LIFE = 22;
+
+    // 소득세 누진세율 (과세소득 하한, 세율)
+    private static final Brackets INCOME_TAX = new Brackets(
+            new double[] { 0, 1_950_000, 3_300_000, 6_950_000, 9_000_000, 18_000_000, 40_000_000 },
+            new double[] { 0.05, 0.10, 0.20, 0.23, 0.33, 0.40, 0.45 }, 1.021);
+    private static final double RESIDENT_TAX_RATE = 0.10;
+
+    // 법인세 15% (800만엔 이하) / 23.2%, 지방세 = 법인세 × 7% + 과세소득 × 5%
+    private static final Brackets CORPORATE_TAX = new Brackets(new double[] { 0, 8_000_000 },
+            new double[] { 0.15 * 1.07 + 0.05, 0.232 * 1.07 + 0.05 }, 1.0);
+
+    // 개인 양도소득세 (소득세 + 부흥특별소득세 + 주민세): 장기 20.315%, 단기 39.63%
+    public static final double LONG_TERM_TRANSFER_RATE = 0.20315;
+    public static final double SHORT_TERM_TRANSFER_RATE = 0.39630;
+
+    private JapanTaxTables() {
+    }
+
+    private static final class Brackets {
+        private final double[] floor;
+        private final double[] rate;
+        private final double[] base; // 각 구간 하한까지의 누적 세액
+
+        Brackets(double[] floor, double[] rate, double surtax) {
+            this.floor = floor;
+            this.rate = new double[rate.length];
+            this.base = new double[rate.length];
+            for (int k = 0; k < rate.length; k++) {
+                this.rate[k] = rate[k] * surtax;
+                if (k > 0)
+                    this.base[k] = base[k - 1] + (floor[k] - floor[k - 1]) * this.rate[k - 1];
+            }
+        }
+
+        double apply(double income) {
+            if (income <= 0)
+                return 0;
+            int k = floor.length - 1;
+            while (income < floor[k])
+                k--;
+            return base[k] + (income - floor[k]) * rate[k];
+        }
+    }
+
+    /**
+     * Statutory useful life in years. For a used building the simplified
+     * method applies: life − age + age × 20%, or life × 20% once fully
+     * elapsed, rounded down with a two-year minimum.
+     */
+    public static int usefulLife(String structure, int buildingAge) {
+        int life = structure == null ? DEFAULT_USEFUL_LIFE
+                : USEFUL_LIFE.getOrDefault(structure.trim(), DEFAULT_USEFUL_LIFE);
+        if (buildingAge <= 0)
+            return life;
+        double used = buildingAge >= life ? life * 0.2 : (life - buildingAge) + buildingAge * 0.2;
+        return Math.max(2, (int) Math.floor(used));
+    }
+
+    /** Income tax + resident tax on an individual's total taxable income. */
+    public static double individualTax(double income) {
+        return income <= 0 ? 0 : INCOME_TAX.apply(income) + income * RESIDENT_TAX_RATE;
+    }
+
+    /**
+     * Tax attributable to rental income on top of other income; negative
+     * when a rental loss offsets other income (損益通算).
+     */
+    public static double individualIncrementalTax(double rentalIncome, double otherIncome) {
+        return individualTax(otherIncome + rentalIncome) - individualTax(otherIncome);
+    }
+
+    public static double corporateTax(double income) {
+        return CORPORATE_TAX.apply(income);
+    }
+
+    /** Long-term when more than five years have passed on 1 January of the year of sale. */
+    public static boolean isLongTermTransfer(LocalDate acquired, LocalDate sold) {
+        return sold.getYear() - acquired.getYear() > 5;
+    }
+}
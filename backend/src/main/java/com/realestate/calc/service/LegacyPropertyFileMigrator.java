@@ -0,0 +1,191 @@
+package com.realestate.calc.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.realestate.calc.dto.PropertyData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Moves the old file store (database/&lt;userId&gt;.json, and the even older
+ * backend/database location) into property_data. Files are streamed item by
+ * item and imported in batches; a file is claimed by renaming it to
+ * .migrating and ends as .migrated, so the bulk run and the per-user
+ * fallback never import the same file twice. Rows already in the DB win.
+ * Items the DB cannot key (blank name) are logged one by one and keep the
+ * file in place, so nothing is dropped silently.
+ */
+@Component
+public class LegacyPropertyFileMigrator {
+    private static final Logger log = LoggerFactory.getLogger(LegacyPropertyFileMigrator.class);
+    private static final String BACKEND_DIR_NAME = "backend";
+    private static final String DATABASE_DIR_NAME = "database";
+    private static final String JSON_EXT = ".json";
+    private static final String MIGRATING_EXT = ".migrating";
+    private static final String MIGRATED_EXT = ".migrated";
+    // File names come from user ids; anything else is never resolved against the directory
+    private static final Pattern SAFE_USER_ID = Pattern.compile("[A-Za-z0-9._@-]{1,128}");
+
+    public record MigrationResult(int files, int items, int imported, int failed) {
+    }
+
+    private final PropertyStorageService storage;
+    private final ObjectReader itemReader;
+    private final List<Path> dirs;
+    private final int batchSize;
+    private final boolean fallback;
+    private final boolean onStartup;
+    // Cleared once a bulk run leaves no legacy files, after which loads skip the disk entirely
+    private volatile boolean pending = true;
+
+    public LegacyPropertyFileMigrator(PropertyStorageService storage, ObjectMapper mapper,
+            @Value("${storage.legacy.dir:}") String dir,
+            @Value("${storage.legacy.batchSize:200}") int batchSize,
+            @Value("${storage.legacy.fallback:true}") boolean fallback,
+            @Value("${storage.legacy.migrateOnStartup:true}") boolean onStartup) {
+        this.storage = storage;
+        this.itemReader = mapper.readerFor(PropertyData.class);
+        this.dirs = dir == null || dir.isBlank() ? defaultDirs() : List.of(Paths.get(dir));
+        this.batchSize = Math.max(1, batchSize);
+        this.fallback = fallback;
+        this.onStartup = onStartup;
+    }
+
+    private static List<Path> defaultDirs() {
+        Path cwd = Paths.get(System.getProperty("user.dir"));
+        boolean inBackend = cwd.getFileName() != null && cwd.getFileName().toString().equals(BACKEND_DIR_NAME);
+        Path root = inBackend ? cwd.getParent() : cwd;
+        // Current location first: its items win over the legacy copy
+        return List.of(root.resolve(DATABASE_DIR_NAME),
+                (inBackend ? cwd : cwd.resolve(BACKEND_DIR_NAME)).resolve(DATABASE_DIR_NAME));
+    }
+
+    /** Startup: bulk migration when storage.legacy.migrateOnStartup is on. */
+    public void migrateOnStartup() {
+        if (onStartup)
+            migrateAll();
+    }
+
+    /** Imports every remaining legacy file. */
+    public MigrationResult migrateAll() {
+        int files = 0, items = 0, imported = 0, failed = 0;
+        for (Path dir : dirs) {
+            if (!Files.isDirectory(dir))
+                continue;
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + JSON_EXT)) {
+                for (Path file : ds) {
+                    String name = file.getFileName().toString();
+                    int[] counts = migrateFile(name.substring(0, name.length() - JSON_EXT.length()), file);
+                    if (counts == null) {
+                        failed++;
+                        continue;
+                    }
+                    files++;
+                    items += counts[0];
+                    imported += counts[1];
+                    if (counts[2] > 0)
+                        failed++;
+                }
+            } catch (IOException e) {
+                log.warn("Legacy storage scan of {} failed: {}", dir, e.getMessage());
+                failed++;
+            }
+        }
+        if (failed == 0)
+            pending = false;
+        MigrationResult result = new MigrationResult(files, items, imported, failed);
+        log.info("Legacy storage migration: {}", result);
+        return result;
+    }
+
+    /**
+     * Per-user fallback for /api/storage: imports the user's files if the
+     * bulk run has not reached them yet. Returns the number of rows inserted.
+     */
+    public int migrateUser(String userId) {
+        if (!fallback || !pending || userId == null || !SAFE_USER_ID.matcher(userId).matches())
+            return 0;
+        int imported = 0;
+        for (Path dir : dirs) {
+            Path file = dir.resolve(userId + JSON_EXT);
+            if (!Files.isRegularFile(file))
+                continue;
+            int[] counts = migrateFile(userId, file);
+            if (counts != null)
+                imported += counts[1];
+        }
+        return imported;
+    }
+
+    /**
+     * {items read, rows inserted, items rejected}, or null if the file could
+     * not be read. A file with rejected items is put back as .json.
+     */
+    private int[] migrateFile(String userId, Path file) {
+        Path claimed = file.resolveSibling(file.getFileName() + MIGRATING_EXT);
+        try {
+            Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // Another run claimed it first
+            return new int[] { 0, 0, 0 };
+        } catch (IOException e) {
+            log.warn("Cannot claim legacy storage file {}: {}", file, e.getMessage());
+            return null;
+        }
+        int read = 0, inserted = 0, rejected = 0;
+        List<PropertyData> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<PropertyData> it = itemReader.readValues(claimed.toFile())) {
+            while (it.hasNextValue()) {
+                PropertyData pd = it.nextValue();
+                if (pd == null)
+                    continue;
+                read++;
+                if (PropertyStorageService.legacyName(pd.getName()) == null) {
+                    log.warn("Legacy storage file {}: item #{} has no name and was not imported", file, read);
+                    rejected++;
+                    continue;
+                }
+                batch.add(pd);
+                if (batch.size() >= batchSize) {
+                    inserted += storage.importItems(userId, batch);
+                    batch.clear();
+                }
+            }
+            inserted += storage.importItems(userId, batch);
+            if (rejected > 0) {
+                // Imported rows stay; the file waits for the rejected items to be fixed by hand
+                Files.move(claimed, file, StandardCopyOption.REPLACE_EXISTING);
+                log.warn("Legacy storage file {} kept: items={}, imported={}, rejected={}", file, read, inserted,
+                        rejected);
+                return new int[] { read, inserted, rejected };
+            }
+            Files.move(claimed, file.resolveSibling(file.getFileName() + MIGRATED_EXT),
+                    StandardCopyOption.REPLACE_EXISTING);
+            log.info("Migrated legacy storage file {}: items={}, imported={}", file, read, inserted);
+            return new int[] { read, inserted, 0 };
+        } catch (IOException | RuntimeException e) {
+            // Release the claim; batches already imported are skipped by the next attempt
+            log.warn("Legacy storage file {} failed after {} items: {}", file, read, e.getMessage());
+            try {
+                Files.move(claimed, file, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ignore) {
+                // Left as .migrating for manual inspection
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.realestate.calc.service;
+
+import java.util.Arrays;
+
+/**
+ * Amortization with rate paths, prepayments and refinancing. The payment is
+ * an annuity recomputed only at segment boundaries (an event or a 5-year
+ * review), never per month, and the monthly pass writes straight into
+ * primitive arrays. A {@link Plan} and {@link Schedule} can be reused across
+ * scenarios, so batch/Monte Carlo callers allocate nothing per path.
+ *
+ * With payment protection (5年ルール・125%ルール) a rate change only moves
+ * the interest/principal split; the payment is re-set every 60 months from
+ * the start (or last refinance) and may rise at most 25%. Interest the
+ * payment does not cover accrues as unpaid interest, due at maturity.
+ */
+public final class LoanAmortizer {
+
+    static final int RATE = 0;
+    static final int PREPAY = 1;
+    static final int REFINANCE = 2;
+
+    private static final int REVIEW_MONTHS = 60;
+    private static final double PAYMENT_CAP = 1.25;
+
+    private LoanAmortizer() {
+    }
+
+    /** Loan in 円, rates as annual decimals, months 1-based. Events may be added in any order. */
+    public static final class Plan {
+        private double principal;
+        private double annualRate;
+        private int months;
+        private boolean paymentProtection;
+        private int count;
+        private int[] month = new int[4];
+        private int[] type = new int[4];
+        private double[] rate = new double[4]; // NaN: unchanged
+        private double[] amount = new double[4];
+        private boolean[] shorten = new boolean[4];
+        private int[] term = new int[4]; // months
+        private double[] fee = new double[4];
+
+        public Plan(double principal, double annualRate, int months, boolean paymentProtection) {
+            reset(principal, annualRate, months, paymentProtection);
+        }
+
+        /** Reuses this plan for another scenario; drops all events. */
+        public Plan reset(double principal, double annualRate, int months, boolean paymentProtection) {
+            this.principal = principal;
+            this.annualRate = annualRate;
+            this.months = months;
+            this.paymentProtection = paymentProtection;
+            this.count = 0;
+            return this;
+        }
+
+        public Plan rate(int atMonth, double newRate) {
+            return add(atMonth, RATE, newRate, 0, false, 0, 0);
+        }
+
+        /** shorten: keep the payment and finish earlier; otherwise keep the end date and lower the payment. */
+        public Plan prepay(int atMonth, double prepayment, boolean shortenTerm) {
+            return add(atMonth, PREPAY, Double.NaN, prepayment, shortenTerm, 0, 0);
+        }
+
+        /** Replaces the loan (balance and unpaid interest) with a new one of newTermMonths; NaN keeps the rate. */
+        public Plan refinance(int atMonth, double newRate, int newTermMonths, double refinanceFee) {
+            return add(atMonth, REFINANCE, newRate, 0, false, newTermMonths, refinanceFee);
+        }
+
+        private Plan add(int m, int t, double r, double a, boolean s, int n, double f) {
+            if (count == month.length) {
+                int cap = count * 2;
+                month = Arrays.copyOf(month, cap);
+                type = Arrays.copyOf(type, cap);
+                rate = Arrays.copyOf(rate, cap);
+                amount = Arrays.copyOf(amount, cap);
+                shorten = Arrays.copyOf(shorten, cap);
+                term = Arrays.copyOf(term, cap);
+                fee = Arrays.copyOf(fee, cap);
+            }
+            // Insertion keeps events ordered by month, ties in insertion order
+            int at = count;
+            while (at > 0 && month[at - 1] > m) {
+                month[at] = month[at - 1];
+                type[at] = type[at - 1];
+                rate[at] = rate[at - 1];
+                amount[at] = amount[at - 1];
+                shorten[at] = shorten[at - 1];
+                term[at] = term[at - 1];
+                fee[at] = fee[at - 1];
+                at--;
+            }
+            month[at] = Math.max(1, m);
+            type[at] = t;
+            rate[at] = r;
+            amount[at] = a;
+            shorten[at] = s;
+            term[at] = n;
+            fee[at] = f;
+            count++;
+            return this;
+        }
+    }
+
+    /**
+     * Monthly rows 0..months-1 in 円; months is the original term (or the end
+     * of a longer refinance) rounded up to whole years, with zero rows after
+     * payoff. payment includes prepayments and fees; balance includes unpaid
+     * interest.
+     */
+    public static final class Schedule {
+        public double[] payment = new double[0];
+        public double[] principal = new double[0];
+        public double[] interest = new double[0];
+        public double[] balance = new double[0];
+        public double[] fee = new double[0];
+        public int months;
+        public double firstPayment;
+
+        private void ensure(int n) {
+            if (payment.length < n) {
+                payment = new double[n];
+                principal = new double[n];
+                interest = new double[n];
+                balance = new double[n];
+                fee = new double[n];
+            } else {
+                Arrays.fill(payment, 0, n, 0);
+                Arrays.fill(principal, 0, n, 0);
+                Arrays.fill(interest, 0, n, 0);
+                Arrays.fill(balance, 0, n, 0);
+                Arrays.fill(fee, 0, n, 0);
+            }
+            months = n;
+        }
+    }
+
+    public static Schedule amortize(Plan p) {
+        return amortize(p, new Schedule());
+    }
+
+    public static Schedule amortize(Plan p, Schedule out) {
+        int horizon = p.months;
+        for (int e = 0; e < p.count; e++)
+            if (p.type[e] == REFINANCE && p.month[e] <= horizon)
+                horizon = Math.max(horizon, p.month[e] - 1 + p.term[e]);
+        out.ensure((horizon + 11) / 12 * 12);
+
+        double b = p.principal;
+        double i = p.annualRate / 12;
+        int end = p.months;
+        double pay = annuity(b, i, end);
+        out.firstPayment = pay;
+        double unpaid = 0;
+        int reviewFrom = 1;
+        int e = 0;
+        for (int j = 1; j <= out.months; j++) {
+            if (b <= 0 && unpaid <= 0)
+                break;
+            double extra = 0;
+            double fee = 0;
+            boolean reset = false;
+            for (; e < p.count && p.month[e] == j; e++) {
+                switch (p.type[e]) {
+                    case RATE -> {
+                        i = p.rate[e] / 12;
+                        reset |= !p.paymentProtection;
+                    }
+                    case PREPAY -> {
+                        double a = Math.min(p.amount[e], b);
+                        b -= a;
+                        extra += a;
+                        if (p.shorten[e])
+                            end = Math.min(end, j - 1 + monthsToRepay(b, i, pay, end - j + 1));
+                        else
+                            reset = true;
+                    }
+                    default -> {
+                        if (!Double.isNaN(p.rate[e]))
+                            i = p.rate[e] / 12;
+                        b += unpaid;
+                        unpaid = 0;
+                        end = j - 1 + Math.max(1, p.term[e]);
+                        fee += p.fee[e];
+                        reviewFrom = j;
+                        reset = true;
+                    }
+                }
+            }
+            int remaining = end - j + 1;
+            if (reset)
+                pay = annuity(b, i, remaining);
+            else if (p.paymentProtection && j > reviewFrom && (j - reviewFrom) % REVIEW_MONTHS == 0)
+                pay = Math.min(annuity(b, i, remaining), pay * PAYMENT_CAP);
+
+            double interest = b * i;
+            double principal;
+            double paid;
+            if (j >= end) {
+                // Maturity: whatever is left, including unpaid interest
+                principal = b;
+                paid = b + interest + unpaid;
+                unpaid = 0;
+            } else if (pay < interest) {
+                unpaid += interest - pay;
+                principal = 0;
+                paid = pay;
+            } else {
+                principal = Math.min(pay - interest, b);
+                paid = principal + interest;
+            }
+            b -= principal;
+            if (b < 0 && b > -1)
+                b = 0;
+            int row = j - 1;
+            out.payment[row] = paid + extra + fee;
+            out.principal[row] = principal + extra;
+            out.interest[row] = interest;
+            out.balance[row] = b + unpaid;
+            out.fee[row] = fee;
+        }
+        return out;
+    }
+
+    static double annuity(double balance, double monthlyRate, int months) {
+        if (months <= 0)
+            return balance;
+        return monthlyRate == 0 ? balance / months : balance * monthlyRate / (1 - Math.pow(1 + monthlyRate, -months));
+    }
+
+    // Months needed at this payment, capped at the months left
+    private static int monthsToRepay(double balance, double monthlyRate, double payment, int left) {
+        if (balance <= 0)
+            return 0;
+        if (payment <= balance * monthlyRate)
+            return left;
+        double n = monthlyRate == 0 ? balance / payment
+                : -Math.log(1 - balance * monthlyRate / payment) / Math.log(1 + monthlyRate);
+        return Math.min(left, (int) Math.ceil(n - 1e-9));
+    }
+}
@@ -0,0 +1,318 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.dto.PortfolioResult;
+import com.realestate.calc.dto.PropertyData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Portfolio view over a user's saved properties. Each form is mapped to a
+ * {@link CalculationRequest} and its amortization is run straight into
+ * primitive monthly arrays on a shared calendar axis (month 0 = earliest
+ * start). Chunks of properties fill their own partial arrays on a bounded
+ * pool; the partials are summed element-wise and rolled up by calendar year.
+ * Month-level semantics follow CalculationService's repayment schedule.
+ */
+@Service
+public class PortfolioService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioService.class);
+
+    private final PropertyStorageService storage;
+    private final ExecutorService pool;
+    private final int chunkSize;
+
+    public PortfolioService(PropertyStorageService storage, MeterRegistry meterRegistry,
+            @Value("${portfolio.parallelism:4}") int parallelism,
+            @Value("${portfolio.chunkSize:25}") int chunkSize) {
+        this.storage = storage;
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService raw = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "portfolio-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pool = ExecutorServiceMetrics.monitor(meterRegistry, raw, "portfolio");
+    }
+
+    // Kernel inputs, one entry per property
+    private static final class Loan {
+        String name;
+        CalculationRequest request;
+        YearMonth start;
+        int offset; // months after the portfolio start
+        int months;
+        double loan;
+        double monthlyRate;
+        double payment;
+        double rent;
+        double occupancy;
+        double nonReserve; // 월
+        double reserve; // 월
+        int fixedMonths;
+        int intervalMonths;
+        double adjustFactor;
+    }
+
+    // Portfolio-level monthly series; cash flow is derived at rollup time
+    static final class Series {
+        final double[] payment;
+        final double[] principal;
+        final double[] interest;
+        final double[] balance;
+        final double[] rent;
+        final double[] expense;
+        final double[] reserve;
+
+        Series(int months) {
+            payment = new double[months];
+            principal = new double[months];
+            interest = new double[months];
+            balance = new double[months];
+            rent = new double[months];
+            expense = new double[months];
+            reserve = new double[months];
+        }
+
+        void add(Series o) {
+            addInto(payment, o.payment);
+            addInto(principal, o.principal);
+            addInto(interest, o.interest);
+            addInto(balance, o.balance);
+            addInto(rent, o.rent);
+            addInto(expense, o.expense);
+            addInto(reserve, o.reserve);
+        }
+
+        private static void addInto(double[] dst, double[] src) {
+            for (int i = 0; i < dst.length; i++)
+                dst[i] += src[i];
+        }
+    }
+
+    public PortfolioResult aggregate(String userId) {
+        long start = System.nanoTime();
+        List<PropertyData> items = storage.load(userId);
+        List<Loan> loans = new ArrayList<>(items.size());
+        List<String> skipped = new ArrayList<>();
+        for (PropertyData pd : items) {
+            Loan l = toLoan(pd);
+            if (l == null)
+                skipped.add(pd.getName());
+            else
+                loans.add(l);
+        }
+
+        PortfolioResult result = new PortfolioResult();
+        result.setPropertyCount(loans.size());
+        result.setSkipped(skipped);
+        if (loans.isEmpty()) {
+            result.setYears(List.of());
+            result.setProperties(List.of());
+            return result;
+        }
+
+        YearMonth first = loans.get(0).start;
+        for (Loan l : loans)
+            if (l.start.isBefore(first))
+                first = l.start;
+        int horizon = 0;
+        for (Loan l : loans) {
+            l.offset = (int) ChronoUnit.MONTHS.between(first, l.start);
+            horizon = Math.max(horizon, l.offset + l.months);
+        }
+
+        Series total = run(loans, horizon);
+        result.setStartMonth(first.toString());
+        result.setYears(rollup(total, first));
+        summarize(result, loans);
+        log.info("portfolio userId={}, properties={}, skipped={}, months={}, tookUs={}", userId, loans.size(),
+                skipped.size(), horizon, (System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    private Series run(List<Loan> loans, int horizon) {
+        if (loans.size() <= chunkSize)
+            return fill(loans, horizon);
+        List<Future<Series>> parts = new ArrayList<>();
+        for (int from = 0; from < loans.size(); from += chunkSize) {
+            List<Loan> chunk = loans.subList(from, Math.min(loans.size(), from + chunkSize));
+            parts.add(pool.submit(() -> fill(chunk, horizon)));
+        }
+        try {
+            Series total = parts.get(0).get();
+            for (int i = 1; i < parts.size(); i++)
+                total.add(parts.get(i).get());
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aggregating portfolio", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<Series> f : parts)
+                f.cancel(true);
+        }
+    }
+
+    // Amortization kernel: CalculationService's schedule without per-row objects or rounding
+    private static Series fill(List<Loan> loans, int horizon) {
+        Series s = new Series(horizon);
+        for (Loan l : loans) {
+            double remaining = l.loan;
+            double rent = l.rent;
+            for (int j = 1; j <= l.months; j++) {
+                int m = l.offset + j - 1;
+                double interest = remaining * l.monthlyRate;
+                double principal = l.payment - interest;
+                remaining -= principal;
+                if (remaining < 0 && remaining > -1)
+                    remaining = 0;
+                s.payment[m] += l.payment;
+                s.principal[m] += principal;
+                s.interest[m] += interest;
+                s.balance[m] += remaining;
+                s.rent[m] += rent * l.occupancy;
+                s.expense[m] += l.nonReserve;
+                s.reserve[m] += l.reserve;
+                if (isRentAdjustmentMonth(j, l))
+                    rent *= l.adjustFactor;
+            }
+        }
+        return s;
+    }
+
+    // Same rule as CalculationService.isRentAdjustmentMonth
+    private static boolean isRentAdjustmentMonth(int j, Loan l) {
+        if (j <= l.fixedMonths || l.intervalMonths <= 0 || l.adjustFactor == 1)
+            return false;
+        return (j - l.fixedMonths) % l.intervalMonths == 1;
+    }
+
+    private static List<PortfolioResult.Year> rollup(Series s, YearMonth first) {
+        List<PortfolioResult.Year> years = new ArrayList<>();
+        int m = 0;
+        int year = first.getYear();
+        int monthOfYear = first.getMonthValue();
+        while (m < s.payment.length) {
+            int end = Math.min(s.payment.length, m + 13 - monthOfYear);
+            double rent = 0, payment = 0, principal = 0, interest = 0, expense = 0, reserve = 0;
+            for (int i = m; i < end; i++) {
+                rent += s.rent[i];
+                payment += s.payment[i];
+                principal += s.principal[i];
+                interest += s.interest[i];
+                expense += s.expense[i];
+                reserve += s.reserve[i];
+            }
+            PortfolioResult.Year y = new PortfolioResult.Year();
+            y.setYear(year);
+            y.setRent(Math.round(rent));
+            y.setPayment(Math.round(payment));
+            y.setPrincipal(Math.round(principal));
+            y.setInterest(Math.round(interest));
+            y.setExpense(Math.round(expense));
+            y.setReserve(Math.round(reserve));
+            y.setCashFlow(Math.round(rent - payment - expense - reserve));
+            y.setEndingBalance(Math.round(s.balance[end - 1]));
+            years.add(y);
+            m = end;
+            year++;
+            monthOfYear = 1;
+        }
+        return years;
+    }
+
+    // Headline figures, same formulas as CalculationService.calculate summed over properties
+    private static void summarize(PortfolioResult result, List<Loan> loans) {
+        double price = 0, purchase = 0, loanTotal = 0, own = 0, payment = 0, income = 0, cost = 0;
+        List<PortfolioResult.Property> properties = new ArrayList<>(loans.size());
+        for (Loan l : loans) {
+            CalculationRequest r = l.request;
+            double yearlyIncome = r.getRent() * 12 * (r.getOccupancyRate() / 100.0);
+            double yearlyCost = r.getExpense() + l.payment * 12;
+            price += r.getPrice();
+            purchase += r.getTotalPurchaseCost();
+            loanTotal += r.getLoan();
+            own += r.getOwnCapital();
+            payment += l.payment;
+            income += yearlyIncome;
+            cost += yearlyCost;
+
+            PortfolioResult.Property p = new PortfolioResult.Property();
+            p.setName(l.name);
+            p.setStartMonth(l.start.toString());
+            p.setTermMonths(l.months);
+            p.setMonthlyPayment(Math.round(l.payment));
+            p.setYearlyIncome(Math.round(yearlyIncome));
+            p.setYearlyProfit(Math.round(yearlyIncome - yearlyCost));
+            properties.add(p);
+        }
+        double profit = income - cost;
+        result.setTotalPrice(price);
+        result.setTotalPurchaseCost(purchase);
+        result.setTotalLoan(loanTotal);
+        result.setTotalOwnCapital(own);
+        result.setMonthlyPayment(Math.round(payment));
+        result.setYearlyIncome(Math.round(income));
+        result.setYearlyCost(Math.round(cost));
+        result.setYearlyProfit(Math.round(profit));
+        result.setGrossYield(percent(income, price * 10000));
+        result.setYieldPercent(percent(profit, purchase * 10000));
+        result.setEquityYield(percent(profit, own * 10000));
+        result.setProperties(properties);
+    }
+
+    private static double percent(double value, double base) {
+        return base > 0 ? Math.round(value / base * 1000) / 10.0 : 0;
+    }
+
+    private static Loan toLoan(PropertyData pd) {
+        CalculationRequest r = PropertyFormMapper.toRequest(pd.getName(), pd.getForm());
+        if (r == null)
+            return null;
+        Loan l = new Loan();
+        try {
+            l.start = r.getStartDate() != null ? YearMonth.from(LocalDate.parse(r.getStartDate())) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        l.name = pd.getName();
+        l.request = r;
+        l.months = r.getTerm() * 12;
+        l.loan = r.getLoan() * 10000;
+        l.monthlyRate = r.getRate() / 100 / 12;
+        l.payment = LoanAmortizer.annuity(l.loan, l.monthlyRate, l.months);
+        l.rent = r.getRent();
+        l.occupancy = r.getOccupancyRate() / 100.0;
+        l.nonReserve = r.getNonReserveExpense() / 12.0;
+        l.reserve = r.getReserveExpense() / 12.0;
+        l.fixedMonths = r.getRentFixedPeriod() * 12;
+        l.intervalMonths = r.getRentAdjustmentInterval() * 12;
+        l.adjustFactor = 1 - r.getRentAdjustmentRate() / 100.0;
+        return l;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,117 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.CalculationRequest;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Saved form_json → {@link CalculationRequest}, mirroring convertFormToRequest
+ * in shared/utils/formUtils.ts so server-side aggregation sees the same
+ * inputs the frontend sends to /api/calculation/calculate.
+ */
+public final class PropertyFormMapper {
+
+    // 제비용 항목 (万円)
+    private static final String[] ACQUISITION_COST_FIELDS = { "brokerageFee", "registrationFee", "acquisitionTax",
+            "stampDuty", "loanFee", "surveyFee", "miscellaneousFees", "otherMiscellaneousFees" };
+    // JS parseFloat / parseInt(v, 10): the longest numeric prefix after leading whitespace
+    private static final Pattern FLOAT_PREFIX = Pattern.compile(
+            "[+-]?(?:Infinity|(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][+-]?\\d+)?)");
+    private static final Pattern INT_PREFIX = Pattern.compile("[+-]?\\d+");
+
+    private PropertyFormMapper() {
+    }
+
+    /** null when the form cannot be calculated (no price, term or rent, or a negative rate). */
+    public static CalculationRequest toRequest(String name, Map<String, Object> form) {
+        if (form == null)
+            return null;
+        double price = num(form, "price");
+        int term = integer(form, "term");
+        double rate = num(form, "rate");
+        double monthlyRent = num(form, "rent") * 10000; // 万円 → 円
+        // 0% 금리(무이자·현금 매입)는 계산 가능: 저장된 폼은 프론트 검증을 거치지 않음
+        if (price <= 0 || term <= 0 || rate < 0 || monthlyRent <= 0)
+            return null;
+
+        double totalPurchaseCost = price;
+        for (String f : ACQUISITION_COST_FIELDS)
+            totalPurchaseCost += num(form, f);
+        // ownCapital 미입력일 때만 총 매입비용의 10%
+        double ownCapital = present(form.get("ownCapital")) ? num(form, "ownCapital") : totalPurchaseCost * 0.1;
+        ownCapital = Math.max(0, ownCapital);
+        double loan = Math.max(0, totalPurchaseCost - ownCapital);
+
+        double annualRent = monthlyRent * 12;
+        double management = Math.max(annualRent * num(form, "managementFeeRate") / 100,
+                num(form, "managementFee") * 10000 * 12);
+        double commission = Math.max(annualRent * num(form, "managementCommissionRate") / 100,
+                num(form, "managementCommissionFee") * 10000 * 12);
+        double reserve = Math.max(annualRent * num(form, "maintenanceFeeRate") / 100,
+                num(form, "maintenanceFee") * 10000 * 12);
+        double totalMaintenance = num(form, "propertyTax") * 10000 + management + commission + reserve
+                + num(form, "insurance") * 10000 + num(form, "otherExpenses") * 10000
+                + num(form, "otherMiscellaneousFees") * 10000;
+
+        CalculationRequest r = new CalculationRequest();
+        r.setName(name);
+        r.setPrice(price);
+        r.setTotalPurchaseCost(totalPurchaseCost);
+        r.setOwnCapital(ownCapital);
+        r.setLoan(loan);
+        r.setRate(rate);
+        r.setTerm(term);
+        r.setRent(monthlyRent);
+        r.setGrossYield(num(form, "grossYield"));
+        r.setOccupancyRate(num(form, "occupancyRate"));
+        r.setExpense(totalMaintenance);
+        r.setNonReserveExpense(totalMaintenance - reserve);
+        r.setReserveExpense(reserve);
+        Object startDate = form.get("startDate");
+        r.setStartDate(startDate instanceof String s && !s.isBlank() ? s.trim() : null);
+        r.setRentFixedPeriod(integer(form, "rentFixedPeriod"));
+        r.setRentAdjustmentInterval(integer(form, "rentAdjustmentInterval"));
+        r.setRentAdjustmentRate(num(form, "rentAdjustmentRate"));
+        if (present(form.get("buildingPrice")))
+            r.setBuildingPrice(num(form, "buildingPrice"));
+        if (present(form.get("buildingAge")))
+            r.setBuildingAge(integer(form, "buildingAge"));
+        if (form.get("structure") instanceof String structure && !structure.isBlank())
+            r.setStructure(structure.trim());
+        return r;
+    }
+
+    private static boolean present(Object v) {
+        return v instanceof Number || (v instanceof String s && !s.isBlank());
+    }
+
+    // safeParseFloat: numbers as-is, strings by parseFloat ("1,234" → 1, "12万" → 12), anything else 0
+    static double num(Map<String, Object> form, String key) {
+        Object v = form.get(key);
+        if (v instanceof Number n)
+            return Double.isFinite(n.doubleValue()) ? n.doubleValue() : 0;
+        String prefix = prefix(v, FLOAT_PREFIX);
+        if (prefix == null)
+            return 0;
+        double d = Double.parseDouble(prefix);
+        return Double.isFinite(d) ? d : 0;
+    }
+
+    // safeParseInt: numbers truncated, strings by parseInt(v, 10) ("35.9" → 35, "1e3" → 1), anything else 0
+    static int integer(Map<String, Object> form, String key) {
+        Object v = form.get(key);
+        if (v instanceof Number n)
+            return Double.isFinite(n.doubleValue()) ? (int) n.doubleValue() : 0;
+        String prefix = prefix(v, INT_PREFIX);
+        return prefix == null ? 0 : (int) Double.parseDouble(prefix);
+    }
+
+    private static String prefix(Object v, Pattern pattern) {
+        if (!(v instanceof String s) || s.isBlank())
+            return null;
+        Matcher m = pattern.matcher(s.strip());
+        return m.lookingAt() ? m.group() : null;
+    }
+}
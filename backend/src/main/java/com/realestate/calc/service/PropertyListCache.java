@@ -0,0 +1,262 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.PropertyData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user cache of the live property list and its change watermark, so
+ * repeat loads skip both the query and the form_json parsing. Bounded LRU
+ * with a TTL as a safety net. Writes invalidate after commit; with
+ * property.cache.notify=true they also pg_notify the change so other nodes
+ * (LISTENing on a dedicated connection) drop their copy.
+ */
+@Component
+public class PropertyListCache implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PropertyListCache.class);
+    static final String CHANNEL = "property_data_changed";
+
+    /**
+     * Immutable list snapshot. Forms are deep-copied into unmodifiable maps and
+     * lists on construction, and {@link #items()} hands out fresh PropertyData
+     * around them, so no caller can change what other readers see.
+     */
+    public record Snapshot(List<PropertyData> items, long watermark) {
+        public Snapshot {
+            List<PropertyData> frozen = new ArrayList<>(items.size());
+            for (PropertyData pd : items)
+                frozen.add(copy(pd, freezeForm(pd.getForm())));
+            items = Collections.unmodifiableList(frozen);
+        }
+
+        @Override
+        public List<PropertyData> items() {
+            List<PropertyData> out = new ArrayList<>(items.size());
+            for (PropertyData pd : items)
+                out.add(copy(pd, pd.getForm()));
+            return out;
+        }
+    }
+
+    private record Entry(Snapshot snapshot, long loadedAtNanos) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final DataSourceProperties dataSourceProperties;
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final boolean notify;
+    private final Map<String, Entry> entries;
+    // Bumped by every invalidation; a load only caches what it read if no invalidation raced it
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private volatile Thread listener;
+    private volatile boolean running;
+
+    public PropertyListCache(JdbcTemplate jdbc, DataSourceProperties dataSourceProperties,
+            MeterRegistry meterRegistry,
+            @Value("${property.cache.maxUsers:1000}") int maxUsers,
+            @Value("${property.cache.ttlSeconds:300}") long ttlSeconds,
+            @Value("${property.cache.notify:false}") boolean notify) {
+        this.jdbc = jdbc;
+        this.dataSourceProperties = dataSourceProperties;
+        this.maxUsers = Math.max(0, maxUsers);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+        this.notify = notify;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PropertyListCache.this.maxUsers;
+            }
+        };
+        this.hits = meterRegistry.counter("property.cache.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("property.cache.lookups", "result", "miss");
+        Gauge.builder("property.cache.users", this, PropertyListCache::size)
+                .description("Users with a cached property list")
+                .register(meterRegistry);
+    }
+
+    /** Cached snapshot, or null on a miss or an expired entry. */
+    public Snapshot get(String userId) {
+        Entry e;
+        synchronized (entries) {
+            e = entries.get(userId);
+            if (e != null && System.nanoTime() - e.loadedAtNanos() > ttlNanos) {
+                entries.remove(userId);
+                e = null;
+            }
+        }
+        (e == null ? misses : hits).increment();
+        return e == null ? null : e.snapshot();
+    }
+
+    /** Call before reading the DB; pass the value to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String userId, Snapshot snapshot, long readGeneration) {
+        if (maxUsers == 0)
+            return;
+        synchronized (entries) {
+            if (generation.get() == readGeneration)
+                entries.put(userId, new Entry(snapshot, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drops the user's entry once the current transaction commits (immediately
+     * when there is none) and, with notify on, queues a pg_notify that
+     * PostgreSQL delivers to the other nodes at the same commit.
+     */
+    public void invalidate(String userId) {
+        if (notify) {
+            try {
+                jdbc.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, userId);
+            } catch (Exception e) {
+                log.warn("pg_notify {} failed: {}", CHANNEL, e.getMessage());
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    private void evict(String userId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(userId);
+        }
+    }
+
+    private static PropertyData copy(PropertyData pd, Map<String, Object> form) {
+        PropertyData c = new PropertyData();
+        c.setName(pd.getName());
+        c.setUpdatedAt(pd.getUpdatedAt());
+        c.setForm(form);
+        c.setVersion(pd.getVersion());
+        c.setDeleted(pd.isDeleted());
+        return c;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> freezeForm(Map<String, Object> form) {
+        return form == null ? null : (Map<String, Object>) freeze(form);
+    }
+
+    // form_json values are maps, lists and scalars; scalars are immutable already (null values allowed)
+    private static Object freeze(Object v) {
+        if (v instanceof Map<?, ?> m) {
+            Map<Object, Object> out = new LinkedHashMap<>(Math.max(4, m.size() * 4 / 3 + 1));
+            m.forEach((k, x) -> out.put(k, freeze(x)));
+            return Collections.unmodifiableMap(out);
+        }
+        if (v instanceof List<?> l) {
+            List<Object> out = new ArrayList<>(l.size());
+            for (Object x : l)
+                out.add(freeze(x));
+            return Collections.unmodifiableList(out);
+        }
+        return v;
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** Startup: LISTENs for other nodes' invalidations when property.cache.notify is on. */
+    public void startListener() {
+        if (!notify || maxUsers == 0 || listener != null)
+            return;
+        running = true;
+        Thread t = new Thread(this::listenLoop, "property-cache-listen");
+        t.setDaemon(true);
+        listener = t;
+        t.start();
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection con = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                // Anything changed while we were not listening is unknown
+                clear();
+                log.info("Listening on {} for property cache invalidations", CHANNEL);
+                backoffMs = 1000;
+                PGConnection pg = con.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications(10_000);
+                    if (batch == null)
+                        continue;
+                    for (PGNotification n : batch)
+                        evict(n.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running)
+                    return;
+                log.warn("Property cache listener disconnected ({}); retrying in {}ms", e.getMessage(), backoffMs);
+                clear();
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 60_000);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Thread t = listener;
+        if (t != null)
+            t.interrupt();
+    }
+}
@@ -1,28 +1,64 @@
 package com.realestate.calc.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.realestate.calc.dto.PropertyData;
+import com.realestate.calc.dto.PropertyDelta;
+import com.realestate.calc.dto.PropertySyncResult;
 import jakarta.annotation.PostConstruct;
 import com.realestate.calc.exception.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PropertyStorageService {
     private static final Logger log = LoggerFactory.getLogger(PropertyStorageService.class);
     private final JdbcTemplate jdbc;
-    private final ObjectMapper mapper = new ObjectMapper();
+    // form_json is always a string-keyed map; reuse the bound reader/writer
+    private final ObjectReader formReader;
+    private final ObjectWriter formWriter;
+    private final PropertyListCache cache;
+    private final int tombstoneRetentionDays;
+    private final long purgeIntervalMinutes;
+    private volatile ScheduledExecutorService purgeScheduler;
 
-    public PropertyStorageService(JdbcTemplate jdbc) {
+    private static final String ITEM_COLUMNS = "name, form_json, updated_at, version, deleted, change_seq";
+    // Every write bumps the version and stamps the transaction's change_seq (see nextSeq)
+    private static final String BUMP = "version = property_data.version + 1, change_seq = ?, updated_at = now()";
+    private static final String BUMP_UPSERT = "version = property_data.version + 1, "
+            + "change_seq = EXCLUDED.change_seq, updated_at = now()";
+    // Row-locks the user's counter until commit; seeded from the user's rows on first use
+    private static final String NEXT_SEQ = "INSERT INTO property_data_user_seq AS s (user_id, last_seq) "
+            + "VALUES (?, (SELECT COALESCE(MAX(change_seq), 0) + 1 FROM property_data WHERE user_id = ?)) "
+            + "ON CONFLICT (user_id) DO UPDATE SET last_seq = s.last_seq + 1 RETURNING last_seq";
+
+    public PropertyStorageService(JdbcTemplate jdbc, ObjectMapper mapper, PropertyListCache cache,
+            @Value("${property.sync.tombstoneRetentionDays:90}") int tombstoneRetentionDays,
+            @Value("${property.sync.purgeIntervalMinutes:720}") long purgeIntervalMinutes) {
         this.jdbc = jdbc;
+        this.cache = cache;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+        this.purgeIntervalMinutes = purgeIntervalMinutes;
+        TypeReference<Map<String, Object>> formType = new TypeReference<>() {
+        };
+        this.formReader = mapper.readerFor(formType);
+        this.formWriter = mapper.writerFor(formType);
     }
 
     @PostConstruct
@@ -30,61 +66,321 @@ public class PropertyStorageService {
         log.info("PropertyStorageService initialized");
     }
 
+    /**
+     * Full-list save (legacy protocol): the list replaces the user's items.
+     * Items whose form did not change are not rewritten, and items missing
+     * from the list (all of them for an empty list) become tombstones so
+     * delta loads see the removal. Names follow the legacy store: any
+     * non-blank name is kept (trimmed), including ones outside the 2~80
+     * characters the per-item API requires; a blank name is rejected.
+     */
     @Transactional
     public void save(String userId, List<PropertyData> data) {
         if (data == null)
             data = new ArrayList<>();
         long start = System.currentTimeMillis();
-        if (!data.isEmpty()) {
-            jdbc.batchUpdate(
-                    "INSERT INTO property_data (user_id, name, form_json, updated_at) VALUES (?, ?, to_jsonb(?::json), now()) "
-                            +
-                            "ON CONFLICT (user_id, name) DO UPDATE SET form_json = EXCLUDED.form_json, updated_at = now()",
-                    data, data.size(), (ps, pd) -> {
-                        ps.setString(1, userId);
-                        ps.setString(2, validateName(pd.getName()));
-                        try {
-                            normalizeNumericFields(pd.getForm());
-                            ps.setString(3, mapper.writeValueAsString(pd.getForm()));
-                        } catch (JsonProcessingException e) {
-                            ps.setString(3, "{}");
-                        }
-                    });
-            // Delete stale rows only if we have any current rows; empty list => do not
-            // delete (policy)
-            int deleted = jdbc.update(
-                    "DELETE FROM property_data WHERE user_id = ? AND name NOT IN (" + placeholders(data.size()) + ")",
-                    buildArgs(userId, data));
-            long took = System.currentTimeMillis() - start;
-            log.info("property.save userId={}, items={}, deleted={}, tookMs={}", userId, data.size(), deleted, took);
-        } else {
-            log.info("property.save userId={} items=0 (no delete per policy)", userId);
+        List<String> names = new ArrayList<>(data.size());
+        List<Object[]> rows = new ArrayList<>(data.size());
+        long seq = nextSeq(userId);
+        for (PropertyData pd : data) {
+            String name = legacyName(pd.getName());
+            if (name == null)
+                throw new ValidationException("name", "이름을 입력해 주세요");
+            names.add(name);
+            rows.add(new Object[] { userId, name, formJson(pd.getForm()), seq });
         }
+        int changed = 0;
+        for (int c : jdbc.batchUpdate(
+                "INSERT INTO property_data (user_id, name, form_json, updated_at, change_seq) "
+                        + "VALUES (?, ?, to_jsonb(?::json), now(), ?) "
+                        + "ON CONFLICT (user_id, name) DO UPDATE SET form_json = EXCLUDED.form_json, deleted = false, "
+                        + BUMP_UPSERT
+                        + " WHERE property_data.deleted OR property_data.form_json IS DISTINCT FROM EXCLUDED.form_json",
+                rows))
+            changed += Math.max(c, 0);
+        // Everything not in the list, so an empty list removes every item
+        int deleted = jdbc.update(con -> {
+            var ps = con.prepareStatement("UPDATE property_data SET deleted = true, form_json = '{}'::jsonb, "
+                    + BUMP + " WHERE user_id = ? AND NOT deleted AND name <> ALL(?)");
+            ps.setLong(1, seq);
+            ps.setString(2, userId);
+            ps.setArray(3, con.createArrayOf("text", names.toArray()));
+            return ps;
+        });
+        cache.invalidate(userId);
+        long took = System.currentTimeMillis() - start;
+        log.info("property.save userId={}, items={}, changed={}, deleted={}, tookMs={}", userId, data.size(),
+                changed, deleted, took);
+    }
+
+    /**
+     * Name rule of the legacy full-list store: trimmed, any length, blank
+     * unusable (null). {@link #save} and {@link #importItems} accept exactly
+     * these names.
+     */
+    public static String legacyName(String name) {
+        if (name == null)
+            return null;
+        String trimmed = name.trim();
+        return trimmed.isEmpty() ? null : trimmed;
     }
 
+    /**
+     * Bulk import for the legacy file store: inserts items that are not in
+     * property_data yet and never touches existing rows (live or tombstoned),
+     * so the DB always wins. Names follow {@link #legacyName}; callers filter
+     * out blank ones first (they are skipped here). Returns the number of
+     * rows inserted.
+     */
+    @Transactional
+    public int importItems(String userId, List<PropertyData> items) {
+        if (items == null || items.isEmpty())
+            return 0;
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (PropertyData pd : items) {
+            String name = legacyName(pd.getName());
+            if (name == null)
+                continue;
+            rows.add(new Object[] { userId, name, formJson(pd.getForm()),
+                    java.sql.Timestamp.from(pd.getUpdatedAt() != null ? pd.getUpdatedAt() : java.time.Instant.now()),
+                    null });
+        }
+        if (rows.isEmpty())
+            return 0;
+        long seq = nextSeq(userId);
+        for (Object[] row : rows)
+            row[4] = seq;
+        int inserted = 0;
+        for (int c : jdbc.batchUpdate("INSERT INTO property_data (user_id, name, form_json, updated_at, change_seq) "
+                + "VALUES (?, ?, to_jsonb(?::json), ?, ?) ON CONFLICT (user_id, name) DO NOTHING", rows))
+            inserted += Math.max(c, 0);
+        if (inserted > 0)
+            cache.invalidate(userId);
+        return inserted;
+    }
+
+    /**
+     * Live items, newest first; repeat calls are served by {@link PropertyListCache}.
+     * The items are the caller's own copies, but their forms are unmodifiable.
+     */
     public List<PropertyData> load(String userId) {
+        return snapshot(userId).items();
+    }
+
+    private PropertyListCache.Snapshot snapshot(String userId) {
+        PropertyListCache.Snapshot cached = cache.get(userId);
+        if (cached != null)
+            return cached;
+        long generation = cache.generation();
+        long[] watermark = { 0 };
+        List<PropertyData> items = new ArrayList<>();
+        // Tombstones are read too: they count towards the watermark
+        jdbc.query("SELECT " + ITEM_COLUMNS + " FROM property_data WHERE user_id = ? ORDER BY updated_at DESC",
+                rs -> {
+                    watermark[0] = Math.max(watermark[0], rs.getLong(6));
+                    PropertyData pd = toItem(rs);
+                    if (pd != null && !pd.isDeleted())
+                        items.add(pd);
+                }, userId);
+        // Never below the purge mark, so a client that missed a purged tombstone cannot look up to date
+        watermark[0] = Math.max(watermark[0], purgedSeq(userId));
+        PropertyListCache.Snapshot snapshot = new PropertyListCache.Snapshot(items, watermark[0]);
+        cache.put(userId, snapshot, generation);
+        return snapshot;
+    }
+
+    /** Current state of one item, including a tombstone; null if it never existed. */
+    public PropertyData find(String userId, String name) {
         List<PropertyData> rows = jdbc.query(
-                "SELECT name, form_json, updated_at FROM property_data WHERE user_id = ? ORDER BY updated_at DESC",
-                ps -> ps.setString(1, userId), (rs, i) -> {
-                    String name = rs.getString(1);
-                    String json = rs.getString(2);
-                    java.sql.Timestamp ts = rs.getTimestamp(3);
-                    try {
-                        Map<String, Object> form = mapper.readValue(json,
-                                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
-                                });
-                        PropertyData pd = new PropertyData();
-                        pd.setName(name);
-                        pd.setForm(form);
-                        if (ts != null)
-                            pd.setUpdatedAt(ts.toInstant());
-                        return pd;
-                    } catch (Exception e) {
-                        return null;
-                    }
-                });
-        rows.removeIf(r -> r == null);
-        return rows;
+                "SELECT " + ITEM_COLUMNS + " FROM property_data WHERE user_id = ? AND name = ?",
+                (rs, i) -> toItem(rs), userId, name);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Items changed after since (tombstones included), oldest change first; with
+     * since == null every live item. The returned watermark is the highest
+     * change_seq seen and is passed back as since on the next call. Items and
+     * watermark always come from one statement (or one cached snapshot).
+     */
+    public PropertyDelta loadSince(String userId, Long since) {
+        PropertyDelta delta = new PropertyDelta();
+        if (since == null) {
+            PropertyListCache.Snapshot snapshot = snapshot(userId);
+            delta.setWatermark(snapshot.watermark());
+            delta.setFull(true);
+            delta.setItems(snapshot.items());
+            return delta;
+        }
+        // A cached snapshot at or below the client's watermark means nothing changed since
+        PropertyListCache.Snapshot cached = cache.get(userId);
+        if (cached != null && since >= cached.watermark()) {
+            delta.setWatermark(since);
+            delta.setItems(List.of());
+            return delta;
+        }
+        long[] watermark = { since };
+        List<PropertyData> items = new ArrayList<>();
+        jdbc.query("SELECT " + ITEM_COLUMNS + " FROM property_data WHERE user_id = ? AND change_seq > ? "
+                + "ORDER BY change_seq", rs -> {
+                    watermark[0] = Math.max(watermark[0], rs.getLong(6));
+                    PropertyData pd = toItem(rs);
+                    if (pd != null)
+                        items.add(pd);
+                }, userId, since);
+        // Read after the rows: a purge that committed before them is seen here, so no removal is lost
+        if (since < purgedSeq(userId))
+            return loadSince(userId, null);
+        delta.setWatermark(watermark[0]);
+        delta.setItems(items);
+        return delta;
+    }
+
+    /**
+     * Applies only the changed items. Each change may carry the version the
+     * client last saw; if the server has moved on it is reported as a
+     * conflict instead of overwriting. A change without a version always wins.
+     */
+    @Transactional
+    public PropertySyncResult applyChanges(String userId, List<PropertyData> changes) {
+        PropertySyncResult result = new PropertySyncResult();
+        if (changes == null)
+            return result;
+        long seq = nextSeq(userId);
+        for (PropertyData c : changes) {
+            String name = validateName(c.getName());
+            Long base = c.getVersion();
+            List<PropertyData> written = c.isDeleted()
+                    ? jdbc.query("UPDATE property_data SET deleted = true, form_json = '{}'::jsonb, " + BUMP
+                            + " WHERE user_id = ? AND name = ? AND NOT deleted"
+                            + " AND (?::bigint IS NULL OR version = ?) RETURNING " + ITEM_COLUMNS,
+                            (rs, i) -> toItem(rs), seq, userId, name, base, base)
+                    : jdbc.query("INSERT INTO property_data (user_id, name, form_json, updated_at, change_seq) "
+                            + "VALUES (?, ?, to_jsonb(?::json), now(), ?) "
+                            + "ON CONFLICT (user_id, name) DO UPDATE SET form_json = EXCLUDED.form_json, "
+                            + "deleted = false, " + BUMP_UPSERT
+                            + " WHERE (?::bigint IS NULL OR property_data.version = ?)"
+                            + " AND (property_data.deleted OR property_data.form_json IS DISTINCT FROM EXCLUDED.form_json)"
+                            + " RETURNING " + ITEM_COLUMNS,
+                            (rs, i) -> toItem(rs), userId, name, formJson(c.getForm()), seq, base, base);
+            if (!written.isEmpty()) {
+                result.getApplied().add(written.get(0));
+                continue;
+            }
+            // Nothing written: either already in the requested state, or a stale version
+            PropertyData current = find(userId, name);
+            boolean settled = c.isDeleted()
+                    ? current == null || current.isDeleted()
+                    : current != null && !current.isDeleted()
+                            && (base == null || base.equals(current.getVersion()));
+            if (settled)
+                result.getApplied().add(current != null ? current : tombstone(name));
+            else
+                result.getConflicts().add(current != null ? current : tombstone(name));
+        }
+        cache.invalidate(userId);
+        log.info("property.patch userId={}, changes={}, applied={}, conflicts={}", userId, changes.size(),
+                result.getApplied().size(), result.getConflicts().size());
+        return result;
+    }
+
+    /**
+     * The user's change_seq for this transaction. The counter row stays locked
+     * until commit (as with SELECT ... FOR UPDATE), so a user's writes are
+     * serialized and their change_seq values become visible in order; every
+     * row the transaction touches gets the same value.
+     */
+    private long nextSeq(String userId) {
+        Long seq = jdbc.queryForObject(NEXT_SEQ, Long.class, userId, userId);
+        return seq == null ? 0 : seq;
+    }
+
+    private long purgedSeq(String userId) {
+        List<Long> purged = jdbc.queryForList("SELECT purged_seq FROM property_data_user_seq WHERE user_id = ?",
+                Long.class, userId);
+        return purged.isEmpty() ? 0 : purged.get(0);
+    }
+
+    /**
+     * Deletes tombstones older than property.sync.tombstoneRetentionDays and
+     * records the highest purged change_seq per user, so delta loads from an
+     * older watermark fall back to a full list. Returns the rows removed.
+     */
+    @Transactional
+    public int purgeTombstones() {
+        if (tombstoneRetentionDays <= 0)
+            return 0;
+        Integer purged = jdbc.queryForObject("""
+                WITH purged AS (
+                  DELETE FROM property_data
+                   WHERE deleted AND updated_at < now() - make_interval(days => ?)
+                  RETURNING user_id, change_seq
+                ), per_user AS (
+                  INSERT INTO property_data_user_seq AS s (user_id, last_seq, purged_seq)
+                  SELECT user_id, MAX(change_seq), MAX(change_seq) FROM purged GROUP BY user_id
+                  ON CONFLICT (user_id) DO UPDATE SET purged_seq = GREATEST(s.purged_seq, EXCLUDED.purged_seq)
+                  RETURNING 1
+                )
+                SELECT COUNT(*)::int FROM purged""", Integer.class, tombstoneRetentionDays);
+        int n = purged == null ? 0 : purged;
+        if (n > 0)
+            log.info("property.purge tombstones={}, olderThanDays={}", n, tombstoneRetentionDays);
+        return n;
+    }
+
+    /** Startup: runs {@link #purgeTombstones()} every purgeIntervalMinutes (0 = never). */
+    public void startTombstonePurge() {
+        if (purgeIntervalMinutes <= 0 || tombstoneRetentionDays <= 0 || purgeScheduler != null)
+            return;
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "property-tombstone-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purgeScheduler = s;
+        s.scheduleWithFixedDelay(() -> {
+            try {
+                purgeTombstones();
+            } catch (Exception e) {
+                log.warn("Tombstone purge failed: {}", e.getMessage());
+            }
+        }, 1, purgeIntervalMinutes, TimeUnit.MINUTES);
+        log.info("Tombstone purge scheduled every {} min (retentionDays={})", purgeIntervalMinutes,
+                tombstoneRetentionDays);
+    }
+
+    private PropertyData toItem(ResultSet rs) throws SQLException {
+        PropertyData pd = new PropertyData();
+        pd.setName(rs.getString(1));
+        java.sql.Timestamp ts = rs.getTimestamp(3);
+        if (ts != null)
+            pd.setUpdatedAt(ts.toInstant());
+        pd.setVersion(rs.getLong(4));
+        pd.setDeleted(rs.getBoolean(5));
+        if (pd.isDeleted())
+            return pd;
+        try {
+            pd.setForm(formReader.readValue(rs.getString(2)));
+            return pd;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static PropertyData tombstone(String name) {
+        PropertyData pd = new PropertyData();
+        pd.setName(name);
+        pd.setDeleted(true);
+        return pd;
+    }
+
+    private String formJson(Map<String, Object> form) {
+        try {
+            normalizeNumericFields(form);
+            return formWriter.writeValueAsString(form);
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
     }
 
     private String validateName(String name) {
@@ -114,16 +410,4 @@ public class PropertyStorageService {
             }
         }
     }
-
-    private static String placeholders(int n) {
-        return String.join(",", java.util.Collections.nCopies(n, "?"));
-    }
-
-    private static Object[] buildArgs(String userId, List<PropertyData> data) {
-        Object[] arr = new Object[1 + data.size()];
-        arr[0] = userId;
-        for (int i = 0; i < data.size(); i++)
-            arr[i + 1] = data.get(i).getName();
-        return arr;
-    }
 }
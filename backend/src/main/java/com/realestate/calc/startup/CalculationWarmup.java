@@ -0,0 +1,46 @@
+package com.realestate.calc.startup;
+
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.service.CalculationService;
+
+/**
+ * Drives {@link CalculationService#calculate} with a few representative
+ * requests so the amortization loop is compiled before the first user call.
+ */
+final class CalculationWarmup {
+
+    private CalculationWarmup() {
+    }
+
+    static void run(CalculationService service, int iterations) {
+        CalculationRequest[] samples = {
+                sample(3000, 3300, 300, 1.5, 35, 120_000, 0),
+                sample(8000, 8600, 1600, 2.4, 30, 380_000, 2),
+                sample(1500, 1650, 1650, 0.0, 10, 65_000, 0),
+        };
+        for (int i = 0; i < iterations; i++)
+            service.calculate(samples[i % samples.length]);
+    }
+
+    // price/totalPurchaseCost/ownCapital in 万円, rent in yen per month
+    private static CalculationRequest sample(double price, double total, double own, double rate, int term,
+            double rent, int rentAdjustmentInterval) {
+        CalculationRequest r = new CalculationRequest();
+        r.setName("warmup");
+        r.setPrice(price);
+        r.setTotalPurchaseCost(total);
+        r.setOwnCapital(own);
+        r.setLoan(total - own);
+        r.setRate(rate);
+        r.setTerm(term);
+        r.setRent(rent);
+        r.setExpense(rent * 12 * 0.15);
+        r.setReserveExpense(rent * 12 * 0.05);
+        r.setStartDate("2024-01-01");
+        r.setOccupancyRate(95);
+        r.setRentFixedPeriod(2);
+        r.setRentAdjustmentInterval(rentAdjustmentInterval);
+        r.setRentAdjustmentRate(rentAdjustmentInterval > 0 ? -1.0 : 0.0);
+        return r;
+    }
+}
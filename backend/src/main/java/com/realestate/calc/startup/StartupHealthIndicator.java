@@ -0,0 +1,45 @@
+package com.realestate.calc.startup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "startup" health contributor, part of the readiness group
+ * (/actuator/health/readiness): OUT_OF_SERVICE (503) until every critical
+ * startup phase is done, with the phases as details.
+ */
+@Component
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private final StartupOrchestrator orchestrator;
+
+    public StartupHealthIndicator(StartupOrchestrator orchestrator) {
+        this.orchestrator = orchestrator;
+    }
+
+    @Override
+    public Health health() {
+        List<Map<String, Object>> phases = new ArrayList<>();
+        for (StartupPhase p : orchestrator.getPhases()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", p.getName());
+            row.put("critical", p.isCritical());
+            row.put("state", p.getState().name());
+            row.put("attempts", p.getAttempts());
+            row.put("durationMs", p.getDurationMs());
+            if (p.getError() != null)
+                row.put("error", p.getError());
+            phases.add(row);
+        }
+        Health.Builder health = orchestrator.isReady() ? Health.up() : Health.outOfService();
+        return health.withDetail("applicationReadyMs", orchestrator.getApplicationReadyMs())
+                .withDetail("phases", phases)
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.realestate.calc.startup;
+
+import com.realestate.calc.mlit.ComparableSalesService;
+import com.realestate.calc.mlit.MlitJson;
+import com.realestate.calc.mlit.MlitPriceSearchService;
+import com.realestate.calc.mlit.MlitRawPayloadStore;
+import com.realestate.calc.mlit.MlitSyncScheduler;
+import com.realestate.calc.mlit.MunicipalityDirectoryService;
+import com.realestate.calc.mlit.MunicipalityGeoService;
+import com.realestate.calc.mlit.StartupMunicipalityLoader;
+import com.realestate.calc.service.CalculationService;
+import com.realestate.calc.service.LegacyPropertyFileMigrator;
+import com.realestate.calc.service.PropertyListCache;
+import com.realestate.calc.service.PropertyStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent warm-up tasks in parallel once the application is up
+ * and tracks each one as a {@link StartupPhase}. The app reports ready
+ * (actuator readiness group, see {@link StartupHealthIndicator}) only after
+ * every critical phase has finished; a failed critical phase is retried with
+ * exponential backoff, so a database that comes up late only delays
+ * readiness. Non-critical phases (upstream sync, query and JIT warm-up) run
+ * once, are reported, and never gate traffic.
+ */
+@Component
+public class StartupOrchestrator {
+    private static final Logger log = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private final MunicipalityDirectoryService directoryService;
+    private final StartupMunicipalityLoader municipalityLoader;
+    private final MlitSyncScheduler syncScheduler;
+    private final MlitPriceSearchService priceSearchService;
+    private final CalculationService calculationService;
+    private final ComparableSalesService compsService;
+    private final MunicipalityGeoService geoService;
+    private final MlitRawPayloadStore rawPayloadStore;
+    private final MlitJson json;
+    private final PropertyListCache propertyListCache;
+    private final LegacyPropertyFileMigrator legacyMigrator;
+    private final PropertyStorageService storageService;
+
+    @Value("${startup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${startup.calcWarmupIterations:2000}")
+    private int calcWarmupIterations;
+
+    @Value("${startup.jsonWarmupIterations:200}")
+    private int jsonWarmupIterations;
+
+    @Value("${startup.retryBackoffMs:1000}")
+    private long retryBackoffMs;
+
+    @Value("${startup.retryMaxBackoffMs:60000}")
+    private long retryMaxBackoffMs;
+
+    private final List<StartupPhase> phases = Collections.synchronizedList(new ArrayList<>());
+    private volatile long applicationReadyMs = -1;
+
+    public StartupOrchestrator(MunicipalityDirectoryService directoryService,
+            StartupMunicipalityLoader municipalityLoader, MlitSyncScheduler syncScheduler,
+            MlitPriceSearchService priceSearchService,
+            CalculationService calculationService, ComparableSalesService compsService,
+            MunicipalityGeoService geoService, MlitRawPayloadStore rawPayloadStore, MlitJson json,
+            PropertyListCache propertyListCache, LegacyPropertyFileMigrator legacyMigrator,
+            PropertyStorageService storageService) {
+        this.directoryService = directoryService;
+        this.municipalityLoader = municipalityLoader;
+        this.syncScheduler = syncScheduler;
+        this.priceSearchService = priceSearchService;
+        this.calculationService = calculationService;
+        this.compsService = compsService;
+        this.geoService = geoService;
+        this.rawPayloadStore = rawPayloadStore;
+        this.json = json;
+        this.propertyListCache = propertyListCache;
+        this.legacyMigrator = legacyMigrator;
+        this.storageService = storageService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (event.getTimeTaken() != null)
+            applicationReadyMs = event.getTimeTaken().toMillis();
+
+        // The price schema is in place before this event (Flyway runs during context startup)
+        List<StartupPhase> planned = List.of(
+                new StartupPhase("municipality-directory", true, directoryService::reloadFromDb),
+                new StartupPhase("municipality-cache-file", false, municipalityLoader::initializeCache),
+                new StartupPhase("mlit-db-init", false, syncScheduler::onReady),
+                new StartupPhase("price-search-warmup", false, priceSearchService::warmUp),
+                new StartupPhase("comps-index", false, compsService::reload),
+                new StartupPhase("municipality-geo", false, geoService::loadOnStartup),
+                new StartupPhase("raw-payload-compaction", false, rawPayloadStore::startBackgroundCompaction),
+                new StartupPhase("property-cache-listener", false, propertyListCache::startListener),
+                new StartupPhase("legacy-storage-migration", false, legacyMigrator::migrateOnStartup),
+                new StartupPhase("property-tombstone-purge", false, storageService::startTombstonePurge),
+                new StartupPhase("json-serializers", false, () -> json.warmUp(500, jsonWarmupIterations)),
+                new StartupPhase("calculation-jit", false,
+                        () -> CalculationWarmup.run(calculationService, calcWarmupIterations)));
+        phases.addAll(planned);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism), daemonThreads());
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (StartupPhase phase : planned)
+            futures.add(CompletableFuture.runAsync(() -> run(phase), pool));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((v, ex) -> {
+            pool.shutdown();
+            log.info("Startup phases finished in {}ms: {}", (System.nanoTime() - start) / 1_000_000, summary());
+        });
+    }
+
+    // Critical phases until they succeed, backoff doubling up to retryMaxBackoffMs
+    private void run(StartupPhase phase) {
+        long backoff = Math.max(1, retryBackoffMs);
+        while (!phase.run() && phase.isCritical()) {
+            log.warn("Retrying critical startup phase {} in {}ms", phase.getName(), backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, Math.max(backoff, retryMaxBackoffMs));
+        }
+    }
+
+    /** True once every critical phase has completed successfully. */
+    public boolean isReady() {
+        synchronized (phases) {
+            if (phases.isEmpty())
+                return false;
+            for (StartupPhase p : phases) {
+                if (p.isCritical() && p.getState() != StartupPhase.State.DONE)
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    public List<StartupPhase> getPhases() {
+        synchronized (phases) {
+            return List.copyOf(phases);
+        }
+    }
+
+    /** Time Spring Boot took to reach ApplicationReadyEvent, or -1 before it. */
+    public long getApplicationReadyMs() {
+        return applicationReadyMs;
+    }
+
+    private String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (StartupPhase p : getPhases()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(p.getName()).append('=').append(p.getState()).append('/').append(p.getDurationMs()).append("ms");
+        }
+        return sb.toString();
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads() {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "startup-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
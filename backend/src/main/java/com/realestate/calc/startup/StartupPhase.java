@@ -0,0 +1,81 @@
+package com.realestate.calc.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One startup warm-up task with its state and timing. Critical phases gate
+ * readiness and are retried by {@link StartupOrchestrator} until they succeed.
+ */
+public class StartupPhase {
+    private static final Logger log = LoggerFactory.getLogger(StartupPhase.class);
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private final String name;
+    private final boolean critical;
+    private final Runnable task;
+    private volatile State state = State.PENDING;
+    private volatile long startedAtMs;
+    private volatile long durationMs = -1;
+    private volatile String error;
+    private volatile int attempts;
+
+    public StartupPhase(String name, boolean critical, Runnable task) {
+        this.name = name;
+        this.critical = critical;
+        this.task = task;
+    }
+
+    /** Runs the task once; true if it completed. */
+    boolean run() {
+        attempts++;
+        if (startedAtMs == 0)
+            startedAtMs = System.currentTimeMillis();
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        try {
+            task.run();
+            state = State.DONE;
+            error = null;
+        } catch (Exception ex) {
+            error = ex.getMessage();
+            state = State.FAILED;
+            log.error("Startup phase {} failed (attempt {}): {}", name, attempts, ex.getMessage());
+        } finally {
+            durationMs = (System.nanoTime() - start) / 1_000_000;
+        }
+        log.info("Startup phase {} {} in {}ms", name, state, durationMs);
+        return state == State.DONE;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isCritical() {
+        return critical;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getStartedAtMs() {
+        return startedAtMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,27 @@
+-- Flyway V10: Search indexes for MLIT price lookups, built without blocking
+-- ingest. CONCURRENTLY cannot run inside a transaction, so this script is
+-- non-transactional (see the .conf next to it). A failed build leaves an
+-- INVALID index that IF NOT EXISTS would then skip: drop it before retrying.
+
+-- Covering indexes for the list/count queries: scope column first, join key
+-- second, common list filters carried along for index-only counts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_record_muni_cover
+  ON mlit_price_record(municipality_code, query_id) INCLUDE (district_name, type, period_quarter);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_record_pref_cover
+  ON mlit_price_record(prefecture_code, query_id) INCLUDE (district_name, type, period_quarter);
+-- Superseded by idx_mlit_price_record_muni_cover
+DROP INDEX CONCURRENTLY IF EXISTS idx_mlit_price_record_muni;
+
+-- Prefecture scope also matches rows by the query's area (municipality_code NULL)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_query_log_area ON mlit_price_query_log(area);
+
+-- Name filters used by the list screen
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_record_pref_muni
+  ON mlit_price_record(prefecture, municipality);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_record_district ON mlit_price_record(district_name);
+-- Partial district search (LIKE '%...%')
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_record_district_trgm
+  ON mlit_price_record USING gin (district_name gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mlit_price_query_log_scope
+  ON mlit_price_query_log(year_num, price_classification, quarter);
@@ -0,0 +1,20 @@
+-- Flyway V11: Per-user change sequence for property_data delta sync
+-- A global nextval() is taken at write time but transactions commit in any
+-- order, so a client at watermark N could miss a row stamped N-1 that
+-- committed later. Each write transaction now takes the user's counter row
+-- (row-locked until commit) and stamps all its rows with last_seq + 1, so a
+-- user's change_seq values become visible strictly in order.
+-- purged_seq is the highest change_seq of tombstones removed by the purge
+-- job; a client whose watermark is below it gets a full reload.
+CREATE TABLE IF NOT EXISTS property_data_user_seq (
+  user_id TEXT PRIMARY KEY,
+  last_seq BIGINT NOT NULL,
+  purged_seq BIGINT NOT NULL DEFAULT 0
+);
+
+-- Continue from the values already handed out, so existing watermarks stay valid
+INSERT INTO property_data_user_seq (user_id, last_seq)
+SELECT user_id, MAX(change_seq) FROM property_data GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_property_data_tombstones ON property_data(updated_at) WHERE deleted;
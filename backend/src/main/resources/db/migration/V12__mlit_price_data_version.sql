@@ -0,0 +1,15 @@
+-- Flyway V12: Prices data version for the MLIT HTTP response cache
+-- MAX(mlit_price_query_log.id) is not a safe version: ingests commit in any
+-- order, so a node could see id N while a smaller id's records are still
+-- uncommitted, and cache a partial page under a strong ETag. Each ingest
+-- transaction now bumps this single row as its last statement (row-locked
+-- until commit), so a version only becomes visible with all rows it covers.
+CREATE TABLE IF NOT EXISTS mlit_price_data_version (
+  id SMALLINT PRIMARY KEY CHECK (id = 1),
+  version BIGINT NOT NULL
+);
+
+-- Continue from the old MAX(id) version, so ETags handed out before stay comparable
+INSERT INTO mlit_price_data_version (id, version)
+SELECT 1, COALESCE(MAX(id), 0) FROM mlit_price_query_log
+ON CONFLICT (id) DO NOTHING;
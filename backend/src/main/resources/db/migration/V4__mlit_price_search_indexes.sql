@@ -0,0 +1,27 @@
+-- Flyway V4: Search columns for MLIT price lookups (indexes: V10)
+-- Adding a STORED generated column rewrites the table under an ACCESS
+-- EXCLUSIVE lock, which is why this runs once here and never at runtime.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Prefecture code derived from the municipality code. Rows without a
+-- municipality code keep matching by q.area (see MlitPriceSearchController).
+ALTER TABLE mlit_price_record
+  ADD COLUMN IF NOT EXISTS prefecture_code VARCHAR(2)
+  GENERATED ALWAYS AS (LEFT(municipality_code, 2)) STORED;
+
+-- Quarter parsed from period ("2024年第1四半期") once at write time instead of
+-- regexp_match() on every row at sort time
+ALTER TABLE mlit_price_record
+  ADD COLUMN IF NOT EXISTS period_quarter SMALLINT
+  GENERATED ALWAYS AS (NULLIF(substring(period FROM '第([0-9])四半期'), '')::smallint) STORED;
+
+-- Numeric year for range filters and sorting (was q.year::int per row)
+ALTER TABLE mlit_price_query_log
+  ADD COLUMN IF NOT EXISTS year_num INT
+  GENERATED ALWAYS AS (CASE WHEN year ~ '^[0-9]{1,4}$' THEN year::int END) STORED;
+
+-- exclusive_unit_price_int for rows written before ingest computed it
+UPDATE mlit_price_record
+   SET exclusive_unit_price_int = CAST(FLOOR(trade_price_int / NULLIF(total_floor_area_num, 0)) AS BIGINT)
+ WHERE exclusive_unit_price_int IS NULL AND trade_price_int IS NOT NULL
+   AND total_floor_area_num IS NOT NULL AND total_floor_area_num > 0;
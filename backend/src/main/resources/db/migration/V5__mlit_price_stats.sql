@@ -0,0 +1,17 @@
+-- Flyway V5: Pre-aggregated price statistics per cell (see MlitPriceStatsService)
+CREATE TABLE IF NOT EXISTS mlit_price_stats_cell (
+  level SMALLINT NOT NULL,              -- 0 = district cell, 1 = municipality rollup
+  municipality_code VARCHAR(8) NOT NULL,
+  prefecture_code VARCHAR(2) NOT NULL,
+  district_name TEXT NOT NULL,          -- '' for municipality rollups
+  year_num INT NOT NULL,
+  quarter SMALLINT NOT NULL,            -- 0 when the period has no quarter
+  type TEXT NOT NULL,                   -- '' when unknown
+  trade_count INT NOT NULL,
+  sketch BYTEA NOT NULL,                -- QuantileSketch of price per ㎡ (yen)
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (level, municipality_code, district_name, year_num, quarter, type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mlit_price_stats_cell_pref
+  ON mlit_price_stats_cell(level, prefecture_code, year_num);
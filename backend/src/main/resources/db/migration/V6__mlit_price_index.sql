@@ -0,0 +1,15 @@
+-- Flyway V6: Quarterly price index series (see MlitPriceIndexService)
+-- One row per (municipality, type) holding the whole series as arrays indexed
+-- by quarter offset from (start_year, start_quarter); NULL where no trades.
+CREATE TABLE IF NOT EXISTS mlit_price_index_series (
+  municipality_code VARCHAR(8) NOT NULL,
+  type TEXT NOT NULL,                   -- '*' = all types combined
+  start_year INT NOT NULL,
+  start_quarter SMALLINT NOT NULL,
+  trade_count INT[] NOT NULL,
+  median FLOAT8[] NOT NULL,             -- median price per ㎡ in the quarter
+  rolling4 FLOAT8[] NOT NULL,           -- median over the trailing 4 quarters
+  yoy FLOAT8[] NOT NULL,                -- rolling4 vs. 4 quarters earlier (ratio - 1)
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (municipality_code, type)
+);
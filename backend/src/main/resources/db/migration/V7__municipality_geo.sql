@@ -0,0 +1,6 @@
+-- Flyway V7: Spatial index on municipality centroids (see MunicipalityGeoService)
+-- Centroids are imported from a "code,lat,lon" CSV (e.g. derived from the
+-- 国土数値情報 administrative boundaries); MLIT trade data has no coordinates.
+-- Radius queries use geography distance, so index the geography cast.
+CREATE INDEX IF NOT EXISTS idx_municipality_geom_geog
+  ON municipality USING gist ((geom::geography));
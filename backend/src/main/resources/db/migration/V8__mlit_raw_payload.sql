@@ -0,0 +1,21 @@
+-- Flyway V8: Content-addressed store for raw MLIT responses (see MlitRawPayloadStore)
+-- Each distinct upstream body is kept once, deflate-compressed and keyed by its
+-- SHA-256; query log rows reference it by hash instead of carrying raw_json.
+CREATE TABLE IF NOT EXISTS mlit_raw_payload (
+  hash BYTEA PRIMARY KEY,               -- SHA-256 of the UTF-8 JSON body
+  codec VARCHAR(8) NOT NULL,            -- 'deflate'
+  raw_size INT NOT NULL,
+  stored_size INT NOT NULL,
+  payload BYTEA NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  last_seen_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+-- Already compressed: keep it out of line but skip pglz
+ALTER TABLE mlit_raw_payload ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+ALTER TABLE mlit_price_query_log ADD COLUMN IF NOT EXISTS raw_hash BYTEA;
+CREATE INDEX IF NOT EXISTS idx_mlit_price_query_log_raw_hash
+  ON mlit_price_query_log(raw_hash) WHERE raw_hash IS NOT NULL;
+-- Compaction walks the remaining legacy JSONB rows by id
+CREATE INDEX IF NOT EXISTS idx_mlit_price_query_log_raw_json_pending
+  ON mlit_price_query_log(id) WHERE raw_json IS NOT NULL;
@@ -0,0 +1,10 @@
+-- Flyway V9: Delta sync for property_data (see PropertyStorageService)
+-- Each change bumps the item's version (exposed as its ETag) and stamps a
+-- per-database change_seq, which clients use as a "since" watermark.
+-- Deletes leave a tombstone (deleted = true) so delta loads can report them.
+CREATE SEQUENCE IF NOT EXISTS property_data_change_seq;
+ALTER TABLE property_data ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE property_data ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT false;
+ALTER TABLE property_data ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL
+  DEFAULT nextval('property_data_change_seq');
+CREATE INDEX IF NOT EXISTS idx_property_data_user_change ON property_data(user_id, change_seq);
@@ -0,0 +1,162 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.dto.ColumnarSchedule;
+import com.realestate.calc.service.CalculationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * /api/calculation/calculate: the representation follows the negotiated
+ * media type (rows for JSON unless layout=columnar, columns for Smile/CBOR),
+ * and the columnar encodings are well under half the size of JSON rows.
+ * Write times are measured in {@link CalculationPayloadBenchmarkTest}.
+ */
+class CalculationControllerTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        CalculationController controller = new CalculationController();
+        ReflectionTestUtils.setField(controller, "calculationService", new CalculationService(null));
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(JSON),
+                        new MappingJackson2SmileHttpMessageConverter(SMILE_MAPPER),
+                        new MappingJackson2CborHttpMessageConverter(CBOR_MAPPER))
+                .build();
+    }
+
+    @Test
+    void noAcceptGetsJsonRows() throws Exception {
+        JsonNode body = JSON.readTree(call(calculate(), MediaType.APPLICATION_JSON_VALUE).getResponse()
+                .getContentAsByteArray());
+        assertThat(body.path("repaymentSchedule").size()).isEqualTo(420);
+        assertThat(absent(body.path("scheduleColumns"))).isTrue();
+    }
+
+    @Test
+    void wildcardAcceptGetsJsonRows() throws Exception {
+        JsonNode body = JSON.readTree(call(calculate().header("Accept", "*/*"), MediaType.APPLICATION_JSON_VALUE)
+                .getResponse().getContentAsByteArray());
+        assertThat(body.path("repaymentSchedule").size()).isEqualTo(420);
+    }
+
+    @Test
+    void jsonWithColumnarLayoutGetsColumns() throws Exception {
+        MvcResult r = call(calculate().param("layout", "columnar").accept(MediaType.APPLICATION_JSON),
+                MediaType.APPLICATION_JSON_VALUE);
+        JsonNode body = JSON.readTree(r.getResponse().getContentAsByteArray());
+        assertThat(body.path("scheduleColumns").path("months").asInt()).isEqualTo(420);
+        assertThat(absent(body.path("repaymentSchedule"))).isTrue();
+    }
+
+    @Test
+    void smileGetsColumns() throws Exception {
+        MvcResult r = call(calculate().accept(SMILE), SMILE);
+        JsonNode body = SMILE_MAPPER.readTree(r.getResponse().getContentAsByteArray());
+        assertThat(body.path("scheduleColumns").path("months").asInt()).isEqualTo(420);
+    }
+
+    @Test
+    void preferredCborWinsOverJson() throws Exception {
+        MvcResult r = call(calculate().header("Accept", "application/json;q=0.5, application/cbor"),
+                MediaType.APPLICATION_CBOR_VALUE);
+        JsonNode body = CBOR_MAPPER.readTree(r.getResponse().getContentAsByteArray());
+        assertThat(body.path("scheduleColumns").path("months").asInt()).isEqualTo(420);
+    }
+
+    @Test
+    void mentioningCborWithoutPreferringItStaysJson() throws Exception {
+        // A substring check on Accept used to pick the columnar layout here
+        MvcResult r = call(calculate().header("Accept", "application/json, application/cbor;q=0.1"),
+                MediaType.APPLICATION_JSON_VALUE);
+        JsonNode body = JSON.readTree(r.getResponse().getContentAsByteArray());
+        assertThat(body.path("repaymentSchedule").size()).isEqualTo(420);
+    }
+
+    @Test
+    void discountRateAtOrBelowMinus100PercentIsRejected() throws Exception {
+        CalculationRequest r = request();
+        r.setDiscountRate(-100.0);
+        MvcResult result = mvc.perform(post("/api/calculation/calculate").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsBytes(r))).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+
+        r.setDiscountRate(-99.0);
+        result = mvc.perform(post("/api/calculation/calculate").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsBytes(r))).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void columnarEncodingsAreUnderHalfTheRows() throws Exception {
+        CalculationResult rows = new CalculationService(null).calculate(request());
+        CalculationResult columns = columnar(new CalculationService(null).calculate(request()));
+
+        int jsonRows = JSON.writeValueAsBytes(rows).length;
+        assertThat(JSON.writeValueAsBytes(columns).length).isLessThan(jsonRows / 2);
+        assertThat(SMILE_MAPPER.writeValueAsBytes(columns).length).isLessThan(jsonRows / 2);
+        assertThat(CBOR_MAPPER.writeValueAsBytes(columns).length).isLessThan(jsonRows / 2);
+    }
+
+    static CalculationResult columnar(CalculationResult result) {
+        result.setScheduleColumns(ColumnarSchedule.of(result.getRepaymentSchedule()));
+        result.setRepaymentSchedule(null);
+        return result;
+    }
+
+    private static boolean absent(JsonNode node) {
+        return node.isMissingNode() || node.isNull();
+    }
+
+    private MvcResult call(MockHttpServletRequestBuilder request, String expectedType) throws Exception {
+        MvcResult r = mvc.perform(request).andReturn();
+        assertThat(r.getResponse().getStatus()).isEqualTo(200);
+        assertThat(r.getResponse().getContentType()).startsWith(expectedType);
+        return r;
+    }
+
+    private static MockHttpServletRequestBuilder calculate() throws Exception {
+        return post("/api/calculation/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsBytes(request()));
+    }
+
+    static CalculationRequest request() {
+        CalculationRequest r = new CalculationRequest();
+        r.setPrice(3000.0);
+        r.setTotalPurchaseCost(3300.0);
+        r.setOwnCapital(300.0);
+        r.setLoan(3000.0);
+        r.setRate(1.5);
+        r.setTerm(35);
+        r.setRent(120_000.0);
+        r.setExpense(216_000.0);
+        r.setStartDate("2024-01-01");
+        r.setOccupancyRate(95);
+        return r;
+    }
+}
@@ -0,0 +1,46 @@
+package com.realestate.calc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.service.CalculationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size of one 35-year result in each encoding and the time to write it,
+ * best of several rounds. Logged only; excluded from the default build
+ * (mvn test -Pbenchmark runs it).
+ */
+@Tag("benchmark")
+class CalculationPayloadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CalculationPayloadBenchmarkTest.class);
+
+    @Test
+    void payloadSizeAndWriteTime() throws Exception {
+        CalculationResult rows = new CalculationService(null).calculate(CalculationControllerTest.request());
+        CalculationResult columns = CalculationControllerTest.columnar(
+                new CalculationService(null).calculate(CalculationControllerTest.request()));
+
+        measure("json rows", new ObjectMapper(), rows);
+        measure("json columnar", new ObjectMapper(), columns);
+        measure("smile columnar", new ObjectMapper(new SmileFactory()), columns);
+        measure("cbor columnar", new ObjectMapper(new CBORFactory()), columns);
+    }
+
+    private static void measure(String label, ObjectMapper mapper, CalculationResult result) throws Exception {
+        int size = mapper.writeValueAsBytes(result).length;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 200; i++)
+                mapper.writeValueAsBytes(result);
+            best = Math.min(best, (System.nanoTime() - start) / 200);
+        }
+        log.info(String.format("%-15s %7d bytes %8.1f us/write", label, size, best / 1000.0));
+    }
+}
@@ -0,0 +1,89 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.service.CalculationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.realestate.calc.mlit.MlitJsonOutputTest.PLAIN;
+import static com.realestate.calc.mlit.MlitJsonOutputTest.TUNED;
+import static com.realestate.calc.mlit.MlitJsonOutputTest.treeRecords;
+
+/**
+ * Before/after timings for the pairs {@link MlitJsonOutputTest} checks for
+ * identical output. Each case runs a warm-up round, then alternating timed
+ * rounds, and logs the median and best time per operation. Excluded from the
+ * default build (mvn test -Pbenchmark runs it).
+ */
+@Tag("benchmark")
+class MlitJsonBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MlitJsonBenchmarkTest.class);
+    private static final int ROUNDS = 7;
+
+    @Test
+    void priceRecordList() throws Exception {
+        List<Object[]> rows = MlitJsonOutputTest.rows(1000);
+        MlitJson json = new MlitJson(TUNED);
+        compare("records x1000 write", 50,
+                () -> treeRecords(PLAIN, rows, "DB"),
+                () -> json.writeRecords(rows, "DB"));
+    }
+
+    @Test
+    void calculationResultWrite() throws Exception {
+        CalculationResult result = new CalculationService(null).calculate(MlitJsonOutputTest.request());
+        ObjectWriter plain = PLAIN.writerFor(CalculationResult.class);
+        ObjectWriter tuned = TUNED.writerFor(CalculationResult.class);
+        compare("result write", 200, () -> plain.writeValueAsBytes(result), () -> tuned.writeValueAsBytes(result));
+    }
+
+    @Test
+    void calculationRequestRead() throws Exception {
+        byte[] body = PLAIN.writeValueAsBytes(MlitJsonOutputTest.request());
+        ObjectReader plain = PLAIN.readerFor(CalculationRequest.class);
+        ObjectReader tuned = TUNED.readerFor(CalculationRequest.class);
+        compare("request read", 20_000, () -> plain.readValue(body), () -> tuned.readValue(body));
+    }
+
+    // Before and after alternate round by round so JIT and GC drift hit both alike
+    private static void compare(String label, int opsPerRound, Callable<?> before, Callable<?> after)
+            throws Exception {
+        round(before, opsPerRound); // warm-up
+        round(after, opsPerRound);
+        double[] b = new double[ROUNDS];
+        double[] a = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            b[r] = round(before, opsPerRound);
+            a[r] = round(after, opsPerRound);
+        }
+        Arrays.sort(b);
+        Arrays.sort(a);
+        log.info(String.format("%-20s before median %8.2f us (best %8.2f) | after median %8.2f us (best %8.2f) | x%.2f",
+                label, median(b), b[0], median(a), a[0], median(b) / median(a)));
+    }
+
+    // Microseconds per operation over one round
+    private static double round(Callable<?> op, int opsPerRound) throws Exception {
+        Object sink = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < opsPerRound; i++)
+            sink = op.call();
+        if (sink == null)
+            throw new IllegalStateException("operation returned null");
+        return (System.nanoTime() - start) / 1000.0 / opsPerRound;
+    }
+
+    private static double median(double[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,109 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.realestate.calc.config.JacksonConfig;
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.dto.CalculationResult;
+import com.realestate.calc.service.CalculationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The JSON changes do not change output: a plain {@code new ObjectMapper()}
+ * (and, for price records, the ObjectNode tree MlitPriceQueryService used to
+ * build) against the shared mapper with Blackbird and the streaming
+ * {@link MlitJson#writeRecords}. {@link MlitJsonBenchmarkTest} times the same
+ * pairs.
+ */
+class MlitJsonOutputTest {
+
+    static final ObjectMapper PLAIN = new ObjectMapper();
+    static final ObjectMapper TUNED = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new JacksonConfig().blackbirdModule()).build();
+
+    @Test
+    void priceRecordList() throws Exception {
+        List<Object[]> rows = rows(1000);
+        MlitJson json = new MlitJson(TUNED);
+        assertThat(json.writeRecords(rows, "DB")).isEqualTo(treeRecords(PLAIN, rows, "DB"));
+    }
+
+    @Test
+    void calculationResultWrite() throws Exception {
+        CalculationResult result = new CalculationService(null).calculate(request());
+        ObjectWriter plain = PLAIN.writerFor(CalculationResult.class);
+        ObjectWriter tuned = TUNED.writerFor(CalculationResult.class);
+        assertThat(TUNED.readTree(tuned.writeValueAsBytes(result)))
+                .isEqualTo(PLAIN.readTree(plain.writeValueAsBytes(result)));
+    }
+
+    @Test
+    void calculationRequestRead() throws Exception {
+        byte[] body = PLAIN.writeValueAsBytes(request());
+        ObjectReader plain = PLAIN.readerFor(CalculationRequest.class);
+        ObjectReader tuned = TUNED.readerFor(CalculationRequest.class);
+        assertThat(PLAIN.writeValueAsString(tuned.readValue(body)))
+                .isEqualTo(PLAIN.writeValueAsString(plain.readValue(body)));
+    }
+
+    // The ObjectNode tree MlitPriceQueryService built before the streaming writer
+    static String treeRecords(ObjectMapper mapper, List<Object[]> rows, String source) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("status", "OK");
+        root.put("source", source);
+        ArrayNode data = mapper.createArrayNode();
+        for (Object[] r : rows) {
+            ObjectNode n = mapper.createObjectNode();
+            for (int c = 0; c < MlitJson.RECORD_FIELD_NAMES.length; c++) {
+                if (r[c] == null)
+                    n.putNull(MlitJson.RECORD_FIELD_NAMES[c]);
+                else
+                    n.put(MlitJson.RECORD_FIELD_NAMES[c], String.valueOf(r[c]));
+            }
+            data.add(n);
+        }
+        root.set("data", data);
+        return root.toString();
+    }
+
+    static List<Object[]> rows(int n) {
+        List<Object[]> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Object[] r = new Object[MlitJson.RECORD_FIELD_NAMES.length];
+            for (int c = 0; c < r.length; c++)
+                r[c] = MlitJson.RECORD_FIELD_NAMES[c] + i;
+            r[7] = 30_000_000L + i * 1000L;
+            r[8] = null;
+            r[10] = BigDecimal.valueOf(65 + i % 40);
+            r[11] = 450_000L + i;
+            r[14] = i % 3 == 0 ? null : BigDecimal.valueOf(70.5 + i % 10);
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    static CalculationRequest request() {
+        CalculationRequest r = new CalculationRequest();
+        r.setPrice(3000.0);
+        r.setTotalPurchaseCost(3300.0);
+        r.setOwnCapital(300.0);
+        r.setLoan(3000.0);
+        r.setRate(1.5);
+        r.setTerm(35);
+        r.setRent(120_000.0);
+        r.setExpense(216_000.0);
+        r.setStartDate("2024-01-01");
+        r.setOccupancyRate(95);
+        return r;
+    }
+}
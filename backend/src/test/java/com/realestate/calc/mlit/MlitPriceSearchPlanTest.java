@@ -0,0 +1,155 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression tests for the /api/mlit/prices list queries: with
+ * sequential scans disabled, every filter shape must still reach
+ * mlit_price_record through its index. Needs a scratch PostgreSQL database
+ * (it is cleaned and migrated): TEST_DATABASE_URL, TEST_DATABASE_USER,
+ * TEST_DATABASE_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class MlitPriceSearchPlanTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbc;
+    private static MlitPriceSearchService search;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        String url = System.getenv("TEST_DATABASE_URL");
+        String user = System.getenv().getOrDefault("TEST_DATABASE_USER", "realestate");
+        String password = System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "realestate");
+        Flyway flyway = Flyway.configure().dataSource(url, user, password).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        dataSource = new SingleConnectionDataSource(url, user, password, true);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO mlit_price_query_log(id, area, year, price_classification, quarter, status, "
+                + "record_count) SELECT g, lpad(((g % 47) + 1)::text, 2, '0'), (2010 + g % 15)::text, '01', "
+                + "((g % 4) + 1)::text, 'OK', 200 FROM generate_series(1, 400) g");
+        jdbc.update("INSERT INTO mlit_price_record(query_id, municipality_code, prefecture, municipality, "
+                + "district_name, period, type, trade_price_int) "
+                + "SELECT q.id, q.area || lpad((g % 50)::text, 3, '0'), 'P' || q.area, 'M' || (g % 50), "
+                + "'D' || (g % 300), q.year || '年第' || q.quarter || '四半期', 'T' || (g % 5), 1000000 + g "
+                + "FROM mlit_price_query_log q CROSS JOIN generate_series(1, 200) g");
+        // MLIT rows without a municipality code: only the query's area places them
+        jdbc.update("INSERT INTO mlit_price_record(query_id, municipality_code, district_name, period) "
+                + "SELECT id, NULL, 'D1', year || '年第1四半期' FROM mlit_price_query_log WHERE area = '13'");
+        jdbc.execute("ANALYZE mlit_price_query_log");
+        jdbc.execute("ANALYZE mlit_price_record");
+        jdbc.execute("SET enable_seqscan = off");
+
+        search = new MlitPriceSearchService(jdbc, new DataSourceTransactionManager(dataSource),
+                new SqlShapeCache(64, new SimpleMeterRegistry()), MAPPER);
+    }
+
+    @AfterAll
+    static void close() {
+        if (dataSource != null)
+            dataSource.destroy();
+    }
+
+    @Test
+    void cityFilterUsesMunicipalityIndex() throws Exception {
+        MlitPriceSearchService.Filters f = new MlitPriceSearchService.Filters();
+        f.city = "13001";
+        List<JsonNode> nodes = countPlan(f);
+        assertNoSeqScanOnRecords(nodes);
+        assertThat(indexNames(nodes)).contains("idx_mlit_price_record_muni_cover");
+    }
+
+    @Test
+    void prefectureFilterUsesIndexesOnBothArms() throws Exception {
+        MlitPriceSearchService.Filters f = new MlitPriceSearchService.Filters();
+        f.area = "13";
+        List<JsonNode> nodes = countPlan(f);
+        assertNoSeqScanOnRecords(nodes);
+        assertThat(indexNames(nodes)).contains("idx_mlit_price_record_pref_cover", "idx_mlit_price_record_query");
+    }
+
+    @Test
+    void districtQueryUsesTrigramIndex() throws Exception {
+        MlitPriceSearchService.Filters f = new MlitPriceSearchService.Filters();
+        f.districtQuery = "D12";
+        List<JsonNode> nodes = countPlan(f);
+        assertNoSeqScanOnRecords(nodes);
+        assertThat(indexNames(nodes)).contains("idx_mlit_price_record_district_trgm");
+    }
+
+    @Test
+    void listPageWithYearRangeAvoidsSeqScan() throws Exception {
+        MlitPriceSearchService.Filters f = new MlitPriceSearchService.Filters();
+        f.area = "13";
+        f.startYear = "2015";
+        f.endYear = "2018";
+        MlitPriceSearchService.WhereArgs built = search.buildWhere(f);
+        List<Object> args = new ArrayList<>(built.args);
+        args.add(20);
+        args.add(0);
+        assertNoSeqScanOnRecords(plan(search.rowsSql(built), args));
+    }
+
+    @Test
+    void prefectureScopeKeepsRowsWithoutMunicipalityCode() {
+        MlitPriceSearchService.Filters f = new MlitPriceSearchService.Filters();
+        f.area = "13";
+        MlitPriceSearchService.WhereArgs built = search.buildWhere(f);
+        Integer actual = jdbc.queryForObject(search.countSql(built), Integer.class, built.args.toArray());
+        // Scope as written before the prefecture_code column existed
+        Integer expected = jdbc.queryForObject("SELECT COUNT(*) FROM mlit_price_record r "
+                + "JOIN mlit_price_query_log q ON r.query_id = q.id "
+                + "WHERE (q.area = ? OR r.municipality_code LIKE ?)", Integer.class, "13", "13%");
+        Integer withoutCode = jdbc.queryForObject("SELECT COUNT(*) FROM mlit_price_record "
+                + "WHERE municipality_code IS NULL", Integer.class);
+        assertThat(withoutCode).isPositive();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static List<JsonNode> countPlan(MlitPriceSearchService.Filters f) throws Exception {
+        MlitPriceSearchService.WhereArgs built = search.buildWhere(f);
+        return plan(search.countSql(built), built.args);
+    }
+
+    private static List<JsonNode> plan(String sql, List<Object> args) throws Exception {
+        String json = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args.toArray());
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(MAPPER.readTree(json).get(0).get("Plan"), nodes);
+        return nodes;
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> out) {
+        out.add(node);
+        for (JsonNode child : node.path("Plans"))
+            collect(child, out);
+    }
+
+    private static List<String> indexNames(List<JsonNode> nodes) {
+        return nodes.stream().map(n -> n.path("Index Name").asText(null)).filter(n -> n != null).toList();
+    }
+
+    private static void assertNoSeqScanOnRecords(List<JsonNode> nodes) {
+        assertThat(nodes)
+                .noneMatch(n -> "Seq Scan".equals(n.path("Node Type").asText())
+                        && "mlit_price_record".equals(n.path("Relation Name").asText()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.realestate.calc.mlit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** serve(): conditional requests, version invalidation, raced renders and the byte bound. */
+class MlitResponseCacheTest {
+
+    /** The committed mlit_price_data_version row, as seen by every DB read of the cache. */
+    private final AtomicLong dbVersion = new AtomicLong(5);
+
+    private final JdbcTemplate jdbc = new JdbcTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return (T) Long.valueOf(dbVersion.get());
+        }
+    };
+
+    private final MlitResponseCache cache = cache(64);
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void matchingIfNoneMatchIsNotModifiedWithoutRender() {
+        ResponseEntity<byte[]> first = cache.serve("facets", get(null), render("a"));
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<byte[]> second = cache.serve("facets", get(etag), render("b"));
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void cachedBodyIsServedUntilTheVersionMoves() {
+        ResponseEntity<byte[]> first = cache.serve("facets", get(null), render("a"));
+        assertThat(body(cache.serve("facets", get(null), render("b")))).isEqualTo("a");
+        assertThat(renders).hasValue(1);
+
+        dbVersion.set(6);
+        cache.onIngested(new MlitPriceIngestedEvent(42, 10, 6));
+        ResponseEntity<byte[]> after = cache.serve("facets", get(first.getHeaders().getETag()), render("c"));
+        assertThat(after.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(after)).isEqualTo("c");
+        assertThat(after.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void renderRacedByAnIngestOnAnotherNodeIsNotCached() {
+        ResponseEntity<byte[]> raced = cache.serve("facets", get(null), () -> {
+            renders.incrementAndGet();
+            dbVersion.set(6); // committed elsewhere while rendering; not yet polled locally
+            return bytes("partial");
+        });
+        assertThat(body(raced)).isEqualTo("partial");
+        assertThat(raced.getHeaders().getETag()).isNull();
+        assertThat(raced.getHeaders().getCacheControl()).isEqualTo("no-cache");
+
+        assertThat(body(cache.serve("facets", get(null), render("full")))).isEqualTo("full");
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void renderRacedByALocalIngestIsNotCached() {
+        ResponseEntity<byte[]> raced = cache.serve("facets", get(null), () -> {
+            renders.incrementAndGet();
+            cache.onIngested(new MlitPriceIngestedEvent(42, 10, 6));
+            return bytes("partial");
+        });
+        assertThat(raced.getHeaders().getETag()).isNull();
+
+        dbVersion.set(6);
+        assertThat(body(cache.serve("facets", get(null), render("full")))).isEqualTo("full");
+        assertThat(body(cache.serve("facets", get(null), render("again")))).isEqualTo("full");
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedPastTheByteBound() {
+        MlitResponseCache small = cache(1);
+        int kib400 = 400 * 1024;
+        small.serve("a", get(null), render('a', kib400));
+        small.serve("b", get(null), render('b', kib400));
+        small.serve("a", get(null), render('x', kib400)); // hit: a becomes most recent
+        small.serve("c", get(null), render('c', kib400)); // 1200 KiB > 1 MiB: b goes
+        assertThat(renders).hasValue(3);
+
+        assertThat(small.serve("a", get(null), render('x', kib400)).getBody()[0]).isEqualTo((byte) 'a');
+        assertThat(small.serve("c", get(null), render('x', kib400)).getBody()[0]).isEqualTo((byte) 'c');
+        assertThat(renders).hasValue(3);
+        assertThat(small.serve("b", get(null), render('x', kib400)).getBody()[0]).isEqualTo((byte) 'x');
+        assertThat(renders).hasValue(4);
+    }
+
+    private MlitResponseCache cache(long maxMiB) {
+        return new MlitResponseCache(jdbc, new SimpleMeterRegistry(), maxMiB, 1024, 0, 300);
+    }
+
+    private Supplier<byte[]> render(String body) {
+        return () -> {
+            renders.incrementAndGet();
+            return bytes(body);
+        };
+    }
+
+    private Supplier<byte[]> render(char fill, int length) {
+        return () -> {
+            renders.incrementAndGet();
+            byte[] b = new byte[length];
+            java.util.Arrays.fill(b, (byte) fill);
+            return b;
+        };
+    }
+
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/mlit/prices/facets");
+        if (ifNoneMatch != null)
+            req.addHeader("If-None-Match", ifNoneMatch);
+        return new ServletWebRequest(req, new MockHttpServletResponse());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String body(ResponseEntity<byte[]> r) {
+        return new String(r.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.realestate.calc.mlit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.calc.mlit.dto.MunicipalityDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Snapshot load falls back to the JSON cache, and data the snapshot cannot hold stays in JSON. */
+class MunicipalityCacheServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Path dir;
+    private Path snapshot;
+    private Path json;
+    private MunicipalityCacheService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("municipalities");
+        snapshot = dir.resolve("municipalities.bin");
+        json = dir.resolve("municipalities.json");
+        // No API client: every prefecture is in the caches, so nothing is fetched
+        service = new MunicipalityCacheService(null, mapper);
+        ReflectionTestUtils.setField(service, "snapshotFilePath", snapshot.toString());
+        ReflectionTestUtils.setField(service, "cacheFilePath", json.toString());
+        ReflectionTestUtils.setField(service, "checkpointEvery", 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void otherSnapshotVersionFallsBackToJsonAndIsRewritten() throws IOException {
+        Map<String, List<MunicipalityDto>> data = allPrefectures("01101");
+        byte[] stale = MunicipalitySnapshotCodec.encode(allPrefectures("99999"), 0);
+        ByteBuffer.wrap(stale).putShort(4, (short) (MunicipalitySnapshotCodec.VERSION + 1));
+        Files.write(snapshot, stale);
+        mapper.writeValue(json.toFile(), data);
+
+        Map<String, List<MunicipalityDto>> loaded = service.loadOrFetchAll();
+
+        assertThat(MunicipalitySnapshotCodecTest.flatten(loaded)).isEqualTo(MunicipalitySnapshotCodecTest.flatten(data));
+        assertThat(MunicipalitySnapshotCodecTest.flatten(MunicipalitySnapshotCodec.read(snapshot)))
+                .isEqualTo(MunicipalitySnapshotCodecTest.flatten(data));
+    }
+
+    @Test
+    void idsTheSnapshotCannotHoldStayInJson() throws IOException {
+        Map<String, List<MunicipalityDto>> data = allPrefectures("011010000");
+        byte[] stale = MunicipalitySnapshotCodec.encode(allPrefectures("99999"), 0);
+        stale[stale.length - 1] ^= 0x01; // unreadable, so the JSON cache is loaded and migrated
+        Files.write(snapshot, stale);
+        mapper.writeValue(json.toFile(), data);
+
+        Map<String, List<MunicipalityDto>> loaded = service.loadOrFetchAll();
+
+        assertThat(loaded.get("01").get(0).getId()).isEqualTo("011010000");
+        assertThat(snapshot).doesNotExist();
+        Map<?, ?> onDisk = mapper.readValue(json.toFile(), Map.class);
+        assertThat(onDisk).hasSize(47);
+    }
+
+    private static Map<String, List<MunicipalityDto>> allPrefectures(String firstId) {
+        Map<String, List<MunicipalityDto>> data = new LinkedHashMap<>();
+        for (int i = 1; i <= 47; i++) {
+            String pref = String.format("%02d", i);
+            String id = i == 1 ? firstId : pref + "101";
+            data.put(pref, List.of(new MunicipalityDto(id, "市" + i)));
+        }
+        return data;
+    }
+}
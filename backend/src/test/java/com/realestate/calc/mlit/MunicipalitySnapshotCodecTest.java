@@ -0,0 +1,88 @@
+package com.realestate.calc.mlit;
+
+import com.realestate.calc.mlit.dto.MunicipalityDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MunicipalitySnapshotCodecTest {
+
+    static Map<String, List<MunicipalityDto>> sample() {
+        Map<String, List<MunicipalityDto>> data = new LinkedHashMap<>();
+        data.put("01", List.of(new MunicipalityDto("01101", "札幌市中央区"), new MunicipalityDto("01102", "札幌市北区")));
+        data.put("02", List.of());
+        data.put("13", List.of(new MunicipalityDto("13101", "千代田区"), new MunicipalityDto("13102", "")));
+        return data;
+    }
+
+    @Test
+    void roundTripThroughAFile() throws IOException {
+        Path file = Files.createTempFile("municipalities", ".bin");
+        try {
+            Files.write(file, MunicipalitySnapshotCodec.encode(sample(), 1_700_000_000_000L));
+            assertThat(flatten(MunicipalitySnapshotCodec.read(file))).isEqualTo(flatten(sample()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void corruptedBodyFailsTheChecksum() {
+        byte[] bytes = MunicipalitySnapshotCodec.encode(sample(), 0);
+        bytes[bytes.length - 1] ^= 0x01;
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.decode(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void truncatedFileIsRejected() {
+        byte[] bytes = MunicipalitySnapshotCodec.encode(sample(), 0);
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("size mismatch");
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, 20))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void otherVersionIsRejected() {
+        byte[] bytes = MunicipalitySnapshotCodec.encode(sample(), 0);
+        ByteBuffer.wrap(bytes).putShort(4, (short) (MunicipalitySnapshotCodec.VERSION + 1));
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.decode(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void idsAndCodesThatDoNotFitAreRejected() {
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.encode(
+                Map.of("01", List.of(new MunicipalityDto("011010000", "x"))), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.encode(
+                Map.of("01", List.of(new MunicipalityDto("０１１０１", "x"))), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.encode(
+                Map.of("01", List.of(new MunicipalityDto(null, "x"))), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MunicipalitySnapshotCodec.encode(Map.of("013", List.of()), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static Map<String, List<String>> flatten(Map<String, List<MunicipalityDto>> data) {
+        Map<String, List<String>> out = new LinkedHashMap<>();
+        data.forEach((pref, list) -> out.put(pref, list.stream().map(m -> m.getId() + "=" + m.getName()).toList()));
+        return out;
+    }
+}
@@ -0,0 +1,139 @@
+package com.realestate.calc.mlit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    private static final double[] QS = { 0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1 };
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracyOfTheSortedData() {
+        double[] values = prices(20_000, 7);
+        QuantileSketch sk = sketch(values);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double q : QS) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            assertThat(Math.abs(sk.quantile(q) - exact) / exact).as("q=%s", q)
+                    .isLessThanOrEqualTo(QuantileSketch.RELATIVE_ACCURACY * (1 + 1e-9));
+        }
+        assertThat(sk.count()).isEqualTo(values.length);
+        assertThat(sk.mean()).isCloseTo(Arrays.stream(values).average().orElseThrow(), within(1e-3));
+    }
+
+    @Test
+    void mergeEqualsASketchOfTheUnion() {
+        double[] a = prices(5_000, 1);
+        double[] b = prices(3_000, 2);
+        for (int i = 0; i < b.length; i++)
+            b[i] *= 10; // mostly disjoint bucket ranges
+        double[] union = new double[a.length + b.length];
+        System.arraycopy(a, 0, union, 0, a.length);
+        System.arraycopy(b, 0, union, a.length, b.length);
+
+        QuantileSketch merged = sketch(a);
+        merged.merge(sketch(b));
+        QuantileSketch whole = sketch(union);
+
+        assertThat(merged.count()).isEqualTo(whole.count());
+        for (double q : QS)
+            assertThat(merged.quantile(q)).as("q=%s", q).isEqualTo(whole.quantile(q));
+        assertThat(merged.mean()).isCloseTo(whole.mean(), within(1e-6));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        QuantileSketch sk = sketch(prices(2_000, 3));
+        byte[] bytes = sk.toBytes();
+        QuantileSketch back = QuantileSketch.fromBytes(bytes);
+
+        assertThat(back.count()).isEqualTo(sk.count());
+        assertThat(back.mean()).isEqualTo(sk.mean());
+        for (double q : QS)
+            assertThat(back.quantile(q)).isEqualTo(sk.quantile(q));
+        assertThat(back.toBytes()).isEqualTo(bytes);
+
+        QuantileSketch empty = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+        assertThat(empty.count()).isZero();
+        assertThat(empty.quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void malformedInputIsAnIllegalArgument() {
+        byte[] good = sketch(prices(500, 4)).toBytes();
+        for (int len = 0; len < good.length; len++) {
+            byte[] cut = Arrays.copyOf(good, len);
+            assertThatThrownBy(() -> QuantileSketch.fromBytes(cut)).as("length %d", len)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        byte[] trailing = Arrays.copyOf(good, good.length + 1);
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(trailing)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+
+        // Claims 2^31 buckets with three bytes behind it: rejected before allocating
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(header(0, 1L << 31, 1, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Bucket count of -1 (ten-byte varint)
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(header(0, -1L, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Offset past Integer.MAX_VALUE
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(header(1L << 33, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Negative bucket count value
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(header(0, 1, -1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Counts summing past Long.MAX_VALUE
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(header(0, 2, Long.MAX_VALUE, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] version = good.clone();
+        version[0] = 9;
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(version)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Hand-built serialized form: version, sum 1.0, zigzag offset, bucket count, then raw varints
+    private static byte[] header(long offset, long n, long... varints) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1);
+        long bits = Double.doubleToLongBits(1.0);
+        for (int i = 7; i >= 0; i--)
+            out.write((int) (bits >>> (i * 8)));
+        varint(out, (offset << 1) ^ (offset >> 63));
+        varint(out, n);
+        for (long v : varints)
+            varint(out, v);
+        return out.toByteArray();
+    }
+
+    private static void varint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    // Log-normal, price-like values (median ~30M)
+    private static double[] prices(int n, long seed) {
+        Random r = new Random(seed);
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++)
+            v[i] = Math.exp(Math.log(30_000_000) + r.nextGaussian() * 0.6);
+        return v;
+    }
+
+    private static QuantileSketch sketch(double[] values) {
+        QuantileSketch sk = new QuantileSketch();
+        for (double v : values)
+            sk.add(v);
+        return sk;
+    }
+}
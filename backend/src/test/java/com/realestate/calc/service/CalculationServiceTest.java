@@ -0,0 +1,78 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.CalculationRequest;
+import com.realestate.calc.dto.CalculationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/** Known-answer checks of the tax schedule CalculationService attaches to a result. */
+class CalculationServiceTest {
+
+    private final CalculationService service = new CalculationService(null);
+
+    @Test
+    void depreciationUsesDefaultBuildingShareAndLife() {
+        CalculationResult.Tax tax = service.calculate(request(10, "corporate")).getTax();
+        // 建物 = 3000万円 × 25% = 7,500,000; 木造 22年 → 340,909.09/年
+        assertThat(tax.getUsefulLife()).isEqualTo(22);
+        assertThat(tax.getAnnualDepreciation()).isEqualTo(340_909);
+        List<CalculationResult.TaxYear> years = tax.getYears();
+        assertThat(years).hasSize(35);
+        assertThat(years.get(0).getAcquisitionCosts()).isEqualTo(3_000_000);
+        assertThat(years.get(1).getAcquisitionCosts()).isZero();
+        // Fully depreciated after 22 years down to the 1円 memo value
+        assertThat(years.get(21).getBookValue()).isEqualTo(1);
+        assertThat(years.get(22).getDepreciation()).isZero();
+    }
+
+    @Test
+    void saleInYearFiveIsShortTerm() {
+        CalculationResult.TaxSale sale = service.calculate(request(5, "individual")).getTax().getSale();
+        // 簿価 = 土地 22,500,000 + 建物 7,500,000 − 5 × 340,909.09 (rounded) = 28,295,455
+        assertThat(sale.getBookValue()).isEqualTo(28_295_455);
+        assertThat(sale.getSellingCost()).isEqualTo(1_200_000);
+        assertThat(sale.getGain()).isEqualTo(10_504_545);
+        assertThat(sale.isLongTerm()).isFalse();
+        assertThat(sale.getTransferTax()).isEqualTo(Math.round(10_504_545 * 0.39630));
+    }
+
+    @Test
+    void saleInYearSixIsLongTerm() {
+        CalculationResult.TaxSale sale = service.calculate(request(6, "individual")).getTax().getSale();
+        assertThat(sale.getBookValue()).isEqualTo(27_954_545);
+        assertThat(sale.getGain()).isEqualTo(10_845_455);
+        assertThat(sale.isLongTerm()).isTrue();
+        assertThat(sale.getTransferTax()).isEqualTo(Math.round(10_845_455 * 0.20315));
+    }
+
+    @Test
+    void corporateSaleIsTaxedOnTopOfThatYearsIncome() {
+        CalculationResult.Tax tax = service.calculate(request(5, "corporate")).getTax();
+        double yearFive = tax.getYears().get(4).getTaxableIncome();
+        double gain = tax.getSale().getGain();
+        double expected = JapanTaxTables.corporateTax(yearFive + gain) - JapanTaxTables.corporateTax(yearFive);
+        assertThat((double) tax.getSale().getTransferTax()).isCloseTo(expected, within(2.0));
+    }
+
+    private static CalculationRequest request(int exitYear, String ownership) {
+        CalculationRequest r = new CalculationRequest();
+        r.setPrice(3000.0);
+        r.setTotalPurchaseCost(3300.0);
+        r.setOwnCapital(300.0);
+        r.setLoan(3000.0);
+        r.setRate(1.5);
+        r.setTerm(35);
+        r.setRent(120_000.0);
+        r.setExpense(216_000.0);
+        r.setStartDate("2024-04-01");
+        r.setOccupancyRate(95);
+        r.setExitYear(exitYear);
+        r.setExitPrice(4000.0);
+        r.setOwnershipType(ownership);
+        return r;
+    }
+}
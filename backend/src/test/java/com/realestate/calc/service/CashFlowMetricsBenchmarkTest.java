@@ -0,0 +1,28 @@
+package com.realestate.calc.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * irrAll over a sensitivity-grid-sized batch of 35-year flows. Logged only;
+ * excluded from the default build (mvn test -Pbenchmark runs it).
+ */
+@Tag("benchmark")
+class CashFlowMetricsBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CashFlowMetricsBenchmarkTest.class);
+
+    @Test
+    void irrAllThroughput() {
+        double[][] flows = CashFlowMetricsTest.flows(100_000, 42);
+        double[] out = new double[flows.length];
+        CashFlowMetrics.irrAll(flows, out); // warm-up
+        long start = System.nanoTime();
+        CashFlowMetrics.irrAll(flows, out);
+        long nanos = System.nanoTime() - start;
+        log.info(String.format("irrAll: %d rows in %.1f ms (%.0f solves/s)", flows.length, nanos / 1e6,
+                flows.length / (nanos / 1e9)));
+    }
+}
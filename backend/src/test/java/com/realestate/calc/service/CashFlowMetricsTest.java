@@ -0,0 +1,100 @@
+package com.realestate.calc.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CashFlowMetricsTest {
+
+    @Test
+    void irrKnownAnswers() {
+        assertThat(CashFlowMetrics.irr(new double[] { -100, 110 })).isCloseTo(0.10, within(1e-12));
+        // -100, 39, 59, 55, 20 → 28.0948...% (textbook example)
+        assertThat(CashFlowMetrics.irr(new double[] { -100, 39, 59, 55, 20 }))
+                .isCloseTo(0.2809484211599611, within(1e-10));
+        // Level annuity: 1000 at t=0 repaid by 10 × 162.745... at 10%
+        double[] annuity = new double[11];
+        annuity[0] = -1000;
+        for (int t = 1; t <= 10; t++)
+            annuity[t] = 1000 * 0.1 / (1 - Math.pow(1.1, -10));
+        assertThat(CashFlowMetrics.irr(annuity)).isCloseTo(0.10, within(1e-10));
+        // Negative IRR: 40x + 40x² = 100 with x = 1/(1+r) → x = (√11 - 1)/2
+        assertThat(CashFlowMetrics.irr(new double[] { -100, 40, 40 }))
+                .isCloseTo(2 / (Math.sqrt(11) - 1) - 1, within(1e-12));
+    }
+
+    @Test
+    void irrIsNaNWithoutSignChange() {
+        assertThat(CashFlowMetrics.irr(new double[] { 100, 50, 50 })).isNaN();
+        assertThat(CashFlowMetrics.irr(new double[] { -100, -50, -50 })).isNaN();
+        assertThat(CashFlowMetrics.irr(new double[] { 0, 0 })).isNaN();
+    }
+
+    @Test
+    void irrIsNaNWhenNoBracketExists() {
+        // Roots exist but outside (-99.99%, 10000%]: no sign change between the bracket ends
+        assertThat(CashFlowMetrics.irr(new double[] { -1, 1000 })).isNaN();
+        assertThat(CashFlowMetrics.irr(new double[] { -100, 0.001 })).isNaN();
+        // Two sign changes with both roots (10% and 20%) inside one probe interval
+        assertThat(CashFlowMetrics.irr(new double[] { -100, 230, -132 })).isNaN();
+    }
+
+    @Test
+    void guessOutsideTheBracketStillConverges() {
+        double[] flows = { -100, 39, 59, 55, 20 };
+        assertThat(CashFlowMetrics.irr(flows, 50)).isCloseTo(0.2809484211599611, within(1e-10));
+        assertThat(CashFlowMetrics.irr(flows, -5)).isCloseTo(0.2809484211599611, within(1e-10));
+    }
+
+    @Test
+    void npvKnownAnswerAndRateBound() {
+        assertThat(CashFlowMetrics.npv(new double[] { -100, 60, 60 }, 0.1)).isCloseTo(4.1322314, within(1e-6));
+        assertThat(CashFlowMetrics.npv(new double[] { -100, 60, 60 }, 0)).isEqualTo(20.0);
+        assertThatThrownBy(() -> CashFlowMetrics.npv(new double[] { -100, 60 }, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CashFlowMetrics.npv(new double[] { -100, 60 }, -1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CashFlowMetrics.npv(new double[] { -100, 60 }, Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void paybackAndEquityMultiple() {
+        assertThat(CashFlowMetrics.payback(new double[] { -100, 40, 40, 40 })).isCloseTo(2.5, within(1e-12));
+        assertThat(CashFlowMetrics.payback(new double[] { -100, 10, 10 })).isNaN();
+        assertThat(CashFlowMetrics.equityMultiple(new double[] { -100, 40, 40, 70 })).isEqualTo(1.5);
+        assertThat(CashFlowMetrics.equityMultiple(new double[] { 100, 40 })).isNaN();
+    }
+
+    /** Every row of a batch of 35-year flows solves to an NPV of ~0; timing is in CashFlowMetricsBenchmarkTest. */
+    @Test
+    void irrAllSolvesEveryRow() {
+        double[][] flows = flows(2_000, 42);
+        double[] out = new double[flows.length];
+        CashFlowMetrics.irrAll(flows, out);
+
+        for (int i = 0; i < flows.length; i++) {
+            assertThat(out[i]).as("row %d", i).isNotNaN();
+            assertThat(CashFlowMetrics.npv(flows[i], out[i]) / -flows[i][0]).as("row %d", i)
+                    .isCloseTo(0, within(1e-8));
+        }
+    }
+
+    // Equity out at t=0, level cash for 34 years, cash plus sale proceeds in the last year
+    static double[][] flows(int rows, long seed) {
+        double[][] flows = new double[rows][36];
+        Random random = new Random(seed);
+        for (double[] f : flows) {
+            f[0] = -(500 + random.nextDouble() * 500);
+            double cash = 20 + random.nextDouble() * 60;
+            for (int t = 1; t < 35; t++)
+                f[t] = cash;
+            f[35] = cash + 300 + random.nextDouble() * 700;
+        }
+        return flows;
+    }
+}
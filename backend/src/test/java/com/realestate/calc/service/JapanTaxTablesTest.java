@@ -0,0 +1,76 @@
+package com.realestate.calc.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class JapanTaxTablesTest {
+
+    // 国税庁 速算表: 課税所得の下限, 税率, 控除額
+    private static final double[][] QUICK_TABLE = {
+            { 0, 0.05, 0 }, { 1_950_000, 0.10, 97_500 }, { 3_300_000, 0.20, 427_500 },
+            { 6_950_000, 0.23, 636_000 }, { 9_000_000, 0.33, 1_536_000 }, { 18_000_000, 0.40, 2_796_000 },
+            { 40_000_000, 0.45, 4_796_000 } };
+
+    @Test
+    void individualTaxMatchesTheQuickCalculationTable() {
+        double[] incomes = { 1, 1_000_000, 1_950_000, 2_500_000, 3_300_000, 5_000_000, 6_950_000, 8_000_000,
+                9_000_000, 12_000_000, 18_000_000, 25_000_000, 40_000_000, 60_000_000 };
+        for (double income : incomes) {
+            double[] row = QUICK_TABLE[0];
+            for (double[] r : QUICK_TABLE)
+                if (income >= r[0])
+                    row = r;
+            // 所得税 × 1.021 (復興特別所得税) + 住民税 10%
+            double expected = (income * row[1] - row[2]) * 1.021 + income * 0.10;
+            assertThat(JapanTaxTables.individualTax(income)).as("income %f", income)
+                    .isCloseTo(expected, within(1e-6));
+        }
+        assertThat(JapanTaxTables.individualTax(0)).isZero();
+        assertThat(JapanTaxTables.individualTax(-1_000_000)).isZero();
+    }
+
+    @Test
+    void rentalLossOffsetsOtherIncome() {
+        // 4M and 5M are both in the 20% bracket: each yen of loss saves 20% × 1.021 + 10%
+        assertThat(JapanTaxTables.individualIncrementalTax(-1_000_000, 5_000_000))
+                .isCloseTo(-1_000_000 * (0.20 * 1.021 + 0.10), within(1e-6));
+        assertThat(JapanTaxTables.individualIncrementalTax(1_000_000, 0))
+                .isCloseTo(JapanTaxTables.individualTax(1_000_000), within(1e-9));
+    }
+
+    @Test
+    void corporateTaxBrackets() {
+        assertThat(JapanTaxTables.corporateTax(8_000_000)).isCloseTo(8_000_000 * (0.15 * 1.07 + 0.05), within(1e-6));
+        assertThat(JapanTaxTables.corporateTax(10_000_000))
+                .isCloseTo(1_684_000 + 2_000_000 * (0.232 * 1.07 + 0.05), within(1e-6));
+        assertThat(JapanTaxTables.corporateTax(-5_000_000)).isZero();
+    }
+
+    @Test
+    void usefulLifeUsesTheSimplifiedMethodForUsedBuildings() {
+        assertThat(JapanTaxTables.usefulLife("木造", 0)).isEqualTo(22);
+        assertThat(JapanTaxTables.usefulLife("목조", 10)).isEqualTo(14); // 12 + 10 × 0.2
+        assertThat(JapanTaxTables.usefulLife("木造", 30)).isEqualTo(4); // 22 × 0.2 = 4.4
+        assertThat(JapanTaxTables.usefulLife("軽量鉄骨造", 19)).isEqualTo(3); // 19 × 0.2 = 3.8
+        assertThat(JapanTaxTables.usefulLife(" RC ", 20)).isEqualTo(31); // 27 + 4
+        assertThat(JapanTaxTables.usefulLife("ＲＣ", 47)).isEqualTo(9);
+        assertThat(JapanTaxTables.usefulLife(null, 0)).isEqualTo(22);
+        assertThat(JapanTaxTables.usefulLife("unknown", 0)).isEqualTo(22);
+    }
+
+    @Test
+    void longTermNeedsMoreThanFiveYearsOnFirstJanuaryOfTheSaleYear() {
+        LocalDate jan1 = LocalDate.of(2024, 1, 1);
+        // 2029-01-01: exactly five years held → short-term for the whole of 2029
+        assertThat(JapanTaxTables.isLongTermTransfer(jan1, LocalDate.of(2029, 12, 31))).isFalse();
+        assertThat(JapanTaxTables.isLongTermTransfer(jan1, LocalDate.of(2030, 1, 1))).isTrue();
+        // Bought at the end of the year: five years and a day on 2030-01-01
+        LocalDate dec31 = LocalDate.of(2024, 12, 31);
+        assertThat(JapanTaxTables.isLongTermTransfer(dec31, LocalDate.of(2029, 12, 31))).isFalse();
+        assertThat(JapanTaxTables.isLongTermTransfer(dec31, LocalDate.of(2030, 1, 1))).isTrue();
+    }
+}
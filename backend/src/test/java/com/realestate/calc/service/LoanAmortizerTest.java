@@ -0,0 +1,119 @@
+package com.realestate.calc.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/** Known answers for LoanAmortizer, checked against closed-form annuity math. */
+class LoanAmortizerTest {
+
+    private static final double LOAN = 10_000_000;
+
+    @Test
+    void levelPaymentAndFinalMonthResidual() {
+        LoanAmortizer.Schedule s = LoanAmortizer.amortize(new LoanAmortizer.Plan(LOAN, 0.02, 120, false));
+        // 1,000万円・年2%・10年: 月々 92,013円
+        assertThat(Math.round(s.firstPayment)).isEqualTo(92_013);
+        assertThat(s.months).isEqualTo(120);
+        for (int row = 0; row < 119; row++)
+            assertThat(s.payment[row]).as("row %d", row).isEqualTo(s.firstPayment);
+        // The last month clears whatever is left: a sub-yen residual against the level payment
+        assertThat(s.payment[119]).isCloseTo(s.firstPayment, within(1.0));
+        assertThat(s.principal[119]).isEqualTo(s.balance[118]);
+        assertThat(s.balance[119]).isZero();
+        assertThat(sum(s.principal, 120)).isCloseTo(LOAN, within(1e-6));
+    }
+
+    @Test
+    void rateChangeMidTermResetsThePayment() {
+        LoanAmortizer.Schedule s = LoanAmortizer
+                .amortize(new LoanAmortizer.Plan(LOAN, 0.02, 120, false).rate(61, 0.03));
+        double i1 = 0.02 / 12, i2 = 0.03 / 12;
+        double pay1 = LOAN * i1 / (1 - Math.pow(1 + i1, -120));
+        double b60 = balanceAfter(LOAN, i1, pay1, 60);
+        double pay2 = b60 * i2 / (1 - Math.pow(1 + i2, -60));
+
+        assertThat(s.balance[59]).isCloseTo(b60, within(1e-6));
+        assertThat(s.payment[59]).isEqualTo(s.firstPayment);
+        assertThat(s.interest[60]).isCloseTo(b60 * i2, within(1e-6));
+        assertThat(s.payment[60]).isCloseTo(pay2, within(1e-6));
+        assertThat(s.payment[118]).isCloseTo(pay2, within(1e-6));
+        assertThat(s.balance[119]).isZero();
+    }
+
+    @Test
+    void protectedRateRiseKeepsPaymentThenCapsItAt125Percent() {
+        double loan = 30_000_000;
+        LoanAmortizer.Schedule s = LoanAmortizer
+                .amortize(new LoanAmortizer.Plan(loan, 0.01, 420, true).rate(13, 0.08));
+        double pay = s.firstPayment;
+        for (int row = 12; row < 60; row++)
+            assertThat(s.payment[row]).as("row %d", row).isEqualTo(pay);
+        // 8% interest exceeds the payment: the shortfall accrues and the balance grows
+        assertThat(s.interest[12]).isGreaterThan(pay);
+        assertThat(s.balance[59]).isGreaterThan(s.balance[11]);
+        // First 5-year review (month 61): at most +25%
+        assertThat(s.payment[60]).isCloseTo(pay * 1.25, within(1e-6));
+        assertThat(s.payment[120]).isCloseTo(pay * 1.25 * 1.25, within(1e-6));
+        // Maturity settles the balance and all unpaid interest
+        assertThat(s.payment[419]).isGreaterThan(s.payment[418]);
+        assertThat(s.balance[419]).isZero();
+    }
+
+    @Test
+    void prepaymentShorteningTheTermKeepsThePayment() {
+        LoanAmortizer.Schedule s = LoanAmortizer
+                .amortize(new LoanAmortizer.Plan(LOAN, 0.02, 120, false).prepay(25, 2_000_000, true));
+        double i = 0.02 / 12;
+        double pay = s.firstPayment;
+        double afterPrepay = balanceAfter(LOAN, i, pay, 24) - 2_000_000;
+        int monthsLeft = (int) Math.ceil(-Math.log(1 - afterPrepay * i / pay) / Math.log(1 + i));
+        int lastRow = 24 + monthsLeft - 1;
+
+        assertThat(s.payment[24]).isCloseTo(pay + 2_000_000, within(1e-6));
+        assertThat(s.principal[24]).isCloseTo(pay - afterPrepay * i + 2_000_000, within(1e-6));
+        assertThat(s.payment[25]).isEqualTo(pay);
+        assertThat(s.balance[lastRow]).isZero();
+        assertThat(s.payment[lastRow]).isPositive().isLessThanOrEqualTo(pay + 1);
+        assertThat(s.payment[lastRow + 1]).isZero();
+        assertThat(sum(s.principal, 120)).isCloseTo(LOAN, within(1e-6));
+    }
+
+    @Test
+    void prepaymentKeepingTheTermLowersThePayment() {
+        LoanAmortizer.Schedule s = LoanAmortizer
+                .amortize(new LoanAmortizer.Plan(LOAN, 0.02, 120, false).prepay(25, 2_000_000, false));
+        double i = 0.02 / 12;
+        double afterPrepay = balanceAfter(LOAN, i, s.firstPayment, 24) - 2_000_000;
+        double lowered = afterPrepay * i / (1 - Math.pow(1 + i, -96));
+
+        assertThat(s.payment[24]).isCloseTo(lowered + 2_000_000, within(1e-6));
+        assertThat(s.payment[25]).isCloseTo(lowered, within(1e-6));
+        assertThat(s.payment[119]).isCloseTo(lowered, within(1.0));
+        assertThat(s.balance[118]).isPositive();
+        assertThat(s.balance[119]).isZero();
+    }
+
+    @Test
+    void prepaymentLargerThanTheBalancePaysOff() {
+        LoanAmortizer.Schedule s = LoanAmortizer
+                .amortize(new LoanAmortizer.Plan(LOAN, 0.02, 120, false).prepay(13, 50_000_000, true));
+        assertThat(s.balance[12]).isZero();
+        assertThat(s.principal[12]).isCloseTo(s.balance[11], within(1e-6));
+        assertThat(s.payment[13]).isZero();
+    }
+
+    // Balance after n level payments: B(1+i)^n − pay((1+i)^n − 1)/i
+    private static double balanceAfter(double b, double i, double pay, int n) {
+        double g = Math.pow(1 + i, n);
+        return b * g - pay * (g - 1) / i;
+    }
+
+    private static double sum(double[] a, int n) {
+        double total = 0;
+        for (int k = 0; k < n; k++)
+            total += a[k];
+        return total;
+    }
+}
@@ -0,0 +1,122 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.CalculationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/** Saved forms map to the request convertFormToRequest (shared/utils/formUtils.ts) would send. */
+class PropertyFormMapperTest {
+
+    @Test
+    void mapsAFormLikeTheFrontend() {
+        Map<String, Object> form = form();
+        form.put("brokerageFee", "200");
+        form.put("registrationFee", "30");
+        form.put("managementFeeRate", "5");
+        form.put("managementFee", "0.5");
+        form.put("maintenanceFeeRate", "3");
+        form.put("propertyTax", "10");
+        form.put("insurance", "2");
+
+        CalculationRequest r = PropertyFormMapper.toRequest("A", form);
+
+        assertThat(r.getTotalPurchaseCost()).isEqualTo(3230.0);
+        // ownCapital 미입력 → 총 매입비용의 10%
+        assertThat(r.getOwnCapital()).isCloseTo(323.0, within(1e-9));
+        assertThat(r.getLoan()).isCloseTo(2907.0, within(1e-9));
+        assertThat(r.getRent()).isEqualTo(120_000.0);
+        // 관리비: max(1,440,000 × 5%, 0.5万円 × 12) = 72,000; 수선비: 1,440,000 × 3% = 43,200
+        assertThat(r.getReserveExpense()).isCloseTo(43_200.0, within(1e-6));
+        assertThat(r.getExpense()).isCloseTo(100_000 + 72_000 + 43_200 + 20_000, within(1e-6));
+        assertThat(r.getNonReserveExpense()).isCloseTo(r.getExpense() - 43_200, within(1e-6));
+        assertThat(r.getTerm()).isEqualTo(35);
+        assertThat(r.getStartDate()).isEqualTo("2024-01-01");
+    }
+
+    @Test
+    void zeroRateIsCalculable() {
+        Map<String, Object> form = form();
+        form.put("rate", "0");
+        CalculationRequest r = PropertyFormMapper.toRequest("A", form);
+        assertThat(r).isNotNull();
+        assertThat(r.getRate()).isZero();
+    }
+
+    @Test
+    void negativeRateOrMissingInputsAreSkipped() {
+        Map<String, Object> negative = form();
+        negative.put("rate", "-0.5");
+        assertThat(PropertyFormMapper.toRequest("A", negative)).isNull();
+        for (String key : new String[] { "price", "term", "rent" }) {
+            Map<String, Object> f = form();
+            f.put(key, "");
+            assertThat(PropertyFormMapper.toRequest("A", f)).as(key).isNull();
+        }
+        assertThat(PropertyFormMapper.toRequest("A", null)).isNull();
+    }
+
+    @Test
+    void explicitZeroOwnCapitalIsKept() {
+        Map<String, Object> form = form();
+        form.put("ownCapital", "0");
+        CalculationRequest r = PropertyFormMapper.toRequest("A", form);
+        assertThat(r.getOwnCapital()).isZero();
+        assertThat(r.getLoan()).isEqualTo(3000.0);
+    }
+
+    @Test
+    void stringsParseLikeJsParseFloat() {
+        assertThat(num("1,234")).isEqualTo(1.0);
+        assertThat(num(" 12.5万")).isEqualTo(12.5);
+        assertThat(num("1e3")).isEqualTo(1000.0);
+        assertThat(num("1e")).isEqualTo(1.0);
+        assertThat(num(".5")).isEqualTo(0.5);
+        assertThat(num("-.5")).isEqualTo(-0.5);
+        assertThat(num("3.")).isEqualTo(3.0);
+        assertThat(num("0x10")).isZero();
+        assertThat(num("abc")).isZero();
+        assertThat(num("Infinity")).isZero();
+        assertThat(num("")).isZero();
+        assertThat(num(null)).isZero();
+        assertThat(num(42)).isEqualTo(42.0);
+    }
+
+    @Test
+    void integersParseLikeJsParseInt() {
+        assertThat(integer("35.9")).isEqualTo(35);
+        assertThat(integer("1e3")).isEqualTo(1);
+        assertThat(integer(" -7년")).isEqualTo(-7);
+        assertThat(integer("1,000")).isEqualTo(1);
+        assertThat(integer("x1")).isZero();
+        assertThat(integer(35.9)).isEqualTo(35);
+    }
+
+    private static double num(Object v) {
+        Map<String, Object> form = new HashMap<>();
+        form.put("v", v);
+        return PropertyFormMapper.num(form, "v");
+    }
+
+    private static int integer(Object v) {
+        Map<String, Object> form = new HashMap<>();
+        form.put("v", v);
+        return PropertyFormMapper.integer(form, "v");
+    }
+
+    private static Map<String, Object> form() {
+        Map<String, Object> form = new HashMap<>();
+        form.put("price", "3000");
+        form.put("rate", "1.5");
+        form.put("term", "35");
+        form.put("rent", "12");
+        form.put("ownCapital", "");
+        form.put("occupancyRate", "95");
+        form.put("startDate", "2024-01-01");
+        return form;
+    }
+}
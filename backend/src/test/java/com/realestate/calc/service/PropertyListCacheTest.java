@@ -0,0 +1,79 @@
+package com.realestate.calc.service;
+
+import com.realestate.calc.dto.PropertyData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Readers of a cached property list cannot change what the next reader gets. */
+class PropertyListCacheTest {
+
+    private final PropertyListCache cache = new PropertyListCache(null, null, new SimpleMeterRegistry(), 10, 300,
+            false);
+
+    @Test
+    void itemsAreCopiesOnEveryRead() {
+        cache.put("u1", new PropertyListCache.Snapshot(List.of(item("A", "price", 3000)), 7), cache.generation());
+
+        PropertyData first = cache.get("u1").items().get(0);
+        first.setName("changed");
+        first.setVersion(99L);
+        first.setForm(Map.of());
+        cache.get("u1").items().clear();
+
+        PropertyData again = cache.get("u1").items().get(0);
+        assertThat(again.getName()).isEqualTo("A");
+        assertThat(again.getVersion()).isEqualTo(1L);
+        assertThat(again.getForm()).containsEntry("price", 3000);
+        assertThat(cache.get("u1").watermark()).isEqualTo(7);
+    }
+
+    @Test
+    void formsAreDeeplyUnmodifiable() {
+        PropertyData pd = item("A", "price", 3000);
+        List<Object> rows = new ArrayList<>();
+        rows.add(new LinkedHashMap<>(Map.of("amount", 1)));
+        pd.getForm().put("loans", rows);
+        pd.getForm().put("memo", null);
+        cache.put("u1", new PropertyListCache.Snapshot(List.of(pd), 1), cache.generation());
+
+        Map<String, Object> form = cache.get("u1").items().get(0).getForm();
+        assertThatThrownBy(() -> form.put("price", 1)).isInstanceOf(UnsupportedOperationException.class);
+        List<?> loans = (List<?>) form.get("loans");
+        assertThatThrownBy(loans::clear).isInstanceOf(UnsupportedOperationException.class);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> loan = (Map<String, Object>) loans.get(0);
+        assertThatThrownBy(() -> loan.put("amount", 2)).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(form).containsKey("memo");
+    }
+
+    @Test
+    void laterChangesToTheLoadedObjectsDoNotLeakIn() {
+        PropertyData pd = item("A", "price", 3000);
+        cache.put("u1", new PropertyListCache.Snapshot(List.of(pd), 1), cache.generation());
+
+        pd.getForm().put("price", 1);
+        pd.setName("changed");
+
+        PropertyData cached = cache.get("u1").items().get(0);
+        assertThat(cached.getName()).isEqualTo("A");
+        assertThat(cached.getForm()).containsEntry("price", 3000);
+    }
+
+    private static PropertyData item(String name, String key, Object value) {
+        PropertyData pd = new PropertyData();
+        pd.setName(name);
+        pd.setVersion(1L);
+        Map<String, Object> form = new LinkedHashMap<>();
+        form.put(key, value);
+        pd.setForm(form);
+        return pd;
+    }
+}